@@ -0,0 +1,23 @@
+package io.electrica.sdk.java8.api;
+
+import io.electrica.sdk.java8.api.http.Message;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+@FunctionalInterface
+public interface BatchMessageListener {
+
+    /**
+     * Invoked with batch of received messages.
+     * <p>
+     * Results of messages are sent as a unit. Result ignored when message received by webhook endpoint, that not
+     * expect any result.
+     *
+     * @param messages webhook messages in order of receiving
+     * @return message handling results in order of messages or null if results not expected.
+     */
+    @Nullable
+    List<String> onMessages(List<Message> messages);
+
+}
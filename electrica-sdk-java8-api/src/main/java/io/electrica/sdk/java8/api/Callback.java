@@ -1,7 +1,9 @@
 package io.electrica.sdk.java8.api;
 
 import io.electrica.sdk.java8.api.exception.IntegrationException;
+import io.electrica.sdk.java8.api.exception.TransportException;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 /**
@@ -20,6 +22,8 @@ public interface Callback<E> {
 
     /**
      * Invoked if any errors occur during integration job execution.
+     * <p>
+     * Network errors are reported as {@link TransportException}.
      *
      * @param exception exception object
      */
@@ -68,4 +72,32 @@ public interface Callback<E> {
         };
     }
 
+    /**
+     * Create callback that completes specified future.
+     * <p>
+     * Network errors completes future exceptionally with original {@link java.io.IOException}, any other errors
+     * with {@link IntegrationException}.
+     *
+     * @param future future to complete
+     * @param <E>    type of integration job result
+     * @return callback completing future
+     */
+    static <E> Callback<E> completing(CompletableFuture<E> future) {
+        return new Callback<E>() {
+            @Override
+            public void onResponse(E result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void onFailure(IntegrationException exception) {
+                if (exception instanceof TransportException) {
+                    future.completeExceptionally(((TransportException) exception).getCause());
+                } else {
+                    future.completeExceptionally(exception);
+                }
+            }
+        };
+    }
+
 }
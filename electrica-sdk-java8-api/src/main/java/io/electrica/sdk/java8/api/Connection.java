@@ -3,6 +3,7 @@ package io.electrica.sdk.java8.api;
 import io.electrica.sdk.java8.api.http.Message;
 
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 
 /**
@@ -23,6 +24,18 @@ public interface Connection extends Invocable, ConnectionProperties, AutoCloseab
      */
     UUID addMessageListener(Predicate<Message> filter, MessageListener listener);
 
+    /**
+     * Add listener for this particular connection, that receives messages in batches of up to {@code maxBatchSize}
+     * messages or gathered during {@code linger} time.
+     */
+    UUID addBatchMessageListener(
+            Predicate<Message> filter,
+            BatchMessageListener listener,
+            int maxBatchSize,
+            long linger,
+            TimeUnit unit
+    );
+
     void removeMessageListener(UUID listenerId);
 
     boolean isClosed();
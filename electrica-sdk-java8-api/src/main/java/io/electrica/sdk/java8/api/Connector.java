@@ -6,6 +6,7 @@ import io.electrica.sdk.java8.api.http.Message;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 
 /**
@@ -36,6 +37,18 @@ public interface Connector extends AutoCloseable {
      */
     UUID addMessageListener(Predicate<Message> filter, MessageListener listener);
 
+    /**
+     * Add listener for this particular connector, that receives messages in batches of up to {@code maxBatchSize}
+     * messages or gathered during {@code linger} time.
+     */
+    UUID addBatchMessageListener(
+            Predicate<Message> filter,
+            BatchMessageListener listener,
+            int maxBatchSize,
+            long linger,
+            TimeUnit unit
+    );
+
     void removeMessageListener(UUID listenerId);
 
     boolean isClosed();
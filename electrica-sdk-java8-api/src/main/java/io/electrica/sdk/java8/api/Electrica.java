@@ -6,6 +6,7 @@ import io.electrica.sdk.java8.api.impl.ElectricaImpl;
 
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 
 /**
@@ -65,6 +66,18 @@ public interface Electrica extends AutoCloseable {
 
     UUID addMessageListener(Predicate<Message> filter, MessageListener listener);
 
+    /**
+     * Add listener, that receives messages in batches of up to {@code maxBatchSize} messages or gathered during
+     * {@code linger} time.
+     */
+    UUID addBatchMessageListener(
+            Predicate<Message> filter,
+            BatchMessageListener listener,
+            int maxBatchSize,
+            long linger,
+            TimeUnit unit
+    );
+
     void removeMessageListener(UUID listenerId);
 
     boolean isClosed();
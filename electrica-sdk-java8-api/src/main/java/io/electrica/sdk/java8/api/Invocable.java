@@ -1,9 +1,12 @@
 package io.electrica.sdk.java8.api;
 
 import io.electrica.sdk.java8.api.exception.IntegrationException;
+import io.electrica.sdk.java8.api.exception.TransportException;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -36,6 +39,31 @@ public interface Invocable {
             TimeUnit unit
     ) throws IntegrationException, IOException, TimeoutException;
 
+    /**
+     * Invoke Electrica.io API to start specified action and return result of expected generic type synchronously.
+     *
+     * @param <R>        result type
+     * @param resultType expected type of result, e.g. obtained from Gson {@code TypeToken}
+     * @param action     action identifier
+     * @param parameters action parameters
+     * @param payload    action payload
+     * @param timeout    how long to wait before giving up, in units of {@code unit}
+     * @param unit       a {@link TimeUnit} determining how to interpret the {@code timeout} parameter
+     * @return result of action execution
+     * @throws IntegrationException if any errors occur during integration job execution
+     * @throws IOException          if any network errors occur
+     * @throws TimeoutException     if no result provided after specified {@code timeout}
+     * @see #invoke(Class, Object, Object, Object, Long, TimeUnit)
+     */
+    <R> R invoke(
+            Type resultType,
+            Object action,
+            @Nullable Object parameters,
+            @Nullable Object payload,
+            Long timeout,
+            TimeUnit unit
+    ) throws IntegrationException, IOException, TimeoutException;
+
     /**
      * Invoke Electrica.io API to start specified action without result synchronously.
      *
@@ -67,7 +95,8 @@ public interface Invocable {
      * @param parameters action parameters
      * @param payload    action payload
      * @param callback   callback that responsible for response handling
-     * @throws IOException if any network errors occur
+     * @throws IOException if any network errors occur before job has been submitted, errors occurred after
+     *                     submission reported to callback as {@link TransportException}
      */
     <R> void submit(
             Class<R> resultType,
@@ -77,6 +106,26 @@ public interface Invocable {
             Callback<R> callback
     ) throws IOException;
 
+    /**
+     * Invoke Electrica.io API to start specified action and return result of expected generic type asynchronously.
+     *
+     * @param <R>        result type
+     * @param resultType expected type of result, e.g. obtained from Gson {@code TypeToken}
+     * @param action     action identifier
+     * @param parameters action parameters
+     * @param payload    action payload
+     * @param callback   callback that responsible for response handling
+     * @throws IOException if any network errors occur before job has been submitted
+     * @see #submit(Class, Object, Object, Object, Callback)
+     */
+    <R> void submit(
+            Type resultType,
+            Object action,
+            @Nullable Object parameters,
+            @Nullable Object payload,
+            Callback<R> callback
+    ) throws IOException;
+
     /**
      * Invoke Electrica.io API to start action without result asynchronously.
      *
@@ -95,4 +144,128 @@ public interface Invocable {
         submit(Void.class, action, parameters, payload, callback);
     }
 
+    /**
+     * Invoke Electrica.io API to start specified action and return future of expected type result.
+     * <p>
+     * Future completed exceptionally with {@link IntegrationException} if any errors occur during integration job
+     * execution or with {@link IOException} if any network errors occur.
+     *
+     * @param <R>        result type or {@link Void} if no result expected
+     * @param resultType expected type of result, specify {@link Void} if nothing expected
+     * @param action     action identifier
+     * @param parameters action parameters
+     * @param payload    action payload
+     * @return future of action execution result
+     */
+    default <R> CompletableFuture<R> invokeAsync(
+            Class<R> resultType,
+            Object action,
+            @Nullable Object parameters,
+            @Nullable Object payload
+    ) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        try {
+            submit(resultType, action, parameters, payload, Callback.completing(future));
+        } catch (IOException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Invoke Electrica.io API to start specified action and return future of expected generic type result.
+     *
+     * @param <R>        result type
+     * @param resultType expected type of result, e.g. obtained from Gson {@code TypeToken}
+     * @param action     action identifier
+     * @param parameters action parameters
+     * @param payload    action payload
+     * @return future of action execution result
+     * @see #invokeAsync(Class, Object, Object, Object)
+     */
+    default <R> CompletableFuture<R> invokeAsync(
+            Type resultType,
+            Object action,
+            @Nullable Object parameters,
+            @Nullable Object payload
+    ) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        try {
+            submit(resultType, action, parameters, payload, Callback.completing(future));
+        } catch (IOException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Invoke Electrica.io API to start specified action and return future of expected type result, that completed
+     * exceptionally with {@link TimeoutException} if no result provided after specified {@code timeout}.
+     * <p>
+     * Timeouts of all invocations are served by one shared timer thread, so dependent stages of timed out future,
+     * that are not async, are executed on that thread and must not block.
+     *
+     * @param <R>        result type or {@link Void} if no result expected
+     * @param resultType expected type of result, specify {@link Void} if nothing expected
+     * @param action     action identifier
+     * @param parameters action parameters
+     * @param payload    action payload
+     * @param timeout    how long to wait before giving up, in units of {@code unit}
+     * @param unit       a {@link TimeUnit} determining how to interpret the {@code timeout} parameter
+     * @return future of action execution result
+     * @see #invokeAsync(Class, Object, Object, Object)
+     */
+    <R> CompletableFuture<R> invokeAsync(
+            Class<R> resultType,
+            Object action,
+            @Nullable Object parameters,
+            @Nullable Object payload,
+            Long timeout,
+            TimeUnit unit
+    );
+
+    /**
+     * Invoke Electrica.io API to start specified action and return future of expected generic type result, that
+     * completed exceptionally with {@link TimeoutException} if no result provided after specified {@code timeout}.
+     *
+     * @param <R>        result type
+     * @param resultType expected type of result, e.g. obtained from Gson {@code TypeToken}
+     * @param action     action identifier
+     * @param parameters action parameters
+     * @param payload    action payload
+     * @param timeout    how long to wait before giving up, in units of {@code unit}
+     * @param unit       a {@link TimeUnit} determining how to interpret the {@code timeout} parameter
+     * @return future of action execution result
+     * @see #invokeAsync(Class, Object, Object, Object, Long, TimeUnit)
+     */
+    <R> CompletableFuture<R> invokeAsync(
+            Type resultType,
+            Object action,
+            @Nullable Object parameters,
+            @Nullable Object payload,
+            Long timeout,
+            TimeUnit unit
+    );
+
+    /**
+     * Invoke Electrica.io API to start action without result and return future of its completion.
+     *
+     * @param action     action identifier
+     * @param parameters action parameters
+     * @param payload    action payload
+     * @param timeout    how long to wait before giving up, in units of {@code unit}
+     * @param unit       a {@link TimeUnit} determining how to interpret the {@code timeout} parameter
+     * @return future of action execution
+     * @see #invokeAsync(Class, Object, Object, Object, Long, TimeUnit)
+     */
+    default CompletableFuture<Void> invokeAsync(
+            Object action,
+            @Nullable Object parameters,
+            @Nullable Object payload,
+            Long timeout,
+            TimeUnit unit
+    ) {
+        return invokeAsync(Void.class, action, parameters, payload, timeout, unit);
+    }
+
 }
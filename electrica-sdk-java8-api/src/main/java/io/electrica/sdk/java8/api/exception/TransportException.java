@@ -0,0 +1,24 @@
+package io.electrica.sdk.java8.api.exception;
+
+import java.io.IOException;
+
+/**
+ * Represents a network error that occurred after integration job has been submitted asynchronously.
+ * <p>
+ * Delivered to {@link io.electrica.sdk.java8.api.Callback#onFailure(IntegrationException)}, original
+ * {@link IOException} available as a cause.
+ */
+public class TransportException extends IntegrationException {
+
+    public static final String CODE = "transport";
+
+    public TransportException(IOException cause) {
+        super(CODE, cause.getMessage(), null, null);
+        initCause(cause);
+    }
+
+    @Override
+    public synchronized IOException getCause() {
+        return (IOException) super.getCause();
+    }
+}
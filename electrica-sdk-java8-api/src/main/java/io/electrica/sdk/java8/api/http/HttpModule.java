@@ -4,6 +4,7 @@ import io.electrica.sdk.java8.api.Callback;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
+import java.lang.reflect.Type;
 import java.util.List;
 import java.util.UUID;
 import java.util.function.Consumer;
@@ -13,19 +14,62 @@ public interface HttpModule extends AutoCloseable {
 
     void initialize(UUID instanceId, String instanceName, String accessKey);
 
-    <R> void submitJob(
+    default <R> void submitJob(
             UUID instanceId,
             Request request,
             Class<R> resultType,
             Callback<R> callback
+    ) throws IOException {
+        submitJob(instanceId, request, (Type) resultType, callback);
+    }
+
+    /**
+     * Submit invocation job, which result is bound to specified type, that can be generic, e.g. obtained from Gson
+     * {@code TypeToken}. {@link Void} result type means that result should be ignored.
+     */
+    <R> void submitJob(
+            UUID instanceId,
+            Request request,
+            Type resultType,
+            Callback<R> callback
     ) throws IOException;
 
     List<ConnectionInfo> getConnections(UUID instanceId, @Nullable String name, String ern) throws IOException;
 
+    /**
+     * Send result of webhook message. Implementation may only queue result and send it in background, so calling
+     * listener thread isn't blocked by network.
+     *
+     * @throws IOException if result can't be sent or accepted to be sent
+     */
     void sendMessageResult(UUID instanceId, Message message, @Nullable String result) throws IOException;
 
+    /**
+     * Send results of webhook messages, e.g. handled as one batch.
+     *
+     * @param results results in order of messages
+     * @throws IOException if results can't be sent or accepted to be sent
+     */
+    default void sendMessageResults(UUID instanceId, List<Message> messages, List<String> results) throws IOException {
+        for (int i = 0; i < messages.size(); i++) {
+            sendMessageResult(instanceId, messages.get(i), results.get(i));
+        }
+    }
+
     UUID addMessageListener(UUID instanceId, Predicate<Message> filter, Consumer<Message> listener);
 
+    /**
+     * Add listener, that consumes messages in batches. Batch is consumed once it reaches maximum size or linger time
+     * elapsed since first message added to it.
+     */
+    UUID addBatchMessageListener(
+            UUID instanceId,
+            Predicate<Message> filter,
+            Consumer<List<Message>> listener,
+            int maxBatchSize,
+            long lingerMillis
+    );
+
     void removeMessageListener(UUID instanceId, UUID listenerId);
 
     void close(UUID instanceId) throws Exception;
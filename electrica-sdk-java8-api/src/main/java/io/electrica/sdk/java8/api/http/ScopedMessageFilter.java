@@ -0,0 +1,75 @@
+package io.electrica.sdk.java8.api.http;
+
+import lombok.Getter;
+
+import javax.annotation.Nullable;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Filter of listener, that accepts messages of single connector or connection only.
+ * <p>
+ * Structured scope lets {@link HttpModule} index listeners by connector ERN or connection id and evaluate
+ * arbitrary {@link #getFilter()} only for messages of matching scope, instead of testing every listener.
+ */
+@Getter
+public final class ScopedMessageFilter implements Predicate<Message> {
+
+    private final Message.Scope scope;
+    @Nullable
+    private final String connectorErn;
+    @Nullable
+    private final Long connectionId;
+    private final Predicate<Message> filter;
+
+    private ScopedMessageFilter(
+            Message.Scope scope,
+            @Nullable String connectorErn,
+            @Nullable Long connectionId,
+            Predicate<Message> filter
+    ) {
+        this.scope = scope;
+        this.connectorErn = connectorErn;
+        this.connectionId = connectionId;
+        this.filter = requireNonNull(filter, "filter");
+    }
+
+    /**
+     * Accept {@link Message.Scope#Connector} messages of connector with specified ERN, compared ignoring case.
+     */
+    public static ScopedMessageFilter connector(String connectorErn, Predicate<Message> filter) {
+        return new ScopedMessageFilter(
+                Message.Scope.Connector,
+                requireNonNull(connectorErn, "connectorErn"),
+                null,
+                filter
+        );
+    }
+
+    /**
+     * Accept {@link Message.Scope#Connection} messages of connection with specified id.
+     */
+    public static ScopedMessageFilter connection(@Nullable Long connectionId, Predicate<Message> filter) {
+        return new ScopedMessageFilter(Message.Scope.Connection, null, connectionId, filter);
+    }
+
+    /**
+     * @return {@code true} if message belongs to scope of this filter, {@link #getFilter()} isn't evaluated
+     */
+    public boolean matchesScope(Message message) {
+        if (message.getScope() != scope) {
+            return false;
+        }
+        if (scope == Message.Scope.Connector) {
+            return connectorErn.equalsIgnoreCase(message.getConnectorErn());
+        }
+        return Objects.equals(connectionId, message.getConnectionId());
+    }
+
+    @Override
+    public boolean test(Message message) {
+        return matchesScope(message) && filter.test(message);
+    }
+}
@@ -6,13 +6,15 @@ import io.electrica.sdk.java8.api.http.ConnectionInfo;
 import io.electrica.sdk.java8.api.http.HttpModule;
 import io.electrica.sdk.java8.api.http.Message;
 import io.electrica.sdk.java8.api.http.Request;
+import io.electrica.sdk.java8.api.http.ScopedMessageFilter;
 import lombok.SneakyThrows;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
+import java.lang.reflect.Type;
 import java.util.*;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Predicate;
@@ -65,10 +67,23 @@ public class ConnectionImpl implements Connection {
     public synchronized UUID addMessageListener(Predicate<Message> filter, MessageListener listener) {
         checkClosed();
 
-        Predicate<Message> connectionFilter = m ->
-                m.getScope() == Message.Scope.Connection && Objects.equals(getId(), m.getConnectionId());
+        UUID id = electrica.addMessageListener(ScopedMessageFilter.connection(getId(), filter), listener);
+        listeners.add(id);
+        return id;
+    }
 
-        UUID id = electrica.addMessageListener(connectionFilter.and(filter), listener);
+    @Override
+    public synchronized UUID addBatchMessageListener(
+            Predicate<Message> filter,
+            BatchMessageListener listener,
+            int maxBatchSize,
+            long linger,
+            TimeUnit unit
+    ) {
+        checkClosed();
+
+        UUID id = electrica.addBatchMessageListener(ScopedMessageFilter.connection(getId(), filter), listener,
+                maxBatchSize, linger, unit);
         listeners.add(id);
         return id;
     }
@@ -108,15 +123,78 @@ public class ConnectionImpl implements Connection {
     ) throws IntegrationException, IOException, TimeoutException {
         checkClosed();
 
-        SyncCallback<R> callback = new SyncCallback<>();
-        submit(resultType, action, parameters, payload, callback);
+        return await(invokeAsync(resultType, action, parameters, payload), timeout, unit);
+    }
+
+    @Override
+    public <R> R invoke(
+            Type resultType,
+            Object action,
+            @Nullable Object parameters,
+            @Nullable Object payload,
+            Long timeout,
+            TimeUnit unit
+    ) throws IntegrationException, IOException, TimeoutException {
+        checkClosed();
+
+        return await(invokeAsync(resultType, action, parameters, payload), timeout, unit);
+    }
+
+    @SneakyThrows(InterruptedException.class)
+    private static <R> R await(CompletableFuture<R> future, Long timeout, TimeUnit unit)
+            throws IntegrationException, IOException, TimeoutException {
+        try {
+            return future.get(timeout, unit);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IntegrationException) {
+                throw (IntegrationException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IllegalStateException("Unexpected invocation error", cause);
+        }
+    }
+
+    @Override
+    public <R> CompletableFuture<R> invokeAsync(
+            Class<R> resultType,
+            Object action,
+            @Nullable Object parameters,
+            @Nullable Object payload,
+            Long timeout,
+            TimeUnit unit
+    ) {
+        checkClosed();
+
+        return withTimeout(invokeAsync(resultType, action, parameters, payload), timeout, unit);
+    }
+
+    @Override
+    public <R> CompletableFuture<R> invokeAsync(
+            Type resultType,
+            Object action,
+            @Nullable Object parameters,
+            @Nullable Object payload,
+            Long timeout,
+            TimeUnit unit
+    ) {
+        checkClosed();
 
-        Object response = callback.awaitResponse(timeout, unit);
-        if (response instanceof IntegrationException) {
-            throw ((IntegrationException) response);
+        return withTimeout(this.<R>invokeAsync(resultType, action, parameters, payload), timeout, unit);
+    }
+
+    private static <R> CompletableFuture<R> withTimeout(CompletableFuture<R> future, Long timeout, TimeUnit unit) {
+        if (!future.isDone()) {
+            HashedWheelTimer.Timeout timeoutHandle = HashedWheelTimer.shared().newTimeout(
+                    () -> future.completeExceptionally(new TimeoutException()),
+                    timeout,
+                    unit
+            );
+            future.whenComplete((r, e) -> timeoutHandle.cancel());
         }
-        //noinspection unchecked
-        return (R) response;
+        return future;
     }
 
     @Override
@@ -129,10 +207,28 @@ public class ConnectionImpl implements Connection {
     ) throws IOException {
         checkClosed();
 
-        Request request = new Request(electrica.getInstanceId(), getId(), action.toString(), parameters, payload);
+        Request request = createRequest(action, parameters, payload);
         electrica.getHttpModule().submitJob(electrica.getInstanceId(), request, resultType, callback);
     }
 
+    @Override
+    public <R> void submit(
+            Type resultType,
+            Object action,
+            @Nullable Object parameters,
+            @Nullable Object payload,
+            Callback<R> callback
+    ) throws IOException {
+        checkClosed();
+
+        Request request = createRequest(action, parameters, payload);
+        electrica.getHttpModule().submitJob(electrica.getInstanceId(), request, resultType, callback);
+    }
+
+    private Request createRequest(Object action, @Nullable Object parameters, @Nullable Object payload) {
+        return new Request(electrica.getInstanceId(), getId(), action.toString(), parameters, payload);
+    }
+
     @Override
     public synchronized boolean isClosed() {
         return closed;
@@ -172,28 +268,4 @@ public class ConnectionImpl implements Connection {
     public int hashCode() {
         return getId().hashCode();
     }
-
-    private static class SyncCallback<T> implements Callback<T> {
-
-        private final BlockingQueue<Object[]> responseQueue = new ArrayBlockingQueue<>(1);
-
-        @Override
-        public void onResponse(T result) {
-            responseQueue.add(new Object[]{result});
-        }
-
-        @Override
-        public void onFailure(IntegrationException exception) {
-            responseQueue.add(new Object[]{exception});
-        }
-
-        @SneakyThrows
-        private Object awaitResponse(Long timeout, TimeUnit unit) throws TimeoutException {
-            Object[] responseContainer = responseQueue.poll(timeout, unit);
-            if (responseContainer == null) {
-                throw new TimeoutException();
-            }
-            return responseContainer[0];
-        }
-    }
 }
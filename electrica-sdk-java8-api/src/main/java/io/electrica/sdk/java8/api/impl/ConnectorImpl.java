@@ -1,5 +1,6 @@
 package io.electrica.sdk.java8.api.impl;
 
+import io.electrica.sdk.java8.api.BatchMessageListener;
 import io.electrica.sdk.java8.api.Connection;
 import io.electrica.sdk.java8.api.Connector;
 import io.electrica.sdk.java8.api.Electrica;
@@ -7,10 +8,12 @@ import io.electrica.sdk.java8.api.MessageListener;
 import io.electrica.sdk.java8.api.exception.ConnectionNotFoundException;
 import io.electrica.sdk.java8.api.http.ConnectionInfo;
 import io.electrica.sdk.java8.api.http.Message;
+import io.electrica.sdk.java8.api.http.ScopedMessageFilter;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -90,9 +93,23 @@ public final class ConnectorImpl implements Connector {
     public synchronized UUID addMessageListener(Predicate<Message> filter, MessageListener listener) {
         checkClosed();
 
-        Predicate<Message> connectorFilter = m ->
-                m.getScope() == Message.Scope.Connector && ern.equalsIgnoreCase(m.getConnectorErn());
-        UUID id = electrica.addMessageListener(connectorFilter.and(filter), listener);
+        UUID id = electrica.addMessageListener(ScopedMessageFilter.connector(ern, filter), listener);
+        listeners.add(id);
+        return id;
+    }
+
+    @Override
+    public synchronized UUID addBatchMessageListener(
+            Predicate<Message> filter,
+            BatchMessageListener listener,
+            int maxBatchSize,
+            long linger,
+            TimeUnit unit
+    ) {
+        checkClosed();
+
+        UUID id = electrica.addBatchMessageListener(ScopedMessageFilter.connector(ern, filter), listener, maxBatchSize,
+                linger, unit);
         listeners.add(id);
         return id;
     }
@@ -1,5 +1,6 @@
 package io.electrica.sdk.java8.api.impl;
 
+import io.electrica.sdk.java8.api.BatchMessageListener;
 import io.electrica.sdk.java8.api.Connector;
 import io.electrica.sdk.java8.api.Electrica;
 import io.electrica.sdk.java8.api.MessageListener;
@@ -7,9 +8,8 @@ import io.electrica.sdk.java8.api.http.HttpModule;
 import io.electrica.sdk.java8.api.http.Message;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.HashSet;
-import java.util.Set;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 
 import static java.util.Objects.requireNonNull;
@@ -101,6 +101,41 @@ public class ElectricaImpl implements Electrica {
         });
     }
 
+    @Override
+    public UUID addBatchMessageListener(
+            Predicate<Message> filter,
+            BatchMessageListener listener,
+            int maxBatchSize,
+            long linger,
+            TimeUnit unit
+    ) {
+        checkClosed();
+
+        return httpModule.addBatchMessageListener(instanceId, filter, messages -> {
+            try {
+                List<String> results = listener.onMessages(messages);
+                if (results != null && results.size() != messages.size()) {
+                    throw new IllegalStateException("Expected " + messages.size() + " results, but got " +
+                            results.size());
+                }
+                List<Message> expected = new ArrayList<>();
+                List<String> expectedResults = new ArrayList<>();
+                for (int i = 0; i < messages.size(); i++) {
+                    Message message = messages.get(i);
+                    if (message.getExpectedResult()) {
+                        expected.add(message);
+                        expectedResults.add(results == null ? null : results.get(i));
+                    }
+                }
+                if (!expected.isEmpty()) {
+                    httpModule.sendMessageResults(instanceId, expected, expectedResults);
+                }
+            } catch (Exception e) {
+                log.error("Error handling batch of messages", e);
+            }
+        }, maxBatchSize, unit.toMillis(linger));
+    }
+
     @Override
     public void removeMessageListener(UUID listenerId) {
         checkClosed();
@@ -0,0 +1,269 @@
+package io.electrica.sdk.java8.api.impl;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Timer optimized for large number of short lived timeouts, that usually cancelled before expiration.
+ * <p>
+ * All timeouts are served by single worker thread. Timeouts are hashed into wheel buckets by deadline, so
+ * scheduling and cancellation are O(1) and expiration accuracy is limited by tick duration.
+ * <p>
+ * Timeout tasks are executed on worker thread and must be short and non-blocking.
+ */
+@Slf4j
+public class HashedWheelTimer implements AutoCloseable {
+
+    public static final String THREAD_NAME = "electrica-sdk-timer";
+    public static final long DEFAULT_TICK_MILLIS = 10;
+    public static final int DEFAULT_TICKS_PER_WHEEL = 512;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Timeout> scheduledTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+    private final Thread worker;
+    private final long startTime;
+
+    private volatile boolean stopped = false;
+
+    public HashedWheelTimer() {
+        this(THREAD_NAME, DEFAULT_TICK_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_TICKS_PER_WHEEL);
+    }
+
+    public HashedWheelTimer(String threadName, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration must be positive: " + tickDuration);
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > (1 << 30)) {
+            throw new IllegalArgumentException("ticksPerWheel out of range: " + ticksPerWheel);
+        }
+        tickNanos = unit.toNanos(tickDuration);
+
+        int size = Integer.highestOneBit(ticksPerWheel - 1) << 1;
+        wheel = new Bucket[size == 0 ? 1 : size];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new Bucket();
+        }
+        mask = wheel.length - 1;
+
+        startTime = System.nanoTime();
+        worker = new Thread(this::run, threadName);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Timer instance shared by all SDK components. Lazily started, uses daemon thread and never stopped.
+     */
+    public static HashedWheelTimer shared() {
+        return SharedHolder.INSTANCE;
+    }
+
+    /**
+     * Schedule task to be executed once after specified delay.
+     *
+     * @param task  short non-blocking task
+     * @param delay delay in units of {@code unit}
+     * @param unit  a {@link TimeUnit} determining how to interpret the {@code delay} parameter
+     * @return handle that allows to cancel timeout
+     */
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        if (stopped) {
+            throw new IllegalStateException("Timer has been stopped");
+        }
+        long deadline = System.nanoTime() - startTime + unit.toNanos(Math.max(delay, 0));
+        Timeout timeout = new Timeout(this, task, deadline);
+        scheduledTimeouts.add(timeout);
+        return timeout;
+    }
+
+    private void run() {
+        long tick = 0;
+        while (!stopped) {
+            if (!waitForNextTick(tick)) {
+                continue;
+            }
+            removeCancelled();
+            transferScheduled(tick);
+            wheel[(int) (tick & mask)].expire();
+            tick++;
+        }
+    }
+
+    private boolean waitForNextTick(long tick) {
+        long deadline = tickNanos * (tick + 1);
+        while (true) {
+            long now = System.nanoTime() - startTime;
+            long sleepMillis = TimeUnit.NANOSECONDS.toMillis(deadline - now + 999_999);
+            if (sleepMillis <= 0) {
+                return true;
+            }
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                if (stopped) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferScheduled(long tick) {
+        // limit transfer per tick to not starve expiration if tasks are scheduled faster than transferred
+        for (int i = 0; i < 100_000; i++) {
+            Timeout timeout = scheduledTimeouts.poll();
+            if (timeout == null) {
+                break;
+            }
+            if (timeout.state.get() == Timeout.CANCELLED) {
+                continue;
+            }
+            long calculated = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (calculated - tick) / wheel.length;
+            // schedule expired timeouts to the current tick
+            long ticks = Math.max(calculated, tick);
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    @Override
+    public void close() {
+        stopped = true;
+        worker.interrupt();
+    }
+
+    private static class SharedHolder {
+        private static final HashedWheelTimer INSTANCE = new HashedWheelTimer();
+    }
+
+    /**
+     * Handle of scheduled task.
+     */
+    public static final class Timeout {
+
+        private static final int INIT = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final HashedWheelTimer timer;
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(INIT);
+
+        // accessed by worker thread only
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout next;
+        private Timeout prev;
+
+        private Timeout(HashedWheelTimer timer, Runnable task, long deadline) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancel task execution.
+         *
+         * @return {@code false} if task has been already executed or cancelled
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(INIT, CANCELLED)) {
+                return false;
+            }
+            // unlink from bucket by worker thread to release memory before deadline
+            timer.cancelledTimeouts.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        private void expire() {
+            if (state.compareAndSet(INIT, EXPIRED)) {
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    log.warn("Timeout task threw an exception", t);
+                }
+            }
+        }
+    }
+
+    /**
+     * Doubly-linked list of timeouts, accessed by worker thread only.
+     */
+    private final class Bucket {
+
+        private Timeout head;
+        private Timeout tail;
+
+        private void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        private void expire() {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    timeout.expire();
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        private void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = timeout.next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+}
@@ -13,6 +13,8 @@ import org.junit.jupiter.api.Test;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
@@ -183,6 +185,83 @@ class ConnectionImplTest {
         }
     }
 
+    @Test
+    void testAsyncInvoke() throws Exception {
+        String accessKey = "test_access_key";
+        HttpModule httpModule = mock(HttpModule.class);
+        Electrica electrica = Electrica.instance(httpModule, accessKey);
+        ConnectionInfo info = mock(ConnectionInfo.class);
+        Connector connector = mock(Connector.class);
+        when(connector.getElectrica()).thenReturn(electrica);
+
+        doAnswer(invocation -> {
+            Callback<Object> rh = invocation.getArgument(3);
+            rh.onResponse("result");
+            return null;
+        })
+                .when(httpModule)
+                .submitJob(
+                        eq(electrica.getInstanceId()),
+                        any(Request.class),
+                        eq(String.class),
+                        any(Callback.class)
+                );
+
+        try (Connection connection = new ConnectionImpl(connector, info)) {
+            CompletableFuture<String> future = connection.invokeAsync(
+                    String.class, "test_action", null, null, 1L, TimeUnit.SECONDS
+            );
+            assertEquals("result", future.get());
+        }
+    }
+
+    @Test
+    void testAsyncInvokeWithIntegrationException() throws Exception {
+        String accessKey = "test_access_key";
+        HttpModule httpModule = mock(HttpModule.class);
+        Electrica electrica = Electrica.instance(httpModule, accessKey);
+        ConnectionInfo info = mock(ConnectionInfo.class);
+        Connector connector = mock(Connector.class);
+        when(connector.getElectrica()).thenReturn(electrica);
+
+        doAnswer(invocation -> {
+            Callback<Object> rh = invocation.getArgument(3);
+            rh.onFailure(new IntegrationException("code", "message", "stackTrace", null));
+            return null;
+        })
+                .when(httpModule)
+                .submitJob(
+                        eq(electrica.getInstanceId()),
+                        any(Request.class),
+                        eq(Void.class),
+                        any(Callback.class)
+                );
+
+        try (Connection connection = new ConnectionImpl(connector, info)) {
+            CompletableFuture<Void> future = connection.invokeAsync("test_action", null, null, 1L, TimeUnit.SECONDS);
+            ExecutionException e = assertThrows(ExecutionException.class, future::get);
+            assertTrue(e.getCause() instanceof IntegrationException);
+        }
+    }
+
+    @Test
+    void testAsyncInvokeTimeoutException() throws Exception {
+        String accessKey = "test_access_key";
+        HttpModule httpModule = mock(HttpModule.class);
+        Electrica electrica = Electrica.instance(httpModule, accessKey);
+        ConnectionInfo info = mock(ConnectionInfo.class);
+        Connector connector = mock(Connector.class);
+        when(connector.getElectrica()).thenReturn(electrica);
+
+        try (Connection connection = new ConnectionImpl(connector, info)) {
+            CompletableFuture<Void> future = connection.invokeAsync(
+                    "test_action", null, null, 100L, TimeUnit.MILLISECONDS
+            );
+            ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+    }
+
     @Test
     void testMessageListeners() throws Exception {
         String accessKey = "test_access_key";
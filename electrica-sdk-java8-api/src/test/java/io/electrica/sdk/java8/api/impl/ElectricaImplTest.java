@@ -3,9 +3,14 @@ package io.electrica.sdk.java8.api.impl;
 import io.electrica.sdk.java8.api.Connector;
 import io.electrica.sdk.java8.api.Electrica;
 import io.electrica.sdk.java8.api.http.HttpModule;
+import io.electrica.sdk.java8.api.http.Message;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -84,4 +89,36 @@ class ElectricaImplTest {
         verify(httpModule, atLeastOnce()).removeMessageListener(eq(electricaFef.getInstanceId()), eq(uuid));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBatchMessageListenerSendsExpectedResults() throws Exception {
+        HttpModule httpModule = mock(HttpModule.class);
+        Message first = mockMessage(true);
+        Message second = mockMessage(false);
+        Message third = mockMessage(true);
+
+        try (Electrica electrica = Electrica.instance(httpModule, "test_access_key")) {
+            electrica.addBatchMessageListener(Predicate.isEqual(null), messages -> Arrays.asList("1", "2", "3"),
+                    100, 1, TimeUnit.SECONDS);
+
+            ArgumentCaptor<Consumer<List<Message>>> consumer = ArgumentCaptor.forClass(Consumer.class);
+            verify(httpModule).addBatchMessageListener(eq(electrica.getInstanceId()), any(Predicate.class),
+                    consumer.capture(), eq(100), eq(1000L));
+
+            consumer.getValue().accept(Arrays.asList(first, second, third));
+
+            verify(httpModule).sendMessageResults(
+                    electrica.getInstanceId(),
+                    Arrays.asList(first, third),
+                    Arrays.asList("1", "3")
+            );
+        }
+    }
+
+    private static Message mockMessage(boolean expectedResult) {
+        Message message = mock(Message.class);
+        when(message.getExpectedResult()).thenReturn(expectedResult);
+        return message;
+    }
+
 }
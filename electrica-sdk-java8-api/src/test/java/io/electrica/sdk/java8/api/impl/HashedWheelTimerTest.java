@@ -0,0 +1,52 @@
+package io.electrica.sdk.java8.api.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashedWheelTimerTest {
+
+    @Test
+    void testTimeoutExpired() throws Exception {
+        try (HashedWheelTimer timer = new HashedWheelTimer("test-timer", 10, TimeUnit.MILLISECONDS, 8)) {
+            CountDownLatch latch = new CountDownLatch(3);
+            long start = System.nanoTime();
+            // more than one round of wheel
+            HashedWheelTimer.Timeout timeout = timer.newTimeout(latch::countDown, 200, TimeUnit.MILLISECONDS);
+            timer.newTimeout(latch::countDown, 10, TimeUnit.MILLISECONDS);
+            timer.newTimeout(latch::countDown, 0, TimeUnit.MILLISECONDS);
+
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+            assertTrue(timeout.isExpired());
+            assertFalse(timeout.cancel());
+        }
+    }
+
+    @Test
+    void testTimeoutCancelled() throws Exception {
+        try (HashedWheelTimer timer = new HashedWheelTimer("test-timer", 10, TimeUnit.MILLISECONDS, 8)) {
+            AtomicInteger counter = new AtomicInteger();
+            HashedWheelTimer.Timeout cancelled = timer.newTimeout(counter::incrementAndGet, 50, TimeUnit.MILLISECONDS);
+            CountDownLatch latch = new CountDownLatch(1);
+            timer.newTimeout(latch::countDown, 100, TimeUnit.MILLISECONDS);
+
+            assertTrue(cancelled.cancel());
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertEquals(0, counter.get());
+            assertTrue(cancelled.isCancelled());
+        }
+    }
+
+    @Test
+    void testScheduleAfterCloseError() {
+        HashedWheelTimer timer = new HashedWheelTimer("test-timer", 10, TimeUnit.MILLISECONDS, 8);
+        timer.close();
+        assertThrows(IllegalStateException.class, () -> timer.newTimeout(() -> {
+        }, 1, TimeUnit.SECONDS));
+    }
+}
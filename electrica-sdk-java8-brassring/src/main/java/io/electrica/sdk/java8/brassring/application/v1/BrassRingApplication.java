@@ -8,6 +8,7 @@ import io.electrica.sdk.java8.brassring.application.v1.model.BrassRingApplicatio
 
 import javax.annotation.concurrent.ThreadSafe;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -53,6 +54,19 @@ public class BrassRingApplication implements AutoCloseable {
         );
     }
 
+    /**
+     * Insert/update forms for a connection into the BrassRing API and return future of completion.
+     */
+    public CompletableFuture<Void> updateAsync(BrassRingApplicationPayload context, long timeout, TimeUnit unit) {
+        return connection.invokeAsync(
+                BrassRingApplicationAction.UPDATE,
+                null,
+                context,
+                timeout,
+                unit
+        );
+    }
+
     @Override
     public void close() throws Exception {
         connection.close();
@@ -0,0 +1,99 @@
+package io.electrica.sdk.java8.core;
+
+import com.google.gson.Gson;
+import io.electrica.sdk.java8.api.impl.HashedWheelTimer;
+import io.electrica.sdk.java8.core.message.AckOutboundMessage;
+import okhttp3.*;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sending of acks through local WebSocket stand-in: one frame per ack versus acks coalesced into batch frames.
+ * Operation completes once stand-in server received all acks of operation, so frame encoding, writing and reading
+ * are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AckBatcherBenchmark {
+
+    private static final int ACKS_PER_OPERATION = 1000;
+    private static final String CORRELATION_ID = "correlationId";
+
+    @Param({"1", "16", "128"})
+    public int batchSize;
+
+    private final Gson gson = new Gson();
+    private final AtomicLong receivedAcks = new AtomicLong();
+    private final AckOutboundMessage[] acks = new AckOutboundMessage[ACKS_PER_OPERATION];
+
+    private MockWebServer server;
+    private OkHttpClient httpClient;
+    private WebSocket webSocket;
+    private AckBatcher ackBatcher;
+    private long expectedAcks;
+
+    @Setup
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.enqueue(new MockResponse().withWebSocketUpgrade(new WebSocketListener() {
+            @Override
+            public void onMessage(WebSocket webSocket, String text) {
+                int count = 0;
+                for (int i = text.indexOf(CORRELATION_ID); i >= 0; i = text.indexOf(CORRELATION_ID, i + 1)) {
+                    count++;
+                }
+                receivedAcks.addAndGet(count);
+            }
+        }));
+        server.start();
+
+        httpClient = new OkHttpClient();
+        CountDownLatch opened = new CountDownLatch(1);
+        webSocket = httpClient.newWebSocket(new Request.Builder().url(server.url("/")).build(),
+                new WebSocketListener() {
+                    @Override
+                    public void onOpen(WebSocket webSocket, Response response) {
+                        opened.countDown();
+                    }
+                });
+        if (!opened.await(10, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("WebSocket isn't opened");
+        }
+
+        // flushed explicitly at the end of operation
+        ackBatcher = new AckBatcher(gson, batchSize, TimeUnit.MINUTES.toMillis(1), HashedWheelTimer.shared());
+        for (int i = 0; i < ACKS_PER_OPERATION; i++) {
+            acks[i] = new AckOutboundMessage(UUID.randomUUID(), true);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        webSocket.cancel();
+        httpClient.dispatcher().executorService().shutdown();
+        server.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ACKS_PER_OPERATION)
+    public void sendAcks() {
+        for (AckOutboundMessage ack : acks) {
+            ackBatcher.add(webSocket, ack);
+        }
+        ackBatcher.flush();
+        expectedAcks += ACKS_PER_OPERATION;
+        while (receivedAcks.get() < expectedAcks) {
+            Thread.yield();
+        }
+    }
+}
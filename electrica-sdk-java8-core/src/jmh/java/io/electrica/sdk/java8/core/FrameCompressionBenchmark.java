@@ -0,0 +1,165 @@
+package io.electrica.sdk.java8.core;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import io.electrica.sdk.java8.core.message.InboundMessage;
+import okio.ByteString;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of webhook frames compressed with trained dictionary versus plain text frames.
+ * <p>
+ * Captured frames are read from {@code framesFile}, one JSON frame per line, or generated if file isn't specified.
+ * The first part of frames trains dictionary and the rest is measured, compression ratio is printed on setup.
+ * Also can be run as tool, that trains dictionary and writes it to file:
+ * <pre>
+ * java -cp ... io.electrica.sdk.java8.core.FrameCompressionBenchmark frames.jsonl 16384 frames.dict
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FrameCompressionBenchmark {
+
+    private static final int GENERATED_FRAMES = 4000;
+    private static final double TRAINING_PART = 0.5;
+
+    @Param({""})
+    public String framesFile;
+
+    @Param({"4096", "16384"})
+    public int dictionarySize;
+
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapterFactory(InboundMessage.TYPE_ADAPTER_FACTORY)
+            .create();
+
+    private String[] textFrames;
+    private ByteString[] compressedFrames;
+    private FrameCompressor compressor;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<byte[]> frames = framesFile.isEmpty() ? generateFrames() : readFrames(framesFile);
+        int trainingSize = (int) (frames.size() * TRAINING_PART);
+        List<byte[]> measured = frames.subList(trainingSize, frames.size());
+
+        compressor = new FrameCompressor(FrameDictionaryTrainer.train(frames.subList(0, trainingSize), dictionarySize));
+        printRatio(measured, compressor);
+
+        textFrames = new String[measured.size()];
+        compressedFrames = new ByteString[measured.size()];
+        for (int i = 0; i < measured.size(); i++) {
+            textFrames[i] = new String(measured.get(i), StandardCharsets.UTF_8);
+            compressedFrames[i] = compressor.compress(measured.get(i));
+        }
+    }
+
+    @Benchmark
+    public InboundMessage text() {
+        next = (next + 1) % textFrames.length;
+        return gson.fromJson(textFrames[next], InboundMessage.class);
+    }
+
+    @Benchmark
+    public InboundMessage compressed() {
+        next = (next + 1) % compressedFrames.length;
+        if (compressedFrames[next] == null) {
+            // frame isn't compressible and sent as is
+            return gson.fromJson(textFrames[next], InboundMessage.class);
+        }
+        byte[] document = compressor.decompress(compressedFrames[next]);
+        return gson.fromJson(new String(document, StandardCharsets.UTF_8), InboundMessage.class);
+    }
+
+    private static void printRatio(List<byte[]> frames, FrameCompressor compressor) {
+        FrameCompressor plain = new FrameCompressor(new byte[0]);
+        long original = 0;
+        long compressed = 0;
+        long plainCompressed = 0;
+        for (byte[] frame : frames) {
+            original += frame.length;
+            compressed += compressedSize(compressor, frame);
+            plainCompressed += compressedSize(plain, frame);
+        }
+        System.out.printf("%n%d frames of %d bytes on average, compression ratio: %.2f with dictionary, " +
+                        "%.2f without dictionary%n", frames.size(), original / Math.max(1, frames.size()),
+                (double) original / compressed, (double) original / plainCompressed);
+    }
+
+    private static int compressedSize(FrameCompressor compressor, byte[] frame) {
+        ByteString compressed = compressor.compress(frame);
+        return compressed == null ? frame.length : compressed.size();
+    }
+
+    private static List<byte[]> readFrames(String file) throws IOException {
+        List<byte[]> frames = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8)) {
+            if (!line.trim().isEmpty()) {
+                frames.add(line.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return frames;
+    }
+
+    /**
+     * Webhooks of several connectors with similar JSON bodies.
+     */
+    private static List<byte[]> generateFrames() {
+        Random random = new Random(42);
+        String[] erns = {"ern://slack:channel:1_0", "ern://hackerrank:tests:2_0", "ern://brassring:candidates:1_0"};
+        String[] statuses = {"created", "updated", "deleted"};
+        List<byte[]> frames = new ArrayList<>();
+        for (int i = 0; i < GENERATED_FRAMES; i++) {
+            int connector = random.nextInt(erns.length);
+            StringBuilder items = new StringBuilder();
+            for (int j = random.nextInt(4); j >= 0; j--) {
+                items.append("{\\\"itemId\\\":").append(random.nextInt(1000000))
+                        .append(",\\\"quantity\\\":").append(random.nextInt(10))
+                        .append(",\\\"status\\\":\\\"").append(statuses[random.nextInt(statuses.length)])
+                        .append("\\\"},");
+            }
+            String frame = "{\"@type\":\"webhook\",\"id\":\"" + UUID.randomUUID() + "\",\"data\":{" +
+                    "\"id\":\"" + UUID.randomUUID() + "\",\"webhookId\":\"" + UUID.randomUUID() + "\"," +
+                    "\"name\":\"Webhook " + connector + "\",\"organizationId\":1,\"userId\":" + (connector + 1) + "," +
+                    "\"accessKeyId\":" + (connector + 10) + ",\"isPublic\":false,\"scope\":\"Connector\"," +
+                    "\"connectorId\":" + connector + ",\"connectorErn\":\"" + erns[connector] + "\"," +
+                    "\"expectedResult\":false,\"contentType\":\"application/json\"," +
+                    "\"payload\":\"{\\\"event\\\":\\\"order\\\",\\\"items\\\":[" + items + "{}]}\"}}";
+            frames.add(frame.getBytes(StandardCharsets.UTF_8));
+        }
+        return frames;
+    }
+
+    /**
+     * Train dictionary from captured frames and write it to file.
+     *
+     * @param args frames file, dictionary size and output file
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: FrameCompressionBenchmark <frames-file> <dictionary-size> <output-file>");
+            System.exit(1);
+        }
+        List<byte[]> frames = readFrames(args[0]);
+        byte[] dictionary = FrameDictionaryTrainer.train(frames, Integer.parseInt(args[1]));
+        Files.write(Paths.get(args[2]), dictionary);
+        System.out.printf("Dictionary of %d bytes written, id %s%n", dictionary.length,
+                new FrameCompressor(dictionary).getDictionaryId());
+        printRatio(frames, new FrameCompressor(dictionary));
+    }
+}
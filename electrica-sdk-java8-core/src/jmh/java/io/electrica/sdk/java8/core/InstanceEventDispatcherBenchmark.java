@@ -0,0 +1,105 @@
+package io.electrica.sdk.java8.core;
+
+import com.google.gson.Gson;
+import io.electrica.sdk.java8.api.http.Message;
+import io.electrica.sdk.java8.api.http.ScopedMessageFilter;
+import io.electrica.sdk.java8.core.dto.MessageDto;
+import io.electrica.sdk.java8.core.message.WebhookInboundMessage;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Throughput of webhook message dispatch to listeners, where only one listener filter matches the message.
+ * Listeners either have arbitrary filter or are registered per connection with {@link ScopedMessageFilter}.
+ * Dispatch runs in caller threads to show contention on listener registry, {@code churn} group additionally
+ * adds and removes listener concurrently with dispatch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InstanceEventDispatcherBenchmark {
+
+    private static final String MATCHING_NAME = "listener-0";
+
+    @Param({"1", "100", "1000", "10000"})
+    public int listeners;
+
+    @Param({"false", "true"})
+    public boolean scoped;
+
+    private InstanceEventDispatcher dispatcher;
+    private WebhookInboundMessage message;
+
+    @Setup
+    public void setUp() {
+        dispatcher = new InstanceEventDispatcher(new Gson(), new DirectExecutorService());
+        for (int i = 0; i < listeners; i++) {
+            String name = "listener-" + i;
+            Predicate<Message> filter = m -> name.equals(m.getName());
+            if (scoped) {
+                filter = ScopedMessageFilter.connection((long) i, filter);
+            }
+            dispatcher.addMessageListener(filter, Message::getId);
+        }
+
+        MessageDto dto = new MessageDto();
+        dto.setId(UUID.randomUUID());
+        dto.setName(MATCHING_NAME);
+        dto.setScope(Message.Scope.Connection);
+        dto.setConnectionId(0L);
+        message = new WebhookInboundMessage();
+        message.setId(UUID.randomUUID());
+        message.setData(dto);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void dispatch1Thread(Blackhole blackhole) {
+        dispatch(blackhole);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void dispatch4Threads(Blackhole blackhole) {
+        dispatch(blackhole);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void dispatch16Threads(Blackhole blackhole) {
+        dispatch(blackhole);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void dispatch64Threads(Blackhole blackhole) {
+        dispatch(blackhole);
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(15)
+    public void churnDispatch(Blackhole blackhole) {
+        dispatch(blackhole);
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(1)
+    public void churnAddRemove() {
+        UUID id = dispatcher.addMessageListener(m -> false, m -> {
+        });
+        dispatcher.removeMessageListener(id);
+    }
+
+    private void dispatch(Blackhole blackhole) {
+        dispatcher.submit(message, blackhole::consume);
+    }
+}
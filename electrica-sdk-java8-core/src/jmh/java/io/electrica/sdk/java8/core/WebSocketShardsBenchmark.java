@@ -0,0 +1,142 @@
+package io.electrica.sdk.java8.core;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import io.electrica.sdk.java8.api.impl.HashedWheelTimer;
+import io.electrica.sdk.java8.core.message.InboundMessage;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Inbound webhook throughput of instance with different number of WebSocket connections. Local stand-in server
+ * spreads frames over connections and operation completes once all frames are parsed and consumed by listener.
+ * Listener runs on reader thread, so parsing and dispatch of every shard run in parallel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WebSocketShardsBenchmark {
+
+    private static final int FRAMES_PER_OPERATION = 1000;
+
+    @Param({"1", "2", "4"})
+    public int shards;
+
+    @Param({"1024"})
+    public int payloadSize;
+
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapterFactory(InboundMessage.TYPE_ADAPTER_FACTORY)
+            .create();
+    private final List<WebSocket> serverWebSockets = new CopyOnWriteArrayList<>();
+    private final AtomicLong consumed = new AtomicLong();
+
+    private MockWebServer server;
+    private OkHttpClient httpClient;
+    private InstanceEventDispatcher dispatcher;
+    private WebSocketHandler handler;
+    private String[] frames;
+    private long expected;
+
+    @Setup
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().withWebSocketUpgrade(new WebSocketListener() {
+                    @Override
+                    public void onOpen(WebSocket webSocket, Response response) {
+                        serverWebSockets.add(webSocket);
+                    }
+
+                    @Override
+                    public void onClosing(WebSocket webSocket, int code, String reason) {
+                        webSocket.close(code, reason);
+                    }
+                });
+            }
+        });
+        server.start();
+        String url = server.url("/").toString();
+
+        httpClient = new OkHttpClient();
+        dispatcher = new InstanceEventDispatcher(gson, new DirectExecutorService());
+        dispatcher.addMessageListener(m -> true, m -> consumed.incrementAndGet());
+        handler = new WebSocketHandler(
+                gson,
+                httpClient,
+                new RetryStrategy.Linear(3, 100, TimeUnit.MILLISECONDS),
+                HashedWheelTimer.shared(),
+                dispatcher,
+                result -> {
+                },
+                1000,
+                new AckBatcher(gson, 1, 0, HashedWheelTimer.shared()),
+                shards,
+                FrameEncoding.Json,
+                null,
+                url.substring(0, url.length() - 1),
+                UUID.randomUUID(),
+                "benchmark",
+                "Bearer benchmark"
+        );
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (serverWebSockets.size() < shards) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Not all shards connected");
+            }
+            Thread.sleep(10);
+        }
+        // client side onOpen may be called after server side one
+        Thread.sleep(100);
+
+        StringBuilder payload = new StringBuilder(payloadSize + 32);
+        while (payload.length() < payloadSize) {
+            payload.append("{\\\"key\\\":\\\"value\\\"},");
+        }
+        frames = new String[FRAMES_PER_OPERATION];
+        for (int i = 0; i < FRAMES_PER_OPERATION; i++) {
+            frames[i] = "{\"@type\":\"webhook\",\"id\":\"" + UUID.randomUUID() + "\",\"data\":{" +
+                    "\"id\":\"" + UUID.randomUUID() + "\",\"scope\":\"Connection\",\"connectionId\":" + i + "," +
+                    "\"expectedResult\":false,\"contentType\":\"application/json\"," +
+                    "\"payload\":\"[" + payload + "{}]\"}}";
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        handler.close();
+        dispatcher.close();
+        httpClient.dispatcher().executorService().shutdown();
+        server.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAMES_PER_OPERATION)
+    public void receive() {
+        for (int i = 0; i < FRAMES_PER_OPERATION; i++) {
+            serverWebSockets.get(i % shards).send(frames[i]);
+        }
+        expected += FRAMES_PER_OPERATION;
+        while (consumed.get() < expected) {
+            Thread.yield();
+        }
+    }
+}
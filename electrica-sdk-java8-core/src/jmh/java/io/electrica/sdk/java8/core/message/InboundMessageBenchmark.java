@@ -0,0 +1,76 @@
+package io.electrica.sdk.java8.core.message;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import okio.ByteString;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of webhook frames with payload of different size: streaming envelope adapter versus building
+ * {@link JsonElement} tree first, as it was done before, and versus the same frame in MessagePack binary encoding.
+ * Text frame is also decoded from UTF-8 bytes, as OkHttp does it for every text frame. Allocation per operation is
+ * reported by {@code gc} profiler as {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InboundMessageBenchmark {
+
+    @Param({"1024", "102400", "1048576"})
+    public int payloadSize;
+
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapterFactory(InboundMessage.TYPE_ADAPTER_FACTORY)
+            .create();
+    private final Gson plainGson = new Gson();
+    private final MessagePackCodec codec = new MessagePackCodec(gson);
+
+    private String frame;
+    private ByteString textFrame;
+    private ByteString binaryFrame;
+
+    @Setup
+    public void setUp() {
+        StringBuilder payload = new StringBuilder(payloadSize + 32);
+        while (payload.length() < payloadSize) {
+            payload.append("{\\\"key\\\":\\\"value\\\"},");
+        }
+        frame = "{\"@type\":\"webhook\",\"id\":\"" + UUID.randomUUID() + "\",\"data\":{" +
+                "\"id\":\"" + UUID.randomUUID() + "\",\"scope\":\"Connector\",\"connectorErn\":\"ern://echo\"," +
+                "\"expectedResult\":false,\"contentType\":\"application/json\"," +
+                "\"payload\":\"[" + payload + "{}]\"}}";
+        textFrame = ByteString.encodeUtf8(frame);
+        binaryFrame = codec.encode(plainGson.fromJson(frame, JsonElement.class));
+    }
+
+    @Benchmark
+    public InboundMessage streaming() {
+        return gson.fromJson(frame, InboundMessage.class);
+    }
+
+    @Benchmark
+    public InboundMessage streamingFromBytes() {
+        return gson.fromJson(textFrame.string(StandardCharsets.UTF_8), InboundMessage.class);
+    }
+
+    @Benchmark
+    public InboundMessage messagePack() {
+        return codec.decode(binaryFrame, InboundMessage.class);
+    }
+
+    @Benchmark
+    public InboundMessage tree() {
+        JsonElement tree = plainGson.fromJson(frame, JsonElement.class);
+        tree.getAsJsonObject().get("@type").getAsString();
+        return plainGson.fromJson(tree, WebhookInboundMessage.class);
+    }
+}
@@ -0,0 +1,884 @@
+package io.electrica.sdk.java8.core;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import io.electrica.sdk.java8.api.Callback;
+import io.electrica.sdk.java8.api.Electrica;
+import io.electrica.sdk.java8.api.http.ConnectionInfo;
+import io.electrica.sdk.java8.api.http.HttpModule;
+import io.electrica.sdk.java8.api.http.Message;
+import io.electrica.sdk.java8.api.http.Request;
+import io.electrica.sdk.java8.api.impl.HashedWheelTimer;
+import io.electrica.sdk.java8.core.dto.MessageImpl;
+import io.electrica.sdk.java8.core.dto.MessageResultDto;
+import io.electrica.sdk.java8.core.message.InboundMessage;
+import io.electrica.sdk.java8.core.message.ResultMessage;
+import io.electrica.sdk.java8.core.message.ResultMessageDecoder;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Dispatcher;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Base implementation of the Http module that utilizes {@link OkHttpClient} for connecting
+ * with and reading from Electrica.io services.
+ * <p>
+ * Holds resources that can be shared by several {@link Electrica} instances: http client with its connection pool,
+ * executors and timers. State of each instance is kept in {@link InstanceContext}, that resolved by subclasses
+ * using instance id passed to every method. Configuration is specified by {@link HttpModuleOptions} or setters,
+ * that update them, and is read once for shared resources and once per instance. Requests are sent by instance
+ * {@link HttpInvoker} and {@link HttpMessageResultTransport}.
+ */
+@Slf4j
+public abstract class AbstractHttpModule implements HttpModule {
+
+    public static final String API_URL = "https://api.electrica.io";
+    public static final String INVOKE_PATH = "/v1/sdk/invoke-sync";
+    public static final String INVOKE_BATCH_PATH = "/v1/sdk/invoke-sync/batch";
+    public static final String INVOKE_ASYNC_PATH = "/v1/sdk/invoke-async";
+    public static final String CONNECTIONS_PATH = "/v1/sdk/connections";
+    public static final String MESSAGE_RESULT_PATH = "/v1/webhooks/messages/result";
+    public static final String MESSAGE_RESULT_BATCH_PATH = "/v1/webhooks/messages/result/batch";
+    public static final String EVENT_DISPATCHER_THREAD_GROUP = "electrica-sdk-event-dispatcher";
+    public static final String CALLBACK_THREAD_GROUP = "electrica-sdk-callback";
+
+    /**
+     * All SDK requests go to the single API host, so per host limit is the same as total one.
+     */
+    public static final int DEFAULT_MAX_REQUESTS = 256;
+    public static final int DEFAULT_MAX_REQUESTS_PER_HOST = DEFAULT_MAX_REQUESTS;
+    public static final int DEFAULT_WEBSOCKET_MAX_IN_FLIGHT = DEFAULT_MAX_REQUESTS;
+    public static final int DEFAULT_MESSAGE_RESULT_QUEUE_CAPACITY = 10_000;
+    public static final int DEFAULT_MESSAGE_RESULT_BATCH_SIZE = 1;
+    public static final int DEFAULT_MESSAGE_RESULT_MAX_IN_FLIGHT = 4;
+    public static final int DEFAULT_EVENT_ORDERING_LANES = 16;
+
+    static final String AUTHORIZATION = "Authorization";
+    static final MediaType APPLICATION_JSON = MediaType.parse("application/json; charset=utf-8");
+
+    private final String apiUrl;
+
+    // synchronized by module, setters update it until it's read
+    private final HttpModuleOptions.Builder options;
+
+    // shared resources, that created under lock before the first instance published
+    private HttpModuleOptions sharedOptions;
+    private Gson gson;
+    private ResultMessageDecoder resultDecoder;
+    private OkHttpClient httpClient;
+    private RetryStrategy webSocketRetryStrategy;
+    private RetryStrategy messageResultRetryStrategy;
+    private ExecutorService eventExecutor;
+    private ExecutorService callbackExecutor;
+    private RequestCompressionPolicy compressionPolicy;
+    private JobCompleter jobCompleter;
+
+    private boolean sharedInitialized = false;
+    // read without lock, because listeners may use module, while it's closing under lock
+    private volatile boolean closed = false;
+
+    protected AbstractHttpModule(String apiUrl) {
+        this(apiUrl, HttpModuleOptions.builder().build());
+    }
+
+    protected AbstractHttpModule(String apiUrl, HttpModuleOptions options) {
+        this.apiUrl = requireNonNull(apiUrl, "apiUrl");
+        this.options = options.toBuilder();
+    }
+
+    protected boolean isClosed() {
+        return closed;
+    }
+
+    protected void checkClosed() {
+        if (closed) {
+            throw new IllegalStateException(getClass().getSimpleName() + " has been closed");
+        }
+    }
+
+    /**
+     * Resolve state of initialized instance.
+     *
+     * @throws IllegalStateException if instance hasn't been initialized or has been closed
+     */
+    protected abstract InstanceContext getInstance(UUID instanceId);
+
+    /**
+     * @return current options, that will be read by next initialized instance
+     */
+    public synchronized HttpModuleOptions getOptions() {
+        return options.build();
+    }
+
+    /**
+     * Make sense only until {@link #initialize(UUID, String, String)} invoked.
+     *
+     * @see HttpModuleOptions.Builder#gson(Gson)
+     */
+    public synchronized void setGson(Gson gson) {
+        options.gson(gson);
+    }
+
+    /**
+     * Method to create default {@link Gson} instance if nothing custom has been specified.
+     *
+     * @see #setGson(Gson)
+     */
+    protected Gson createDefaultGson() {
+        return new GsonBuilder()
+                .registerTypeAdapterFactory(InboundMessage.TYPE_ADAPTER_FACTORY)
+                .create();
+    }
+
+    /**
+     * Make sense only until {@link #initialize(UUID, String, String)} invoked.
+     *
+     * @see HttpModuleOptions.Builder#httpClient(OkHttpClient)
+     */
+    public synchronized void setHttpClient(OkHttpClient httpClient) {
+        options.httpClient(httpClient);
+    }
+
+    /**
+     * Method to create default {@link OkHttpClient} instance if nothing custom has been specified.
+     *
+     * @see #setHttpClient(OkHttpClient)
+     */
+    protected OkHttpClient createDefaultHttpClient() {
+        return new OkHttpClient.Builder()
+                .dispatcher(createDefaultDispatcher())
+                .pingInterval(30, TimeUnit.SECONDS)
+                .connectTimeout(30, TimeUnit.SECONDS)
+                .readTimeout(30, TimeUnit.SECONDS)
+                .retryOnConnectionFailure(true)
+                .build();
+    }
+
+    /**
+     * Make sense only until {@link #initialize(UUID, String, String)} invoked.
+     *
+     * @see HttpModuleOptions.Builder#maxRequests(int)
+     */
+    public synchronized void setMaxRequests(int maxRequests) {
+        options.maxRequests(maxRequests);
+    }
+
+    /**
+     * Make sense only until {@link #initialize(UUID, String, String)} invoked.
+     *
+     * @see HttpModuleOptions.Builder#maxRequestsPerHost(int)
+     */
+    public synchronized void setMaxRequestsPerHost(int maxRequestsPerHost) {
+        options.maxRequestsPerHost(maxRequestsPerHost);
+    }
+
+    /**
+     * Method to create {@link Dispatcher} of default {@link OkHttpClient}.
+     * <p>
+     * OkHttp defaults allow only 5 concurrent requests per host, that is too few for SDK,
+     * because all invocations go to the same API host.
+     *
+     * @see #setMaxRequests(int)
+     * @see #setMaxRequestsPerHost(int)
+     */
+    protected Dispatcher createDefaultDispatcher() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(sharedOptions.getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(sharedOptions.getMaxRequestsPerHost());
+        return dispatcher;
+    }
+
+    /**
+     * Make sense only until {@link #initialize(UUID, String, String)} invoked.
+     *
+     * @see HttpModuleOptions.Builder#webSocketRetryStrategy(RetryStrategy)
+     */
+    public synchronized void setWebSocketRetryStrategy(RetryStrategy webSocketRetryStrategy) {
+        options.webSocketRetryStrategy(webSocketRetryStrategy);
+    }
+
+    /**
+     * Method to create default {@link RetryStrategy} instance if nothing custom has been specified. Reconnects are
+     * jittered, so instances, that lost connection on API restart, don't reconnect all at once.
+     *
+     * @see #setWebSocketRetryStrategy(RetryStrategy)
+     */
+    protected RetryStrategy createDefaultRetryStrategy() {
+        return new RetryStrategy.DecorrelatedJitter(30, 1, 60, 30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Make sense only until {@link #initialize(UUID, String, String)} invoked.
+     *
+     * @see HttpModuleOptions.Builder#messageResultRetryStrategy(RetryStrategy)
+     */
+    public synchronized void setMessageResultRetryStrategy(RetryStrategy messageResultRetryStrategy) {
+        options.messageResultRetryStrategy(messageResultRetryStrategy);
+    }
+
+    /**
+     * Method to create default {@link RetryStrategy} of message result requests if nothing custom has been specified.
+     *
+     * @see #setMessageResultRetryStrategy(RetryStrategy)
+     */
+    protected RetryStrategy createDefaultMessageResultRetryStrategy() {
+        return new RetryStrategy.Linear(3, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Make sense only until {@link #initialize(UUID, String, String)} invoked.
+     *
+     * @see HttpModuleOptions.Builder#invocationRetry(RetryStrategy, Predicate)
+     */
+    public synchronized void setInvocationRetry(RetryStrategy retryStrategy, Predicate<Request> idempotent) {
+        options.invocationRetry(retryStrategy, idempotent);
+    }
+
+    /**
+     * Make sense only until {@link #initialize(UUID, String, String)} invoked.
+     *
+     * @see HttpModuleOptions.Builder#eventExecutor(ExecutorService)
+     */
+    public synchronized void setEventExecutor(ExecutorService eventExecutor) {
+        options.eventExecutor(eventExecutor);
+    }
+
+    /**
+     * Method to create default {@link ExecutorService} instance if nothing custom has been specified.
+     *
+     * @see #setEventExecutor(ExecutorService)
+     */
+    protected ExecutorService createDefaultEventExecutor() {
+        return Executors.newFixedThreadPool(2, ExecutorUtils.threadFactory(EVENT_DISPATCHER_THREAD_GROUP));
+    }
+
+    /**
+     * Make sense only until {@link #initialize(UUID, String, String)} invoked.
+     *
+     * @see HttpModuleOptions.Builder#eventBackpressure(int, int, int)
+     * @see #getPendingEvents(UUID)
+     */
+    public synchronized void setEventBackpressure(int highWatermark, int lowWatermark, int capacity) {
+        options.eventBackpressure(highWatermark, lowWatermark, capacity);
+    }
+
+    /**
+     * Make sense only until {@link #initialize(UUID, String, String)} invoked.
+     *
+     * @see HttpModuleOptions.Builder#eventOrdering(Function, int)
+     */
+    public synchronized void setEventOrdering(@Nullable Function<Message, ?> orderingKey, int lanes) {
+        options.eventOrdering(orderingKey, lanes);
+    }
+
+    /**
+     * Make sense only until {@link #initialize(UUID, String, String)} invoked.
+     *
+     * @see HttpModuleOptions.Builder#messageDeduplication(long, TimeUnit, int)
+     * @see #getMessageDeduplicator(UUID)
+     */
+    public synchronized void setMessageDeduplication(long window, TimeUnit unit, int maxEntries) {
+        options.messageDeduplication(window, unit, maxEntries);
+    }
+
+    /**
+     * Make sense only until {@link #initialize(UUID, String, String)} invoked.
+     *
+     * @see HttpModuleOptions.Builder#callbackExecutor(ExecutorService)
+     */
+    public synchronized void setCallbackExecutor(ExecutorService callbackExecutor) {
+        options.callbackExecutor(callbackExecutor);
+    }
+
+    /**
+     * Method to create default {@link ExecutorService} instance if nothing custom has been specified.
+     * <p>
+     * Callbacks are user code, so they don't executed on OkHttp dispatcher threads.
+     *
+     * @see #setCallbackExecutor(ExecutorService)
+     */
+    protected ExecutorService createDefaultCallbackExecutor() {
+        return Executors.newCachedThreadPool(ExecutorUtils.threadFactory(CALLBACK_THREAD_GROUP));
+    }
+
+    /**
+     * Make sense only until {@link #initialize(UUID, String, String)} invoked.
+     *
+     * @see HttpModuleOptions.Builder#eventDispatcherTerminationTimeout(long)
+     */
+    public synchronized void setEventDispatcherTerminationTimeout(long eventDispatcherTerminationTimeout) {
+        options.eventDispatcherTerminationTimeout(eventDispatcherTerminationTimeout);
+    }
+
+    /**
+     * Make sense only until {@link #initialize(UUID, String, String)} invoked.
+     *
+     * @see HttpModuleOptions.Builder#callbackTerminationTimeout(long)
+     */
+    public synchronized void setCallbackTerminationTimeout(long callbackTerminationTimeout) {
+        options.callbackTerminationTimeout(callbackTerminationTimeout);
+    }
+
+    /**
+     * Make sense only until {@link #initialize(UUID, String, String)} invoked.
+     *
+     * @see HttpModuleOptions.Builder#webSocketTerminationTimeout(long)
+     */
+    public synchronized void setWebSocketTerminationTimeout(long webSocketTerminationTimeout) {
+        options.webSocketTerminationTimeout(webSocketTerminationTimeout);
+    }
+
+    /**
+     * Make sense only until {@link #initialize(UUID, String, String)} invoked.
+     *
+     * @see HttpModuleOptions.Builder#messageResultTerminationTimeout(long)
+     */
+    public synchronized void setMessageResultTerminationTimeout(long messageResultTerminationTimeout) {
+        options.messageResultTerminationTimeout(messageResultTerminationTimeout);
+    }
+
+    /**
+     * Make sense only until {@link #initialize(UUID, String, String)} invoked.
+     *
+     * @see HttpModuleOptions.Builder#invocationMode(InvocationMode)
+     */
+    public synchronized void setInvocationMode(InvocationMode invocationMode) {
+        options.invocationMode(invocationMode);
+    }
+
+    /**
+     * Make sense only until {@link #initialize(UUID, String, String)} invoked.
+     *
+     * @see HttpModuleOptions.Builder#webSocketMaxInFlight(int)
+     */
+    public synchronized void setWebSocketMaxInFlight(int webSocketMaxInFlight) {
+        options.webSocketMaxInFlight(webSocketMaxInFlight);
+    }
+
+    /**
+     * Make sense only until {@link #initialize(UUID, String, String)} invoked.
+     *
+     * @see HttpModuleOptions.Builder#asyncResultTimeout(long, TimeUnit)
+     */
+    public synchronized void setAsyncResultTimeout(long timeout, TimeUnit unit) {
+        options.asyncResultTimeout(timeout, unit);
+    }
+
+    /**
+     * Make sense only until {@link #initialize(UUID, String, String)} invoked.
+     *
+     * @see HttpModuleOptions.Builder#invocationBatching(int, long, TimeUnit)
+     */
+    public synchronized void setInvocationBatching(int maxBatchSize, long linger, TimeUnit unit) {
+        options.invocationBatching(maxBatchSize, linger, unit);
+    }
+
+    /**
+     * Make sense only until {@link #initialize(UUID, String, String)} invoked.
+     *
+     * @see HttpModuleOptions.Builder#ackBatching(int, long, TimeUnit)
+     */
+    public synchronized void setAckBatching(int maxBatchSize, long linger, TimeUnit unit) {
+        options.ackBatching(maxBatchSize, linger, unit);
+    }
+
+    /**
+     * Make sense only until {@link #initialize(UUID, String, String)} invoked.
+     *
+     * @see HttpModuleOptions.Builder#webSocketShards(int)
+     */
+    public synchronized void setWebSocketShards(int shards) {
+        options.webSocketShards(shards);
+    }
+
+    /**
+     * Make sense only until {@link #initialize(UUID, String, String)} invoked.
+     *
+     * @see HttpModuleOptions.Builder#webSocketFrameEncoding(FrameEncoding)
+     */
+    public synchronized void setWebSocketFrameEncoding(FrameEncoding frameEncoding) {
+        options.webSocketFrameEncoding(frameEncoding);
+    }
+
+    /**
+     * Make sense only until {@link #initialize(UUID, String, String)} invoked.
+     *
+     * @see HttpModuleOptions.Builder#webSocketFrameCompression(byte[])
+     */
+    public synchronized void setWebSocketFrameCompression(byte[] dictionary) {
+        options.webSocketFrameCompression(dictionary);
+    }
+
+    /**
+     * Make sense only until {@link #initialize(UUID, String, String)} invoked.
+     *
+     * @see HttpModuleOptions.Builder#messageResultMode(MessageResultMode)
+     */
+    public synchronized void setMessageResultMode(MessageResultMode messageResultMode) {
+        options.messageResultMode(messageResultMode);
+    }
+
+    /**
+     * Make sense only until {@link #initialize(UUID, String, String)} invoked.
+     *
+     * @see HttpModuleOptions.Builder#messageResultSending(int, int, int)
+     */
+    public synchronized void setMessageResultSending(int queueCapacity, int maxBatchSize, int maxInFlight) {
+        options.messageResultSending(queueCapacity, maxBatchSize, maxInFlight);
+    }
+
+    /**
+     * Make sense only until {@link #initialize(UUID, String, String)} invoked.
+     *
+     * @see HttpModuleOptions.Builder#requestCompression(RequestCompressionInterceptor.Encoding, long, String...)
+     */
+    public synchronized void setRequestCompression(
+            RequestCompressionInterceptor.Encoding encoding,
+            long thresholdBytes,
+            String... connectorErns
+    ) {
+        options.requestCompression(encoding, thresholdBytes, connectorErns);
+    }
+
+    /**
+     * Add compression interceptor to specified or default {@link OkHttpClient} if request compression enabled.
+     * Clients share the same connection pool and dispatcher.
+     *
+     * @see #setRequestCompression(RequestCompressionInterceptor.Encoding, long, String...)
+     */
+    protected OkHttpClient withRequestCompression(OkHttpClient client) {
+        return client.newBuilder()
+                .addInterceptor(new RequestCompressionInterceptor(sharedOptions.getRequestCompressionThreshold()))
+                .build();
+    }
+
+    @Override
+    public List<ConnectionInfo> getConnections(UUID instanceId, @Nullable String name, String ern) throws IOException {
+        checkClosed();
+        return getInstance(instanceId).httpInvoker.getConnections(name, ern);
+    }
+
+    /**
+     * Send result through instance WebSocket connection, that delivered the message, in
+     * {@link MessageResultMode#WebSocket} mode or put it to instance queue, to be sent in background.
+     *
+     * @throws IOException if queue is full
+     * @see #setMessageResultMode(MessageResultMode)
+     * @see #setMessageResultSending(int, int, int)
+     */
+    @Override
+    public void sendMessageResult(UUID instanceId, Message message, @Nullable String result) throws IOException {
+        checkClosed();
+        InstanceContext instance = getInstance(instanceId);
+
+        MessageResultDto resultDto = MessageResultDto.of(instanceId, message, result);
+
+        if (log.isDebugEnabled()) {
+            log.debug("Send result:\n{}\n for message:\n{}", gson.toJson(resultDto),
+                    gson.toJson(((MessageImpl) message).getDto()));
+        }
+
+        if (instance.sendsResultsThroughWebSocket() && sendThroughDelivery(message, resultDto)) {
+            return;
+        }
+        if (!instance.messageResultSender.offer(resultDto, message.getConnectorErn())) {
+            throw new IOException("Message result rejected, queue is full or instance closed: " + message.getId());
+        }
+    }
+
+    /**
+     * Results are accepted to be sent as a unit. They are sent by one request, if message result batch size allows.
+     *
+     * @see #setMessageResultSending(int, int, int)
+     */
+    @Override
+    public void sendMessageResults(UUID instanceId, List<Message> messages, List<String> results) throws IOException {
+        checkClosed();
+        InstanceContext instance = getInstance(instanceId);
+
+        List<MessageResultSender.Item> items = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            Message message = messages.get(i);
+            MessageResultDto resultDto = MessageResultDto.of(instanceId, message, results.get(i));
+            if (instance.sendsResultsThroughWebSocket() && sendThroughDelivery(message, resultDto)) {
+                continue;
+            }
+            items.add(new MessageResultSender.Item(resultDto, message.getConnectorErn()));
+        }
+        if (!items.isEmpty() && !instance.messageResultSender.offerAll(items)) {
+            throw new IOException("Batch of " + items.size() + " message results rejected, " +
+                    "queue is full or instance closed");
+        }
+    }
+
+    private static boolean sendThroughDelivery(Message message, MessageResultDto resultDto) {
+        return message instanceof MessageImpl && ((MessageImpl) message).sendResult(resultDto);
+    }
+
+    /**
+     * @return sender of instance message results, that exposes its queue size and statistics
+     */
+    public MessageResultSender getMessageResultSender(UUID instanceId) {
+        checkClosed();
+        return getInstance(instanceId).messageResultSender;
+    }
+
+    @Override
+    public UUID addMessageListener(UUID instanceId, Predicate<Message> filter, Consumer<Message> listener) {
+        checkClosed();
+
+        return getInstance(instanceId).eventDispatcher.addMessageListener(filter, listener);
+    }
+
+    @Override
+    public UUID addBatchMessageListener(
+            UUID instanceId,
+            Predicate<Message> filter,
+            Consumer<List<Message>> listener,
+            int maxBatchSize,
+            long lingerMillis
+    ) {
+        checkClosed();
+
+        return getInstance(instanceId).eventDispatcher.addBatchMessageListener(filter, listener, maxBatchSize,
+                lingerMillis);
+    }
+
+    /**
+     * @return deduplicator of instance messages, that exposes hit rate, or {@code null} if deduplication disabled
+     * @see #setMessageDeduplication(long, TimeUnit, int)
+     */
+    @Nullable
+    public MessageDeduplicator getMessageDeduplicator(UUID instanceId) {
+        checkClosed();
+        return getInstance(instanceId).eventDispatcher.getDeduplicator();
+    }
+
+    /**
+     * @return number of instance webhook events, that are queued or being handled by listeners
+     * @see #setEventBackpressure(int, int, int)
+     */
+    public int getPendingEvents(UUID instanceId) {
+        checkClosed();
+        return getInstance(instanceId).eventDispatcher.getPendingEvents();
+    }
+
+    @Override
+    public void removeMessageListener(UUID instanceId, UUID listenerId) {
+        checkClosed();
+
+        getInstance(instanceId).eventDispatcher.removeMessageListener(listenerId);
+    }
+
+    @Override
+    public <R> void submitJob(
+            UUID instanceId,
+            Request request,
+            Type resultType,
+            Callback<R> callback
+    ) throws IOException {
+        checkClosed();
+        InstanceContext instance = getInstance(instanceId);
+
+        if (instance.options.getInvocationMode() == InvocationMode.Async) {
+            instance.httpInvoker.submitAsync(new InvocationBatcher.Invocation<>(request, resultType, callback));
+            return;
+        }
+        if (instance.webSocketInvoker != null && instance.webSocketInvoker.submit(request, resultType, callback)) {
+            return;
+        }
+        if (instance.invocationBatcher != null) {
+            instance.invocationBatcher.add(request, resultType, callback);
+            return;
+        }
+
+        instance.httpInvoker.submitSync(new InvocationBatcher.Invocation<>(request, resultType, callback));
+    }
+
+    /**
+     * Create resources shared by all instances, if not created yet.
+     */
+    protected synchronized void initializeShared() {
+        checkClosed();
+        if (sharedInitialized) {
+            return;
+        }
+
+        // Init defaults
+        sharedOptions = options.build();
+        gson = sharedOptions.getGson() != null ? sharedOptions.getGson() : createDefaultGson();
+        resultDecoder = new ResultMessageDecoder(gson);
+        httpClient = sharedOptions.getHttpClient() != null ? sharedOptions.getHttpClient() :
+                createDefaultHttpClient();
+        if (sharedOptions.getRequestCompression() != null) {
+            httpClient = withRequestCompression(httpClient);
+        }
+        compressionPolicy = new RequestCompressionPolicy(sharedOptions.getRequestCompression(),
+                sharedOptions.getRequestCompressionErns());
+        webSocketRetryStrategy = sharedOptions.getWebSocketRetryStrategy() != null ?
+                sharedOptions.getWebSocketRetryStrategy() : createDefaultRetryStrategy();
+        messageResultRetryStrategy = sharedOptions.getMessageResultRetryStrategy() != null ?
+                sharedOptions.getMessageResultRetryStrategy() : createDefaultMessageResultRetryStrategy();
+        eventExecutor = sharedOptions.getEventExecutor() != null ? sharedOptions.getEventExecutor() :
+                createDefaultEventExecutor();
+        callbackExecutor = sharedOptions.getCallbackExecutor() != null ? sharedOptions.getCallbackExecutor() :
+                createDefaultCallbackExecutor();
+        jobCompleter = new JobCompleter(gson, callbackExecutor);
+        sharedInitialized = true;
+    }
+
+    /**
+     * Create state and services of new instance, that read current options once. Shared resources must be
+     * initialized before.
+     *
+     * @see #initializeShared()
+     */
+    protected synchronized InstanceContext createInstance(UUID instanceId, String instanceName, String accessKey) {
+        return new InstanceContext(options.build(), instanceId, instanceName, accessKey);
+    }
+
+    protected String createAuthorizationHeader(String accessKey) {
+        return "Bearer " + accessKey;
+    }
+
+    protected InstanceEventDispatcher createEventDispatcher(HttpModuleOptions options) {
+        return new InstanceEventDispatcher(
+                gson,
+                eventExecutor,
+                options.getEventCapacity(),
+                options.getEventHighWatermark(),
+                options.getEventLowWatermark(),
+                options.getEventOrderingKey(),
+                options.getEventOrderingLanes(),
+                options.isMessageDeduplication() ?
+                        new MessageDeduplicator(options.getMessageDeduplicationWindow(),
+                                options.getMessageDeduplicationMaxEntries()) :
+                        null
+        );
+    }
+
+    protected WebSocketHandler createWebSocketHandler(
+            HttpModuleOptions options,
+            UUID instanceId,
+            String instanceName,
+            String authorizationHeader,
+            InstanceEventDispatcher eventDispatcher,
+            PendingInvocations<InvocationBatcher.Invocation<?>, ResultMessage<JsonElement>> pendingInvocations
+    ) {
+        byte[] frameDictionary = options.getWebSocketFrameDictionary();
+        FrameCompressor frameCompressor = frameDictionary == null ? null : new FrameCompressor(frameDictionary);
+        return new WebSocketHandler(
+                gson,
+                httpClient,
+                webSocketRetryStrategy,
+                HashedWheelTimer.shared(),
+                eventDispatcher,
+                result -> pendingInvocations.complete(result.getInvocationId(), result),
+                options.getWebSocketTerminationTimeout(),
+                new AckBatcher(gson, options.getAckBatchSize(), options.getAckBatchLinger(), HashedWheelTimer.shared(),
+                        frameCompressor),
+                options.getWebSocketShards(),
+                options.getWebSocketFrameEncoding(),
+                frameCompressor,
+                apiUrl,
+                instanceId,
+                instanceName,
+                authorizationHeader
+        );
+    }
+
+    protected PendingInvocations<InvocationBatcher.Invocation<?>, ResultMessage<JsonElement>>
+    createPendingInvocations(HttpModuleOptions options) {
+        return new PendingInvocations<>(
+                HashedWheelTimer.shared(),
+                options.getAsyncResultTimeout(),
+                jobCompleter::completeAsync,
+                (invocation, e) -> jobCompleter.fail(invocation.getCallback(), e)
+        );
+    }
+
+    protected HttpInvoker createHttpInvoker(
+            HttpModuleOptions options,
+            String authorizationHeader,
+            PendingInvocations<InvocationBatcher.Invocation<?>, ResultMessage<JsonElement>> pendingInvocations
+    ) {
+        return new HttpInvoker(
+                gson,
+                resultDecoder,
+                httpClient,
+                HashedWheelTimer.shared(),
+                compressionPolicy,
+                jobCompleter,
+                pendingInvocations,
+                options.getInvocationRetryStrategy(),
+                options.getIdempotentInvocations(),
+                this::isClosed,
+                apiUrl,
+                authorizationHeader
+        );
+    }
+
+    /**
+     * @return invoker through instance WebSocket or {@code null} if other invocation mode specified
+     * @see #setInvocationMode(InvocationMode)
+     */
+    @Nullable
+    protected WebSocketInvoker createWebSocketInvoker(
+            HttpModuleOptions options,
+            WebSocketHandler webSocketHandler,
+            PendingInvocations<InvocationBatcher.Invocation<?>, ResultMessage<JsonElement>> pendingInvocations,
+            HttpInvoker httpInvoker
+    ) {
+        if (options.getInvocationMode() != InvocationMode.WebSocket) {
+            return null;
+        }
+        WebSocketInvoker invoker = new WebSocketInvoker(
+                gson,
+                webSocketHandler,
+                pendingInvocations,
+                options.getWebSocketMaxInFlight(),
+                httpInvoker::submitSync
+        );
+        webSocketHandler.setDisconnectListener(invoker::onDisconnected);
+        return invoker;
+    }
+
+    /**
+     * @return batcher of instance invocations or {@code null} if batching disabled
+     * @see #setInvocationBatching(int, long, TimeUnit)
+     */
+    @Nullable
+    protected InvocationBatcher createInvocationBatcher(HttpModuleOptions options, HttpInvoker httpInvoker) {
+        if (options.getInvocationBatchSize() <= 1 || options.getInvocationMode() != InvocationMode.Sync) {
+            return null;
+        }
+        return new InvocationBatcher(
+                options.getInvocationBatchSize(),
+                options.getInvocationBatchLinger(),
+                HashedWheelTimer.shared(),
+                httpInvoker::submitBatch
+        );
+    }
+
+    protected MessageResultSender createMessageResultSender(HttpModuleOptions options, String authorizationHeader) {
+        return new MessageResultSender(
+                options.getMessageResultQueueCapacity(),
+                options.getMessageResultBatchSize(),
+                options.getMessageResultMaxInFlight(),
+                messageResultRetryStrategy,
+                HashedWheelTimer.shared(),
+                new HttpMessageResultTransport(gson, httpClient, compressionPolicy, apiUrl, authorizationHeader)
+        );
+    }
+
+    /**
+     * Release shared resources. All instances must be closed before.
+     */
+    protected synchronized void closeShared() {
+        if (!closed) {
+            if (httpClient != null) {
+                httpClient.dispatcher().cancelAll();
+            }
+            if (eventExecutor != null) {
+                ExecutorUtils.shutdown(eventExecutor, sharedOptions.getEventDispatcherTerminationTimeout(),
+                        "event dispatcher");
+            }
+            if (callbackExecutor != null) {
+                ExecutorUtils.shutdown(callbackExecutor, sharedOptions.getCallbackTerminationTimeout(), "callback");
+            }
+            closed = true;
+        }
+    }
+
+    /**
+     * State and services of one {@link Electrica} instance, that use shared resources of module.
+     */
+    protected class InstanceContext implements AutoCloseable {
+
+        protected final HttpModuleOptions options;
+        protected final UUID instanceId;
+        protected final String instanceName;
+        protected final String authorizationHeader;
+        protected final InstanceEventDispatcher eventDispatcher;
+        protected final WebSocketHandler webSocketHandler;
+        protected final HttpInvoker httpInvoker;
+        @Nullable
+        protected final InvocationBatcher invocationBatcher;
+        protected final PendingInvocations<InvocationBatcher.Invocation<?>, ResultMessage<JsonElement>>
+                pendingInvocations;
+        @Nullable
+        protected final WebSocketInvoker webSocketInvoker;
+        protected final MessageResultSender messageResultSender;
+        private final AtomicBoolean closing = new AtomicBoolean();
+
+        protected InstanceContext(HttpModuleOptions options, UUID instanceId, String instanceName, String accessKey) {
+            this.options = options;
+            this.instanceId = instanceId;
+            this.instanceName = instanceName;
+            authorizationHeader = createAuthorizationHeader(accessKey);
+            eventDispatcher = createEventDispatcher(options);
+            pendingInvocations = createPendingInvocations(options);
+            httpInvoker = createHttpInvoker(options, authorizationHeader, pendingInvocations);
+            webSocketHandler = createWebSocketHandler(
+                    options,
+                    instanceId,
+                    instanceName,
+                    authorizationHeader,
+                    eventDispatcher,
+                    pendingInvocations
+            );
+            webSocketInvoker = createWebSocketInvoker(options, webSocketHandler, pendingInvocations, httpInvoker);
+            invocationBatcher = createInvocationBatcher(options, httpInvoker);
+            messageResultSender = createMessageResultSender(options, authorizationHeader);
+        }
+
+        public UUID getInstanceId() {
+            return instanceId;
+        }
+
+        protected boolean sendsResultsThroughWebSocket() {
+            return options.getMessageResultMode() == MessageResultMode.WebSocket;
+        }
+
+        /**
+         * Stop receiving messages, wait for listeners to handle already received ones and send results, that they
+         * return meanwhile, then release instance services. Repeated invocation is no-op.
+         */
+        @Override
+        public void close() throws Exception {
+            if (!closing.compareAndSet(false, true)) {
+                return;
+            }
+            if (invocationBatcher != null) {
+                invocationBatcher.close();
+            }
+            webSocketHandler.close();
+            // listeners may still send results, so result sender is closed after them
+            if (!eventDispatcher.awaitPendingEvents(options.getEventDispatcherTerminationTimeout())) {
+                log.error("Can't await {} pending events of instance {}, their results may be dropped. " +
+                                "Please consider increase termination timeout parameter",
+                        eventDispatcher.getPendingEvents(), instanceId);
+            }
+            messageResultSender.close(options.getMessageResultTerminationTimeout());
+            pendingInvocations.close();
+            eventDispatcher.close();
+        }
+    }
+}
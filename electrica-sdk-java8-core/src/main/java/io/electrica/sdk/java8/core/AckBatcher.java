@@ -0,0 +1,192 @@
+package io.electrica.sdk.java8.core;
+
+import com.google.gson.Gson;
+import io.electrica.sdk.java8.api.impl.HashedWheelTimer;
+import io.electrica.sdk.java8.core.message.AckOutboundMessage;
+import io.electrica.sdk.java8.core.message.BatchAckOutboundMessage;
+import io.electrica.sdk.java8.core.message.MessagePackCodec;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.WebSocket;
+import okio.ByteString;
+
+import javax.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gathers acks of inbound messages and sends them as one {@link BatchAckOutboundMessage} frame, when batch reaches
+ * maximum size or linger time elapsed since first ack added to the batch. Single ack is sent as plain
+ * {@link AckOutboundMessage} frame.
+ * <p>
+ * Acks are sent through connection, that messages were received by, so acks are batched per connection. Frame is
+ * encoded by {@link FrameEncoding} of the first ack in batch and compressed by {@link FrameCompressor}, if message of
+ * the first ack was received compressed.
+ * <p>
+ * Frames are enqueued to connection under lock, so frame sent by {@link #sendAfterAcks(WebSocket, String)} can't
+ * overtake acks added before, even if their batch is being sent by timer concurrently.
+ */
+@Slf4j
+public class AckBatcher implements AutoCloseable {
+
+    private final Gson gson;
+    private final MessagePackCodec messagePackCodec;
+    @Nullable
+    private final FrameCompressor frameCompressor;
+    private final int maxBatchSize;
+    private final long lingerMillis;
+    private final HashedWheelTimer timer;
+
+    // synchronized by itself
+    private final Map<WebSocket, Batch> batches = new IdentityHashMap<>();
+    private boolean closed = false;
+
+    public AckBatcher(Gson gson, int maxBatchSize, long lingerMillis, HashedWheelTimer timer) {
+        this(gson, maxBatchSize, lingerMillis, timer, null);
+    }
+
+    /**
+     * @param frameCompressor compressor of acks of compressed messages or {@code null} if compression disabled
+     */
+    public AckBatcher(
+            Gson gson,
+            int maxBatchSize,
+            long lingerMillis,
+            HashedWheelTimer timer,
+            @Nullable FrameCompressor frameCompressor
+    ) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize);
+        }
+        this.gson = gson;
+        this.messagePackCodec = new MessagePackCodec(gson);
+        this.frameCompressor = frameCompressor;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerMillis = lingerMillis;
+        this.timer = timer;
+    }
+
+    public void add(WebSocket webSocket, AckOutboundMessage ack) {
+        add(webSocket, FrameEncoding.Json, false, ack);
+    }
+
+    public void add(WebSocket webSocket, FrameEncoding encoding, boolean compressed, AckOutboundMessage ack) {
+        synchronized (batches) {
+            if (closed || maxBatchSize == 1) {
+                Batch toSend = new Batch(webSocket, encoding, compressed);
+                toSend.acks.add(ack);
+                send(toSend);
+            } else {
+                Batch batch = batches.get(webSocket);
+                if (batch == null) {
+                    batch = new Batch(webSocket, encoding, compressed);
+                    batches.put(webSocket, batch);
+                    Batch lingering = batch;
+                    batch.timeout = timer.newTimeout(() -> flush(lingering), lingerMillis, TimeUnit.MILLISECONDS);
+                }
+                batch.acks.add(ack);
+                if (batch.acks.size() >= maxBatchSize) {
+                    batches.remove(webSocket);
+                    batch.timeout.cancel();
+                    send(batch);
+                }
+            }
+        }
+    }
+
+    private void flush(Batch lingering) {
+        synchronized (batches) {
+            // batch may be already sent by size
+            if (batches.remove(lingering.webSocket, lingering)) {
+                send(lingering);
+            }
+        }
+    }
+
+    /**
+     * Send all lingering batches.
+     */
+    public void flush() {
+        synchronized (batches) {
+            for (Batch batch : batches.values()) {
+                batch.timeout.cancel();
+                send(batch);
+            }
+            batches.clear();
+        }
+    }
+
+    /**
+     * Send lingering acks of connection and then specified text frame, so frame follows acks of all messages, that
+     * have been acked before, e.g. result of message follows its ack.
+     *
+     * @return {@code false} if frame can't be enqueued
+     * @see WebSocket#send(String)
+     */
+    public boolean sendAfterAcks(WebSocket webSocket, String text) {
+        synchronized (batches) {
+            Batch lingering = batches.remove(webSocket);
+            if (lingering != null) {
+                lingering.timeout.cancel();
+                send(lingering);
+            }
+            return webSocket.send(text);
+        }
+    }
+
+    private void send(Batch batch) {
+        Object message = batch.acks.size() == 1 ? batch.acks.get(0) : new BatchAckOutboundMessage(batch.acks);
+        String text = batch.encoding == FrameEncoding.Json ? gson.toJson(message) : null;
+        if (log.isDebugEnabled()) {
+            log.debug(WebSocketHandler.LOG_PREFIX + " sending {} ack message: {}", batch.encoding,
+                    text == null ? gson.toJson(message) : text);
+        }
+        ByteString binary = text == null ? messagePackCodec.encode(message) : null;
+
+        if (batch.compressed && frameCompressor != null) {
+            ByteString compressed = frameCompressor.compress(text == null ?
+                    binary.toByteArray() :
+                    text.getBytes(StandardCharsets.UTF_8));
+            // otherwise compressed frame isn't smaller
+            if (compressed != null) {
+                batch.webSocket.send(compressed);
+                return;
+            }
+        }
+        if (text == null) {
+            batch.webSocket.send(binary);
+        } else {
+            batch.webSocket.send(text);
+        }
+    }
+
+    /**
+     * Send lingering batches and send following acks immediately.
+     */
+    @Override
+    public void close() {
+        synchronized (batches) {
+            closed = true;
+        }
+        flush();
+    }
+
+    private static class Batch {
+
+        private final WebSocket webSocket;
+        private final FrameEncoding encoding;
+        private final boolean compressed;
+        private final List<AckOutboundMessage> acks = new ArrayList<>();
+        private HashedWheelTimer.Timeout timeout;
+
+        private Batch(WebSocket webSocket, FrameEncoding encoding, boolean compressed) {
+            this.webSocket = webSocket;
+            this.encoding = encoding;
+            this.compressed = compressed;
+        }
+    }
+}
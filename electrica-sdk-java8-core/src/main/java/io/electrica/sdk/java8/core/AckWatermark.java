@@ -0,0 +1,61 @@
+package io.electrica.sdk.java8.core;
+
+import java.util.Arrays;
+
+/**
+ * Tracks watermark of WebSocket session: the highest sequence number, up to which all messages of session have been
+ * accepted, while messages are handled and acked out of order. Sequence numbers of session start from {@code 1} and
+ * have no gaps.
+ * <p>
+ * Accepted sequences above watermark are kept in ring of fixed capacity. Sequence, that is too far ahead of
+ * watermark, isn't tracked, so watermark stops below it and server replays more than needed on resume.
+ */
+public class AckWatermark {
+
+    public static final int DEFAULT_CAPACITY = 64 * 1024;
+
+    // synchronized by this
+    private final boolean[] accepted;
+    private long watermark = 0;
+
+    public AckWatermark() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity maximum distance from watermark to tracked sequence
+     */
+    public AckWatermark(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.accepted = new boolean[capacity];
+    }
+
+    public synchronized void accept(long seq) {
+        if (seq <= watermark || seq > watermark + accepted.length) {
+            return;
+        }
+        accepted[index(seq)] = true;
+        while (accepted[index(watermark + 1)]) {
+            accepted[index(watermark + 1)] = false;
+            watermark++;
+        }
+    }
+
+    public synchronized long get() {
+        return watermark;
+    }
+
+    /**
+     * Forget session, e.g. when server started new one.
+     */
+    public synchronized void reset() {
+        Arrays.fill(accepted, false);
+        watermark = 0;
+    }
+
+    private int index(long seq) {
+        return (int) (seq % accepted.length);
+    }
+}
@@ -0,0 +1,55 @@
+package io.electrica.sdk.java8.core;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+public class ExecutorUtils {
+
+    private ExecutorUtils() {
+    }
+
+    /**
+     * Create factory of non-daemon threads that belong to new thread group with specified name.
+     */
+    public static ThreadFactory threadFactory(String threadGroupName) {
+        ThreadGroup group = new ThreadGroup(threadGroupName);
+        return runnable -> {
+            Thread thread = new Thread(group, runnable);
+            thread.setDaemon(false);
+            return thread;
+        };
+    }
+
+    /**
+     * Gracefully shutdown executor, cancel remaining tasks if they not terminated during specified timeout.
+     *
+     * @param executor                 executor to shutdown
+     * @param terminationTimeoutMillis timeout in millis to await termination
+     * @param name                     executor name used in logs
+     */
+    public static void shutdown(ExecutorService executor, long terminationTimeoutMillis, String name) {
+        executor.shutdown(); // Disable new tasks from being submitted
+        try {
+            // Wait a while for existing tasks to terminate
+            if (!executor.awaitTermination(terminationTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                List<Runnable> tasks = executor.shutdownNow(); // Cancel currently executing tasks
+                log.error("Dropped {} enqueued {} tasks", tasks.size(), name);
+                log.info("Awaiting termination of executing {} tasks", name);
+                if (!executor.awaitTermination(terminationTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    log.error("Can't await executing {} tasks termination. " +
+                            "Please consider increase termination timeout parameter", name);
+                }
+            }
+        } catch (InterruptedException ie) {
+            // (Re-)Cancel if current thread also interrupted
+            executor.shutdownNow();
+            // Preserve interrupt status
+            Thread.currentThread().interrupt();
+        }
+    }
+}
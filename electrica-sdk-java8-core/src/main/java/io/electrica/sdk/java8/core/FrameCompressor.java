@@ -0,0 +1,156 @@
+package io.electrica.sdk.java8.core;
+
+import okio.ByteString;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses WebSocket frames by raw deflate with preset dictionary, that shared with server, so even small frames,
+ * which consist mostly of field names and repeated values, are compressed well.
+ * <p>
+ * Compressed frame is a binary frame, that starts with {@link #COMPRESSED_FRAME_MARKER} byte, never used by
+ * MessagePack, followed by deflated JSON or MessagePack document. Server knows dictionary by
+ * {@link #getDictionaryId()}, see {@link WebSocketHandler#INSTANCE_FRAME_DICTIONARY_HEADER}.
+ * <p>
+ * Deflaters and inflaters are pooled, because they hold native memory and are expensive to create per frame.
+ * <p>
+ * Decompressed document size is limited, so small malicious frame can't inflate into huge document and exhaust memory.
+ *
+ * @see FrameDictionaryTrainer
+ */
+public class FrameCompressor {
+
+    public static final byte COMPRESSED_FRAME_MARKER = (byte) 0xc1;
+    /**
+     * The same as maximum size of WebSocket message, that OkHttp allows to send.
+     */
+    public static final int DEFAULT_MAX_DOCUMENT_SIZE = 16 * 1024 * 1024;
+
+    private final byte[] dictionary;
+    private final String dictionaryId;
+    private final int level;
+    private final int maxDocumentSize;
+
+    private final Queue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+    private final Queue<Inflater> inflaters = new ConcurrentLinkedQueue<>();
+
+    public FrameCompressor(byte[] dictionary) {
+        this(dictionary, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    public FrameCompressor(byte[] dictionary, int level) {
+        this(dictionary, level, DEFAULT_MAX_DOCUMENT_SIZE);
+    }
+
+    /**
+     * @param dictionary      preset dictionary, the most valuable content goes last
+     * @param level           deflate compression level
+     * @param maxDocumentSize maximum size of decompressed document in bytes
+     */
+    public FrameCompressor(byte[] dictionary, int level, int maxDocumentSize) {
+        if (maxDocumentSize < 1) {
+            throw new IllegalArgumentException("maxDocumentSize must be positive: " + maxDocumentSize);
+        }
+        this.dictionary = Arrays.copyOf(dictionary, dictionary.length);
+        this.level = level;
+        this.maxDocumentSize = maxDocumentSize;
+        // the same dictionary id as used by zlib format
+        Adler32 adler32 = new Adler32();
+        adler32.update(dictionary);
+        this.dictionaryId = String.format("%08x", adler32.getValue());
+    }
+
+    public static boolean isCompressed(ByteString frame) {
+        return frame.size() > 0 && frame.getByte(0) == COMPRESSED_FRAME_MARKER;
+    }
+
+    /**
+     * Value of {@link WebSocketHandler#INSTANCE_FRAME_DICTIONARY_HEADER} header, that is Adler-32 checksum of
+     * dictionary in hex.
+     */
+    public String getDictionaryId() {
+        return dictionaryId;
+    }
+
+    /**
+     * @return compressed frame or {@code null} if compression doesn't make document smaller
+     */
+    public ByteString compress(byte[] document) {
+        if (document.length < 2) {
+            return null;
+        }
+        Deflater deflater = deflaters.poll();
+        if (deflater == null) {
+            deflater = new Deflater(level, true);
+        }
+        try {
+            if (dictionary.length > 0) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(document);
+            deflater.finish();
+
+            // compressed frame isn't sent if it isn't smaller than document
+            byte[] buffer = new byte[document.length];
+            buffer[0] = COMPRESSED_FRAME_MARKER;
+            int size = 1;
+            while (!deflater.finished() && size < buffer.length) {
+                size += deflater.deflate(buffer, size, buffer.length - size);
+            }
+            return deflater.finished() ? ByteString.of(buffer, 0, size) : null;
+        } finally {
+            deflater.reset();
+            deflaters.offer(deflater);
+        }
+    }
+
+    /**
+     * @param frame compressed frame starting with {@link #COMPRESSED_FRAME_MARKER}
+     * @return decompressed document
+     * @throws IllegalArgumentException if frame isn't valid compressed frame or decompressed document exceeds
+     *                                  maximum size
+     */
+    public byte[] decompress(ByteString frame) {
+        if (!isCompressed(frame)) {
+            throw new IllegalArgumentException("Frame isn't compressed");
+        }
+        Inflater inflater = inflaters.poll();
+        if (inflater == null) {
+            inflater = new Inflater(true);
+        }
+        try {
+            if (dictionary.length > 0) {
+                inflater.setDictionary(dictionary);
+            }
+            byte[] input = frame.toByteArray();
+            inflater.setInput(input, 1, input.length - 1);
+
+            int bufferSize = (int) Math.min(Math.max(input.length * 4L, 256), maxDocumentSize);
+            ByteArrayOutputStream output = new ByteArrayOutputStream(bufferSize);
+            byte[] buffer = new byte[bufferSize];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Truncated compressed frame");
+                }
+                if (count > maxDocumentSize - output.size()) {
+                    throw new IllegalArgumentException("Decompressed frame exceeds " + maxDocumentSize + " bytes");
+                }
+                output.write(buffer, 0, count);
+            }
+            return output.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Malformed compressed frame", e);
+        } finally {
+            inflater.reset();
+            inflaters.offer(inflater);
+        }
+    }
+}
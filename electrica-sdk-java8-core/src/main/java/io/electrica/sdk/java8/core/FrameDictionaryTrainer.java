@@ -0,0 +1,195 @@
+package io.electrica.sdk.java8.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds preset dictionary of {@link FrameCompressor} from captured sample frames by simplified COVER algorithm.
+ * <p>
+ * Sample bytes are split into epochs and one segment is picked from each epoch: the one, that covers the most
+ * frequent {@value #DMER_SIZE}-byte sequences, which aren't covered by already picked segments. Frequency of sequence
+ * is number of samples, that contain it. Picked segment is trimmed to sequences, that occur in several samples.
+ * Segments with higher score go closer to the end of dictionary, where deflate references them by shorter
+ * distances.
+ */
+public final class FrameDictionaryTrainer {
+
+    /**
+     * Deflate refers to previous 32 KiB of data only, so larger dictionary is useless.
+     */
+    public static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+    public static final int DEFAULT_SEGMENT_SIZE = 64;
+
+    private static final int DMER_SIZE = 8;
+
+    private FrameDictionaryTrainer() {
+    }
+
+    public static byte[] train(List<byte[]> samples, int dictionarySize) {
+        return train(samples, dictionarySize, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * @param samples        captured frames, that are typical for traffic
+     * @param dictionarySize maximum size of dictionary, at most {@link #MAX_DICTIONARY_SIZE}
+     * @param segmentSize    size of picked segments, at least {@value #DMER_SIZE}
+     * @return dictionary, that may be smaller than requested, if samples are too small or not repetitive
+     */
+    public static byte[] train(List<byte[]> samples, int dictionarySize, int segmentSize) {
+        if (dictionarySize < 1 || dictionarySize > MAX_DICTIONARY_SIZE) {
+            throw new IllegalArgumentException("dictionarySize must be in range [1, " + MAX_DICTIONARY_SIZE + "]: " +
+                    dictionarySize);
+        }
+        if (segmentSize < DMER_SIZE) {
+            throw new IllegalArgumentException("segmentSize must be at least " + DMER_SIZE + ": " + segmentSize);
+        }
+
+        int totalSize = 0;
+        for (byte[] sample : samples) {
+            totalSize += sample.length;
+        }
+        byte[] data = new byte[totalSize];
+        int offset = 0;
+        for (byte[] sample : samples) {
+            System.arraycopy(sample, 0, data, offset, sample.length);
+            offset += sample.length;
+        }
+        if (totalSize < segmentSize) {
+            return Arrays.copyOfRange(data, Math.max(0, totalSize - dictionarySize), totalSize);
+        }
+
+        // {frequency, index of last sample that counted}
+        LongObjectHashMap<int[]> frequencies = new LongObjectHashMap<>(totalSize / 4);
+        offset = 0;
+        for (int s = 0; s < samples.size(); s++) {
+            int end = offset + samples.get(s).length;
+            for (int i = offset; i + DMER_SIZE <= end; i++) {
+                long dmer = dmer(data, i);
+                int[] frequency = frequencies.get(dmer);
+                if (frequency == null) {
+                    frequencies.put(dmer, new int[]{1, s});
+                } else if (frequency[1] != s) {
+                    frequency[0]++;
+                    frequency[1] = s;
+                }
+            }
+            offset = end;
+        }
+
+        int epochs = Math.max(1, Math.min(dictionarySize / segmentSize, totalSize / segmentSize));
+        int epochSize = totalSize / epochs;
+        List<Segment> segments = new ArrayList<>(epochs);
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            int begin = epoch * epochSize;
+            int end = epoch == epochs - 1 ? totalSize : begin + epochSize;
+            Segment segment = pickSegment(data, begin, end, segmentSize, frequencies);
+            if (segment != null) {
+                segments.add(segment);
+            }
+        }
+
+        // the most valuable segments go last and are kept if dictionary is truncated
+        segments.sort((a, b) -> Long.compare(a.score, b.score));
+        int totalLength = 0;
+        for (Segment segment : segments) {
+            totalLength += segment.length;
+        }
+        int size = Math.min(dictionarySize, totalLength);
+        byte[] dictionary = new byte[size];
+        int position = size;
+        for (int i = segments.size() - 1; i >= 0 && position > 0; i--) {
+            Segment segment = segments.get(i);
+            int length = Math.min(segment.length, position);
+            position -= length;
+            System.arraycopy(data, segment.begin + segment.length - length, dictionary, position, length);
+        }
+        return dictionary;
+    }
+
+    /**
+     * Slide window of segment size over epoch and pick window with the highest sum of frequencies of distinct
+     * sequences. Sequences of picked segment are zeroed, so following segments don't repeat them.
+     */
+    private static Segment pickSegment(byte[] data, int begin, int end, int segmentSize,
+                                       LongObjectHashMap<int[]> frequencies) {
+        int dmersPerSegment = segmentSize - DMER_SIZE + 1;
+        LongObjectHashMap<int[]> active = new LongObjectHashMap<>(dmersPerSegment);
+        long score = 0;
+        long bestScore = 0;
+        int bestBegin = -1;
+        for (int i = begin; i + DMER_SIZE <= end; i++) {
+            long dmer = dmer(data, i);
+            int[] count = active.get(dmer);
+            if (count == null) {
+                active.put(dmer, new int[]{1});
+                score += frequency(frequencies, dmer);
+            } else {
+                count[0]++;
+            }
+
+            int windowBegin = i - dmersPerSegment + 1;
+            if (windowBegin > begin) {
+                long removed = dmer(data, windowBegin - 1);
+                int[] removedCount = active.get(removed);
+                if (--removedCount[0] == 0) {
+                    active.remove(removed);
+                    score -= frequency(frequencies, removed);
+                }
+            }
+            if (windowBegin >= begin && score > bestScore) {
+                bestScore = score;
+                bestBegin = windowBegin;
+            }
+        }
+        if (bestBegin < 0) {
+            return null;
+        }
+
+        // trim sequences, that aren't worth dictionary space
+        int first = bestBegin;
+        int last = bestBegin + dmersPerSegment - 1;
+        while (frequency(frequencies, dmer(data, first)) == 0) {
+            first++;
+        }
+        while (frequency(frequencies, dmer(data, last)) == 0) {
+            last--;
+        }
+        for (int i = first; i <= last; i++) {
+            int[] frequency = frequencies.get(dmer(data, i));
+            if (frequency != null) {
+                frequency[0] = 0;
+            }
+        }
+        return new Segment(first, last - first + DMER_SIZE, bestScore);
+    }
+
+    /**
+     * @return frequency of sequence or zero for sequence, that occurs in single sample only or crosses sample boundary
+     */
+    private static int frequency(LongObjectHashMap<int[]> frequencies, long dmer) {
+        int[] frequency = frequencies.get(dmer);
+        return frequency == null || frequency[0] < 2 ? 0 : frequency[0];
+    }
+
+    private static long dmer(byte[] data, int offset) {
+        long result = 0;
+        for (int i = offset; i < offset + DMER_SIZE; i++) {
+            result = (result << 8) | (data[i] & 0xff);
+        }
+        return result;
+    }
+
+    private static final class Segment {
+
+        private final int begin;
+        private final int length;
+        private final long score;
+
+        private Segment(int begin, int length, long score) {
+            this.begin = begin;
+            this.length = length;
+            this.score = score;
+        }
+    }
+}
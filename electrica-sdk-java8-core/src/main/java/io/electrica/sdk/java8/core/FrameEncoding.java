@@ -0,0 +1,34 @@
+package io.electrica.sdk.java8.core;
+
+/**
+ * Defines encoding of inbound messages and acks, that instance WebSocket offers to server at connect time by
+ * {@link WebSocketHandler#INSTANCE_FRAME_ENCODING_HEADER}.
+ */
+public enum FrameEncoding {
+
+    /**
+     * UTF-8 JSON text frames. Always supported, so server, that doesn't know offered encoding, keeps sending them.
+     */
+    Json("json"),
+
+    /**
+     * MessagePack binary frames with the same documents as JSON ones. Messages received in binary frames are acked
+     * by binary frames, text frames are still accepted.
+     *
+     * @see io.electrica.sdk.java8.core.message.MessagePackCodec
+     */
+    MessagePack("msgpack");
+
+    private final String name;
+
+    FrameEncoding(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Value of {@link WebSocketHandler#INSTANCE_FRAME_ENCODING_HEADER} header.
+     */
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,60 @@
+package io.electrica.sdk.java8.core;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.stream.JsonWriter;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Request body that serializes object with {@link Gson} directly into request sink, without intermediate JSON
+ * string and byte array. Length is unknown in advance, so body is transferred using chunked encoding.
+ * <p>
+ * Object is serialized on every {@link #writeTo(BufferedSink)} call, so body can be retried by OkHttp.
+ */
+public class GsonRequestBody extends RequestBody {
+
+    private final Gson gson;
+    private final MediaType contentType;
+    private final Object value;
+    private final Type type;
+
+    public GsonRequestBody(Gson gson, MediaType contentType, Object value) {
+        this(gson, contentType, value, value.getClass());
+    }
+
+    public GsonRequestBody(Gson gson, MediaType contentType, Object value, Type type) {
+        this.gson = gson;
+        this.contentType = contentType;
+        this.value = value;
+        this.type = type;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return contentType;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        // sink is closed by OkHttp, so writer only flushed to not lose buffered chars
+        Writer writer = new OutputStreamWriter(sink.outputStream(), StandardCharsets.UTF_8);
+        JsonWriter jsonWriter = gson.newJsonWriter(writer);
+        try {
+            gson.toJson(value, type, jsonWriter);
+        } catch (JsonIOException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+        jsonWriter.flush();
+    }
+}
@@ -0,0 +1,360 @@
+package io.electrica.sdk.java8.core;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import io.electrica.sdk.java8.api.http.ConnectionInfo;
+import io.electrica.sdk.java8.api.http.Request;
+import io.electrica.sdk.java8.api.impl.HashedWheelTimer;
+import io.electrica.sdk.java8.core.dto.ConnectionDto;
+import io.electrica.sdk.java8.core.message.ResultMessage;
+import io.electrica.sdk.java8.core.message.ResultMessageDecoder;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.*;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+import static io.electrica.sdk.java8.core.AbstractHttpModule.APPLICATION_JSON;
+import static io.electrica.sdk.java8.core.AbstractHttpModule.AUTHORIZATION;
+import static io.electrica.sdk.java8.core.AbstractHttpModule.CONNECTIONS_PATH;
+import static io.electrica.sdk.java8.core.AbstractHttpModule.INVOKE_ASYNC_PATH;
+import static io.electrica.sdk.java8.core.AbstractHttpModule.INVOKE_BATCH_PATH;
+import static io.electrica.sdk.java8.core.AbstractHttpModule.INVOKE_PATH;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Sends HTTP requests of one instance to API: fetches connections and submits invocations separately, by batches or
+ * asynchronously. Responses are handled on OkHttp dispatcher threads and job callbacks are completed by
+ * {@link JobCompleter}.
+ */
+@Slf4j
+public class HttpInvoker {
+
+    private final Gson gson;
+    private final ResultMessageDecoder resultDecoder;
+    private final OkHttpClient httpClient;
+    private final HashedWheelTimer timer;
+    private final RequestCompressionPolicy compressionPolicy;
+    private final JobCompleter jobCompleter;
+    private final PendingInvocations<InvocationBatcher.Invocation<?>, ResultMessage<JsonElement>> pendingInvocations;
+    @Nullable
+    private final RetryStrategy retryStrategy;
+    private final Predicate<Request> idempotent;
+    private final BooleanSupplier closed;
+    private final String apiUrl;
+    private final String authorizationHeader;
+
+    /**
+     * @param pendingInvocations registry of accepted {@link InvocationMode#Async} invocations
+     * @param retryStrategy      strategy of retries of idempotent invocations or {@code null} to not retry
+     * @param idempotent         tests whether action of invocation request can be retried
+     * @param closed             tells whether module has been closed, so scheduled retry fails job instead
+     */
+    public HttpInvoker(
+            Gson gson,
+            ResultMessageDecoder resultDecoder,
+            OkHttpClient httpClient,
+            HashedWheelTimer timer,
+            RequestCompressionPolicy compressionPolicy,
+            JobCompleter jobCompleter,
+            PendingInvocations<InvocationBatcher.Invocation<?>, ResultMessage<JsonElement>> pendingInvocations,
+            @Nullable RetryStrategy retryStrategy,
+            Predicate<Request> idempotent,
+            BooleanSupplier closed,
+            String apiUrl,
+            String authorizationHeader
+    ) {
+        this.gson = gson;
+        this.resultDecoder = resultDecoder;
+        this.httpClient = httpClient;
+        this.timer = timer;
+        this.compressionPolicy = compressionPolicy;
+        this.jobCompleter = jobCompleter;
+        this.pendingInvocations = pendingInvocations;
+        this.retryStrategy = retryStrategy;
+        this.idempotent = idempotent;
+        this.closed = closed;
+        this.apiUrl = apiUrl;
+        this.authorizationHeader = authorizationHeader;
+    }
+
+    public List<ConnectionInfo> getConnections(@Nullable String name, String ern) throws IOException {
+        if (log.isDebugEnabled()) {
+            log.debug("Fetch connections for {} connector with filter by name '{}'", ern, name);
+        }
+
+        String url = apiUrl + CONNECTIONS_PATH;
+        HttpUrl.Builder urlBuilder = HttpUrl.get(url).newBuilder()
+                .addQueryParameter("ern", ern);
+        if (name != null) {
+            urlBuilder.addQueryParameter("connectionName", name);
+        }
+
+        okhttp3.Request request = new okhttp3.Request.Builder()
+                .url(urlBuilder.build())
+                .header(AUTHORIZATION, authorizationHeader)
+                .build();
+
+        Response response = httpClient.newCall(request).execute();
+        if (!response.isSuccessful()) {
+            throw new IOException("Invocation failed: " + response);
+        }
+
+        String json = requireNonNull(response.body(), "body").string();
+        List<ConnectionDto> connections = gson.fromJson(json, new TypeToken<List<ConnectionDto>>() {
+        }.getType());
+        for (ConnectionDto connection : connections) {
+            compressionPolicy.registerConnection(connection.getId(), ern);
+        }
+        return new ArrayList<>(connections);
+    }
+
+    /**
+     * Send invocation by separate request to {@link AbstractHttpModule#INVOKE_PATH}.
+     */
+    public <R> void submitSync(InvocationBatcher.Invocation<R> invocation) {
+        submitSync(invocation, 0, 0);
+    }
+
+    /**
+     * @param retryNumber number of retry or {@code 0} for the first attempt
+     * @param retryDelay  delay before this retry, see {@link RetryStrategy#getDelay(int, long)}
+     */
+    private <R> void submitSync(InvocationBatcher.Invocation<R> invocation, int retryNumber, long retryDelay) {
+        Request request = invocation.getRequest();
+        String url = apiUrl + INVOKE_PATH;
+
+        if (log.isDebugEnabled()) {
+            log.debug("Submit job:\n{}", gson.toJson(request));
+        }
+
+        okhttp3.Request httpRequest = new okhttp3.Request.Builder()
+                .url(url)
+                .header(AUTHORIZATION, authorizationHeader)
+                .post(new GsonRequestBody(gson, APPLICATION_JSON, request))
+                .tag(RequestCompressionInterceptor.Encoding.class, compressionPolicy.getEncoding(request))
+                .build();
+
+        httpClient.newCall(httpRequest).enqueue(new SingleInvocationCallback<>(invocation, retryNumber, retryDelay));
+    }
+
+    /**
+     * Schedule retry of failed invocation of idempotent action, if retry strategy allows.
+     *
+     * @return {@code true} if retry scheduled
+     */
+    private <R> boolean retrySync(
+            InvocationBatcher.Invocation<R> invocation,
+            int retryNumber,
+            long previousDelay,
+            IOException error
+    ) {
+        if (retryStrategy == null || !idempotent.test(invocation.getRequest())) {
+            return false;
+        }
+        Optional<Long> delay = retryStrategy.getDelay(retryNumber, previousDelay);
+        if (!delay.isPresent()) {
+            return false;
+        }
+        log.warn("Invocation of {} failed, retry #{} in {}ms: {}", invocation.getRequest().getAction(), retryNumber,
+                delay.get(), error.toString());
+        timer.newTimeout(() -> {
+            if (closed.getAsBoolean()) {
+                jobCompleter.fail(invocation.getCallback(), error);
+                return;
+            }
+            submitSync(invocation, retryNumber, delay.get());
+        }, delay.get(), TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    /**
+     * Send invocation to {@link AbstractHttpModule#INVOKE_ASYNC_PATH} and register it to wait for pushed result.
+     */
+    public <R> void submitAsync(InvocationBatcher.Invocation<R> invocation) {
+        Request request = invocation.getRequest();
+        String url = apiUrl + INVOKE_ASYNC_PATH;
+
+        if (log.isDebugEnabled()) {
+            log.debug("Submit async job:\n{}", gson.toJson(request));
+        }
+
+        okhttp3.Request httpRequest = new okhttp3.Request.Builder()
+                .url(url)
+                .header(AUTHORIZATION, authorizationHeader)
+                .post(new GsonRequestBody(gson, APPLICATION_JSON, request))
+                .tag(RequestCompressionInterceptor.Encoding.class, compressionPolicy.getEncoding(request))
+                .build();
+
+        httpClient.newCall(httpRequest).enqueue(new AsyncInvocationCallback(invocation));
+    }
+
+    /**
+     * Send invocations of one connection by one request to {@link AbstractHttpModule#INVOKE_BATCH_PATH}.
+     */
+    public void submitBatch(List<InvocationBatcher.Invocation<?>> invocations) {
+        String url = apiUrl + INVOKE_BATCH_PATH;
+        List<Request> requests = new ArrayList<>(invocations.size());
+        for (InvocationBatcher.Invocation<?> invocation : invocations) {
+            requests.add(invocation.getRequest());
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Submit batch of {} jobs:\n{}", invocations.size(), gson.toJson(requests));
+        }
+
+        okhttp3.Request httpRequest = new okhttp3.Request.Builder()
+                .url(url)
+                .header(AUTHORIZATION, authorizationHeader)
+                .post(new GsonRequestBody(gson, APPLICATION_JSON, requests))
+                // batch contains invocations of one connection
+                .tag(RequestCompressionInterceptor.Encoding.class, compressionPolicy.getEncoding(requests.get(0)))
+                .build();
+
+        httpClient.newCall(httpRequest).enqueue(new BatchInvocationCallback(invocations));
+    }
+
+    /**
+     * Handles response of asynchronous invocation on OkHttp dispatcher thread and completes user callback
+     * in callback executor.
+     */
+    private abstract class InvocationCallback implements okhttp3.Callback {
+
+        @Override
+        public void onFailure(Call call, IOException e) {
+            onFailure(call, e, !call.isCanceled());
+        }
+
+        @Override
+        public void onResponse(Call call, Response response) {
+            try (ResponseBody body = requireNonNull(response.body(), "body")) {
+                if (!response.isSuccessful()) {
+                    // client errors won't be fixed by retry
+                    onFailure(call, new IOException("Request exception: " + response), response.code() >= 500);
+                    return;
+                }
+                onResult(gson.newJsonReader(body.charStream()));
+            } catch (IOException e) {
+                onFailure(call, e, false);
+            } catch (RuntimeException e) {
+                onFailure(call, new IOException("Can't read invocation result", e), false);
+            }
+        }
+
+        /**
+         * @param retriable whether invocation may succeed, if retried
+         */
+        protected abstract void onFailure(Call call, IOException e, boolean retriable);
+
+        /**
+         * Parse and dispatch result. Callbacks must be completed only if whole result has been parsed.
+         */
+        protected abstract void onResult(JsonReader reader) throws IOException;
+    }
+
+    private class SingleInvocationCallback<R> extends InvocationCallback {
+
+        private final InvocationBatcher.Invocation<R> invocation;
+        private final int retryNumber;
+        private final long retryDelay;
+
+        private SingleInvocationCallback(InvocationBatcher.Invocation<R> invocation, int retryNumber, long retryDelay) {
+            this.invocation = invocation;
+            this.retryNumber = retryNumber;
+            this.retryDelay = retryDelay;
+        }
+
+        @Override
+        protected void onFailure(Call call, IOException e, boolean retriable) {
+            if (retriable && retrySync(invocation, retryNumber + 1, retryDelay, e)) {
+                return;
+            }
+            jobCompleter.fail(invocation.getCallback(), e);
+        }
+
+        @Override
+        protected void onResult(JsonReader reader) throws IOException {
+            ResultMessage<R> resultMessage = resultDecoder.decode(reader, invocation.getResultType());
+            jobCompleter.complete(resultMessage, invocation.getCallback());
+        }
+    }
+
+    private class BatchInvocationCallback extends InvocationCallback {
+
+        private final List<InvocationBatcher.Invocation<?>> invocations;
+
+        private BatchInvocationCallback(List<InvocationBatcher.Invocation<?>> invocations) {
+            this.invocations = invocations;
+        }
+
+        @Override
+        protected void onFailure(Call call, IOException e, boolean retriable) {
+            for (InvocationBatcher.Invocation<?> invocation : invocations) {
+                jobCompleter.fail(invocation.getCallback(), e);
+            }
+        }
+
+        @Override
+        protected void onResult(JsonReader reader) throws IOException {
+            List<ResultMessage<?>> resultMessages = new ArrayList<>(invocations.size());
+            reader.beginArray();
+            while (reader.hasNext()) {
+                if (resultMessages.size() == invocations.size()) {
+                    throw new JsonParseException("Batch contains more than " + invocations.size() + " results");
+                }
+                Type resultType = invocations.get(resultMessages.size()).getResultType();
+                resultMessages.add(resultDecoder.decode(reader, resultType));
+            }
+            reader.endArray();
+            if (resultMessages.size() != invocations.size()) {
+                throw new JsonParseException("Expected " + invocations.size() + " results in batch, but got: " +
+                        resultMessages.size());
+            }
+            for (int i = 0; i < resultMessages.size(); i++) {
+                jobCompleter.complete(resultMessages.get(i), invocations.get(i));
+            }
+        }
+    }
+
+    /**
+     * Handles acceptance of {@link InvocationMode#Async} invocation and registers it to wait for result.
+     */
+    private class AsyncInvocationCallback extends InvocationCallback {
+
+        private final InvocationBatcher.Invocation<?> invocation;
+
+        private AsyncInvocationCallback(InvocationBatcher.Invocation<?> invocation) {
+            this.invocation = invocation;
+        }
+
+        @Override
+        protected void onFailure(Call call, IOException e, boolean retriable) {
+            jobCompleter.fail(invocation.getCallback(), e);
+        }
+
+        @Override
+        protected void onResult(JsonReader reader) throws IOException {
+            ResultMessage<Void> accepted = resultDecoder.decode(reader, Void.class);
+            if (accepted.getError() != null) {
+                jobCompleter.execute(() -> invocation.getCallback().onFailure(accepted.getError().asException()));
+                return;
+            }
+            UUID invocationId = accepted.getInvocationId();
+            if (invocationId == null) {
+                throw new JsonParseException("Required invocationId of accepted async invocation");
+            }
+            pendingInvocations.register(invocationId, invocation);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package io.electrica.sdk.java8.core;
+
+import com.google.gson.Gson;
+import io.electrica.sdk.java8.core.dto.MessageResultDto;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.electrica.sdk.java8.core.AbstractHttpModule.APPLICATION_JSON;
+import static io.electrica.sdk.java8.core.AbstractHttpModule.AUTHORIZATION;
+import static io.electrica.sdk.java8.core.AbstractHttpModule.MESSAGE_RESULT_BATCH_PATH;
+import static io.electrica.sdk.java8.core.AbstractHttpModule.MESSAGE_RESULT_PATH;
+
+/**
+ * Sends message results of one instance by HTTP requests, single result to
+ * {@link AbstractHttpModule#MESSAGE_RESULT_PATH} and several ones to
+ * {@link AbstractHttpModule#MESSAGE_RESULT_BATCH_PATH}.
+ */
+@Slf4j
+public class HttpMessageResultTransport implements MessageResultSender.Transport {
+
+    private final Gson gson;
+    private final OkHttpClient httpClient;
+    private final RequestCompressionPolicy compressionPolicy;
+    private final String apiUrl;
+    private final String authorizationHeader;
+
+    public HttpMessageResultTransport(
+            Gson gson,
+            OkHttpClient httpClient,
+            RequestCompressionPolicy compressionPolicy,
+            String apiUrl,
+            String authorizationHeader
+    ) {
+        this.gson = gson;
+        this.httpClient = httpClient;
+        this.compressionPolicy = compressionPolicy;
+        this.apiUrl = apiUrl;
+        this.authorizationHeader = authorizationHeader;
+    }
+
+    @Override
+    public void send(List<MessageResultSender.Item> items, MessageResultSender.Completion completion) {
+        Object body;
+        String url;
+        if (items.size() == 1) {
+            body = items.get(0).getResult();
+            url = apiUrl + MESSAGE_RESULT_PATH;
+        } else {
+            List<MessageResultDto> results = new ArrayList<>(items.size());
+            for (MessageResultSender.Item item : items) {
+                results.add(item.getResult());
+            }
+            body = results;
+            url = apiUrl + MESSAGE_RESULT_BATCH_PATH;
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Send {} message results:\n{}", items.size(), gson.toJson(body));
+        }
+
+        Request httpRequest = new Request.Builder()
+                .url(url)
+                .header(AUTHORIZATION, authorizationHeader)
+                .post(new GsonRequestBody(gson, APPLICATION_JSON, body))
+                .tag(RequestCompressionInterceptor.Encoding.class, compressionPolicy.getEncoding(items))
+                .build();
+
+        httpClient.newCall(httpRequest).enqueue(new okhttp3.Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                completion.onFailure(e, !call.isCanceled());
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                response.close();
+                if (response.code() == 202) {
+                    completion.onSuccess();
+                } else {
+                    // client errors won't be fixed by retry
+                    completion.onFailure(new IOException("Request exception: " + response), response.code() >= 500);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,597 @@
+package io.electrica.sdk.java8.core;
+
+import com.google.gson.Gson;
+import io.electrica.sdk.java8.api.Callback;
+import io.electrica.sdk.java8.api.http.Message;
+import io.electrica.sdk.java8.api.http.Request;
+import io.electrica.sdk.java8.api.impl.HashedWheelTimer;
+import lombok.AccessLevel;
+import lombok.Getter;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static io.electrica.sdk.java8.core.AbstractHttpModule.DEFAULT_EVENT_ORDERING_LANES;
+import static io.electrica.sdk.java8.core.AbstractHttpModule.DEFAULT_MAX_REQUESTS;
+import static io.electrica.sdk.java8.core.AbstractHttpModule.DEFAULT_MAX_REQUESTS_PER_HOST;
+import static io.electrica.sdk.java8.core.AbstractHttpModule.DEFAULT_MESSAGE_RESULT_BATCH_SIZE;
+import static io.electrica.sdk.java8.core.AbstractHttpModule.DEFAULT_MESSAGE_RESULT_MAX_IN_FLIGHT;
+import static io.electrica.sdk.java8.core.AbstractHttpModule.DEFAULT_MESSAGE_RESULT_QUEUE_CAPACITY;
+import static io.electrica.sdk.java8.core.AbstractHttpModule.DEFAULT_WEBSOCKET_MAX_IN_FLIGHT;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Immutable configuration of {@link AbstractHttpModule}.
+ * <p>
+ * Options of shared resources, i.e. http client, its dispatcher limits and request compression, executors and
+ * default retry strategies, are read once, when module creates them on the first instance initialization. Other
+ * options are read once per instance on its initialization, so instance services don't observe later changes.
+ * Unspecified custom objects are created by {@code AbstractHttpModule#createDefault*()} methods.
+ */
+@Getter
+public class HttpModuleOptions {
+
+    @Nullable
+    private final Gson gson;
+    @Nullable
+    private final OkHttpClient httpClient;
+    private final int maxRequests;
+    private final int maxRequestsPerHost;
+    @Nullable
+    private final RetryStrategy webSocketRetryStrategy;
+    @Nullable
+    private final RetryStrategy messageResultRetryStrategy;
+    @Nullable
+    private final RetryStrategy invocationRetryStrategy;
+    private final Predicate<Request> idempotentInvocations;
+    @Nullable
+    private final ExecutorService eventExecutor;
+    @Nullable
+    private final ExecutorService callbackExecutor;
+    private final int eventCapacity;
+    private final int eventHighWatermark;
+    private final int eventLowWatermark;
+    @Nullable
+    private final Function<Message, ?> eventOrderingKey;
+    private final int eventOrderingLanes;
+    private final long messageDeduplicationWindow;
+    private final int messageDeduplicationMaxEntries;
+    private final long eventDispatcherTerminationTimeout;
+    private final long callbackTerminationTimeout;
+    private final long webSocketTerminationTimeout;
+    private final long messageResultTerminationTimeout;
+    private final InvocationMode invocationMode;
+    private final long asyncResultTimeout;
+    private final int webSocketMaxInFlight;
+    private final int invocationBatchSize;
+    private final long invocationBatchLinger;
+    private final int ackBatchSize;
+    private final long ackBatchLinger;
+    private final int webSocketShards;
+    private final FrameEncoding webSocketFrameEncoding;
+    @Nullable
+    @Getter(AccessLevel.NONE)
+    private final byte[] webSocketFrameDictionary;
+    private final MessageResultMode messageResultMode;
+    private final int messageResultQueueCapacity;
+    private final int messageResultBatchSize;
+    private final int messageResultMaxInFlight;
+    @Nullable
+    private final RequestCompressionInterceptor.Encoding requestCompression;
+    private final long requestCompressionThreshold;
+    private final Set<String> requestCompressionErns;
+
+    private HttpModuleOptions(Builder builder) {
+        gson = builder.gson;
+        httpClient = builder.httpClient;
+        maxRequests = builder.maxRequests;
+        maxRequestsPerHost = builder.maxRequestsPerHost;
+        webSocketRetryStrategy = builder.webSocketRetryStrategy;
+        messageResultRetryStrategy = builder.messageResultRetryStrategy;
+        invocationRetryStrategy = builder.invocationRetryStrategy;
+        idempotentInvocations = builder.idempotentInvocations;
+        eventExecutor = builder.eventExecutor;
+        callbackExecutor = builder.callbackExecutor;
+        eventCapacity = builder.eventCapacity;
+        eventHighWatermark = builder.eventHighWatermark;
+        eventLowWatermark = builder.eventLowWatermark;
+        eventOrderingKey = builder.eventOrderingKey;
+        eventOrderingLanes = builder.eventOrderingLanes;
+        messageDeduplicationWindow = builder.messageDeduplicationWindow;
+        messageDeduplicationMaxEntries = builder.messageDeduplicationMaxEntries;
+        eventDispatcherTerminationTimeout = builder.eventDispatcherTerminationTimeout;
+        callbackTerminationTimeout = builder.callbackTerminationTimeout;
+        webSocketTerminationTimeout = builder.webSocketTerminationTimeout;
+        messageResultTerminationTimeout = builder.messageResultTerminationTimeout;
+        invocationMode = builder.invocationMode;
+        asyncResultTimeout = builder.asyncResultTimeout;
+        webSocketMaxInFlight = builder.webSocketMaxInFlight;
+        invocationBatchSize = builder.invocationBatchSize;
+        invocationBatchLinger = builder.invocationBatchLinger;
+        ackBatchSize = builder.ackBatchSize;
+        ackBatchLinger = builder.ackBatchLinger;
+        webSocketShards = builder.webSocketShards;
+        webSocketFrameEncoding = builder.webSocketFrameEncoding;
+        webSocketFrameDictionary = builder.webSocketFrameDictionary;
+        messageResultMode = builder.messageResultMode;
+        messageResultQueueCapacity = builder.messageResultQueueCapacity;
+        messageResultBatchSize = builder.messageResultBatchSize;
+        messageResultMaxInFlight = builder.messageResultMaxInFlight;
+        requestCompression = builder.requestCompression;
+        requestCompressionThreshold = builder.requestCompressionThreshold;
+        requestCompressionErns = builder.requestCompressionErns;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return builder initialized by these options
+     */
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    /**
+     * @return shared dictionary of WebSocket frame compression or {@code null} if compression disabled
+     */
+    @Nullable
+    public byte[] getWebSocketFrameDictionary() {
+        return webSocketFrameDictionary == null ? null :
+                Arrays.copyOf(webSocketFrameDictionary, webSocketFrameDictionary.length);
+    }
+
+    /**
+     * @return whether webhook messages redelivered within window are dropped
+     */
+    public boolean isMessageDeduplication() {
+        return messageDeduplicationWindow > 0;
+    }
+
+    public static class Builder {
+
+        private Gson gson;
+        private OkHttpClient httpClient;
+        private int maxRequests = DEFAULT_MAX_REQUESTS;
+        private int maxRequestsPerHost = DEFAULT_MAX_REQUESTS_PER_HOST;
+        private RetryStrategy webSocketRetryStrategy;
+        private RetryStrategy messageResultRetryStrategy;
+        private RetryStrategy invocationRetryStrategy;
+        private Predicate<Request> idempotentInvocations = request -> false;
+        private ExecutorService eventExecutor;
+        private ExecutorService callbackExecutor;
+        private int eventCapacity = 0;
+        private int eventHighWatermark = 0;
+        private int eventLowWatermark = 0;
+        private Function<Message, ?> eventOrderingKey;
+        private int eventOrderingLanes = DEFAULT_EVENT_ORDERING_LANES;
+        private long messageDeduplicationWindow = 0;
+        private int messageDeduplicationMaxEntries = 0;
+        private long eventDispatcherTerminationTimeout = TimeUnit.SECONDS.toMillis(10);
+        private long callbackTerminationTimeout = TimeUnit.SECONDS.toMillis(10);
+        private long webSocketTerminationTimeout = TimeUnit.SECONDS.toMillis(5);
+        private long messageResultTerminationTimeout = TimeUnit.SECONDS.toMillis(10);
+        private InvocationMode invocationMode = InvocationMode.Sync;
+        private long asyncResultTimeout = TimeUnit.MINUTES.toMillis(10);
+        private int webSocketMaxInFlight = DEFAULT_WEBSOCKET_MAX_IN_FLIGHT;
+        private int invocationBatchSize = 1;
+        private long invocationBatchLinger = 0;
+        private int ackBatchSize = 1;
+        private long ackBatchLinger = 0;
+        private int webSocketShards = 1;
+        private FrameEncoding webSocketFrameEncoding = FrameEncoding.Json;
+        private byte[] webSocketFrameDictionary;
+        private MessageResultMode messageResultMode = MessageResultMode.Http;
+        private int messageResultQueueCapacity = DEFAULT_MESSAGE_RESULT_QUEUE_CAPACITY;
+        private int messageResultBatchSize = DEFAULT_MESSAGE_RESULT_BATCH_SIZE;
+        private int messageResultMaxInFlight = DEFAULT_MESSAGE_RESULT_MAX_IN_FLIGHT;
+        private RequestCompressionInterceptor.Encoding requestCompression;
+        private long requestCompressionThreshold;
+        private Set<String> requestCompressionErns = Collections.emptySet();
+
+        private Builder() {
+        }
+
+        private Builder(HttpModuleOptions options) {
+            gson = options.gson;
+            httpClient = options.httpClient;
+            maxRequests = options.maxRequests;
+            maxRequestsPerHost = options.maxRequestsPerHost;
+            webSocketRetryStrategy = options.webSocketRetryStrategy;
+            messageResultRetryStrategy = options.messageResultRetryStrategy;
+            invocationRetryStrategy = options.invocationRetryStrategy;
+            idempotentInvocations = options.idempotentInvocations;
+            eventExecutor = options.eventExecutor;
+            callbackExecutor = options.callbackExecutor;
+            eventCapacity = options.eventCapacity;
+            eventHighWatermark = options.eventHighWatermark;
+            eventLowWatermark = options.eventLowWatermark;
+            eventOrderingKey = options.eventOrderingKey;
+            eventOrderingLanes = options.eventOrderingLanes;
+            messageDeduplicationWindow = options.messageDeduplicationWindow;
+            messageDeduplicationMaxEntries = options.messageDeduplicationMaxEntries;
+            eventDispatcherTerminationTimeout = options.eventDispatcherTerminationTimeout;
+            callbackTerminationTimeout = options.callbackTerminationTimeout;
+            webSocketTerminationTimeout = options.webSocketTerminationTimeout;
+            messageResultTerminationTimeout = options.messageResultTerminationTimeout;
+            invocationMode = options.invocationMode;
+            asyncResultTimeout = options.asyncResultTimeout;
+            webSocketMaxInFlight = options.webSocketMaxInFlight;
+            invocationBatchSize = options.invocationBatchSize;
+            invocationBatchLinger = options.invocationBatchLinger;
+            ackBatchSize = options.ackBatchSize;
+            ackBatchLinger = options.ackBatchLinger;
+            webSocketShards = options.webSocketShards;
+            webSocketFrameEncoding = options.webSocketFrameEncoding;
+            webSocketFrameDictionary = options.webSocketFrameDictionary;
+            messageResultMode = options.messageResultMode;
+            messageResultQueueCapacity = options.messageResultQueueCapacity;
+            messageResultBatchSize = options.messageResultBatchSize;
+            messageResultMaxInFlight = options.messageResultMaxInFlight;
+            requestCompression = options.requestCompression;
+            requestCompressionThreshold = options.requestCompressionThreshold;
+            requestCompressionErns = options.requestCompressionErns;
+        }
+
+        /**
+         * Specify custom {@link Gson} instance, otherwise {@link AbstractHttpModule#createDefaultGson()} will used.
+         */
+        public Builder gson(Gson gson) {
+            this.gson = gson;
+            return this;
+        }
+
+        /**
+         * Specify custom {@link OkHttpClient} instance, otherwise {@link AbstractHttpModule#createDefaultHttpClient()}
+         * will used.
+         */
+        public Builder httpClient(OkHttpClient httpClient) {
+            this.httpClient = httpClient;
+            return this;
+        }
+
+        /**
+         * Specify maximum number of concurrently executing asynchronous requests for default {@link OkHttpClient}.
+         *
+         * @see Dispatcher#setMaxRequests(int)
+         */
+        public Builder maxRequests(int maxRequests) {
+            this.maxRequests = maxRequests;
+            return this;
+        }
+
+        /**
+         * Specify maximum number of concurrently executing asynchronous requests to API host for default
+         * {@link OkHttpClient}.
+         *
+         * @see Dispatcher#setMaxRequestsPerHost(int)
+         */
+        public Builder maxRequestsPerHost(int maxRequestsPerHost) {
+            this.maxRequestsPerHost = maxRequestsPerHost;
+            return this;
+        }
+
+        /**
+         * Specify custom {@link RetryStrategy} of WebSocket reconnects, otherwise
+         * {@link AbstractHttpModule#createDefaultRetryStrategy()} will used.
+         */
+        public Builder webSocketRetryStrategy(RetryStrategy webSocketRetryStrategy) {
+            this.webSocketRetryStrategy = webSocketRetryStrategy;
+            return this;
+        }
+
+        /**
+         * Specify custom {@link RetryStrategy} of failed message result requests, otherwise
+         * {@link AbstractHttpModule#createDefaultMessageResultRetryStrategy()} will used.
+         */
+        public Builder messageResultRetryStrategy(RetryStrategy messageResultRetryStrategy) {
+            this.messageResultRetryStrategy = messageResultRetryStrategy;
+            return this;
+        }
+
+        /**
+         * Retry invocations of idempotent actions, that failed by network error or server error, according to
+         * specified {@link RetryStrategy}, e.g. {@link RetryStrategy.Budget} shared by all actions. Action is invoked
+         * again, even if it may have been executed by failed request, so it must be safe to invoke it several times.
+         * Applies to invocations sent by separate requests, i.e. {@link InvocationMode#Sync} without batching.
+         *
+         * @param retryStrategy strategy of invocation retries
+         * @param idempotent    tests whether action of invocation request can be retried
+         */
+        public Builder invocationRetry(RetryStrategy retryStrategy, Predicate<Request> idempotent) {
+            this.invocationRetryStrategy = requireNonNull(retryStrategy, "retryStrategy");
+            this.idempotentInvocations = requireNonNull(idempotent, "idempotent");
+            return this;
+        }
+
+        /**
+         * Specify custom {@link ExecutorService} instance for websocket events delivery, otherwise
+         * {@link AbstractHttpModule#createDefaultEventExecutor()} will used.
+         */
+        public Builder eventExecutor(ExecutorService eventExecutor) {
+            this.eventExecutor = eventExecutor;
+            return this;
+        }
+
+        /**
+         * Specify custom {@link ExecutorService} instance to complete {@link Callback} of submitted jobs, otherwise
+         * {@link AbstractHttpModule#createDefaultCallbackExecutor()} will used.
+         */
+        public Builder callbackExecutor(ExecutorService callbackExecutor) {
+            this.callbackExecutor = callbackExecutor;
+            return this;
+        }
+
+        /**
+         * Enable backpressure of webhook messages per instance. Once number of pending events reaches
+         * {@code highWatermark}, server is asked to pause delivery to instance, and to resume it once they drop to
+         * {@code lowWatermark}. Messages beyond {@code capacity} are rejected with nack to be redelivered.
+         *
+         * @param highWatermark number of pending events to pause delivery
+         * @param lowWatermark  number of pending events to resume delivery
+         * @param capacity      maximum number of pending events
+         */
+        public Builder eventBackpressure(int highWatermark, int lowWatermark, int capacity) {
+            if (lowWatermark < 0 || lowWatermark >= highWatermark || highWatermark > capacity) {
+                throw new IllegalArgumentException("Required 0 <= lowWatermark < highWatermark <= capacity");
+            }
+            this.eventHighWatermark = highWatermark;
+            this.eventLowWatermark = lowWatermark;
+            this.eventCapacity = capacity;
+            return this;
+        }
+
+        /**
+         * Handle webhook messages with the same ordering key serially in order of delivery, e.g. by
+         * {@link InstanceEventDispatcher#CONNECTION_ORDERING_KEY} or
+         * {@link InstanceEventDispatcher#WEBHOOK_ORDERING_KEY}. Messages with different keys are handled in parallel
+         * on event executor, but keys are striped over {@code lanes}, so it limits parallelism of instance.
+         *
+         * @param orderingKey extracts ordering key of message, {@code null} disables ordering
+         * @param lanes       number of lanes keys are striped over
+         */
+        public Builder eventOrdering(@Nullable Function<Message, ?> orderingKey, int lanes) {
+            if (lanes < 1) {
+                throw new IllegalArgumentException("lanes must be positive: " + lanes);
+            }
+            this.eventOrderingKey = orderingKey;
+            this.eventOrderingLanes = lanes;
+            return this;
+        }
+
+        /**
+         * Drop webhook messages redelivered within {@code window}, e.g. after reconnect, before their payload is
+         * parsed. Ids of up to {@code maxEntries} messages are remembered, so under higher rate window is shorter.
+         *
+         * @param window     how long to remember message ids, in units of {@code unit}
+         * @param unit       a {@link TimeUnit} determining how to interpret the {@code window} parameter
+         * @param maxEntries maximum number of remembered message ids
+         */
+        public Builder messageDeduplication(long window, TimeUnit unit, int maxEntries) {
+            if (window <= 0 || maxEntries < 2) {
+                throw new IllegalArgumentException("Required positive window and at least 2 maxEntries");
+            }
+            this.messageDeduplicationWindow = unit.toMillis(window);
+            this.messageDeduplicationMaxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * Specify timeout to gracefully terminate event executor tasks. On instance close, it limits waiting for
+         * listeners to handle received messages as well.
+         *
+         * @param eventDispatcherTerminationTimeout timeout in millis
+         */
+        public Builder eventDispatcherTerminationTimeout(long eventDispatcherTerminationTimeout) {
+            this.eventDispatcherTerminationTimeout = eventDispatcherTerminationTimeout;
+            return this;
+        }
+
+        /**
+         * Specify timeout to gracefully terminate callback executor tasks.
+         *
+         * @param callbackTerminationTimeout timeout in millis
+         */
+        public Builder callbackTerminationTimeout(long callbackTerminationTimeout) {
+            this.callbackTerminationTimeout = callbackTerminationTimeout;
+            return this;
+        }
+
+        /**
+         * Specify timeout to gracefully terminate OkHttp client tasks.
+         *
+         * @param webSocketTerminationTimeout timeout in millis
+         * @see WebSocketHandler#close()
+         */
+        public Builder webSocketTerminationTimeout(long webSocketTerminationTimeout) {
+            this.webSocketTerminationTimeout = webSocketTerminationTimeout;
+            return this;
+        }
+
+        /**
+         * Specify timeout to send queued message results on instance close.
+         *
+         * @param messageResultTerminationTimeout timeout in millis
+         * @see MessageResultSender#close(long)
+         */
+        public Builder messageResultTerminationTimeout(long messageResultTerminationTimeout) {
+            this.messageResultTerminationTimeout = messageResultTerminationTimeout;
+            return this;
+        }
+
+        /**
+         * Specify how invocation results are delivered, {@link InvocationMode#Sync} by default.
+         */
+        public Builder invocationMode(InvocationMode invocationMode) {
+            this.invocationMode = requireNonNull(invocationMode, "invocationMode");
+            return this;
+        }
+
+        /**
+         * Specify maximum number of {@link InvocationMode#WebSocket} invocations per instance, that sent and waiting
+         * for result.
+         */
+        public Builder webSocketMaxInFlight(int webSocketMaxInFlight) {
+            this.webSocketMaxInFlight = webSocketMaxInFlight;
+            return this;
+        }
+
+        /**
+         * Specify how long to wait for result of {@link InvocationMode#Async} or {@link InvocationMode#WebSocket}
+         * invocation, before job {@link Callback} failed.
+         *
+         * @param timeout how long to wait for result, in units of {@code unit}
+         * @param unit    a {@link TimeUnit} determining how to interpret the {@code timeout} parameter
+         */
+        public Builder asyncResultTimeout(long timeout, TimeUnit unit) {
+            this.asyncResultTimeout = unit.toMillis(timeout);
+            return this;
+        }
+
+        /**
+         * Enable client-side batching of {@link InvocationMode#Sync} invocations. Requests of the same connection are
+         * gathered up to {@code maxBatchSize} items or {@code linger} time and sent as one call to
+         * {@link AbstractHttpModule#INVOKE_BATCH_PATH}.
+         * <p>
+         * Linger accuracy is limited by {@link HashedWheelTimer#DEFAULT_TICK_MILLIS}.
+         *
+         * @param maxBatchSize maximum number of invocations in one batch, {@code 1} disables batching
+         * @param linger       how long to wait for more invocations, in units of {@code unit}
+         * @param unit         a {@link TimeUnit} determining how to interpret the {@code linger} parameter
+         */
+        public Builder invocationBatching(int maxBatchSize, long linger, TimeUnit unit) {
+            if (maxBatchSize < 1) {
+                throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize);
+            }
+            this.invocationBatchSize = maxBatchSize;
+            this.invocationBatchLinger = unit.toMillis(linger);
+            return this;
+        }
+
+        /**
+         * Enable coalescing of acks of inbound WebSocket messages. Acks are gathered up to {@code maxBatchSize} items
+         * or {@code linger} time and sent as one {@link io.electrica.sdk.java8.core.message.BatchAckOutboundMessage}
+         * frame, server must support it.
+         * <p>
+         * Linger accuracy is limited by {@link HashedWheelTimer#DEFAULT_TICK_MILLIS}, so partial batch may wait for
+         * one timer tick even with zero linger.
+         *
+         * @param maxBatchSize maximum number of acks in one frame, {@code 1} disables batching
+         * @param linger       how long to wait for more acks, in units of {@code unit}
+         * @param unit         a {@link TimeUnit} determining how to interpret the {@code linger} parameter
+         */
+        public Builder ackBatching(int maxBatchSize, long linger, TimeUnit unit) {
+            if (maxBatchSize < 1) {
+                throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize);
+            }
+            this.ackBatchSize = maxBatchSize;
+            this.ackBatchLinger = unit.toMillis(linger);
+            return this;
+        }
+
+        /**
+         * Specify number of parallel WebSocket connections of instance, so inbound messages are read and parsed by
+         * several threads. Each connection is identified by {@link WebSocketHandler#INSTANCE_SHARD_HEADER} and
+         * reconnects independently, messages of all connections are dispatched to the same listeners.
+         */
+        public Builder webSocketShards(int shards) {
+            if (shards < 1) {
+                throw new IllegalArgumentException("shards must be positive: " + shards);
+            }
+            this.webSocketShards = shards;
+            return this;
+        }
+
+        /**
+         * Specify encoding of inbound WebSocket messages, that offered to server by
+         * {@link WebSocketHandler#INSTANCE_FRAME_ENCODING_HEADER}, {@link FrameEncoding#Json} by default. Server, that
+         * doesn't support offered encoding, keeps sending JSON text frames, which are always accepted.
+         */
+        public Builder webSocketFrameEncoding(FrameEncoding frameEncoding) {
+            this.webSocketFrameEncoding = requireNonNull(frameEncoding, "frameEncoding");
+            return this;
+        }
+
+        /**
+         * Enable compression of inbound WebSocket messages and their acks by deflate with preset dictionary, that
+         * must be known by server as well. Dictionary is offered to server by
+         * {@link WebSocketHandler#INSTANCE_FRAME_DICTIONARY_HEADER} and server, that doesn't know it, keeps sending
+         * uncompressed frames.
+         *
+         * @param dictionary shared dictionary, e.g. built by {@link FrameDictionaryTrainer} from captured frames
+         * @see FrameCompressor
+         */
+        public Builder webSocketFrameCompression(byte[] dictionary) {
+            requireNonNull(dictionary, "dictionary");
+            this.webSocketFrameDictionary = Arrays.copyOf(dictionary, dictionary.length);
+            return this;
+        }
+
+        /**
+         * Specify how webhook message results are sent, {@link MessageResultMode#Http} by default.
+         */
+        public Builder messageResultMode(MessageResultMode messageResultMode) {
+            this.messageResultMode = requireNonNull(messageResultMode, "messageResultMode");
+            return this;
+        }
+
+        /**
+         * Specify how webhook message results are sent in background. Results of the same instance are queued up to
+         * {@code queueCapacity} items and sent by up to {@code maxInFlight} concurrent requests. Results queued while
+         * all requests are in flight are coalesced to one call to {@link AbstractHttpModule#MESSAGE_RESULT_BATCH_PATH}.
+         *
+         * @param queueCapacity maximum number of results waiting to be sent, further results are rejected
+         * @param maxBatchSize  maximum number of results in one request, {@code 1} disables coalescing
+         * @param maxInFlight   maximum number of concurrent requests per instance
+         * @see MessageResultSender
+         */
+        public Builder messageResultSending(int queueCapacity, int maxBatchSize, int maxInFlight) {
+            if (queueCapacity < 1 || maxBatchSize < 1 || maxInFlight < 1) {
+                throw new IllegalArgumentException("Message result sending parameters must be positive");
+            }
+            this.messageResultQueueCapacity = queueCapacity;
+            this.messageResultBatchSize = maxBatchSize;
+            this.messageResultMaxInFlight = maxInFlight;
+            return this;
+        }
+
+        /**
+         * Enable compression of invocation and message result request bodies, which size reaches specified threshold.
+         * Compression applied only to connectors listed in {@code connectorErns} or to all connectors if no ERN
+         * specified. ERNs are matched case-insensitively.
+         *
+         * @param encoding       content encoding of compressed body
+         * @param thresholdBytes minimal size of body in bytes to be compressed
+         * @param connectorErns  ERNs of connectors that opt-in compression
+         * @see RequestCompressionInterceptor
+         */
+        public Builder requestCompression(
+                RequestCompressionInterceptor.Encoding encoding,
+                long thresholdBytes,
+                String... connectorErns
+        ) {
+            this.requestCompression = requireNonNull(encoding, "encoding");
+            this.requestCompressionThreshold = thresholdBytes;
+            Set<String> erns = new HashSet<>();
+            for (String ern : connectorErns) {
+                erns.add(RequestCompressionPolicy.ernKey(ern));
+            }
+            this.requestCompressionErns = Collections.unmodifiableSet(erns);
+            return this;
+        }
+
+        public HttpModuleOptions build() {
+            return new HttpModuleOptions(this);
+        }
+    }
+}
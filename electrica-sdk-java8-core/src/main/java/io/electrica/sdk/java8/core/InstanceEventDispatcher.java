@@ -2,116 +2,450 @@ package io.electrica.sdk.java8.core;
 
 import com.google.gson.Gson;
 import io.electrica.sdk.java8.api.http.Message;
+import io.electrica.sdk.java8.api.impl.HashedWheelTimer;
 import io.electrica.sdk.java8.core.dto.MessageDto;
 import io.electrica.sdk.java8.core.dto.MessageImpl;
 import io.electrica.sdk.java8.core.message.InboundMessage;
 import io.electrica.sdk.java8.core.message.WebhookInboundMessage;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
 
 @Slf4j
 public class InstanceEventDispatcher implements AutoCloseable {
 
+    /**
+     * Ordering key to handle messages of the same connection serially.
+     */
+    public static final Function<Message, Object> CONNECTION_ORDERING_KEY = Message::getConnectionId;
+    /**
+     * Ordering key to handle messages of the same webhook serially.
+     */
+    public static final Function<Message, Object> WEBHOOK_ORDERING_KEY = Message::getWebhookId;
+
     protected final Gson gson;
     protected final ExecutorService executor;
-    protected final long terminationTimeoutMillis;
-    protected final List<MessageListener> messageListeners = new ArrayList<>();
+    /**
+     * Listeners are added and removed rarely, but read on every message, so dispatch looks up immutable index
+     * snapshot without locking and doesn't block registry changes.
+     */
+    protected volatile MessageListenerIndex listenerIndex = MessageListenerIndex.EMPTY;
+    // synchronized by itself, guards index updates
+    protected final Map<UUID, MessageListenerIndex.Listener> messageListeners = new HashMap<>();
+
+    protected final int capacity;
+    protected final int highWatermark;
+    protected final int lowWatermark;
+    // events submitted, but not handled by all listeners yet
+    protected final AtomicInteger pendingEvents = new AtomicInteger();
+    /**
+     * Guards flow control state and its signaling, so signals of concurrent changes can't be reordered and leave
+     * delivery paused, while instance is idle.
+     */
+    protected final Object flowControlLock = new Object();
+    protected volatile boolean paused = false;
+    protected volatile Consumer<Boolean> flowControlListener = paused -> {
+    };
+
+    @Nullable
+    protected final Function<Message, ?> orderingKey;
+    @Nullable
+    protected final KeyedExecutor keyedExecutor;
+    @Nullable
+    protected final MessageDeduplicator deduplicator;
 
-    protected InstanceEventDispatcher(Gson gson, ExecutorService executor, long terminationTimeoutMillis) {
+    /**
+     * @param executor executor of event tasks, can be shared by several dispatchers and must be shutdown by owner
+     */
+    protected InstanceEventDispatcher(Gson gson, ExecutorService executor) {
+        this(gson, executor, 0, 0, 0);
+    }
+
+    /**
+     * Create dispatcher, that limits number of pending events of instance. Pause is signaled once pending events
+     * reach high watermark and resume once they drop to low watermark, events beyond capacity are rejected.
+     *
+     * @param executor      executor of event tasks, can be shared by several dispatchers and must be shutdown by owner
+     * @param capacity      maximum number of pending events, {@code 0} means unbounded
+     * @param highWatermark number of pending events to signal pause, {@code 0} disables flow control
+     * @param lowWatermark  number of pending events to signal resume
+     * @see #setFlowControlListener(Consumer)
+     */
+    protected InstanceEventDispatcher(
+            Gson gson,
+            ExecutorService executor,
+            int capacity,
+            int highWatermark,
+            int lowWatermark
+    ) {
+        this(gson, executor, capacity, highWatermark, lowWatermark, null, 0);
+    }
+
+    /**
+     * Create dispatcher, that handles events with the same ordering key serially in order of submission, while
+     * events with different keys are handled in parallel on up to {@code orderingLanes} threads. Listeners of
+     * ordered event are invoked one after another. Events with {@code null} key aren't ordered.
+     *
+     * @param orderingKey   extracts ordering key of message, invoked on submitting thread so must be cheap,
+     *                      {@code null} disables ordering
+     * @param orderingLanes number of lanes keys are striped over
+     * @see #InstanceEventDispatcher(Gson, ExecutorService, int, int, int)
+     * @see KeyedExecutor
+     */
+    protected InstanceEventDispatcher(
+            Gson gson,
+            ExecutorService executor,
+            int capacity,
+            int highWatermark,
+            int lowWatermark,
+            @Nullable Function<Message, ?> orderingKey,
+            int orderingLanes
+    ) {
+        this(gson, executor, capacity, highWatermark, lowWatermark, orderingKey, orderingLanes, null);
+    }
+
+    /**
+     * Create dispatcher, that drops redelivered messages before their payload is parsed. Duplicate is acked as
+     * accepted, because it has been handled already.
+     *
+     * @param deduplicator remembers ids of delivered messages, {@code null} disables deduplication
+     * @see #InstanceEventDispatcher(Gson, ExecutorService, int, int, int, Function, int)
+     */
+    protected InstanceEventDispatcher(
+            Gson gson,
+            ExecutorService executor,
+            int capacity,
+            int highWatermark,
+            int lowWatermark,
+            @Nullable Function<Message, ?> orderingKey,
+            int orderingLanes,
+            @Nullable MessageDeduplicator deduplicator
+    ) {
         this.gson = gson;
         this.executor = executor;
-        this.terminationTimeoutMillis = terminationTimeoutMillis;
+        this.capacity = capacity;
+        this.highWatermark = highWatermark;
+        this.lowWatermark = lowWatermark;
+        this.orderingKey = orderingKey;
+        this.keyedExecutor = orderingKey == null ? null : new KeyedExecutor(executor, orderingLanes);
+        this.deduplicator = deduplicator;
+    }
+
+    /**
+     * Specify listener of flow control signals, that gets {@code true} to pause and {@code false} to resume
+     * delivery of events.
+     */
+    public void setFlowControlListener(Consumer<Boolean> flowControlListener) {
+        this.flowControlListener = flowControlListener;
+    }
+
+    /**
+     * @return number of events submitted, but not handled by all listeners yet
+     */
+    public int getPendingEvents() {
+        return pendingEvents.get();
+    }
+
+    /**
+     * @return {@code true} if pending events reached high watermark and didn't drop to low one yet
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Pass current flow control state to specified signal, e.g. to send it through new connection. State isn't
+     * changed meanwhile, so this signal can't overtake signal of later change.
+     */
+    public void signalFlowControl(Consumer<Boolean> signal) {
+        synchronized (flowControlLock) {
+            signal.accept(paused);
+        }
+    }
+
+    /**
+     * @return deduplicator of messages or {@code null} if deduplication disabled
+     */
+    @Nullable
+    public MessageDeduplicator getDeduplicator() {
+        return deduplicator;
     }
 
     public UUID addMessageListener(Predicate<Message> filter, Consumer<Message> listener) {
         UUID id = UUID.randomUUID();
+        addListener(new MessageListenerIndex.Listener(id, filter, listener));
+        return id;
+    }
+
+    /**
+     * Add listener, that consumes messages in batches. Batch is consumed once it reaches maximum size or linger time
+     * elapsed since first message added to it. Messages are pending until their batch consumed.
+     *
+     * @param maxBatchSize maximum number of messages in batch
+     * @param lingerMillis how long to wait for batch to be filled
+     */
+    public UUID addBatchMessageListener(
+            Predicate<Message> filter,
+            Consumer<List<Message>> listener,
+            int maxBatchSize,
+            long lingerMillis
+    ) {
+        UUID id = UUID.randomUUID();
+        MessageBatcher batcher = new MessageBatcher(maxBatchSize, lingerMillis, HashedWheelTimer.shared(),
+                batch -> consumeBatch(listener, batch));
+        addListener(new MessageListenerIndex.Listener(id, filter, batcher));
+        return id;
+    }
+
+    private void addListener(MessageListenerIndex.Listener messageListener) {
         synchronized (messageListeners) {
-            messageListeners.add(new MessageListener(id, filter, listener));
+            messageListeners.put(messageListener.getId(), messageListener);
+            listenerIndex = listenerIndex.with(messageListener);
         }
-        return id;
     }
 
     public void removeMessageListener(UUID id) {
+        MessageListenerIndex.Listener messageListener;
         synchronized (messageListeners) {
-            messageListeners.removeIf(listener -> Objects.equals(id, listener.id));
+            messageListener = messageListeners.remove(id);
+            if (messageListener != null) {
+                listenerIndex = listenerIndex.without(messageListener);
+            }
+        }
+        if (messageListener != null && messageListener.getConsumer() instanceof MessageBatcher) {
+            // consume lingering batch
+            ((MessageBatcher) messageListener.getConsumer()).close();
         }
     }
 
-    protected void submit(InboundMessage message, WebSocketHandler.AckSender ackSender) {
+    /**
+     * Submit event to be handled by listeners.
+     *
+     * @return {@code false} if event is rejected, because dispatcher reached its capacity
+     */
+    protected boolean submit(InboundMessage message, WebSocketHandler.AckSender ackSender) {
         if (message instanceof WebhookInboundMessage) {
             MessageDto messageDto = ((WebhookInboundMessage) message).getData();
-            executor.submit(() -> {
-                boolean ackSent = false;
-                synchronized (messageListeners) {
-                    for (MessageListener listener : messageListeners) {
-                        Message userMessage = new MessageImpl(gson, messageDto);
-                        if (listener.filter.test(userMessage)) {
-                            if (!ackSent) {
-                                // Send accepted ack if at least one listener found
-                                ackSender.send(true);
-                                ackSent = true;
-                            }
-                            // submit message consume task
-                            executor.submit(() -> {
-                                try {
-                                    listener.consumer.accept(userMessage);
-                                } catch (Exception e) {
-                                    log.error("Unhandled onMessage() exception", e);
-                                }
-                            });
-                        }
-                    }
-                }
-                if (!ackSent) {
-                    // Send nack if no one listener found
-                    ackSender.send(false);
+            if (!acquire()) {
+                return false;
+            }
+            // checked after acquire, so rejected message isn't remembered and its redelivery is handled
+            if (deduplicator != null && messageDto.getId() != null && deduplicator.isDuplicate(messageDto.getId())) {
+                log.debug("Duplicate message dropped: {}", messageDto.getId());
+                release(new AtomicInteger(1));
+                ackSender.send(true);
+                return true;
+            }
+            // one message is shared by all listeners to compute its derived views once
+            Message userMessage = new MessageImpl(gson, messageDto, ackSender::sendResult);
+            Object key = orderingKey == null ? null : orderingKey.apply(userMessage);
+            // released once dispatch task and all consume tasks completed
+            AtomicInteger remainingTasks = new AtomicInteger(1);
+            execute(() -> {
+                try {
+                    dispatch(userMessage, key, ackSender, remainingTasks);
+                } finally {
+                    release(remainingTasks);
                 }
-            });
+            }, key, remainingTasks);
+            return true;
         } else {
             throw new UnsupportedOperationException("Unsupported message type: " + message);
         }
     }
 
-    @Override
-    public void close() {
-        shutdownExecutor();
-        messageListeners.clear();
+    private void dispatch(
+            Message userMessage,
+            @Nullable Object key,
+            WebSocketHandler.AckSender ackSender,
+            AtomicInteger remainingTasks
+    ) {
+        boolean ackSent = false;
+        List<MessageListenerIndex.Listener> candidates = listenerIndex.lookup(
+                userMessage.getScope(),
+                userMessage.getConnectorErn(),
+                userMessage.getConnectionId()
+        );
+        for (MessageListenerIndex.Listener listener : candidates) {
+            if (listener.getResidualFilter().test(userMessage)) {
+                if (!ackSent) {
+                    // Send accepted ack if at least one listener found
+                    ackSender.send(true);
+                    ackSent = true;
+                }
+                remainingTasks.incrementAndGet();
+                if (listener.getConsumer() instanceof MessageBatcher) {
+                    addToBatch((MessageBatcher) listener.getConsumer(), userMessage, remainingTasks);
+                    continue;
+                }
+                // submit message consume task
+                execute(() -> {
+                    try {
+                        listener.getConsumer().accept(userMessage);
+                    } catch (Exception e) {
+                        log.error("Unhandled onMessage() exception", e);
+                    } finally {
+                        release(remainingTasks);
+                    }
+                }, key, remainingTasks);
+            }
+        }
+        if (!ackSent) {
+            // Send nack if no one listener found
+            ackSender.send(false);
+        }
     }
 
-    private void shutdownExecutor() {
-        executor.shutdown(); // Disable new tasks from being submitted
+    private void addToBatch(MessageBatcher batcher, Message userMessage, AtomicInteger remainingTasks) {
         try {
-            // Wait a while for existing tasks to terminate
-            if (!executor.awaitTermination(terminationTimeoutMillis, TimeUnit.MILLISECONDS)) {
-                List<Runnable> tasks = executor.shutdownNow(); // Cancel currently executing tasks
-                log.error("Dropped {} enqueued event dispatcher tasks", tasks.size());
-                log.info("Awaiting termination of executing event dispatcher tasks");
-                if (!executor.awaitTermination(terminationTimeoutMillis, TimeUnit.MILLISECONDS)) {
-                    log.error("Can't await executing tasks termination. " +
-                            "Please consider increase termination timeout parameter");
+            batcher.add(userMessage, () -> release(remainingTasks));
+        } catch (IllegalStateException e) {
+            // listener has been removed concurrently
+            release(remainingTasks);
+        }
+    }
+
+    private void consumeBatch(Consumer<List<Message>> listener, List<MessageBatcher.Entry> batch) {
+        List<Message> messages = new ArrayList<>(batch.size());
+        for (MessageBatcher.Entry entry : batch) {
+            messages.add(entry.getMessage());
+        }
+        Runnable task = () -> {
+            try {
+                listener.accept(messages);
+            } catch (Exception e) {
+                log.error("Unhandled onMessages() exception", e);
+            } finally {
+                batch.forEach(entry -> entry.getOnConsumed().run());
+            }
+        };
+        try {
+            executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            log.warn("Executor has been shutdown, batch of {} messages dropped", batch.size());
+            batch.forEach(entry -> entry.getOnConsumed().run());
+        }
+    }
+
+    private void execute(Runnable task, @Nullable Object key, AtomicInteger remainingTasks) {
+        try {
+            if (keyedExecutor != null && key != null) {
+                // consume tasks are queued to the same lane after already submitted events of key
+                keyedExecutor.execute(key, task);
+            } else {
+                executor.submit(task);
+            }
+        } catch (RejectedExecutionException e) {
+            release(remainingTasks);
+            throw e;
+        }
+    }
+
+    private boolean acquire() {
+        int pending;
+        do {
+            pending = pendingEvents.get();
+            if (capacity > 0 && pending >= capacity) {
+                return false;
+            }
+        } while (!pendingEvents.compareAndSet(pending, pending + 1));
+
+        if (highWatermark > 0 && pending + 1 >= highWatermark && !paused) {
+            updateFlowControl();
+        }
+        return true;
+    }
+
+    private void release(AtomicInteger remainingTasks) {
+        if (remainingTasks.decrementAndGet() != 0) {
+            return;
+        }
+        int pending = pendingEvents.decrementAndGet();
+        if (pending <= lowWatermark && paused) {
+            updateFlowControl();
+        }
+        if (pending == 0) {
+            synchronized (pendingEvents) {
+                pendingEvents.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Change flow control state by current number of pending events rather than by one, that caller observed, and
+     * signal change under lock, so the last signal always matches the state.
+     */
+    private void updateFlowControl() {
+        synchronized (flowControlLock) {
+            int pending = pendingEvents.get();
+            if (!paused && pending >= highWatermark) {
+                log.warn("Pending events reached {}, pause delivery", pending);
+                paused = true;
+                flowControlListener.accept(true);
+            } else if (paused && pending <= lowWatermark) {
+                log.info("Pending events dropped to {}, resume delivery", pending);
+                paused = false;
+                flowControlListener.accept(false);
+            }
+        }
+    }
+
+    /**
+     * Wait until all submitted events have been handled by listeners, e.g. to send their results before instance
+     * closed. Lingering batches are handed over to batch listeners without waiting for linger time. Executor is
+     * shared, so events of other dispatchers aren't awaited.
+     *
+     * @param timeoutMillis timeout in millis to wait for pending events
+     * @return {@code false} if events are still pending after timeout
+     */
+    public boolean awaitPendingEvents(long timeoutMillis) throws InterruptedException {
+        List<MessageListenerIndex.Listener> listeners;
+        synchronized (messageListeners) {
+            listeners = new ArrayList<>(messageListeners.values());
+        }
+        for (MessageListenerIndex.Listener listener : listeners) {
+            if (listener.getConsumer() instanceof MessageBatcher) {
+                ((MessageBatcher) listener.getConsumer()).flush();
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        synchronized (pendingEvents) {
+            while (pendingEvents.get() > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
                 }
+                TimeUnit.NANOSECONDS.timedWait(pendingEvents, remaining);
             }
-        } catch (InterruptedException ie) {
-            // (Re-)Cancel if current thread also interrupted
-            executor.shutdownNow();
-            // Preserve interrupt status
-            Thread.currentThread().interrupt();
         }
+        return true;
     }
 
-    @AllArgsConstructor
-    private static class MessageListener {
-        private final UUID id;
-        private final Predicate<Message> filter;
-        private final Consumer<Message> consumer;
+    @Override
+    public void close() {
+        List<MessageListenerIndex.Listener> removed;
+        synchronized (messageListeners) {
+            removed = new ArrayList<>(messageListeners.values());
+            messageListeners.clear();
+            listenerIndex = MessageListenerIndex.EMPTY;
+        }
+        for (MessageListenerIndex.Listener listener : removed) {
+            if (listener.getConsumer() instanceof MessageBatcher) {
+                ((MessageBatcher) listener.getConsumer()).close();
+            }
+        }
     }
 }
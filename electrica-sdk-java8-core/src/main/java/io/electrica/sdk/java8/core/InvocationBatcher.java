@@ -0,0 +1,115 @@
+package io.electrica.sdk.java8.core;
+
+import io.electrica.sdk.java8.api.Callback;
+import io.electrica.sdk.java8.api.http.Request;
+import io.electrica.sdk.java8.api.impl.HashedWheelTimer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Gathers invocation requests per connection and hands them over to sender as one batch, when batch reaches
+ * maximum size or linger time elapsed since first request added to the batch.
+ */
+public class InvocationBatcher implements AutoCloseable {
+
+    private final int maxBatchSize;
+    private final long lingerMillis;
+    private final HashedWheelTimer timer;
+    private final Consumer<List<Invocation<?>>> sender;
+
+    // synchronized by itself
+    private final Map<Long, Batch> batches = new HashMap<>();
+    private boolean closed = false;
+
+    public InvocationBatcher(
+            int maxBatchSize,
+            long lingerMillis,
+            HashedWheelTimer timer,
+            Consumer<List<Invocation<?>>> sender
+    ) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize);
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.lingerMillis = lingerMillis;
+        this.timer = timer;
+        this.sender = sender;
+    }
+
+    public <R> void add(Request request, Type resultType, Callback<R> callback) {
+        Long connectionId = request.getConnectionId();
+        List<Invocation<?>> toSend = null;
+        synchronized (batches) {
+            if (closed) {
+                throw new IllegalStateException("InvocationBatcher has been closed");
+            }
+
+            Batch batch = batches.get(connectionId);
+            if (batch == null) {
+                batch = new Batch();
+                batches.put(connectionId, batch);
+                Batch lingering = batch;
+                batch.timeout = timer.newTimeout(() -> flush(connectionId, lingering), lingerMillis,
+                        TimeUnit.MILLISECONDS);
+            }
+            batch.invocations.add(new Invocation<>(request, resultType, callback));
+
+            if (batch.invocations.size() >= maxBatchSize) {
+                batches.remove(connectionId);
+                batch.timeout.cancel();
+                toSend = batch.invocations;
+            }
+        }
+        if (toSend != null) {
+            sender.accept(toSend);
+        }
+    }
+
+    private void flush(Long connectionId, Batch batch) {
+        synchronized (batches) {
+            // batch may be already sent by size
+            if (!batches.remove(connectionId, batch)) {
+                return;
+            }
+        }
+        sender.accept(batch.invocations);
+    }
+
+    /**
+     * Send all lingering batches and reject new invocations.
+     */
+    @Override
+    public void close() {
+        List<Batch> toSend;
+        synchronized (batches) {
+            closed = true;
+            toSend = new ArrayList<>(batches.values());
+            batches.clear();
+        }
+        for (Batch batch : toSend) {
+            batch.timeout.cancel();
+            sender.accept(batch.invocations);
+        }
+    }
+
+    private static class Batch {
+        private final List<Invocation<?>> invocations = new ArrayList<>();
+        private HashedWheelTimer.Timeout timeout;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Invocation<R> {
+        private final Request request;
+        private final Type resultType;
+        private final Callback<R> callback;
+    }
+}
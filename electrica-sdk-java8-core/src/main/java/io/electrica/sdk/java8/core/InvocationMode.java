@@ -0,0 +1,26 @@
+package io.electrica.sdk.java8.core;
+
+/**
+ * Defines how invocation result is delivered.
+ */
+public enum InvocationMode {
+
+    /**
+     * Result returned in response of invocation request, so HTTP connection is held until integration job finished.
+     */
+    Sync,
+
+    /**
+     * Invocation request returns invocation id immediately and result is pushed later through instance WebSocket.
+     * Suitable for long-running jobs, because no HTTP connection is held while job is executing.
+     */
+    Async,
+
+    /**
+     * Invocation is sent as frame through instance WebSocket and result is pushed back through the same socket,
+     * so no separate HTTP exchange is made per invocation. Falls back to {@link #Sync} while WebSocket isn't
+     * connected.
+     */
+    WebSocket
+
+}
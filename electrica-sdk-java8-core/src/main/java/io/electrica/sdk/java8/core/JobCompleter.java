@@ -0,0 +1,76 @@
+package io.electrica.sdk.java8.core;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import io.electrica.sdk.java8.api.Callback;
+import io.electrica.sdk.java8.api.exception.TransportException;
+import io.electrica.sdk.java8.core.message.ResultMessage;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Completes user {@link Callback} of submitted jobs in callback executor, so user code isn't executed on OkHttp
+ * dispatcher or WebSocket reader threads.
+ */
+@Slf4j
+public class JobCompleter {
+
+    private final Gson gson;
+    private final ExecutorService callbackExecutor;
+
+    public JobCompleter(Gson gson, ExecutorService callbackExecutor) {
+        this.gson = gson;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    public <R> void complete(ResultMessage<R> resultMessage, Callback<R> callback) {
+        if (Boolean.TRUE.equals(resultMessage.getSuccess())) {
+            execute(() -> callback.onResponse(resultMessage.getResult()));
+        } else {
+            execute(() -> callback.onFailure(resultMessage.getError().asException()));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <R> void complete(ResultMessage<?> resultMessage, InvocationBatcher.Invocation<R> invocation) {
+        complete((ResultMessage<R>) resultMessage, invocation.getCallback());
+    }
+
+    /**
+     * Bind pushed result to expected type in callback executor, to not block WebSocket reader thread.
+     */
+    @SuppressWarnings("unchecked")
+    public <R> void completeAsync(InvocationBatcher.Invocation<R> invocation, ResultMessage<JsonElement> result) {
+        Callback<R> callback = invocation.getCallback();
+        execute(() -> {
+            if (!Boolean.TRUE.equals(result.getSuccess())) {
+                callback.onFailure(result.getError().asException());
+                return;
+            }
+            R value;
+            try {
+                value = Void.class.equals(invocation.getResultType()) ?
+                        null : (R) gson.fromJson(result.getResult(), invocation.getResultType());
+            } catch (RuntimeException e) {
+                callback.onFailure(new TransportException(new IOException("Can't read invocation result", e)));
+                return;
+            }
+            callback.onResponse(value);
+        });
+    }
+
+    public void fail(Callback<?> callback, IOException e) {
+        execute(() -> callback.onFailure(new TransportException(e)));
+    }
+
+    public void execute(Runnable task) {
+        try {
+            callbackExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            log.warn("Callback executor has been shutdown, job result dropped", e);
+        }
+    }
+}
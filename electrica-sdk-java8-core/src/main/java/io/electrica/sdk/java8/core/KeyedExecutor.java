@@ -0,0 +1,110 @@
+package io.electrica.sdk.java8.core;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Executes tasks of the same key serially in submission order, while tasks of different keys run in parallel on
+ * underlying executor.
+ * <p>
+ * Keys are striped over fixed number of lanes by hash, so keys of the same lane are serialized too. Each lane is
+ * a lock-free queue, that is drained by at most one task of underlying executor at a time.
+ */
+@Slf4j
+public class KeyedExecutor {
+
+    /**
+     * Maximum number of tasks executed by lane in a row, before it yields thread to other lanes.
+     */
+    private static final int MAX_TASKS_PER_RUN = 64;
+
+    private final Executor executor;
+    private final Lane[] lanes;
+
+    /**
+     * @param executor executor to run lanes, that can be shared and must be shutdown by owner
+     * @param lanes    number of lanes, that limits parallelism across keys
+     */
+    public KeyedExecutor(Executor executor, int lanes) {
+        if (lanes < 1) {
+            throw new IllegalArgumentException("lanes must be positive: " + lanes);
+        }
+        this.executor = executor;
+        this.lanes = new Lane[lanes];
+        for (int i = 0; i < lanes; i++) {
+            this.lanes[i] = new Lane();
+        }
+    }
+
+    /**
+     * Execute task after all previously submitted tasks of the same key.
+     *
+     * @throws RejectedExecutionException if underlying executor has been shutdown
+     */
+    public void execute(Object key, Runnable task) {
+        int hash = key.hashCode();
+        // spread hash to not put sequential ids to neighbour lanes only
+        hash ^= hash >>> 16;
+        lanes[(hash & Integer.MAX_VALUE) % lanes.length].add(task);
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    private final class Lane implements Runnable {
+
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private void add(Runnable task) {
+            tasks.add(task);
+            try {
+                schedule();
+            } catch (RejectedExecutionException e) {
+                tasks.remove(task);
+                throw e;
+            }
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                    throw e;
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < MAX_TASKS_PER_RUN; i++) {
+                Runnable task = tasks.poll();
+                if (task == null) {
+                    break;
+                }
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    log.error("Unhandled task exception", t);
+                }
+            }
+            scheduled.set(false);
+            // task may be added after last poll, but before flag reset
+            if (!tasks.isEmpty()) {
+                try {
+                    schedule();
+                } catch (RejectedExecutionException e) {
+                    log.warn("Executor has been shutdown, {} lane tasks dropped", tasks.size());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package io.electrica.sdk.java8.core;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map with primitive {@code long} keys, that doesn't box keys on lookup and keeps entries
+ * in two flat arrays. Doesn't permit {@code null} values. Not thread-safe.
+ *
+ * @param <V> type of values
+ */
+public final class LongObjectHashMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    public LongObjectHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize number of entries, that can be put without resize
+     */
+    public LongObjectHashMap(int expectedSize) {
+        // load factor is 0.5
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, DEFAULT_CAPACITY / 2) * 2 - 1) << 1;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    private LongObjectHashMap(LongObjectHashMap<V> source) {
+        keys = Arrays.copyOf(source.keys, source.keys.length);
+        values = Arrays.copyOf(source.values, source.values.length);
+        mask = source.mask;
+        size = source.size;
+    }
+
+    /**
+     * @return shallow copy of this map
+     */
+    public LongObjectHashMap<V> copy() {
+        return new LongObjectHashMap<>(this);
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            Object value = values[i];
+            if (value == null) {
+                return null;
+            }
+            if (keys[i] == key) {
+                return (V) value;
+            }
+        }
+    }
+
+    /**
+     * @return previous value of key or {@code null} if there was no mapping
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        int i = hash(key) & mask;
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                V previous = (V) values[i];
+                values[i] = value;
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * @return removed value or {@code null} if there was no mapping
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int i = hash(key) & mask;
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                V previous = (V) values[i];
+                values[i] = null;
+                size--;
+                shiftBack(i);
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Move following entries of probe sequence into freed slot, so lookups don't need tombstones.
+     */
+    private void shiftBack(int freed) {
+        for (int i = (freed + 1) & mask; values[i] != null; i = (i + 1) & mask) {
+            int home = hash(keys[i]) & mask;
+            // entry may fill freed slot only if freed slot lays between its home slot and current one
+            if (((i - home) & mask) >= ((i - freed) & mask)) {
+                keys[freed] = keys[i];
+                values[freed] = values[i];
+                values[i] = null;
+                freed = i;
+            }
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldValues[j] != null) {
+                int i = hash(oldKeys[j]) & mask;
+                while (values[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
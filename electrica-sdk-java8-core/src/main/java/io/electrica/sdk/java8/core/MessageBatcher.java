@@ -0,0 +1,126 @@
+package io.electrica.sdk.java8.core;
+
+import io.electrica.sdk.java8.api.http.Message;
+import io.electrica.sdk.java8.api.impl.HashedWheelTimer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Gathers webhook messages of batch listener and hands them over to consumer as one batch, when batch reaches
+ * maximum size or linger time elapsed since first message added to the batch.
+ */
+public class MessageBatcher implements Consumer<Message>, AutoCloseable {
+
+    private final int maxBatchSize;
+    private final long lingerMillis;
+    private final HashedWheelTimer timer;
+    private final Consumer<List<Entry>> consumer;
+
+    // synchronized by this
+    private Batch batch;
+    private boolean closed = false;
+
+    public MessageBatcher(int maxBatchSize, long lingerMillis, HashedWheelTimer timer, Consumer<List<Entry>> consumer) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize);
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.lingerMillis = lingerMillis;
+        this.timer = timer;
+        this.consumer = consumer;
+    }
+
+    @Override
+    public void accept(Message message) {
+        add(message, () -> {
+        });
+    }
+
+    /**
+     * @param message    message to add to current batch
+     * @param onConsumed invoked once batch of message has been consumed
+     */
+    public void add(Message message, Runnable onConsumed) {
+        List<Entry> toConsume = null;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("MessageBatcher has been closed");
+            }
+
+            if (batch == null) {
+                batch = new Batch();
+                Batch lingering = batch;
+                batch.timeout = timer.newTimeout(() -> flush(lingering), lingerMillis, TimeUnit.MILLISECONDS);
+            }
+            batch.entries.add(new Entry(message, onConsumed));
+
+            if (batch.entries.size() >= maxBatchSize) {
+                batch.timeout.cancel();
+                toConsume = batch.entries;
+                batch = null;
+            }
+        }
+        if (toConsume != null) {
+            consumer.accept(toConsume);
+        }
+    }
+
+    /**
+     * Hand over lingering batch without waiting for linger time.
+     */
+    public void flush() {
+        Batch lingering;
+        synchronized (this) {
+            lingering = batch;
+        }
+        if (lingering != null) {
+            lingering.timeout.cancel();
+            flush(lingering);
+        }
+    }
+
+    private void flush(Batch lingering) {
+        synchronized (this) {
+            // batch may be already consumed by size
+            if (batch != lingering) {
+                return;
+            }
+            batch = null;
+        }
+        consumer.accept(lingering.entries);
+    }
+
+    /**
+     * Hand over lingering batch and reject new messages.
+     */
+    @Override
+    public void close() {
+        Batch toConsume;
+        synchronized (this) {
+            closed = true;
+            toConsume = batch;
+            batch = null;
+        }
+        if (toConsume != null) {
+            toConsume.timeout.cancel();
+            consumer.accept(toConsume.entries);
+        }
+    }
+
+    private static class Batch {
+        private final List<Entry> entries = new ArrayList<>();
+        private HashedWheelTimer.Timeout timeout;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Entry {
+        private final Message message;
+        private final Runnable onConsumed;
+    }
+}
@@ -0,0 +1,181 @@
+package io.electrica.sdk.java8.core;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers ids of recently delivered messages to drop redelivered duplicates.
+ * <p>
+ * Ids are kept in two generations of open addressing hash set, that stores both halves of {@link UUID} in flat
+ * arrays, so memory is bounded by {@code maxEntries} and there are no false positives. New ids go to current
+ * generation, which replaces previous one once it is older than window or full. So id is remembered for at
+ * least one window, unless more than {@code maxEntries / 2} messages are delivered during window.
+ */
+public class MessageDeduplicator {
+
+    private final long windowNanos;
+    private final LongSupplier nanoClock;
+
+    // synchronized by this
+    private Generation current;
+    private Generation previous;
+    private long currentStart;
+
+    private final AtomicLong checkedCount = new AtomicLong();
+    private final AtomicLong duplicateCount = new AtomicLong();
+    private final AtomicLong rotationCount = new AtomicLong();
+
+    /**
+     * @param windowMillis how long to remember id at least
+     * @param maxEntries   maximum number of remembered ids
+     */
+    public MessageDeduplicator(long windowMillis, int maxEntries) {
+        this(windowMillis, maxEntries, System::nanoTime);
+    }
+
+    MessageDeduplicator(long windowMillis, int maxEntries, LongSupplier nanoClock) {
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("windowMillis must be positive: " + windowMillis);
+        }
+        if (maxEntries < 2) {
+            throw new IllegalArgumentException("maxEntries must be at least 2: " + maxEntries);
+        }
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.nanoClock = nanoClock;
+        current = new Generation(maxEntries / 2);
+        previous = new Generation(maxEntries / 2);
+        currentStart = nanoClock.getAsLong();
+    }
+
+    /**
+     * Check whether message with specified id has been delivered recently and remember it otherwise.
+     *
+     * @return {@code true} if message is duplicate
+     */
+    public boolean isDuplicate(UUID id) {
+        checkedCount.incrementAndGet();
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        synchronized (this) {
+            long now = nanoClock.getAsLong();
+            long age = now - currentStart;
+            if (age >= 2 * windowNanos) {
+                // both generations expired
+                previous.clear();
+                rotate(now);
+            } else if (age >= windowNanos) {
+                rotate(now);
+            }
+
+            if (current.contains(msb, lsb) || previous.contains(msb, lsb)) {
+                duplicateCount.incrementAndGet();
+                return true;
+            }
+            if (current.isFull()) {
+                rotate(now);
+            }
+            current.add(msb, lsb);
+            return false;
+        }
+    }
+
+    private void rotate(long now) {
+        Generation expired = previous;
+        expired.clear();
+        previous = current;
+        current = expired;
+        currentStart = now;
+        rotationCount.incrementAndGet();
+    }
+
+    /**
+     * @return number of checked messages
+     */
+    public long getCheckedCount() {
+        return checkedCount.get();
+    }
+
+    /**
+     * @return number of dropped duplicates
+     */
+    public long getDuplicateCount() {
+        return duplicateCount.get();
+    }
+
+    /**
+     * @return part of checked messages, that were duplicates
+     */
+    public double getHitRate() {
+        long checked = checkedCount.get();
+        return checked == 0 ? 0 : (double) duplicateCount.get() / checked;
+    }
+
+    /**
+     * @return number of generation replacements, more than one per window means that ids are evicted by size
+     */
+    public long getRotationCount() {
+        return rotationCount.get();
+    }
+
+    private static final class Generation {
+
+        private final int maxSize;
+        private final long[] msbs;
+        private final long[] lsbs;
+        private final boolean[] used;
+        private final int mask;
+        private int size;
+
+        private Generation(int maxSize) {
+            this.maxSize = maxSize;
+            // load factor is 0.5
+            int capacity = Integer.highestOneBit(Math.max(maxSize, 1) * 2 - 1) << 1;
+            msbs = new long[capacity];
+            lsbs = new long[capacity];
+            used = new boolean[capacity];
+            mask = capacity - 1;
+        }
+
+        private static int hash(long msb, long lsb) {
+            long h = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+
+        private boolean contains(long msb, long lsb) {
+            for (int i = hash(msb, lsb) & mask; used[i]; i = (i + 1) & mask) {
+                if (msbs[i] == msb && lsbs[i] == lsb) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Add id, that isn't contained yet.
+         */
+        private void add(long msb, long lsb) {
+            int i = hash(msb, lsb) & mask;
+            while (used[i]) {
+                i = (i + 1) & mask;
+            }
+            msbs[i] = msb;
+            lsbs[i] = lsb;
+            used[i] = true;
+            size++;
+        }
+
+        private boolean isFull() {
+            return size >= maxSize;
+        }
+
+        private void clear() {
+            if (size > 0) {
+                Arrays.fill(used, false);
+                size = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package io.electrica.sdk.java8.core;
+
+import io.electrica.sdk.java8.api.http.Message;
+import io.electrica.sdk.java8.api.http.ScopedMessageFilter;
+import lombok.Getter;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Immutable index of message listeners. Listeners with {@link ScopedMessageFilter} are indexed by connector ERN or
+ * connection id, so only listeners of message scope are candidates to evaluate filter. Listeners with arbitrary
+ * filter are candidates for every message.
+ * <p>
+ * Modification returns new index, that shares unchanged parts with this one.
+ */
+public final class MessageListenerIndex {
+
+    public static final MessageListenerIndex EMPTY = new MessageListenerIndex(
+            Collections.emptyList(),
+            Collections.emptyMap(),
+            new LongObjectHashMap<>()
+    );
+
+    private final List<Listener> unscoped;
+    // keyed by lower-cased ERN, because ERN is compared ignoring case
+    private final Map<String, List<Listener>> connectorListeners;
+    private final LongObjectHashMap<List<Listener>> connectionListeners;
+
+    private MessageListenerIndex(
+            List<Listener> unscoped,
+            Map<String, List<Listener>> connectorListeners,
+            LongObjectHashMap<List<Listener>> connectionListeners
+    ) {
+        this.unscoped = unscoped;
+        this.connectorListeners = connectorListeners;
+        this.connectionListeners = connectionListeners;
+    }
+
+    private static String ernKey(String ern) {
+        return ern.toLowerCase(Locale.ROOT);
+    }
+
+    private static List<Listener> plus(@Nullable List<Listener> listeners, Listener listener) {
+        List<Listener> result = listeners == null ? new ArrayList<>(1) : new ArrayList<>(listeners);
+        result.add(listener);
+        return result;
+    }
+
+    @Nullable
+    private static List<Listener> minus(@Nullable List<Listener> listeners, Listener listener) {
+        if (listeners == null) {
+            return null;
+        }
+        List<Listener> result = new ArrayList<>(listeners);
+        result.remove(listener);
+        return result.isEmpty() ? null : result;
+    }
+
+    @Nullable
+    private static List<Listener> update(@Nullable List<Listener> listeners, Listener listener, boolean add) {
+        return add ? plus(listeners, listener) : minus(listeners, listener);
+    }
+
+    public MessageListenerIndex with(Listener listener) {
+        return update(listener, true);
+    }
+
+    public MessageListenerIndex without(Listener listener) {
+        return update(listener, false);
+    }
+
+    private MessageListenerIndex update(Listener listener, boolean add) {
+        if (listener.connectorErn != null) {
+            Map<String, List<Listener>> connectors = new HashMap<>(connectorListeners);
+            String key = ernKey(listener.connectorErn);
+            List<Listener> listeners = update(connectors.get(key), listener, add);
+            if (listeners == null) {
+                connectors.remove(key);
+            } else {
+                connectors.put(key, listeners);
+            }
+            return new MessageListenerIndex(unscoped, connectors, connectionListeners);
+        }
+        if (listener.connectionId != null) {
+            LongObjectHashMap<List<Listener>> connections = connectionListeners.copy();
+            long key = listener.connectionId;
+            List<Listener> listeners = update(connections.get(key), listener, add);
+            if (listeners == null) {
+                connections.remove(key);
+            } else {
+                connections.put(key, listeners);
+            }
+            return new MessageListenerIndex(unscoped, connectorListeners, connections);
+        }
+        List<Listener> listeners = update(unscoped, listener, add);
+        return new MessageListenerIndex(
+                listeners == null ? Collections.emptyList() : listeners,
+                connectorListeners,
+                connectionListeners
+        );
+    }
+
+    /**
+     * Find listeners, which filter may accept message with specified scope attributes.
+     * {@link Listener#getResidualFilter()} must be evaluated for each of them.
+     */
+    public List<Listener> lookup(@Nullable Message.Scope scope, @Nullable String connectorErn,
+                                 @Nullable Long connectionId) {
+        List<Listener> scoped = null;
+        if (scope == Message.Scope.Connector && connectorErn != null) {
+            scoped = connectorListeners.get(ernKey(connectorErn));
+        } else if (scope == Message.Scope.Connection && connectionId != null) {
+            scoped = connectionListeners.get(connectionId);
+        }
+        if (scoped == null) {
+            return unscoped;
+        }
+        if (unscoped.isEmpty()) {
+            return scoped;
+        }
+        List<Listener> result = new ArrayList<>(unscoped.size() + scoped.size());
+        result.addAll(unscoped);
+        result.addAll(scoped);
+        return result;
+    }
+
+    /**
+     * Registered listener. Keys are taken from {@link ScopedMessageFilter}, if it has enough data to be indexed.
+     */
+    @Getter
+    public static final class Listener {
+
+        private final UUID id;
+        private final Consumer<Message> consumer;
+        @Nullable
+        private final String connectorErn;
+        @Nullable
+        private final Long connectionId;
+        /**
+         * Part of filter, that isn't checked by index.
+         */
+        private final Predicate<Message> residualFilter;
+
+        public Listener(UUID id, Predicate<Message> filter, Consumer<Message> consumer) {
+            this.id = id;
+            this.consumer = consumer;
+            if (filter instanceof ScopedMessageFilter) {
+                ScopedMessageFilter scoped = (ScopedMessageFilter) filter;
+                if (scoped.getScope() == Message.Scope.Connector) {
+                    connectorErn = scoped.getConnectorErn();
+                    connectionId = null;
+                } else {
+                    connectorErn = null;
+                    connectionId = scoped.getConnectionId();
+                }
+                // scope without key can't be indexed and full filter is evaluated
+                residualFilter = connectorErn == null && connectionId == null ? filter : scoped.getFilter();
+            } else {
+                connectorErn = null;
+                connectionId = null;
+                residualFilter = filter;
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package io.electrica.sdk.java8.core;
+
+/**
+ * Defines how webhook message result is sent back.
+ */
+public enum MessageResultMode {
+
+    /**
+     * Result is sent by HTTP request of background {@link MessageResultSender}, that retries failed requests.
+     */
+    Http,
+
+    /**
+     * Result is sent as frame through instance WebSocket connection, that delivered the message, right after ack of
+     * the message, so no separate HTTP exchange is made per result. Lingering batch of acks is sent before result,
+     * see {@link AckBatcher#sendAfterAcks(okhttp3.WebSocket, String)}. Falls back to {@link #Http}, if connection
+     * has been lost since the message delivered.
+     * <p>
+     * Frame isn't retried if connection lost after it has been enqueued.
+     */
+    WebSocket
+
+}
@@ -0,0 +1,334 @@
+package io.electrica.sdk.java8.core;
+
+import io.electrica.sdk.java8.api.impl.HashedWheelTimer;
+import io.electrica.sdk.java8.core.dto.MessageResultDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends webhook message results in background, so listener threads only put result to bounded queue.
+ * <p>
+ * Up to {@code maxInFlight} requests are sent concurrently. Results queued while all requests are in flight
+ * are coalesced into batches of up to {@code maxBatchSize} items. Failed batch keeps its slot and is retried
+ * according to {@link RetryStrategy}, so failing API isn't flooded by new requests.
+ */
+@Slf4j
+public class MessageResultSender {
+
+    private final int capacity;
+    private final int maxBatchSize;
+    private final int maxInFlight;
+    private final RetryStrategy retryStrategy;
+    private final HashedWheelTimer timer;
+    private final Transport transport;
+
+    // synchronized by itself
+    private final Queue<Item> queue = new ArrayDeque<>();
+    private int inFlight = 0;
+    private boolean closed = false;
+
+    private final AtomicLong enqueuedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+
+    /**
+     * @param capacity      maximum number of queued results, that aren't sent yet
+     * @param maxBatchSize  maximum number of results in one request
+     * @param maxInFlight   maximum number of concurrent requests
+     * @param retryStrategy delays of failed request retries
+     * @param timer         timer to schedule retries
+     * @param transport     sends requests
+     */
+    public MessageResultSender(
+            int capacity,
+            int maxBatchSize,
+            int maxInFlight,
+            RetryStrategy retryStrategy,
+            HashedWheelTimer timer,
+            Transport transport
+    ) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize);
+        }
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
+        this.capacity = capacity;
+        this.maxBatchSize = maxBatchSize;
+        this.maxInFlight = maxInFlight;
+        this.retryStrategy = retryStrategy;
+        this.timer = timer;
+        this.transport = transport;
+    }
+
+    /**
+     * Put result to queue to be sent in background.
+     *
+     * @param result       message result
+     * @param connectorErn ERN of connector, that message belongs to
+     * @return {@code false} if queue is full or sender has been closed
+     */
+    public boolean offer(MessageResultDto result, @Nullable String connectorErn) {
+        Batch batch;
+        synchronized (queue) {
+            if (closed || queue.size() >= capacity) {
+                rejectedCount.incrementAndGet();
+                return false;
+            }
+            queue.add(new Item(result, connectorErn));
+            enqueuedCount.incrementAndGet();
+            batch = nextBatch();
+        }
+        if (batch != null) {
+            send(batch);
+        }
+        return true;
+    }
+
+    /**
+     * Put results to queue as a unit, either all of them are accepted or none.
+     *
+     * @return {@code false} if queue hasn't room for all results or sender has been closed
+     */
+    public boolean offerAll(List<Item> items) {
+        List<Batch> toSend = new ArrayList<>();
+        synchronized (queue) {
+            if (closed || queue.size() + items.size() > capacity) {
+                rejectedCount.addAndGet(items.size());
+                return false;
+            }
+            queue.addAll(items);
+            enqueuedCount.addAndGet(items.size());
+            Batch batch;
+            while ((batch = nextBatch()) != null) {
+                toSend.add(batch);
+            }
+        }
+        for (Batch batch : toSend) {
+            send(batch);
+        }
+        return true;
+    }
+
+    private Batch nextBatch() {
+        if (queue.isEmpty() || (inFlight >= maxInFlight && !closed)) {
+            return null;
+        }
+        int size = Math.min(queue.size(), maxBatchSize);
+        List<Item> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(queue.poll());
+        }
+        inFlight++;
+        return new Batch(items);
+    }
+
+    private void send(Batch batch) {
+        requestCount.incrementAndGet();
+        try {
+            transport.send(batch.items, new Completion(batch));
+        } catch (RuntimeException e) {
+            // e.g. dispatcher rejected request after shutdown
+            complete(batch, new IOException("Can't send message results", e), false);
+        }
+    }
+
+    private void complete(Batch batch, @Nullable IOException error, boolean retryable) {
+        if (error == null) {
+            sentCount.addAndGet(batch.items.size());
+        } else if (retryable && retry(batch, error)) {
+            return;
+        } else {
+            failedCount.addAndGet(batch.items.size());
+            log.error("Failed to send " + batch.items.size() + " message results, dropped", error);
+        }
+
+        List<Batch> toSend = new ArrayList<>();
+        synchronized (queue) {
+            inFlight--;
+            Batch next;
+            while ((next = nextBatch()) != null) {
+                toSend.add(next);
+            }
+            if (inFlight == 0) {
+                queue.notifyAll();
+            }
+        }
+        for (Batch next : toSend) {
+            send(next);
+        }
+    }
+
+    private boolean retry(Batch batch, IOException error) {
+        synchronized (queue) {
+            if (closed) {
+                return false;
+            }
+        }
+        Optional<Long> delay = retryStrategy.getDelay(++batch.retryNumber, batch.retryDelay);
+        if (!delay.isPresent()) {
+            return false;
+        }
+        batch.retryDelay = delay.get();
+        retryCount.incrementAndGet();
+        log.warn("Failed to send message results, retry #{} in {}ms: {}", batch.retryNumber, delay.get(),
+                error.toString());
+        timer.newTimeout(() -> send(batch), delay.get(), TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    public int getQueueSize() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    public int getInFlight() {
+        synchronized (queue) {
+            return inFlight;
+        }
+    }
+
+    /**
+     * @return number of results accepted to queue
+     */
+    public long getEnqueuedCount() {
+        return enqueuedCount.get();
+    }
+
+    /**
+     * @return number of results rejected because queue was full or sender closed
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * @return number of results successfully sent
+     */
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    /**
+     * @return number of results dropped after all retries failed
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * @return number of requests, including retries
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    /**
+     * Reject new results, send all queued ones without retries and wait until requests completed.
+     *
+     * @param timeout how long to wait in millis
+     */
+    public void close(long timeout) throws InterruptedException {
+        List<Batch> toSend = new ArrayList<>();
+        synchronized (queue) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            Batch batch;
+            while ((batch = nextBatch()) != null) {
+                toSend.add(batch);
+            }
+        }
+        for (Batch batch : toSend) {
+            send(batch);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        synchronized (queue) {
+            long remaining;
+            while (inFlight > 0 && (remaining = deadline - System.nanoTime()) > 0) {
+                TimeUnit.NANOSECONDS.timedWait(queue, remaining);
+            }
+            if (inFlight > 0) {
+                log.warn("Can't await sending of message results, {} requests in flight", inFlight);
+            }
+        }
+    }
+
+    /**
+     * Asynchronously sends results and reports outcome to {@link Completion}.
+     */
+    @FunctionalInterface
+    public interface Transport {
+
+        void send(List<Item> items, Completion completion);
+    }
+
+    /**
+     * Result queued with connector ERN, that may be used to choose request options.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Item {
+        private final MessageResultDto result;
+        @Nullable
+        private final String connectorErn;
+    }
+
+    private static class Batch {
+
+        private final List<Item> items;
+        private int retryNumber = 0;
+        private long retryDelay = 0;
+
+        private Batch(List<Item> items) {
+            this.items = items;
+        }
+    }
+
+    /**
+     * Outcome of one request, must be reported exactly once.
+     */
+    public final class Completion {
+
+        private final Batch batch;
+
+        private Completion(Batch batch) {
+            this.batch = batch;
+        }
+
+        public void onSuccess() {
+            complete(batch, null, false);
+        }
+
+        /**
+         * @param retryable whether request may be retried, e.g. network error or server error
+         */
+        public void onFailure(IOException e, boolean retryable) {
+            complete(batch, e, retryable);
+        }
+    }
+}
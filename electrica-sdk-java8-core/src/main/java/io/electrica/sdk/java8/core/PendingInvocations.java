@@ -0,0 +1,209 @@
+package io.electrica.sdk.java8.core;
+
+import io.electrica.sdk.java8.api.impl.HashedWheelTimer;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Correlates pending asynchronous invocations with results delivered separately, by invocation id.
+ * <p>
+ * Result may arrive before invocation id is returned in response of submit request, so such early result is kept
+ * until invocation registered. Both pending invocations and early results expire after specified timeout.
+ *
+ * @param <P> type of pending invocation
+ * @param <R> type of result
+ */
+@Slf4j
+public class PendingInvocations<P, R> implements AutoCloseable {
+
+    private final HashedWheelTimer timer;
+    private final long expirationMillis;
+    private final BiConsumer<P, R> onResult;
+    private final BiConsumer<P, IOException> onFailure;
+
+    // synchronized by itself
+    private final Map<UUID, Entry<P, R>> entries = new HashMap<>();
+    private boolean closed = false;
+
+    /**
+     * @param timer            timer to expire entries
+     * @param expirationMillis how long to wait for result or invocation
+     * @param onResult         called once invocation matched with result
+     * @param onFailure        called if no result arrived until expiration or on close
+     */
+    public PendingInvocations(
+            HashedWheelTimer timer,
+            long expirationMillis,
+            BiConsumer<P, R> onResult,
+            BiConsumer<P, IOException> onFailure
+    ) {
+        this.timer = timer;
+        this.expirationMillis = expirationMillis;
+        this.onResult = onResult;
+        this.onFailure = onFailure;
+    }
+
+    /**
+     * Register pending invocation or complete it immediately if result already arrived.
+     */
+    public void register(UUID invocationId, P invocation) {
+        R result;
+        synchronized (entries) {
+            if (closed) {
+                result = null;
+            } else {
+                Entry<P, R> entry = entries.get(invocationId);
+                if (entry != null && entry.result != null) {
+                    entries.remove(invocationId);
+                    entry.timeout.cancel();
+                    result = entry.result;
+                } else {
+                    put(invocationId, new Entry<>(invocation, null));
+                    return;
+                }
+            }
+        }
+        if (result == null) {
+            onFailure.accept(invocation, new IOException("Pending invocations have been closed"));
+        } else {
+            onResult.accept(invocation, result);
+        }
+    }
+
+    /**
+     * Complete pending invocation or keep result until invocation registered.
+     *
+     * @return {@code true} if result matched with pending invocation
+     */
+    public boolean complete(UUID invocationId, R result) {
+        P invocation;
+        synchronized (entries) {
+            if (closed) {
+                return false;
+            }
+            Entry<P, R> entry = entries.get(invocationId);
+            if (entry == null) {
+                put(invocationId, new Entry<>(null, result));
+                return false;
+            }
+            if (entry.invocation == null) {
+                // duplicated delivery of early result
+                return false;
+            }
+            entries.remove(invocationId);
+            entry.timeout.cancel();
+            invocation = entry.invocation;
+        }
+        onResult.accept(invocation, result);
+        return true;
+    }
+
+    /**
+     * Remove pending invocation without completion, e.g. if invocation request hasn't been sent.
+     *
+     * @return removed invocation or {@code null} if it isn't pending
+     */
+    @Nullable
+    public P remove(UUID invocationId) {
+        synchronized (entries) {
+            Entry<P, R> entry = entries.get(invocationId);
+            if (entry == null || entry.invocation == null) {
+                return null;
+            }
+            entries.remove(invocationId);
+            entry.timeout.cancel();
+            return entry.invocation;
+        }
+    }
+
+    /**
+     * Fail pending invocation before expiration, e.g. if its result is lost.
+     *
+     * @return {@code true} if invocation was pending
+     */
+    public boolean fail(UUID invocationId, IOException error) {
+        P invocation = remove(invocationId);
+        if (invocation == null) {
+            return false;
+        }
+        onFailure.accept(invocation, error);
+        return true;
+    }
+
+    private void put(UUID invocationId, Entry<P, R> entry) {
+        entry.timeout = timer.newTimeout(() -> expire(invocationId, entry), expirationMillis, TimeUnit.MILLISECONDS);
+        entries.put(invocationId, entry);
+    }
+
+    private void expire(UUID invocationId, Entry<P, R> entry) {
+        synchronized (entries) {
+            if (!entries.remove(invocationId, entry)) {
+                return;
+            }
+        }
+        if (entry.invocation != null) {
+            onFailure.accept(entry.invocation, new InterruptedIOException(
+                    "No result of invocation " + invocationId + " received in " + expirationMillis + "ms"));
+        } else {
+            log.warn("Dropped result of unknown invocation: {}", invocationId);
+        }
+    }
+
+    /**
+     * @return number of invocations waiting for result
+     */
+    public int size() {
+        synchronized (entries) {
+            int count = 0;
+            for (Entry<P, R> entry : entries.values()) {
+                if (entry.invocation != null) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Fail all pending invocations and reject new ones.
+     */
+    @Override
+    public void close() {
+        List<Entry<P, R>> toFail = new ArrayList<>();
+        synchronized (entries) {
+            closed = true;
+            for (Entry<P, R> entry : entries.values()) {
+                entry.timeout.cancel();
+                if (entry.invocation != null) {
+                    toFail.add(entry);
+                }
+            }
+            entries.clear();
+        }
+        for (Entry<P, R> entry : toFail) {
+            onFailure.accept(entry.invocation, new IOException("Pending invocations have been closed"));
+        }
+    }
+
+    private static class Entry<P, R> {
+
+        private final P invocation;
+        private final R result;
+        private HashedWheelTimer.Timeout timeout;
+
+        private Entry(P invocation, R result) {
+            this.invocation = invocation;
+            this.result = result;
+        }
+    }
+}
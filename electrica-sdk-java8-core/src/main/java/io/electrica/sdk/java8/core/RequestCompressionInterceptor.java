@@ -0,0 +1,194 @@
+package io.electrica.sdk.java8.core;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ForwardingSink;
+import okio.GzipSink;
+import okio.Okio;
+import okio.Sink;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+
+/**
+ * Compresses bodies of requests, that tagged by {@link Encoding}, if body size reaches specified threshold.
+ * <p>
+ * Bodies of known length below threshold are sent as is without buffering. Other bodies up to buffer limit are
+ * buffered to know their size, so small bodies are sent as is, without compression overhead, and compressed ones
+ * are sent with known length. Larger bodies, e.g. streamed by {@link GsonRequestBody}, aren't held in memory, but
+ * compressed on the fly with chunked encoding. Body of unknown length is written again for that, once it exceeds
+ * buffer limit, so it must support repeated writes, as {@link GsonRequestBody} does.
+ * <p>
+ * Requests that already have {@link #CONTENT_ENCODING} header are not touched.
+ */
+public class RequestCompressionInterceptor implements Interceptor {
+
+    public static final String CONTENT_ENCODING = "Content-Encoding";
+    public static final long DEFAULT_MAX_BUFFER_BYTES = 1024 * 1024;
+
+    private final long thresholdBytes;
+    private final long maxBufferBytes;
+
+    /**
+     * @param thresholdBytes minimal size of body in bytes to be compressed
+     */
+    public RequestCompressionInterceptor(long thresholdBytes) {
+        this(thresholdBytes, Math.max(thresholdBytes, DEFAULT_MAX_BUFFER_BYTES));
+    }
+
+    /**
+     * @param thresholdBytes minimal size of body in bytes to be compressed
+     * @param maxBufferBytes maximal size of body in bytes to be buffered, larger bodies are compressed on the fly
+     */
+    public RequestCompressionInterceptor(long thresholdBytes, long maxBufferBytes) {
+        if (maxBufferBytes < thresholdBytes) {
+            throw new IllegalArgumentException("Required thresholdBytes <= maxBufferBytes, but got: " +
+                    thresholdBytes + ", " + maxBufferBytes);
+        }
+        this.thresholdBytes = thresholdBytes;
+        this.maxBufferBytes = maxBufferBytes;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Encoding encoding = request.tag(Encoding.class);
+        RequestBody body = request.body();
+        if (encoding == null || body == null || request.header(CONTENT_ENCODING) != null) {
+            return chain.proceed(request);
+        }
+
+        long length = body.contentLength();
+        if (length >= 0 && length < thresholdBytes) {
+            return chain.proceed(request);
+        }
+
+        Request.Builder builder = request.newBuilder();
+        RequestBody newBody = length <= maxBufferBytes ? buffer(body, encoding, builder) : null;
+        if (newBody == null) {
+            builder.header(CONTENT_ENCODING, encoding.getName());
+            newBody = new EncodingRequestBody(body, encoding);
+        }
+        return chain.proceed(builder.method(request.method(), newBody).build());
+    }
+
+    /**
+     * @return buffered body, that compressed if its size reaches threshold, or {@code null} if body exceeds buffer
+     * limit
+     */
+    @Nullable
+    private RequestBody buffer(RequestBody body, Encoding encoding, Request.Builder builder) throws IOException {
+        Buffer buffer = new Buffer();
+        try (BufferedSink sink = Okio.buffer(new LimitedSink(buffer, maxBufferBytes))) {
+            body.writeTo(sink);
+        } catch (BufferLimitException e) {
+            return null;
+        }
+
+        if (buffer.size() >= thresholdBytes) {
+            Buffer encoded = new Buffer();
+            try (BufferedSink sink = Okio.buffer(encoding.encode(encoded))) {
+                sink.writeAll(buffer);
+            }
+            buffer = encoded;
+            builder.header(CONTENT_ENCODING, encoding.getName());
+        }
+        // snapshot shares segments of buffer instead of copying body, and can be written again on retry
+        return RequestBody.create(body.contentType(), buffer.snapshot());
+    }
+
+    /**
+     * Supported content encodings of request body.
+     */
+    public enum Encoding {
+
+        Gzip("gzip") {
+            @Override
+            Sink encode(Sink sink) {
+                return new GzipSink(sink);
+            }
+        };
+
+        private final String name;
+
+        Encoding(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Value of {@link #CONTENT_ENCODING} header.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Wrap sink to encode data written to it. Encoded data is completed, when returned sink closed.
+         */
+        abstract Sink encode(Sink sink);
+    }
+
+    /**
+     * Body, that encodes delegate body on every write, so it isn't held in memory and can be written again on retry.
+     * Encoded length is unknown in advance, so body is transferred using chunked encoding.
+     */
+    private static class EncodingRequestBody extends RequestBody {
+
+        private final RequestBody delegate;
+        private final Encoding encoding;
+
+        private EncodingRequestBody(RequestBody delegate, Encoding encoding) {
+            this.delegate = delegate;
+            this.encoding = encoding;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return -1;
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            // closes request sink as well, that is allowed by OkHttp
+            try (BufferedSink encoded = Okio.buffer(encoding.encode(sink))) {
+                delegate.writeTo(encoded);
+            }
+        }
+    }
+
+    /**
+     * Rejects writes beyond limit, so body of unknown length isn't buffered entirely to learn, that it's large.
+     */
+    private static class LimitedSink extends ForwardingSink {
+
+        private final long limit;
+        private long written;
+
+        private LimitedSink(Sink delegate, long limit) {
+            super(delegate);
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(Buffer source, long byteCount) throws IOException {
+            written += byteCount;
+            if (written > limit) {
+                throw new BufferLimitException();
+            }
+            super.write(source, byteCount);
+        }
+    }
+
+    private static class BufferLimitException extends IOException {
+    }
+}
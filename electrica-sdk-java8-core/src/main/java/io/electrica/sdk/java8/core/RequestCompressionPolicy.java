@@ -0,0 +1,81 @@
+package io.electrica.sdk.java8.core;
+
+import io.electrica.sdk.java8.api.http.Request;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides which request bodies may be compressed by {@link RequestCompressionInterceptor}, according to connectors,
+ * that opt-in compression. Invocations refer to connection only, so connector ERN of connections fetched by module
+ * is remembered.
+ *
+ * @see HttpModuleOptions.Builder#requestCompression(RequestCompressionInterceptor.Encoding, long, String...)
+ */
+public class RequestCompressionPolicy {
+
+    @Nullable
+    private final RequestCompressionInterceptor.Encoding encoding;
+    private final Set<String> connectorErns;
+
+    private final Map<Long, String> connectionErns = new ConcurrentHashMap<>();
+
+    /**
+     * @param encoding      content encoding of compressed body or {@code null} if compression disabled
+     * @param connectorErns normalized ERNs of connectors, that opt-in compression, all connectors if empty
+     * @see #ernKey(String)
+     */
+    public RequestCompressionPolicy(@Nullable RequestCompressionInterceptor.Encoding encoding,
+                                    Set<String> connectorErns) {
+        this.encoding = encoding;
+        this.connectorErns = connectorErns;
+    }
+
+    /**
+     * Normalize ERN to match it case-insensitively.
+     */
+    public static String ernKey(String ern) {
+        return ern.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Remember connector of fetched connection.
+     */
+    public void registerConnection(Long connectionId, String connectorErn) {
+        connectionErns.put(connectionId, connectorErn);
+    }
+
+    @Nullable
+    public RequestCompressionInterceptor.Encoding getEncoding(@Nullable String connectorErn) {
+        if (encoding == null) {
+            return null;
+        }
+        return connectorErns.isEmpty() || (connectorErn != null && connectorErns.contains(ernKey(connectorErn))) ?
+                encoding : null;
+    }
+
+    @Nullable
+    public RequestCompressionInterceptor.Encoding getEncoding(Request request) {
+        Long connectionId = request.getConnectionId();
+        return getEncoding(connectionId == null ? null : connectionErns.get(connectionId));
+    }
+
+    /**
+     * Batch may be compressed only if all its results opt-in compression.
+     */
+    @Nullable
+    public RequestCompressionInterceptor.Encoding getEncoding(List<MessageResultSender.Item> items) {
+        RequestCompressionInterceptor.Encoding result = null;
+        for (MessageResultSender.Item item : items) {
+            result = getEncoding(item.getConnectorErn());
+            if (result == null) {
+                return null;
+            }
+        }
+        return result;
+    }
+}
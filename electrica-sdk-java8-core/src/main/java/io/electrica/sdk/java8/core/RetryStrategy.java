@@ -1,6 +1,7 @@
 package io.electrica.sdk.java8.core;
 
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -16,6 +17,38 @@ public interface RetryStrategy {
      */
     Optional<Long> getDelay(int retryNumber);
 
+    /**
+     * Get delay for specified number of retry, that may depend on delay before previous retry, e.g. to spread
+     * retries of many clients randomly.
+     *
+     * @param retryNumber   number of retry, e.q 1 mean first retry after 1 failure
+     * @param previousDelay delay in millis before previous retry or {@code 0} for the first retry
+     * @return delay in millis before the next retry or {@link Optional#empty()} to give up
+     */
+    default Optional<Long> getDelay(int retryNumber, long previousDelay) {
+        return getDelay(retryNumber);
+    }
+
+    /**
+     * Get delay before the first attempt to restore connection, that was established and lost, e.g. random delay,
+     * so clients, that lost connection at the same time, don't reconnect all at once.
+     *
+     * @return delay in millis, {@code 0} to reconnect immediately
+     */
+    default long getFirstDelay() {
+        return 0;
+    }
+
+    /**
+     * How long connection must stay established to start counting retries from scratch after it's lost, so
+     * connection, that drops right after established, keeps backing off.
+     *
+     * @return reset window in millis, {@code 0} resets retries once connection established
+     */
+    default long getResetWindow() {
+        return 0;
+    }
+
     class Linear implements RetryStrategy {
 
         private final int maxRetries;
@@ -31,4 +64,189 @@ public interface RetryStrategy {
             return retryNumber > maxRetries ? Optional.empty() : Optional.of(delay);
         }
     }
+
+    /**
+     * Doubles delay with each retry up to maximum delay. Clients, that failed at the same time, still retry at the
+     * same time, see {@link DecorrelatedJitter} to spread them.
+     */
+    class Exponential implements RetryStrategy {
+
+        private final int maxRetries;
+        private final long initialDelay;
+        private final long maxDelay;
+        private final long resetWindow;
+
+        public Exponential(int maxRetries, long initialDelay, long maxDelay, TimeUnit unit) {
+            this(maxRetries, initialDelay, maxDelay, 0, unit);
+        }
+
+        /**
+         * @param resetWindow see {@link #getResetWindow()}
+         */
+        public Exponential(int maxRetries, long initialDelay, long maxDelay, long resetWindow, TimeUnit unit) {
+            if (initialDelay < 1 || maxDelay < initialDelay) {
+                throw new IllegalArgumentException("Required 0 < initialDelay <= maxDelay, but got: " +
+                        initialDelay + ", " + maxDelay);
+            }
+            this.maxRetries = maxRetries;
+            this.initialDelay = unit.toMillis(initialDelay);
+            this.maxDelay = unit.toMillis(maxDelay);
+            this.resetWindow = unit.toMillis(resetWindow);
+        }
+
+        @Override
+        public Optional<Long> getDelay(int retryNumber) {
+            if (retryNumber > maxRetries) {
+                return Optional.empty();
+            }
+            int shift = Math.max(0, retryNumber - 1);
+            // shifted delay would overflow long, so it exceeds any maximum delay
+            boolean capped = shift >= Long.numberOfLeadingZeros(initialDelay) - 1;
+            return Optional.of(capped ? maxDelay : Math.min(maxDelay, initialDelay << shift));
+        }
+
+        @Override
+        public long getResetWindow() {
+            return resetWindow;
+        }
+    }
+
+    /**
+     * Exponential backoff with "decorrelated jitter": delay is random between initial delay and three times previous
+     * delay, capped by maximum delay. Clients, that failed at the same time, e.g. on API restart, retry at different
+     * times, so API isn't hit by all of them at once, while delay still grows with each retry. The first reconnect
+     * is delayed randomly up to initial delay.
+     */
+    class DecorrelatedJitter implements RetryStrategy {
+
+        private final int maxRetries;
+        private final long initialDelay;
+        private final long maxDelay;
+        private final long resetWindow;
+
+        public DecorrelatedJitter(int maxRetries, long initialDelay, long maxDelay, TimeUnit unit) {
+            this(maxRetries, initialDelay, maxDelay, 0, unit);
+        }
+
+        /**
+         * @param resetWindow see {@link #getResetWindow()}
+         */
+        public DecorrelatedJitter(int maxRetries, long initialDelay, long maxDelay, long resetWindow, TimeUnit unit) {
+            if (initialDelay < 1 || maxDelay < initialDelay) {
+                throw new IllegalArgumentException("Required 0 < initialDelay <= maxDelay, but got: " +
+                        initialDelay + ", " + maxDelay);
+            }
+            this.maxRetries = maxRetries;
+            this.initialDelay = unit.toMillis(initialDelay);
+            this.maxDelay = unit.toMillis(maxDelay);
+            this.resetWindow = unit.toMillis(resetWindow);
+        }
+
+        @Override
+        public Optional<Long> getDelay(int retryNumber) {
+            return getDelay(retryNumber, 0);
+        }
+
+        @Override
+        public Optional<Long> getDelay(int retryNumber, long previousDelay) {
+            if (retryNumber > maxRetries) {
+                return Optional.empty();
+            }
+            long previous = Math.max(initialDelay, previousDelay);
+            long upper = previous > maxDelay / 3 ? maxDelay : previous * 3;
+            return Optional.of(ThreadLocalRandom.current().nextLong(initialDelay, upper + 1));
+        }
+
+        @Override
+        public long getFirstDelay() {
+            return ThreadLocalRandom.current().nextLong(initialDelay + 1);
+        }
+
+        @Override
+        public long getResetWindow() {
+            return resetWindow;
+        }
+    }
+
+    /**
+     * Limits rate of retries of all its users by token bucket: each retry takes a token and bucket is refilled by
+     * one token per refill period up to capacity. Once bucket is empty, retries are given up, so failing API isn't
+     * flooded by retries, when most of requests fail. Delays are defined by delegate strategy.
+     * <p>
+     * Instance is meant to be shared, e.g. by invocations of several connections.
+     */
+    class Budget implements RetryStrategy {
+
+        private final RetryStrategy delegate;
+        private final int capacity;
+        private final long refillPeriodNanos;
+
+        // synchronized by this
+        private double tokens;
+        private long refilledAt;
+
+        /**
+         * @param delegate     strategy, that defines delays and maximum number of retries
+         * @param capacity     maximum number of retries in burst
+         * @param refillPeriod period to earn one more retry, in units of {@code unit}
+         * @param unit         a {@link TimeUnit} determining how to interpret the {@code refillPeriod} parameter
+         */
+        public Budget(RetryStrategy delegate, int capacity, long refillPeriod, TimeUnit unit) {
+            if (capacity < 1) {
+                throw new IllegalArgumentException("capacity must be positive: " + capacity);
+            }
+            if (refillPeriod < 1) {
+                throw new IllegalArgumentException("refillPeriod must be positive: " + refillPeriod);
+            }
+            this.delegate = delegate;
+            this.capacity = capacity;
+            this.refillPeriodNanos = unit.toNanos(refillPeriod);
+            this.tokens = capacity;
+            this.refilledAt = System.nanoTime();
+        }
+
+        @Override
+        public Optional<Long> getDelay(int retryNumber) {
+            return getDelay(retryNumber, 0);
+        }
+
+        @Override
+        public Optional<Long> getDelay(int retryNumber, long previousDelay) {
+            Optional<Long> delay = delegate.getDelay(retryNumber, previousDelay);
+            return delay.isPresent() && tryAcquire() ? delay : Optional.empty();
+        }
+
+        @Override
+        public long getFirstDelay() {
+            return delegate.getFirstDelay();
+        }
+
+        @Override
+        public long getResetWindow() {
+            return delegate.getResetWindow();
+        }
+
+        /**
+         * @return number of retries, that can be made right now
+         */
+        public synchronized int getAvailable() {
+            refill();
+            return (int) tokens;
+        }
+
+        private synchronized boolean tryAcquire() {
+            refill();
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (double) (now - refilledAt) / refillPeriodNanos);
+            refilledAt = now;
+        }
+    }
 }
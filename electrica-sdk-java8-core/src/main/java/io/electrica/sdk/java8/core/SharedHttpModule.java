@@ -0,0 +1,92 @@
+package io.electrica.sdk.java8.core;
+
+import io.electrica.sdk.java8.api.Electrica;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementation of the Http module that serves many {@link Electrica} instances, e.g. one per customer access key.
+ * <p>
+ * Instances share http client with its connection pool and dispatcher, event and callback executors and timers,
+ * so number of threads doesn't grow with number of instances. Each instance still has its own WebSocket,
+ * because WebSocket session is authorized by instance access key.
+ * <p>
+ * {@link #close(UUID)} closes only specified instance, shared resources are released by {@link #close()}.
+ */
+@Slf4j
+public class SharedHttpModule extends AbstractHttpModule {
+
+    private final Map<UUID, InstanceContext> instances = new ConcurrentHashMap<>();
+
+    public SharedHttpModule() {
+        this(API_URL);
+    }
+
+    public SharedHttpModule(String apiUrl) {
+        super(apiUrl);
+    }
+
+    public SharedHttpModule(String apiUrl, HttpModuleOptions options) {
+        super(apiUrl, options);
+    }
+
+    @Override
+    protected InstanceContext getInstance(UUID instanceId) {
+        InstanceContext instance = instances.get(instanceId);
+        if (instance == null) {
+            throw new IllegalStateException("Instance hasn't been initialized or has been closed: " + instanceId);
+        }
+        return instance;
+    }
+
+    @Override
+    public synchronized void initialize(UUID instanceId, String instanceName, String accessKey) {
+        initializeShared();
+        if (instances.containsKey(instanceId)) {
+            throw new IllegalStateException("Instance already initialized: " + instanceId);
+        }
+        instances.put(instanceId, createInstance(instanceId, instanceName, accessKey));
+    }
+
+    /**
+     * @return number of currently initialized instances
+     */
+    public int getInstanceCount() {
+        return instances.size();
+    }
+
+    /**
+     * Instance stays resolvable while closing, so its listeners, that handle already received messages, can still
+     * send results.
+     */
+    @Override
+    public void close(UUID instanceId) throws Exception {
+        InstanceContext instance = instances.get(instanceId);
+        if (instance != null) {
+            try {
+                instance.close();
+            } finally {
+                instances.remove(instanceId, instance);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws Exception {
+        List<InstanceContext> toClose = new ArrayList<>(instances.values());
+        for (InstanceContext instance : toClose) {
+            try {
+                instance.close();
+            } catch (Exception e) {
+                log.error("Can't close instance: " + instance.getInstanceId(), e);
+            }
+        }
+        instances.clear();
+        closeShared();
+    }
+}
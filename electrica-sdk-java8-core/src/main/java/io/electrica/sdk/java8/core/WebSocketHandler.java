@@ -1,31 +1,60 @@
 package io.electrica.sdk.java8.core;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonSyntaxException;
+import io.electrica.sdk.java8.api.impl.HashedWheelTimer;
+import io.electrica.sdk.java8.core.dto.MessageResultDto;
 import io.electrica.sdk.java8.core.message.AckOutboundMessage;
+import io.electrica.sdk.java8.core.message.FlowControlOutboundMessage;
 import io.electrica.sdk.java8.core.message.InboundMessage;
+import io.electrica.sdk.java8.core.message.MessagePackCodec;
+import io.electrica.sdk.java8.core.message.MessageResultOutboundMessage;
+import io.electrica.sdk.java8.core.message.ResultInboundMessage;
+import io.electrica.sdk.java8.core.message.ResultMessage;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
+import okio.ByteString;
 
 import javax.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
 import java.time.ZonedDateTime;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
+/**
+ * Keeps WebSocket connections of instance. Instance may have several connections (shards), so inbound messages
+ * are read and parsed by several OkHttp reader threads. Each shard reconnects independently and messages of all
+ * shards are dispatched by the same {@link InstanceEventDispatcher}.
+ * <p>
+ * Messages are received as JSON text frames or as binary frames in {@link FrameEncoding}, that offered to server,
+ * and acked in encoding of their frame. If {@link FrameCompressor} specified, binary frames may be compressed with
+ * shared dictionary as well, so acks of compressed messages are compressed too.
+ * <p>
+ * If server issues session token by {@link #INSTANCE_SESSION_HEADER}, each connection resumes its session on
+ * reconnect: token and watermark of accepted messages are sent back, so server replays only messages above watermark
+ * instead of all unacked ones, which acks may be lost with connection.
+ */
 @Slf4j
-public class WebSocketHandler extends WebSocketListener implements AutoCloseable {
+public class WebSocketHandler implements AutoCloseable {
 
     public static final String WEBSOCKETS_PATH = "/v1/websockets";
     public static final String INSTANCE_ID_HEADER = "x-electrica-sdk-instance-id";
     public static final String INSTANCE_NAME_HEADER = "x-electrica-sdk-instance-name";
     public static final String INSTANCE_START_CLIENT_TIME_HEADER = "x-electrica-sdk-instance-ws-session-start-time";
-    public static final String RECONNECT_THREAD_NAME = "electrica-sdk-ws-reconnect";
+    public static final String INSTANCE_SHARD_HEADER = "x-electrica-sdk-instance-shard";
+    public static final String INSTANCE_SHARD_COUNT_HEADER = "x-electrica-sdk-instance-shard-count";
+    public static final String INSTANCE_FRAME_ENCODING_HEADER = "x-electrica-sdk-instance-frame-encoding";
+    public static final String INSTANCE_FRAME_DICTIONARY_HEADER = "x-electrica-sdk-instance-frame-dictionary";
+    public static final String INSTANCE_SESSION_HEADER = "x-electrica-sdk-instance-session";
+    public static final String INSTANCE_SESSION_WATERMARK_HEADER = "x-electrica-sdk-instance-session-watermark";
 
     protected static final int INSTANCE_CLOSE_CODE = 1000;
     protected static final String INSTANCE_CLOSE_REASON = "SDK Instance close";
@@ -34,43 +63,99 @@ public class WebSocketHandler extends WebSocketListener implements AutoCloseable
     protected final Gson gson;
     protected final OkHttpClient httpClient;
     protected final RetryStrategy retryStrategy;
+    protected final HashedWheelTimer reconnectTimer;
     protected final InstanceEventDispatcher eventDispatcher;
+    protected final Consumer<ResultMessage<JsonElement>> resultConsumer;
     protected final long terminationTimeoutMillis;
-    protected final Request request;
-    protected final ScheduledExecutorService reconnectExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
-                Thread thread = new Thread(r, RECONNECT_THREAD_NAME);
-                thread.setDaemon(false);
-                return thread;
-            }
-    );
+    protected final AckBatcher ackBatcher;
+    protected final MessagePackCodec messagePackCodec;
+    @Nullable
+    protected final FrameCompressor frameCompressor;
+    protected final Shard[] shards;
+
+    // spreads outbound frames over open shards
+    protected final AtomicInteger nextShard = new AtomicInteger();
+    protected volatile boolean closed = false;
+    protected volatile IntConsumer disconnectListener = shard -> {
+    };
 
-    protected final AtomicReference<WebSocket> webSocket = new AtomicReference<>();
-    protected final AtomicInteger reconnectCount = new AtomicInteger();
-    protected final CountDownLatch closedLatch = new CountDownLatch(1);
+    protected WebSocketHandler(
+            Gson gson,
+            OkHttpClient httpClient,
+            RetryStrategy retryStrategy,
+            HashedWheelTimer reconnectTimer,
+            InstanceEventDispatcher eventDispatcher,
+            Consumer<ResultMessage<JsonElement>> resultConsumer,
+            long terminationTimeoutMillis,
+            String apiUrl,
+            UUID instanceId,
+            String instanceName,
+            String authorizationHeader
+    ) {
+        this(gson, httpClient, retryStrategy, reconnectTimer, eventDispatcher, resultConsumer,
+                terminationTimeoutMillis, new AckBatcher(gson, 1, 0, reconnectTimer), 1, FrameEncoding.Json, null,
+                apiUrl, instanceId, instanceName, authorizationHeader);
+    }
 
+    /**
+     * @param ackBatcher      coalesces acks of inbound messages, see {@link AckBatcher}
+     * @param shardCount      number of parallel connections of instance
+     * @param frameEncoding   encoding of inbound messages offered to server, JSON text frames are always accepted
+     * @param frameCompressor compressor with dictionary offered to server or {@code null} if compression disabled
+     */
     protected WebSocketHandler(
             Gson gson,
             OkHttpClient httpClient,
             RetryStrategy retryStrategy,
+            HashedWheelTimer reconnectTimer,
             InstanceEventDispatcher eventDispatcher,
+            Consumer<ResultMessage<JsonElement>> resultConsumer,
             long terminationTimeoutMillis,
+            AckBatcher ackBatcher,
+            int shardCount,
+            FrameEncoding frameEncoding,
+            @Nullable FrameCompressor frameCompressor,
             String apiUrl,
             UUID instanceId,
             String instanceName,
             String authorizationHeader
     ) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("shardCount must be positive: " + shardCount);
+        }
         this.gson = gson;
         this.httpClient = httpClient;
         this.retryStrategy = retryStrategy;
+        this.reconnectTimer = reconnectTimer;
         this.eventDispatcher = eventDispatcher;
+        this.resultConsumer = resultConsumer;
         this.terminationTimeoutMillis = terminationTimeoutMillis;
-        request = new Request.Builder()
+        this.ackBatcher = ackBatcher;
+        this.messagePackCodec = new MessagePackCodec(gson);
+        this.frameCompressor = frameCompressor;
+        Request.Builder requestBuilder = new Request.Builder()
                 .url(buildEndpointUrl(apiUrl))
-                .header(SingleInstanceHttpModule.AUTHORIZATION, authorizationHeader)
+                .header(AbstractHttpModule.AUTHORIZATION, authorizationHeader)
                 .header(INSTANCE_ID_HEADER, instanceId.toString())
                 .header(INSTANCE_NAME_HEADER, instanceName)
-                .build();
-        tryReconnect();
+                .header(INSTANCE_SHARD_COUNT_HEADER, Integer.toString(shardCount));
+        if (frameEncoding != FrameEncoding.Json) {
+            requestBuilder.header(INSTANCE_FRAME_ENCODING_HEADER, frameEncoding.getName());
+        }
+        if (frameCompressor != null) {
+            requestBuilder.header(INSTANCE_FRAME_DICTIONARY_HEADER, frameCompressor.getDictionaryId());
+        }
+        Request request = requestBuilder.build();
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, request.newBuilder()
+                    .header(INSTANCE_SHARD_HEADER, Integer.toString(i))
+                    .build());
+        }
+        eventDispatcher.setFlowControlListener(this::sendFlowControl);
+        for (Shard shard : shards) {
+            shard.tryReconnect();
+        }
     }
 
     protected static String buildEndpointUrl(String apiUrl) {
@@ -80,119 +165,418 @@ public class WebSocketHandler extends WebSocketListener implements AutoCloseable
         return url + WEBSOCKETS_PATH;
     }
 
-    @Override
-    public void onOpen(WebSocket webSocket, Response response) {
-        log.info(LOG_PREFIX + " connection established");
-        if (log.isDebugEnabled()) {
-            log.debug("Connection response: {}", response);
+    /**
+     * @return {@code true} if at least one connection established and not closing
+     */
+    public boolean isOpen() {
+        for (Shard shard : shards) {
+            if (shard.open) {
+                return true;
+            }
         }
-        reconnectCount.set(0);
+        return false;
     }
 
-    @Override
-    public void onMessage(WebSocket webSocket, String text) {
-        if (log.isDebugEnabled()) {
-            log.debug(LOG_PREFIX + " got message: {}", text);
-        }
+    public int getShardCount() {
+        return shards.length;
+    }
 
-        InboundMessage message = gson.fromJson(text, InboundMessage.class);
-        eventDispatcher.submit(message, accepted -> {
-            // TODO always send accepted ACK to avoid 'poisonous message'
-            // TODO that mean we guarantee delivery to at least one instance for now
-            if (!accepted) {
-                accepted = true;
-                log.warn("Unhandled message: " + text);
-            }
+    /**
+     * Enqueue text frame to be sent through one of open connections.
+     *
+     * @return {@code false} if no connection is open or frame can't be enqueued
+     * @see WebSocket#send(String)
+     */
+    public boolean send(String text) {
+        return sendToShard(text) >= 0;
+    }
 
-            AckOutboundMessage ack = new AckOutboundMessage(message.getId(), accepted);
-            String textAck = gson.toJson(ack);
-            if (log.isDebugEnabled()) {
-                log.debug(LOG_PREFIX + " sending ack message: {}", textAck);
+    /**
+     * Enqueue text frame to be sent through one of open connections, e.g. to know which connection response is
+     * expected from.
+     *
+     * @return index of connection, that frame enqueued to, or {@code -1} if no connection is open or frame can't be
+     * enqueued
+     */
+    public int sendToShard(String text) {
+        int start = shards.length == 1 ? 0 : (nextShard.getAndIncrement() & Integer.MAX_VALUE) % shards.length;
+        for (int i = 0; i < shards.length; i++) {
+            int shard = (start + i) % shards.length;
+            if (shards[shard].send(text)) {
+                return shard;
             }
-            webSocket.send(textAck);
-        });
+        }
+        return -1;
     }
 
-    @Override
-    public void onClosing(WebSocket webSocket, int code, String reason) {
-        if (log.isDebugEnabled()) {
-            log.debug(LOG_PREFIX + " connection closing..");
+    /**
+     * @return {@code true} if specified connection established and not closing
+     */
+    public boolean isOpen(int shard) {
+        return shards[shard].open;
+    }
+
+    /**
+     * Specify listener, that is notified with index of connection, which has been lost and is being reconnected,
+     * so frames sent through it won't be responded.
+     */
+    public void setDisconnectListener(IntConsumer disconnectListener) {
+        this.disconnectListener = disconnectListener;
+    }
+
+    /**
+     * Ask server to pause or resume delivery of messages to this instance. Each connection delivers messages, so
+     * signal is sent through all open ones, and connections, that aren't open, get current state on reconnect.
+     */
+    protected void sendFlowControl(boolean paused) {
+        for (Shard shard : shards) {
+            shard.sendFlowControl(paused);
         }
     }
 
     @Override
-    public void onClosed(WebSocket webSocket, int code, String reason) {
-        if (code == INSTANCE_CLOSE_CODE && INSTANCE_CLOSE_REASON.equalsIgnoreCase(reason)) {
-            log.info(LOG_PREFIX + " connection closed");
-            closedLatch.countDown();
-        } else {
-            log.warn(LOG_PREFIX + " connection closed: {} {}. Trying reconnect..", code, reason);
-            tryReconnect();
+    public void close() throws Exception {
+        if (log.isDebugEnabled()) {
+            log.debug(LOG_PREFIX + " WebSocketHandler closing..");
+        }
+        closed = true;
+        // lingering acks go before close frame
+        ackBatcher.close();
+
+        // connections are closed concurrently and awaited within one timeout
+        boolean[] closing = new boolean[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            closing[i] = shards[i].startClose();
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(terminationTimeoutMillis);
+        for (int i = 0; i < shards.length; i++) {
+            shards[i].awaitClose(closing[i], deadline);
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug(LOG_PREFIX + " WebSocketHandler closed");
         }
     }
 
-    @Override
-    public void onFailure(WebSocket webSocket, Throwable t, @Nullable Response response) {
-        log.warn(LOG_PREFIX + " connection failure. Trying reconnect..", t);
-        tryReconnect();
+    interface AckSender {
+
+        void send(boolean accepted);
+
+        /**
+         * Send result of accepted message through connection, that delivered it, after its ack.
+         *
+         * @return {@code false} if connection is lost, so result must be sent another way
+         */
+        default boolean sendResult(MessageResultDto result) {
+            return false;
+        }
     }
 
-    @SneakyThrows
-    protected void tryReconnect() {
-        long delay = 0;
-        int count = reconnectCount.get();
-        if (count > 0) {
-            Optional<Long> delayOp = retryStrategy.getDelay(count);
-            if (delayOp.isPresent()) {
-                delay = delayOp.get();
+    /**
+     * One connection of instance with its own reconnect state.
+     */
+    protected class Shard extends WebSocketListener {
+
+        protected final int index;
+        protected final String logPrefix;
+        protected final Request request;
+        protected final AtomicReference<WebSocket> webSocket = new AtomicReference<>();
+        protected final AtomicInteger reconnectCount = new AtomicInteger();
+        protected final CountDownLatch closedLatch = new CountDownLatch(1);
+        protected final AckWatermark ackWatermark = new AckWatermark();
+        protected volatile boolean open = false;
+        // nano time, when current connection established, or 0 if it isn't
+        protected volatile long openedAt = 0;
+        // whether connection has been established at least once, so the next attempt restores lost one
+        protected volatile boolean established = false;
+        // delay before the last connection attempt, see RetryStrategy#getDelay(int, long)
+        protected volatile long reconnectDelay = 0;
+        // token of session issued by server, if it supports resumption
+        @Nullable
+        protected volatile String sessionToken;
+
+        protected Shard(int index, Request request) {
+            this.index = index;
+            this.logPrefix = shards.length == 1 ? LOG_PREFIX : LOG_PREFIX + " shard #" + index;
+            this.request = request;
+        }
+
+        @Override
+        public void onOpen(WebSocket webSocket, Response response) {
+            log.info(logPrefix + " connection established");
+            if (log.isDebugEnabled()) {
+                log.debug("Connection response: {}", response);
+            }
+            openedAt = System.nanoTime();
+            established = true;
+            boolean resumed = openSession(response.header(INSTANCE_SESSION_HEADER));
+            open = true;
+            // new session doesn't know, that instance is saturated, and resumed one may be still paused
+            eventDispatcher.signalFlowControl(paused -> {
+                if (paused || resumed) {
+                    sendFlowControl(paused);
+                }
+            });
+        }
+
+        @Override
+        public void onMessage(WebSocket webSocket, String text) {
+            if (log.isDebugEnabled()) {
+                log.debug(logPrefix + " got message: {}", text);
+            }
+            handleMessage(webSocket, text);
+        }
+
+        @Override
+        public void onMessage(WebSocket webSocket, ByteString bytes) {
+            if (log.isDebugEnabled()) {
+                log.debug(logPrefix + " got binary message of {} bytes", bytes.size());
+            }
+            handleMessage(webSocket, bytes);
+        }
+
+        protected void handleMessage(WebSocket webSocket, String text) {
+            handleMessage(webSocket, gson.fromJson(text, InboundMessage.class), FrameEncoding.Json, false);
+        }
+
+        protected void handleMessage(WebSocket webSocket, ByteString bytes) {
+            if (!FrameCompressor.isCompressed(bytes)) {
+                InboundMessage message = messagePackCodec.decode(bytes, InboundMessage.class);
+                handleMessage(webSocket, message, FrameEncoding.MessagePack, false);
+                return;
+            }
+            if (frameCompressor == null) {
+                throw new JsonSyntaxException("Compressed frame received, but frame compression isn't enabled");
+            }
+
+            byte[] document = frameCompressor.decompress(bytes);
+            // MessagePack document of message is a map, so it never starts with '{' byte
+            if (document.length > 0 && document[0] == '{') {
+                String text = new String(document, StandardCharsets.UTF_8);
+                InboundMessage message = gson.fromJson(text, InboundMessage.class);
+                handleMessage(webSocket, message, FrameEncoding.Json, true);
             } else {
-                log.error(LOG_PREFIX + " can't re-establish connection and won't get any messages or integration " +
-                        "job results. Please check network or consider using correct RetryStrategy");
-                close();
+                InboundMessage message = messagePackCodec.decode(document, InboundMessage.class);
+                handleMessage(webSocket, message, FrameEncoding.MessagePack, true);
+            }
+        }
+
+        /**
+         * @param encoding   encoding of message frame, that ack is sent in
+         * @param compressed whether message frame was compressed, so ack is compressed too
+         */
+        protected void handleMessage(WebSocket webSocket, InboundMessage message, FrameEncoding encoding,
+                                     boolean compressed) {
+            if (message instanceof ResultInboundMessage) {
+                resultConsumer.accept(((ResultInboundMessage) message).getData());
+                sendAck(webSocket, encoding, compressed, message, true);
                 return;
             }
+
+            boolean submitted = eventDispatcher.submit(message, new AckSender() {
+                @Override
+                public void send(boolean accepted) {
+                    // TODO always send accepted ACK to avoid 'poisonous message'
+                    // TODO that mean we guarantee delivery to at least one instance for now
+                    if (!accepted) {
+                        accepted = true;
+                        log.warn("Unhandled message: {}", message.getId());
+                    }
+                    sendAck(webSocket, encoding, compressed, message, accepted);
+                }
+
+                @Override
+                public boolean sendResult(MessageResultDto result) {
+                    return Shard.this.sendResult(webSocket, result);
+                }
+            });
+            if (!submitted) {
+                // instance is saturated, so message must be redelivered
+                log.warn(LOG_PREFIX + " event queue is full, message rejected: {}", message.getId());
+                sendAck(webSocket, encoding, compressed, message, false);
+            }
+        }
+
+        protected void sendAck(WebSocket webSocket, FrameEncoding encoding, boolean compressed,
+                               InboundMessage message, boolean accepted) {
+            Long seq = message.getSeq();
+            if (accepted && seq != null) {
+                // ack may be lost with connection, but watermark is sent on resume
+                ackWatermark.accept(seq);
+            }
+            ackBatcher.add(webSocket, encoding, compressed, new AckOutboundMessage(message.getId(), accepted));
+        }
+
+        /**
+         * Send result frame through connection, that delivered message, if it's still open. Server correlates result
+         * with message by connection, so it isn't sent through other one. Frame follows lingering acks, including
+         * ack of the message.
+         */
+        protected boolean sendResult(WebSocket webSocket, MessageResultDto result) {
+            if (!open || this.webSocket.get() != webSocket) {
+                return false;
+            }
+            String text = gson.toJson(new MessageResultOutboundMessage(result));
+            if (log.isDebugEnabled()) {
+                log.debug(logPrefix + " sending message result: {}", text);
+            }
+            return ackBatcher.sendAfterAcks(webSocket, text);
+        }
+
+        /**
+         * @return {@code true} if server resumed previous session of connection
+         */
+        protected boolean openSession(@Nullable String token) {
+            String previousToken = sessionToken;
+            if (token != null && token.equals(previousToken)) {
+                log.info(logPrefix + " session resumed after message #{}", ackWatermark.get());
+                return true;
+            }
+            // server started new session or doesn't support resumption
+            ackWatermark.reset();
+            sessionToken = token;
+            return false;
+        }
+
+        protected void sendFlowControl(boolean paused) {
+            String text = gson.toJson(new FlowControlOutboundMessage(paused));
+            if (send(text) && log.isDebugEnabled()) {
+                log.debug(logPrefix + " sent flow control message: {}", text);
+            }
+        }
+
+        protected boolean send(String text) {
+            WebSocket ws = webSocket.get();
+            return open && ws != null && ws.send(text);
+        }
+
+        @Override
+        public void onClosing(WebSocket webSocket, int code, String reason) {
+            open = false;
+            if (log.isDebugEnabled()) {
+                log.debug(logPrefix + " connection closing..");
+            }
+            // complete close handshake initiated by server, so connection is closed and reconnected without waiting
+            // for server to drop it, no-op if client initiated close
+            webSocket.close(code, reason);
         }
 
-        reconnectExecutor.schedule(() -> {
-            int c = reconnectCount.getAndIncrement();
-            if (c > 0) {
-                log.warn(LOG_PREFIX + " connect try #{}..", c + 1);
+        @Override
+        public void onClosed(WebSocket webSocket, int code, String reason) {
+            open = false;
+            // closing handler may get close code of server, if server initiated close first
+            if (closed || code == INSTANCE_CLOSE_CODE && INSTANCE_CLOSE_REASON.equalsIgnoreCase(reason)) {
+                log.info(logPrefix + " connection closed");
+                closedLatch.countDown();
             } else {
-                log.info(LOG_PREFIX + " connecting..");
+                log.warn(logPrefix + " connection closed: {} {}. Trying reconnect..", code, reason);
+                resetReconnectCount();
+                // server asked to go away, so reconnect is delayed by retry strategy
+                reconnectCount.compareAndSet(0, 1);
+                tryReconnect();
+                disconnectListener.accept(index);
             }
-            Request requestWithDate = request.newBuilder()
-                    .header(INSTANCE_START_CLIENT_TIME_HEADER, ZonedDateTime.now().toString())
-                    .build();
-            webSocket.set(httpClient.newWebSocket(requestWithDate, WebSocketHandler.this));
-        }, delay, TimeUnit.MILLISECONDS);
-    }
+        }
 
-    @Override
-    public void close() throws Exception {
-        if (log.isDebugEnabled()) {
-            log.debug(LOG_PREFIX + " WebSocketHandler closing..");
+        @Override
+        public void onFailure(WebSocket webSocket, Throwable t, @Nullable Response response) {
+            open = false;
+            if (closed) {
+                closedLatch.countDown();
+                return;
+            }
+            log.warn(logPrefix + " connection failure. Trying reconnect..", t);
+            resetReconnectCount();
+            tryReconnect();
+            disconnectListener.accept(index);
         }
 
-        WebSocket ws = webSocket.get();
-        if (ws != null) {
-            ws.close(INSTANCE_CLOSE_CODE, INSTANCE_CLOSE_REASON);
-            boolean closed = closedLatch.await(terminationTimeoutMillis, TimeUnit.MILLISECONDS);
-            if (!closed) {
-                log.warn("Can't await OkHttp WebSocket termination. " +
-                        "Please consider increase termination timeout parameter");
+        /**
+         * Count connection attempts from scratch, if lost connection was established for reset window of
+         * {@link RetryStrategy}, otherwise connection is flapping and keeps backing off.
+         */
+        protected void resetReconnectCount() {
+            long opened = openedAt;
+            openedAt = 0;
+            if (opened != 0 &&
+                    System.nanoTime() - opened >= TimeUnit.MILLISECONDS.toNanos(retryStrategy.getResetWindow())) {
+                reconnectCount.set(0);
+                reconnectDelay = 0;
             }
-            ws.cancel();
         }
 
-        httpClient.dispatcher().cancelAll();
+        /**
+         * Schedule connection attempt on reconnect timer, that can be shared by several handlers,
+         * so scheduled task only enqueues new OkHttp WebSocket call and doesn't block.
+         */
+        @SneakyThrows
+        protected void tryReconnect() {
+            if (closed) {
+                return;
+            }
+
+            long delay = 0;
+            int count = reconnectCount.get();
+            if (count > 0) {
+                Optional<Long> delayOp = retryStrategy.getDelay(count, reconnectDelay);
+                if (delayOp.isPresent()) {
+                    delay = delayOp.get();
+                } else {
+                    log.error(logPrefix + " can't re-establish connection and won't get any messages or " +
+                            "integration job results. Please check network or consider using correct RetryStrategy");
+                    WebSocketHandler.this.close();
+                    return;
+                }
+            } else if (established) {
+                // instances, that lost connection at the same time, e.g. on API restart, don't reconnect all at once
+                delay = retryStrategy.getFirstDelay();
+            }
+            reconnectDelay = delay;
 
-        if (log.isDebugEnabled()) {
-            log.debug(LOG_PREFIX + " WebSocketHandler closed");
+            reconnectTimer.newTimeout(() -> {
+                if (closed) {
+                    return;
+                }
+                int c = reconnectCount.getAndIncrement();
+                if (c > 0) {
+                    log.warn(logPrefix + " connect try #{}..", c + 1);
+                } else {
+                    log.info(logPrefix + " connecting..");
+                }
+                Request.Builder requestBuilder = request.newBuilder()
+                        .header(INSTANCE_START_CLIENT_TIME_HEADER, ZonedDateTime.now().toString());
+                String token = sessionToken;
+                if (token != null) {
+                    requestBuilder.header(INSTANCE_SESSION_HEADER, token)
+                            .header(INSTANCE_SESSION_WATERMARK_HEADER, Long.toString(ackWatermark.get()));
+                }
+                webSocket.set(httpClient.newWebSocket(requestBuilder.build(), this));
+            }, delay, TimeUnit.MILLISECONDS);
         }
-    }
 
-    interface AckSender {
-        void send(boolean accepted);
-    }
+        /**
+         * @return {@code true} if close frame enqueued and termination must be awaited
+         */
+        protected boolean startClose() {
+            WebSocket ws = webSocket.get();
+            // nothing to await if connection already closed and reconnect is pending
+            return ws != null && ws.close(INSTANCE_CLOSE_CODE, INSTANCE_CLOSE_REASON);
+        }
 
+        protected void awaitClose(boolean closing, long deadline) throws InterruptedException {
+            WebSocket ws = webSocket.get();
+            if (ws == null) {
+                return;
+            }
+            if (closing) {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                boolean terminated = closedLatch.await(remaining, TimeUnit.NANOSECONDS);
+                if (!terminated) {
+                    log.warn("Can't await OkHttp WebSocket termination. " +
+                            "Please consider increase termination timeout parameter");
+                }
+            }
+            ws.cancel();
+        }
+    }
 }
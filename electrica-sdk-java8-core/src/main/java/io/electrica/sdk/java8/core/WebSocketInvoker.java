@@ -0,0 +1,248 @@
+package io.electrica.sdk.java8.core;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import io.electrica.sdk.java8.api.Callback;
+import io.electrica.sdk.java8.api.exception.IntegrationException;
+import io.electrica.sdk.java8.api.http.Request;
+import io.electrica.sdk.java8.core.message.InvocationOutboundMessage;
+import io.electrica.sdk.java8.core.message.ResultMessage;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Sends invocations as frames through instance WebSocket, results are pushed back through the same socket and
+ * correlated by {@link PendingInvocations}.
+ * <p>
+ * Invocations are pipelined: frames are sent without waiting for results of previous ones, but number of invocations
+ * in flight is limited by window. Frames that don't fit into window are queued and sent once earlier invocations
+ * completed.
+ * <p>
+ * If connection is lost, invocations sent through it are failed, because their results won't be pushed, and aren't
+ * resent, because action may have been executed already. Freed window slots pass queued frames to other open
+ * connections or to fallback.
+ */
+@Slf4j
+public class WebSocketInvoker {
+
+    private final Gson gson;
+    private final WebSocketHandler webSocketHandler;
+    private final PendingInvocations<InvocationBatcher.Invocation<?>, ResultMessage<JsonElement>> pendingInvocations;
+    private final int maxInFlight;
+    private final Consumer<InvocationBatcher.Invocation<?>> fallback;
+
+    // synchronized by itself
+    private final Queue<Frame> queue = new ArrayDeque<>();
+    // frames holding window slot by id
+    private final Map<UUID, Frame> sent = new HashMap<>();
+    private int inFlight = 0;
+
+    /**
+     * @param maxInFlight maximum number of invocations sent, but not completed yet
+     * @param fallback    receives invocations, that can't be sent through WebSocket
+     */
+    public WebSocketInvoker(
+            Gson gson,
+            WebSocketHandler webSocketHandler,
+            PendingInvocations<InvocationBatcher.Invocation<?>, ResultMessage<JsonElement>> pendingInvocations,
+            int maxInFlight,
+            Consumer<InvocationBatcher.Invocation<?>> fallback
+    ) {
+        this.gson = gson;
+        this.webSocketHandler = webSocketHandler;
+        this.pendingInvocations = pendingInvocations;
+        this.maxInFlight = maxInFlight;
+        this.fallback = fallback;
+    }
+
+    /**
+     * Send invocation frame or queue it if window is full.
+     *
+     * @return {@code false} if WebSocket isn't connected and invocation should be submitted other way
+     */
+    public <R> boolean submit(Request request, Type resultType, Callback<R> callback) {
+        if (!webSocketHandler.isOpen()) {
+            return false;
+        }
+
+        UUID id = UUID.randomUUID();
+        String text = gson.toJson(new InvocationOutboundMessage(id, request));
+        Frame frame = new Frame(id, text, new InvocationBatcher.Invocation<>(request, resultType, callback));
+
+        synchronized (queue) {
+            if (inFlight >= maxInFlight) {
+                queue.add(frame);
+                return true;
+            }
+            inFlight++;
+        }
+        if (!send(frame)) {
+            release();
+        }
+        return true;
+    }
+
+    /**
+     * @return {@code false} if frame hasn't been sent and its window slot is free
+     */
+    private boolean send(Frame frame) {
+        if (log.isDebugEnabled()) {
+            log.debug("Send invocation frame:\n{}", frame.text);
+        }
+        // register before send, because result can't arrive earlier than frame sent
+        synchronized (queue) {
+            sent.put(frame.id, frame);
+        }
+        pendingInvocations.register(frame.id, frame.windowed);
+        int shard = webSocketHandler.sendToShard(frame.text);
+        if (shard >= 0) {
+            frame.shard = shard;
+            if (!webSocketHandler.isOpen(shard)) {
+                // connection lost while frame was being sent, so disconnect may be handled before shard assigned
+                onDisconnected(shard);
+            }
+            return true;
+        }
+        synchronized (queue) {
+            sent.remove(frame.id);
+        }
+        // socket closed after invocation accepted, so result won't be pushed
+        if (pendingInvocations.remove(frame.id) != null && frame.windowCallback.markReleased()) {
+            fallback.accept(frame.original);
+        }
+        return false;
+    }
+
+    /**
+     * Fail invocations sent through lost connection, see {@link WebSocketHandler#setDisconnectListener}.
+     *
+     * @param shard index of lost connection
+     */
+    public void onDisconnected(int shard) {
+        List<Frame> lost = new ArrayList<>();
+        synchronized (queue) {
+            for (Frame frame : sent.values()) {
+                if (frame.shard == shard) {
+                    lost.add(frame);
+                }
+            }
+        }
+        for (Frame frame : lost) {
+            // window slot is freed by callback of failed invocation
+            pendingInvocations.fail(frame.id, new IOException("WebSocket connection lost, result of invocation " +
+                    frame.id + " is unknown"));
+        }
+    }
+
+    /**
+     * Pass free window slot to the next queued frame, loop is used to not recurse if sending fails.
+     */
+    private void release() {
+        while (true) {
+            Frame next;
+            synchronized (queue) {
+                next = queue.poll();
+                if (next == null) {
+                    inFlight--;
+                    return;
+                }
+            }
+            if (send(next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return number of invocations sent and waiting for result
+     */
+    public int getInFlight() {
+        synchronized (queue) {
+            return inFlight;
+        }
+    }
+
+    /**
+     * @return number of invocations waiting for free window slot
+     */
+    public int getQueued() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    private class Frame {
+
+        private final UUID id;
+        private final String text;
+        private final InvocationBatcher.Invocation<?> original;
+        private final WindowCallback<?> windowCallback;
+        private final InvocationBatcher.Invocation<?> windowed;
+        // index of connection, that frame sent through, or -1 if it isn't sent yet
+        private volatile int shard = -1;
+
+        private <R> Frame(UUID id, String text, InvocationBatcher.Invocation<R> original) {
+            this.id = id;
+            this.text = text;
+            this.original = original;
+            WindowCallback<R> callback = new WindowCallback<>(id, original.getCallback());
+            this.windowCallback = callback;
+            this.windowed = new InvocationBatcher.Invocation<>(
+                    original.getRequest(),
+                    original.getResultType(),
+                    callback
+            );
+        }
+    }
+
+    /**
+     * Frees window slot once invocation completed.
+     */
+    private class WindowCallback<R> implements Callback<R> {
+
+        private final UUID id;
+        private final Callback<R> delegate;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private WindowCallback(UUID id, Callback<R> delegate) {
+            this.id = id;
+            this.delegate = delegate;
+        }
+
+        private boolean markReleased() {
+            return released.compareAndSet(false, true);
+        }
+
+        private void releaseOnce() {
+            if (markReleased()) {
+                synchronized (queue) {
+                    sent.remove(id);
+                }
+                release();
+            }
+        }
+
+        @Override
+        public void onResponse(R result) {
+            releaseOnce();
+            delegate.onResponse(result);
+        }
+
+        @Override
+        public void onFailure(IntegrationException exception) {
+            releaseOnce();
+            delegate.onFailure(exception);
+        }
+    }
+}
@@ -2,22 +2,53 @@ package io.electrica.sdk.java8.core.dto;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonParser;
 import com.google.gson.reflect.TypeToken;
 import io.electrica.sdk.java8.api.http.Message;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Getter;
 
 import javax.annotation.Nullable;
+import java.lang.reflect.Type;
 import java.util.Collections;
 import java.util.Map;
 import java.util.UUID;
 
+/**
+ * Message view of {@link MessageDto}, that is shared by all listeners of the event, so views derived from DTO are
+ * computed once on first access. DTO must not be modified after message created.
+ * <p>
+ * Message may keep {@link ResultChannel} it has been delivered through, so its result is sent back the same way.
+ */
 @Getter
-@AllArgsConstructor
 public class MessageImpl implements Message {
 
+    private static final Type PROPERTIES_TYPE = new TypeToken<Map<String, String>>() {
+    }.getType();
+
     private final Gson gson;
     private final MessageDto dto;
+    @Nullable
+    @Getter(AccessLevel.NONE)
+    private final ResultChannel resultChannel;
+
+    // lazily computed, may be computed concurrently several times with the same result
+    private volatile Map<String, String> propertiesMap;
+    private volatile JsonElement payloadJson;
+
+    public MessageImpl(Gson gson, MessageDto dto) {
+        this(gson, dto, null);
+    }
+
+    /**
+     * @param resultChannel channel, that message has been delivered through, or {@code null} if it can't send result
+     */
+    public MessageImpl(Gson gson, MessageDto dto, @Nullable ResultChannel resultChannel) {
+        this.gson = gson;
+        this.dto = dto;
+        this.resultChannel = resultChannel;
+    }
 
     @Override
     public UUID getId() {
@@ -82,13 +113,23 @@ public class MessageImpl implements Message {
         return dto.getConnectionId();
     }
 
+    /**
+     * @return unmodifiable map, that is parsed once per message
+     */
     @Override
     public Map<String, String> getPropertiesMap() {
-        JsonElement properties = dto.getProperties();
-        return properties == null ?
-                Collections.emptyMap() :
-                gson.fromJson(properties, new TypeToken<Map<String, String>>() {
-                }.getType());
+        Map<String, String> result = propertiesMap;
+        if (result == null) {
+            JsonElement properties = dto.getProperties();
+            if (properties == null || properties.isJsonNull()) {
+                result = Collections.emptyMap();
+            } else {
+                Map<String, String> parsed = gson.fromJson(properties, PROPERTIES_TYPE);
+                result = Collections.unmodifiableMap(parsed);
+            }
+            propertiesMap = result;
+        }
+        return result;
     }
 
     @Override
@@ -110,4 +151,40 @@ public class MessageImpl implements Message {
     public String getPayload() {
         return dto.getPayload();
     }
+
+    /**
+     * Payload parsed as JSON once per message, so several listeners bind it without tokenizing payload again.
+     * Returned tree is shared and must not be modified.
+     *
+     * @throws com.google.gson.JsonParseException if payload isn't valid JSON
+     */
+    public JsonElement getPayloadJson() {
+        JsonElement result = payloadJson;
+        if (result == null) {
+            String payload = dto.getPayload();
+            result = payload == null ? JsonNull.INSTANCE : new JsonParser().parse(payload);
+            payloadJson = result;
+        }
+        return result;
+    }
+
+    /**
+     * Send result through channel, that message has been delivered through.
+     *
+     * @return {@code false} if message has no channel or channel is closed, so result must be sent another way
+     */
+    public boolean sendResult(MessageResultDto result) {
+        return resultChannel != null && resultChannel.send(result);
+    }
+
+    /**
+     * Channel, that message has been delivered through, e.g. WebSocket connection.
+     */
+    public interface ResultChannel {
+
+        /**
+         * @return {@code false} if result can't be sent, e.g. because channel is closed
+         */
+        boolean send(MessageResultDto result);
+    }
 }
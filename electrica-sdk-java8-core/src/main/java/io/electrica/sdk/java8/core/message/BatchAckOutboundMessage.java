@@ -0,0 +1,22 @@
+package io.electrica.sdk.java8.core.message;
+
+import com.google.gson.annotations.SerializedName;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Acks of several inbound messages coalesced into one frame.
+ */
+@Getter
+@AllArgsConstructor
+public class BatchAckOutboundMessage {
+
+    public static final String TYPE = "ack-batch";
+
+    @SerializedName("@type")
+    private final String type = TYPE;
+    private final List<AckOutboundMessage> acks;
+
+}
@@ -0,0 +1,20 @@
+package io.electrica.sdk.java8.core.message;
+
+import com.google.gson.annotations.SerializedName;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Asks server to pause delivery of messages to saturated instance or to resume it.
+ */
+@Getter
+@AllArgsConstructor
+public class FlowControlOutboundMessage {
+
+    public static final String TYPE = "flow-control";
+
+    @SerializedName("@type")
+    private final String type = TYPE;
+    private final Boolean paused;
+
+}
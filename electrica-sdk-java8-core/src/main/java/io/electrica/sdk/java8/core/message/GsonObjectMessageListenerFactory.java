@@ -4,6 +4,7 @@ import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import io.electrica.sdk.java8.api.ObjectMessageListener;
 import io.electrica.sdk.java8.api.http.Message;
+import io.electrica.sdk.java8.core.dto.MessageImpl;
 
 import java.util.function.BiFunction;
 
@@ -14,11 +15,29 @@ public class GsonObjectMessageListenerFactory {
         this.gson = gson;
     }
 
+    /**
+     * Bind payload tree, that parsed once per message and shared by listeners. Tree itself is copied, because
+     * listener may modify it.
+     */
+    private <E> E parse(Message message, Class<E> entityClass) {
+        if (!(message instanceof MessageImpl)) {
+            return gson.fromJson(message.getPayload(), entityClass);
+        }
+        JsonElement payload = ((MessageImpl) message).getPayloadJson();
+        if (payload.isJsonNull()) {
+            return gson.fromJson(message.getPayload(), entityClass);
+        }
+        if (JsonElement.class.isAssignableFrom(entityClass)) {
+            return entityClass.cast(payload.deepCopy());
+        }
+        return gson.fromJson(payload, entityClass);
+    }
+
     public <E, F> ObjectMessageListener<E, F> create(Class<E> entityClass, Class<F> resultClass,
                                                      BiFunction<Message, E, F> onMessageFunction) {
 
         return ObjectMessageListener.newBuilder()
-                .convertToObject(message -> gson.fromJson(message.getPayload(), entityClass))
+                .convertToObject(message -> parse(message, entityClass))
                 .onMessage(onMessageFunction)
                 .convertToString((message, object) -> gson.toJson(object, resultClass))
                 .build();
@@ -27,7 +46,7 @@ public class GsonObjectMessageListenerFactory {
     public <E> ObjectMessageListener<E, String> create(Class<E> entityClass,
                                                        BiFunction<Message, E, String> onMessageFunction) {
         return ObjectMessageListener.newBuilder()
-                .convertToObject(message -> gson.fromJson(message.getPayload(), entityClass))
+                .convertToObject(message -> parse(message, entityClass))
                 .onMessage(onMessageFunction)
                 .build();
     }
@@ -2,55 +2,133 @@ package io.electrica.sdk.java8.core.message;
 
 import com.google.gson.*;
 import com.google.gson.internal.Streams;
+import com.google.gson.internal.bind.JsonTreeReader;
 import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
+import io.electrica.sdk.java8.core.dto.MessageDto;
 import lombok.Getter;
 import lombok.Setter;
 
+import javax.annotation.Nullable;
+import java.io.IOException;
 import java.util.UUID;
 
 @Getter
 @Setter
 public class InboundMessage {
 
+    /**
+     * Factory of adapter, that decodes message envelope in one streaming pass. Only {@code data} field, that
+     * precedes {@code @type} discriminator, is buffered as {@link JsonElement} tree.
+     */
     public static final TypeAdapterFactory TYPE_ADAPTER_FACTORY = new TypeAdapterFactory() {
         @Override
         public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
             if (type.getRawType() != InboundMessage.class) {
                 return null;
             }
+            //noinspection unchecked
+            return (TypeAdapter<T>) new EnvelopeAdapter(gson);
+        }
+    };
 
-            return new TypeAdapter<T>() {
-                @Override
-                public void write(JsonWriter jsonWriter, final T t) {
-                    throw new UnsupportedOperationException();
-                }
+    private UUID id;
+
+    /**
+     * Sequence number of message within WebSocket session, that assigned by server once and kept on redelivery, or
+     * {@code null} if server doesn't support session resumption.
+     */
+    @Nullable
+    private Long seq;
+
+    private static final class EnvelopeAdapter extends TypeAdapter<InboundMessage> {
+
+        private final TypeAdapter<UUID> uuidAdapter;
+        private final TypeAdapter<Long> longAdapter;
+        private final TypeAdapter<MessageDto> webhookAdapter;
+        private final TypeAdapter<ResultMessage<JsonElement>> resultAdapter;
 
-                @Override
-                public T read(final JsonReader jsonReader) throws JsonParseException {
-                    JsonElement tree = Streams.parse(jsonReader);
-                    JsonObject object = tree.getAsJsonObject();
-                    JsonElement typeElement = object.get("@type");
-                    if (typeElement == null) {
-                        throw new JsonParseException("Required @type discriminator");
-                    }
-                    String type = typeElement.getAsString();
-                    switch (type) {
-                        case "webhook":
-                            //noinspection unchecked
-                            return (T) gson.getDelegateAdapter(
-                                    TYPE_ADAPTER_FACTORY,
-                                    TypeToken.get(WebhookInboundMessage.class)
-                            ).fromJsonTree(tree);
-                        default:
-                            throw new JsonParseException("Unsupported message type: " + type);
-                    }
+        private EnvelopeAdapter(Gson gson) {
+            uuidAdapter = gson.getAdapter(UUID.class);
+            longAdapter = gson.getAdapter(Long.class);
+            webhookAdapter = gson.getAdapter(MessageDto.class);
+            resultAdapter = gson.getAdapter(new TypeToken<ResultMessage<JsonElement>>() {
+            });
+        }
+
+        @Override
+        public void write(JsonWriter jsonWriter, InboundMessage message) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public InboundMessage read(JsonReader reader) throws IOException {
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                return null;
+            }
+
+            InboundMessage message = null;
+            UUID id = null;
+            Long seq = null;
+            JsonElement bufferedData = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "@type":
+                        message = create(reader.nextString());
+                        break;
+                    case "id":
+                        id = uuidAdapter.read(reader);
+                        break;
+                    case "seq":
+                        seq = longAdapter.read(reader);
+                        break;
+                    case "data":
+                        if (message == null) {
+                            // discriminator isn't known yet
+                            bufferedData = Streams.parse(reader);
+                        } else {
+                            readData(message, reader);
+                        }
+                        break;
+                    default:
+                        reader.skipValue();
                 }
-            };
+            }
+            reader.endObject();
+
+            if (message == null) {
+                throw new JsonParseException("Required @type discriminator");
+            }
+            if (bufferedData != null) {
+                readData(message, new JsonTreeReader(bufferedData));
+            }
+            message.setId(id);
+            message.setSeq(seq);
+            return message;
         }
-    };
 
-    private UUID id;
+        private static InboundMessage create(String type) {
+            switch (type) {
+                case WebhookInboundMessage.TYPE:
+                    return new WebhookInboundMessage();
+                case ResultInboundMessage.TYPE:
+                    return new ResultInboundMessage();
+                default:
+                    throw new JsonParseException("Unsupported message type: " + type);
+            }
+        }
+
+        private void readData(InboundMessage message, JsonReader reader) throws IOException {
+            if (message instanceof WebhookInboundMessage) {
+                ((WebhookInboundMessage) message).setData(webhookAdapter.read(reader));
+            } else {
+                ((ResultInboundMessage) message).setData(resultAdapter.read(reader));
+            }
+        }
+    }
 
 }
@@ -0,0 +1,25 @@
+package io.electrica.sdk.java8.core.message;
+
+import com.google.gson.annotations.SerializedName;
+import io.electrica.sdk.java8.api.http.Request;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Invocation sent through instance WebSocket. Result is pushed back as {@link ResultInboundMessage} with invocation
+ * id equal to {@link #id}.
+ */
+@Getter
+@AllArgsConstructor
+public class InvocationOutboundMessage {
+
+    public static final String TYPE = "invocation";
+
+    @SerializedName("@type")
+    private final String type = TYPE;
+    private final UUID id;
+    private final Request data;
+
+}
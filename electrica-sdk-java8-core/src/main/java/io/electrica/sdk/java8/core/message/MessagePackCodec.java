@@ -0,0 +1,112 @@
+package io.electrica.sdk.java8.core.message;
+
+import com.google.gson.*;
+import okio.ByteString;
+import org.msgpack.core.MessageBufferPacker;
+import org.msgpack.core.MessagePack;
+import org.msgpack.core.MessagePackException;
+import org.msgpack.core.MessagePacker;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Map;
+
+/**
+ * Codec of binary WebSocket frames, that carry the same documents as JSON text frames in MessagePack format.
+ * <p>
+ * Frames are decoded by {@link MessagePackReader} in one streaming pass with the same Gson type adapters as text
+ * frames. Outbound messages are small, so they are converted to {@link JsonElement} tree first, because MessagePack
+ * requires size of map and array in front of them.
+ */
+public class MessagePackCodec {
+
+    private final Gson gson;
+
+    public MessagePackCodec(Gson gson) {
+        this.gson = gson;
+    }
+
+    /**
+     * @throws JsonParseException if frame isn't valid MessagePack document of expected type
+     */
+    public <T> T decode(ByteString frame, Class<T> type) {
+        // ByteString exposes read-only buffer only, that unpacker doesn't accept
+        return decode(frame.toByteArray(), type);
+    }
+
+    /**
+     * @throws JsonParseException if document isn't valid MessagePack document of expected type
+     */
+    public <T> T decode(byte[] document, Class<T> type) {
+        try (MessagePackReader reader = new MessagePackReader(MessagePack.newDefaultUnpacker(document))) {
+            return gson.getAdapter(type).read(reader);
+        } catch (IOException | MessagePackException | IllegalStateException | NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    public ByteString encode(Object message) {
+        return encode(gson.toJsonTree(message));
+    }
+
+    public ByteString encode(JsonElement element) {
+        try (MessageBufferPacker packer = MessagePack.newDefaultBufferPacker()) {
+            pack(packer, element);
+            return ByteString.of(packer.toByteArray());
+        } catch (IOException e) {
+            // buffer packer doesn't do any I/O
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void pack(MessagePacker packer, JsonElement element) throws IOException {
+        if (element == null || element.isJsonNull()) {
+            packer.packNil();
+        } else if (element.isJsonObject()) {
+            JsonObject object = element.getAsJsonObject();
+            packer.packMapHeader(object.size());
+            for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+                packer.packString(entry.getKey());
+                pack(packer, entry.getValue());
+            }
+        } else if (element.isJsonArray()) {
+            JsonArray array = element.getAsJsonArray();
+            packer.packArrayHeader(array.size());
+            for (JsonElement item : array) {
+                pack(packer, item);
+            }
+        } else {
+            JsonPrimitive primitive = element.getAsJsonPrimitive();
+            if (primitive.isBoolean()) {
+                packer.packBoolean(primitive.getAsBoolean());
+            } else if (primitive.isNumber()) {
+                packNumber(packer, primitive.getAsNumber());
+            } else {
+                packer.packString(primitive.getAsString());
+            }
+        }
+    }
+
+    private static void packNumber(MessagePacker packer, Number number) throws IOException {
+        if (number instanceof Long || number instanceof Integer || number instanceof Short ||
+                number instanceof Byte) {
+            packer.packLong(number.longValue());
+        } else if (number instanceof Double || number instanceof Float) {
+            packer.packDouble(number.doubleValue());
+        } else {
+            // parsed numbers are kept as is and may be integral or not
+            BigDecimal decimal = new BigDecimal(number.toString());
+            try {
+                BigInteger integer = decimal.toBigIntegerExact();
+                if (integer.bitLength() < 64) {
+                    packer.packLong(integer.longValue());
+                } else {
+                    packer.packBigInteger(integer);
+                }
+            } catch (ArithmeticException e) {
+                packer.packDouble(decimal.doubleValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package io.electrica.sdk.java8.core.message;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.msgpack.core.MessageFormat;
+import org.msgpack.core.MessageUnpacker;
+import org.msgpack.value.ValueType;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Reader of MessagePack document, that exposes it as stream of JSON tokens, so regular Gson type adapters bind
+ * binary frames in one pass, the same way as text ones.
+ * <p>
+ * Map keys must be strings. Integers and floats are returned by {@link #nextString()} as decimal string, like
+ * JSON numbers. Binary and extension values are not supported.
+ */
+public class MessagePackReader extends JsonReader {
+
+    private static final Reader UNREADABLE_READER = new Reader() {
+        @Override
+        public int read(char[] buffer, int offset, int count) {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void close() {
+            throw new AssertionError();
+        }
+    };
+
+    private final MessageUnpacker unpacker;
+
+    // stack of open containers, map entries are counted twice: as name and as value
+    private int[] remaining = new int[16];
+    private boolean[] maps = new boolean[16];
+    private int depth = 0;
+
+    public MessagePackReader(MessageUnpacker unpacker) {
+        super(UNREADABLE_READER);
+        this.unpacker = unpacker;
+    }
+
+    @Override
+    public JsonToken peek() throws IOException {
+        if (depth > 0) {
+            int top = depth - 1;
+            if (remaining[top] == 0) {
+                return maps[top] ? JsonToken.END_OBJECT : JsonToken.END_ARRAY;
+            }
+            if (maps[top] && remaining[top] % 2 == 0) {
+                return JsonToken.NAME;
+            }
+        } else if (!unpacker.hasNext()) {
+            return JsonToken.END_DOCUMENT;
+        }
+
+        ValueType valueType = unpacker.getNextFormat().getValueType();
+        switch (valueType) {
+            case NIL:
+                return JsonToken.NULL;
+            case BOOLEAN:
+                return JsonToken.BOOLEAN;
+            case INTEGER:
+            case FLOAT:
+                return JsonToken.NUMBER;
+            case STRING:
+                return JsonToken.STRING;
+            case ARRAY:
+                return JsonToken.BEGIN_ARRAY;
+            case MAP:
+                return JsonToken.BEGIN_OBJECT;
+            default:
+                throw new IllegalStateException("Unsupported MessagePack value type " + valueType + locationString());
+        }
+    }
+
+    private void expect(JsonToken expected) throws IOException {
+        JsonToken token = peek();
+        if (token != expected) {
+            throw new IllegalStateException("Expected " + expected + " but was " + token + locationString());
+        }
+    }
+
+    private void expectValue() throws IOException {
+        JsonToken token = peek();
+        if (token == JsonToken.NAME || token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY ||
+                token == JsonToken.END_DOCUMENT) {
+            throw new IllegalStateException("Expected value but was " + token + locationString());
+        }
+    }
+
+    private void consume() {
+        if (depth > 0) {
+            remaining[depth - 1]--;
+        }
+    }
+
+    private void push(boolean map, int entries) {
+        if (depth == remaining.length) {
+            remaining = Arrays.copyOf(remaining, depth * 2);
+            maps = Arrays.copyOf(maps, depth * 2);
+        }
+        maps[depth] = map;
+        remaining[depth] = entries;
+        depth++;
+    }
+
+    @Override
+    public void beginArray() throws IOException {
+        expect(JsonToken.BEGIN_ARRAY);
+        int size = unpacker.unpackArrayHeader();
+        consume();
+        push(false, size);
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        expect(JsonToken.END_ARRAY);
+        depth--;
+    }
+
+    @Override
+    public void beginObject() throws IOException {
+        expect(JsonToken.BEGIN_OBJECT);
+        int size = unpacker.unpackMapHeader();
+        consume();
+        push(true, size * 2);
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        expect(JsonToken.END_OBJECT);
+        depth--;
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        JsonToken token = peek();
+        return token != JsonToken.END_OBJECT && token != JsonToken.END_ARRAY && token != JsonToken.END_DOCUMENT;
+    }
+
+    @Override
+    public String nextName() throws IOException {
+        expect(JsonToken.NAME);
+        if (unpacker.getNextFormat().getValueType() != ValueType.STRING) {
+            throw new IllegalStateException("Expected string map key" + locationString());
+        }
+        String name = unpacker.unpackString();
+        consume();
+        return name;
+    }
+
+    @Override
+    public String nextString() throws IOException {
+        expectValue();
+        MessageFormat format = unpacker.getNextFormat();
+        String result;
+        switch (format.getValueType()) {
+            case STRING:
+                result = unpacker.unpackString();
+                break;
+            case INTEGER:
+                result = format == MessageFormat.UINT64 ?
+                        unpacker.unpackBigInteger().toString() :
+                        Long.toString(unpacker.unpackLong());
+                break;
+            case FLOAT:
+                result = Double.toString(unpacker.unpackDouble());
+                break;
+            default:
+                throw new IllegalStateException("Expected STRING but was " + peek() + locationString());
+        }
+        consume();
+        return result;
+    }
+
+    @Override
+    public boolean nextBoolean() throws IOException {
+        expect(JsonToken.BOOLEAN);
+        boolean result = unpacker.unpackBoolean();
+        consume();
+        return result;
+    }
+
+    @Override
+    public void nextNull() throws IOException {
+        expect(JsonToken.NULL);
+        unpacker.unpackNil();
+        consume();
+    }
+
+    @Override
+    public double nextDouble() throws IOException {
+        expectValue();
+        ValueType valueType = unpacker.getNextFormat().getValueType();
+        double result;
+        if (valueType == ValueType.FLOAT) {
+            result = unpacker.unpackDouble();
+        } else if (valueType == ValueType.INTEGER) {
+            result = unpacker.getNextFormat() == MessageFormat.UINT64 ?
+                    unpacker.unpackBigInteger().doubleValue() :
+                    unpacker.unpackLong();
+        } else if (valueType == ValueType.STRING) {
+            result = parseDouble(unpacker.unpackString());
+        } else {
+            throw new IllegalStateException("Expected NUMBER but was " + peek() + locationString());
+        }
+        if (!isLenient() && (Double.isNaN(result) || Double.isInfinite(result))) {
+            throw new NumberFormatException("JSON forbids NaN and infinities: " + result + locationString());
+        }
+        consume();
+        return result;
+    }
+
+    @Override
+    public long nextLong() throws IOException {
+        expectValue();
+        ValueType valueType = unpacker.getNextFormat().getValueType();
+        long result;
+        if (valueType == ValueType.INTEGER) {
+            result = unpacker.unpackLong();
+        } else if (valueType == ValueType.FLOAT) {
+            result = toLong(unpacker.unpackDouble());
+        } else if (valueType == ValueType.STRING) {
+            String value = unpacker.unpackString();
+            try {
+                result = Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                result = toLong(parseDouble(value));
+            }
+        } else {
+            throw new IllegalStateException("Expected NUMBER but was " + peek() + locationString());
+        }
+        consume();
+        return result;
+    }
+
+    @Override
+    public int nextInt() throws IOException {
+        expectValue();
+        long result;
+        if (unpacker.getNextFormat().getValueType() == ValueType.INTEGER) {
+            result = unpacker.unpackLong();
+            consume();
+        } else {
+            result = nextLong();
+        }
+        if (result != (int) result) {
+            throw new NumberFormatException("Expected an int but was " + result + locationString());
+        }
+        return (int) result;
+    }
+
+    private long toLong(double value) {
+        long result = (long) value;
+        if (result != value) {
+            throw new NumberFormatException("Expected a long but was " + value + locationString());
+        }
+        return result;
+    }
+
+    private double parseDouble(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException("Expected a number but was " + value + locationString());
+        }
+    }
+
+    @Override
+    public void skipValue() throws IOException {
+        JsonToken token = peek();
+        if (token == JsonToken.END_OBJECT) {
+            endObject();
+        } else if (token == JsonToken.END_ARRAY) {
+            endArray();
+        } else if (token != JsonToken.END_DOCUMENT) {
+            // skips name or whole value including nested containers
+            unpacker.skipValue();
+            consume();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        depth = 0;
+        unpacker.close();
+    }
+
+    @Override
+    public String getPath() {
+        return "$ at byte " + unpacker.getTotalReadBytes();
+    }
+
+    private String locationString() {
+        return " at byte " + unpacker.getTotalReadBytes();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + locationString();
+    }
+}
@@ -0,0 +1,21 @@
+package io.electrica.sdk.java8.core.message;
+
+import com.google.gson.annotations.SerializedName;
+import io.electrica.sdk.java8.core.dto.MessageResultDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Result of webhook message sent through instance WebSocket instead of HTTP request.
+ */
+@Getter
+@AllArgsConstructor
+public class MessageResultOutboundMessage {
+
+    public static final String TYPE = "message-result";
+
+    @SerializedName("@type")
+    private final String type = TYPE;
+    private final MessageResultDto data;
+
+}
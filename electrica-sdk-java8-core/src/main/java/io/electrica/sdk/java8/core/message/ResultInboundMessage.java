@@ -0,0 +1,18 @@
+package io.electrica.sdk.java8.core.message;
+
+import com.google.gson.JsonElement;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Result of asynchronous invocation pushed by Electrica.io through WebSocket.
+ */
+@Getter
+@Setter
+public class ResultInboundMessage extends InboundMessage {
+
+    public static final String TYPE = "result";
+
+    private ResultMessage<JsonElement> data;
+
+}
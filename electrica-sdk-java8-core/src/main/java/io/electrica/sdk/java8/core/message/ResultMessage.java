@@ -1,6 +1,5 @@
 package io.electrica.sdk.java8.core.message;
 
-import com.google.gson.JsonElement;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -8,15 +7,18 @@ import java.util.UUID;
 
 /**
  * General result from the invocation service.
+ *
+ * @param <R> type of invocation result
+ * @see ResultMessageDecoder
  */
 @Getter
 @Setter
-public class ResultMessage {
+public class ResultMessage<R> {
 
     private UUID invocationId;
     private UUID instanceId;
     private Long connectionId;
-    private JsonElement result;
+    private R result;
     private Boolean success;
     private IntegrationError error;
 
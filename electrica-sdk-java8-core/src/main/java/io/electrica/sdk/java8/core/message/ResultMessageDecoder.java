@@ -0,0 +1,76 @@
+package io.electrica.sdk.java8.core.message;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.UUID;
+
+/**
+ * Streaming decoder of {@link ResultMessage}, that binds {@code result} field directly to expected type in one pass,
+ * without intermediate JSON string and {@link com.google.gson.JsonElement} tree.
+ */
+public class ResultMessageDecoder {
+
+    private final Gson gson;
+    private final TypeAdapter<UUID> uuidAdapter;
+    private final TypeAdapter<Long> longAdapter;
+    private final TypeAdapter<Boolean> booleanAdapter;
+    private final TypeAdapter<IntegrationError> errorAdapter;
+
+    public ResultMessageDecoder(Gson gson) {
+        this.gson = gson;
+        this.uuidAdapter = gson.getAdapter(UUID.class);
+        this.longAdapter = gson.getAdapter(Long.class);
+        this.booleanAdapter = gson.getAdapter(Boolean.class);
+        this.errorAdapter = gson.getAdapter(IntegrationError.class);
+    }
+
+    /**
+     * Read next {@link ResultMessage} object from reader.
+     *
+     * @param reader     reader positioned at the beginning of result message object
+     * @param resultType expected type of result, {@link Void} to skip result value
+     */
+    @SuppressWarnings("unchecked")
+    public <R> ResultMessage<R> decode(JsonReader reader, Type resultType) throws IOException {
+        TypeAdapter<R> resultAdapter = Void.class.equals(resultType) ?
+                null : (TypeAdapter<R>) gson.getAdapter(TypeToken.get(resultType));
+
+        ResultMessage<R> message = new ResultMessage<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "invocationId":
+                    message.setInvocationId(uuidAdapter.read(reader));
+                    break;
+                case "instanceId":
+                    message.setInstanceId(uuidAdapter.read(reader));
+                    break;
+                case "connectionId":
+                    message.setConnectionId(longAdapter.read(reader));
+                    break;
+                case "success":
+                    message.setSuccess(booleanAdapter.read(reader));
+                    break;
+                case "error":
+                    message.setError(errorAdapter.read(reader));
+                    break;
+                case "result":
+                    if (resultAdapter == null) {
+                        reader.skipValue();
+                    } else {
+                        message.setResult(resultAdapter.read(reader));
+                    }
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return message;
+    }
+}
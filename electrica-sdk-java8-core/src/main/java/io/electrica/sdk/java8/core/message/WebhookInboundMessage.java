@@ -8,6 +8,8 @@ import lombok.Setter;
 @Setter
 public class WebhookInboundMessage extends InboundMessage {
 
+    public static final String TYPE = "webhook";
+
     private MessageDto data;
 
 }
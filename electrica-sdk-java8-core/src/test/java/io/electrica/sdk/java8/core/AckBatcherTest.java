@@ -0,0 +1,84 @@
+package io.electrica.sdk.java8.core;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import io.electrica.sdk.java8.api.impl.HashedWheelTimer;
+import io.electrica.sdk.java8.core.message.AckOutboundMessage;
+import io.electrica.sdk.java8.core.message.BatchAckOutboundMessage;
+import okhttp3.WebSocket;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AckBatcherTest {
+
+    private final Gson gson = new Gson();
+
+    @Test
+    void testAcksCoalescedBySize() {
+        WebSocket webSocket = mock(WebSocket.class);
+        AckBatcher ackBatcher = new AckBatcher(gson, 3, TimeUnit.MINUTES.toMillis(1), HashedWheelTimer.shared());
+
+        for (int i = 0; i < 7; i++) {
+            ackBatcher.add(webSocket, new AckOutboundMessage(UUID.randomUUID(), i % 2 == 0));
+        }
+        ackBatcher.close();
+
+        List<String> frames = sentFrames(webSocket, 3);
+        assertEquals(3, ackCount(frames.get(0)));
+        assertEquals(3, ackCount(frames.get(1)));
+        // single lingering ack is sent as plain ack frame
+        assertEquals(1, ackCount(frames.get(2)));
+        assertFalse(gson.fromJson(frames.get(2), JsonObject.class).has("@type"));
+    }
+
+    @Test
+    void testAcksFlushedByLinger() {
+        WebSocket webSocket = mock(WebSocket.class);
+        AckBatcher ackBatcher = new AckBatcher(gson, 100, 20, HashedWheelTimer.shared());
+
+        ackBatcher.add(webSocket, new AckOutboundMessage(UUID.randomUUID(), true));
+        ackBatcher.add(webSocket, new AckOutboundMessage(UUID.randomUUID(), true));
+
+        verify(webSocket, timeout(5000)).send(anyString());
+        assertEquals(2, ackCount(sentFrames(webSocket, 1).get(0)));
+    }
+
+    @Test
+    void testAcksBatchedPerConnection() {
+        WebSocket first = mock(WebSocket.class);
+        WebSocket second = mock(WebSocket.class);
+        AckBatcher ackBatcher = new AckBatcher(gson, 2, TimeUnit.MINUTES.toMillis(1), HashedWheelTimer.shared());
+
+        ackBatcher.add(first, new AckOutboundMessage(UUID.randomUUID(), true));
+        ackBatcher.add(second, new AckOutboundMessage(UUID.randomUUID(), true));
+        ackBatcher.add(first, new AckOutboundMessage(UUID.randomUUID(), true));
+
+        assertEquals(2, ackCount(sentFrames(first, 1).get(0)));
+        verify(second, never()).send(anyString());
+        ackBatcher.flush();
+        assertEquals(1, ackCount(sentFrames(second, 1).get(0)));
+    }
+
+    private static List<String> sentFrames(WebSocket webSocket, int count) {
+        ArgumentCaptor<String> frames = ArgumentCaptor.forClass(String.class);
+        verify(webSocket, times(count)).send(frames.capture());
+        return frames.getAllValues();
+    }
+
+    private int ackCount(String frame) {
+        JsonObject json = gson.fromJson(frame, JsonObject.class);
+        if (json.has("@type")) {
+            assertEquals(BatchAckOutboundMessage.TYPE, json.get("@type").getAsString());
+            return json.getAsJsonArray("acks").size();
+        }
+        assertTrue(json.has("correlationId"));
+        return 1;
+    }
+}
@@ -0,0 +1,83 @@
+package io.electrica.sdk.java8.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AckWatermarkTest {
+
+    @Test
+    void testWatermarkStopsAtGap() {
+        AckWatermark watermark = new AckWatermark();
+        watermark.accept(2);
+        watermark.accept(3);
+        assertEquals(0, watermark.get());
+
+        watermark.accept(1);
+        assertEquals(3, watermark.get());
+
+        watermark.accept(5);
+        // duplicate and already covered sequences are ignored
+        watermark.accept(5);
+        watermark.accept(2);
+        assertEquals(3, watermark.get());
+
+        watermark.accept(4);
+        assertEquals(5, watermark.get());
+    }
+
+    @Test
+    void testShuffledSequencesWrapRing() {
+        AckWatermark watermark = new AckWatermark(16);
+        Random random = new Random(42);
+        long next = 1;
+        for (int round = 0; round < 100; round++) {
+            List<Long> window = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                window.add(next + i);
+            }
+            Collections.shuffle(window, random);
+            for (long seq : window) {
+                watermark.accept(seq);
+            }
+            next += 16;
+            assertEquals(next - 1, watermark.get());
+        }
+    }
+
+    @Test
+    void testSequenceBeyondCapacityNotTracked() {
+        AckWatermark watermark = new AckWatermark(4);
+        watermark.accept(6);
+        for (long seq = 1; seq <= 4; seq++) {
+            watermark.accept(seq);
+        }
+        watermark.accept(5);
+        // message #6 will be replayed on resume, that is safe
+        assertEquals(5, watermark.get());
+    }
+
+    @Test
+    void testReset() {
+        AckWatermark watermark = new AckWatermark(4);
+        watermark.accept(1);
+        watermark.accept(3);
+        watermark.reset();
+        assertEquals(0, watermark.get());
+
+        watermark.accept(2);
+        assertEquals(0, watermark.get());
+        watermark.accept(1);
+        assertEquals(2, watermark.get());
+    }
+
+    @Test
+    void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new AckWatermark(0));
+    }
+}
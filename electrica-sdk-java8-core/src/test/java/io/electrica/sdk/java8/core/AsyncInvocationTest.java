@@ -0,0 +1,128 @@
+package io.electrica.sdk.java8.core;
+
+import io.electrica.sdk.java8.api.Callback;
+import io.electrica.sdk.java8.api.exception.IntegrationException;
+import io.electrica.sdk.java8.api.exception.TransportException;
+import io.electrica.sdk.java8.api.http.Request;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.MockResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InterruptedIOException;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncInvocationTest {
+
+    private StandInServer server;
+    private SingleInstanceHttpModule httpModule;
+    private UUID instanceId;
+    private final CompletableFuture<WebSocket> serverWebSocket = new CompletableFuture<>();
+    private final BlockingQueue<String> serverMessages = new LinkedBlockingQueue<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new StandInServer();
+        server.onWebSocket(new WebSocketListener() {
+            @Override
+            public void onOpen(WebSocket webSocket, Response response) {
+                serverWebSocket.complete(webSocket);
+            }
+
+            @Override
+            public void onMessage(WebSocket webSocket, String text) {
+                serverMessages.add(text);
+            }
+
+            @Override
+            public void onClosing(WebSocket webSocket, int code, String reason) {
+                webSocket.close(code, reason);
+            }
+        });
+
+        httpModule = new SingleInstanceHttpModule(server.getApiUrl());
+        httpModule.setInvocationMode(InvocationMode.Async);
+        httpModule.setAsyncResultTimeout(500, TimeUnit.MILLISECONDS);
+        instanceId = UUID.randomUUID();
+        httpModule.initialize(instanceId, "test", "key");
+        serverWebSocket.get(10, TimeUnit.SECONDS);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        httpModule.close();
+        server.close();
+    }
+
+    @Test
+    void testResultPushedAfterAcceptance() throws Exception {
+        UUID invocationId = UUID.randomUUID();
+        server.handle(SingleInstanceHttpModule.INVOKE_ASYNC_PATH, request -> new MockResponse()
+                .setBody("{\"invocationId\":\"" + invocationId + "\"}"));
+
+        BlockingQueue<Object> results = submit();
+        // wait for acceptance to be processed
+        Thread.sleep(100);
+        assertTrue(results.isEmpty());
+
+        serverWebSocket.get().send(createResultFrame(invocationId));
+        assertEquals("pong", results.poll(10, TimeUnit.SECONDS));
+        assertTrue(serverMessages.poll(10, TimeUnit.SECONDS).contains("\"accepted\":true"));
+    }
+
+    @Test
+    void testResultPushedBeforeAcceptance() throws Exception {
+        UUID invocationId = UUID.randomUUID();
+        server.handle(SingleInstanceHttpModule.INVOKE_ASYNC_PATH, request -> {
+            serverWebSocket.join().send(createResultFrame(invocationId));
+            return new MockResponse()
+                    .setBody("{\"invocationId\":\"" + invocationId + "\"}")
+                    .setHeadersDelay(200, TimeUnit.MILLISECONDS);
+        });
+
+        assertEquals("pong", submit().poll(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testPendingInvocationExpired() throws Exception {
+        server.handle(SingleInstanceHttpModule.INVOKE_ASYNC_PATH, request -> new MockResponse()
+                .setBody("{\"invocationId\":\"" + UUID.randomUUID() + "\"}"));
+
+        Object result = submit().poll(10, TimeUnit.SECONDS);
+        assertTrue(result instanceof TransportException, "Expected transport error, but got: " + result);
+        assertTrue(((TransportException) result).getCause() instanceof InterruptedIOException);
+    }
+
+    private String createResultFrame(UUID invocationId) {
+        return "{\"@type\":\"result\",\"id\":\"" + UUID.randomUUID() + "\",\"data\":{" +
+                "\"invocationId\":\"" + invocationId + "\",\"instanceId\":\"" + instanceId + "\"," +
+                "\"success\":true,\"result\":\"pong\"}}";
+    }
+
+    private BlockingQueue<Object> submit() throws Exception {
+        BlockingQueue<Object> results = new ArrayBlockingQueue<>(1);
+        Request request = new Request(instanceId, 1L, "ping", null, null);
+        httpModule.submitJob(instanceId, request, String.class, new Callback<String>() {
+            @Override
+            public void onResponse(String result) {
+                results.add(result);
+            }
+
+            @Override
+            public void onFailure(IntegrationException exception) {
+                results.add(exception);
+            }
+        });
+        return results;
+    }
+}
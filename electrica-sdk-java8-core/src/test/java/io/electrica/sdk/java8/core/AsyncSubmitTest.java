@@ -0,0 +1,119 @@
+package io.electrica.sdk.java8.core;
+
+import io.electrica.sdk.java8.api.Callback;
+import io.electrica.sdk.java8.api.exception.IntegrationException;
+import io.electrica.sdk.java8.api.exception.TransportException;
+import io.electrica.sdk.java8.api.http.Request;
+import okhttp3.mockwebserver.MockResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncSubmitTest {
+
+    private static final int JOBS = 20;
+    private static final long RESPONSE_DELAY_MILLIS = 500;
+
+    private StandInServer server;
+    private SingleInstanceHttpModule httpModule;
+    private UUID instanceId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new StandInServer();
+        httpModule = new SingleInstanceHttpModule(server.getApiUrl());
+        instanceId = UUID.randomUUID();
+        httpModule.initialize(instanceId, "test", "key");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        httpModule.close();
+        server.close();
+    }
+
+    @Test
+    void testSubmitDoesNotBlockCaller() throws Exception {
+        server.handle(SingleInstanceHttpModule.INVOKE_PATH, request -> new MockResponse()
+                .setBody("{\"success\":true,\"result\":\"pong\"}")
+                .setHeadersDelay(RESPONSE_DELAY_MILLIS, TimeUnit.MILLISECONDS));
+
+        BlockingQueue<Object> results = new ArrayBlockingQueue<>(JOBS);
+        long start = System.nanoTime();
+        for (int i = 0; i < JOBS; i++) {
+            httpModule.submitJob(instanceId, createRequest(), String.class, new QueueCallback(results));
+        }
+        long submitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(submitMillis < RESPONSE_DELAY_MILLIS, "Submit blocked caller for " + submitMillis + "ms");
+
+        for (int i = 0; i < JOBS; i++) {
+            Object result = results.poll(10, TimeUnit.SECONDS);
+            assertEquals("pong", result);
+        }
+        long totalMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(totalMillis < JOBS * RESPONSE_DELAY_MILLIS / 2, "Jobs executed sequentially: " + totalMillis);
+    }
+
+    @Test
+    void testCallbackCompletedInCallbackExecutor() throws Exception {
+        server.handle(SingleInstanceHttpModule.INVOKE_PATH, request -> new MockResponse()
+                .setBody("{\"success\":true,\"result\":\"pong\"}"));
+
+        BlockingQueue<Object> threadGroups = new ArrayBlockingQueue<>(1);
+        httpModule.submitJob(instanceId, createRequest(), String.class, new Callback<String>() {
+            @Override
+            public void onResponse(String result) {
+                threadGroups.add(Thread.currentThread().getThreadGroup().getName());
+            }
+
+            @Override
+            public void onFailure(IntegrationException exception) {
+                threadGroups.add(exception);
+            }
+        });
+
+        assertEquals(SingleInstanceHttpModule.CALLBACK_THREAD_GROUP, threadGroups.poll(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testNetworkErrorReportedToCallback() throws Exception {
+        server.handle(SingleInstanceHttpModule.INVOKE_PATH, request -> new MockResponse().setResponseCode(500));
+
+        BlockingQueue<Object> results = new ArrayBlockingQueue<>(1);
+        httpModule.submitJob(instanceId, createRequest(), String.class, new QueueCallback(results));
+
+        Object result = results.poll(10, TimeUnit.SECONDS);
+        assertTrue(result instanceof TransportException, "Expected transport error, but got: " + result);
+        assertNotNull(((TransportException) result).getCause());
+    }
+
+    private Request createRequest() {
+        return new Request(instanceId, 1L, "ping", null, null);
+    }
+
+    private static class QueueCallback implements Callback<String> {
+
+        private final BlockingQueue<Object> queue;
+
+        private QueueCallback(BlockingQueue<Object> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public void onResponse(String result) {
+            queue.add(result);
+        }
+
+        @Override
+        public void onFailure(IntegrationException exception) {
+            queue.add(exception);
+        }
+    }
+}
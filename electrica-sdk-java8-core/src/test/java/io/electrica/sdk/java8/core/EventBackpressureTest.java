@@ -0,0 +1,121 @@
+package io.electrica.sdk.java8.core;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static java.util.Objects.requireNonNull;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventBackpressureTest {
+
+    private static final int HIGH_WATERMARK = 3;
+    private static final int LOW_WATERMARK = 1;
+    private static final int CAPACITY = 5;
+
+    private final Gson gson = new Gson();
+    private final CompletableFuture<WebSocket> serverWebSocket = new CompletableFuture<>();
+    private final BlockingQueue<JsonObject> flowControlFrames = new LinkedBlockingQueue<>();
+    private final BlockingQueue<JsonObject> ackFrames = new LinkedBlockingQueue<>();
+
+    private StandInServer server;
+    private SingleInstanceHttpModule httpModule;
+    private UUID instanceId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new StandInServer();
+        server.onWebSocket(new WebSocketListener() {
+            @Override
+            public void onOpen(WebSocket webSocket, Response response) {
+                serverWebSocket.complete(webSocket);
+            }
+
+            @Override
+            public void onMessage(WebSocket webSocket, String text) {
+                JsonObject frame = gson.fromJson(text, JsonObject.class);
+                if (frame.has("@type") && "flow-control".equals(frame.get("@type").getAsString())) {
+                    flowControlFrames.add(frame);
+                } else if (frame.has("correlationId")) {
+                    ackFrames.add(frame);
+                }
+            }
+
+            @Override
+            public void onClosing(WebSocket webSocket, int code, String reason) {
+                webSocket.close(code, reason);
+            }
+        });
+
+        httpModule = new SingleInstanceHttpModule(server.getApiUrl());
+        httpModule.setEventBackpressure(HIGH_WATERMARK, LOW_WATERMARK, CAPACITY);
+        instanceId = UUID.randomUUID();
+        httpModule.initialize(instanceId, "test", "key");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        httpModule.close();
+        server.close();
+    }
+
+    @Test
+    void testSaturatedInstancePausesDeliveryAndRejectsOverflow() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        httpModule.addMessageListener(instanceId, m -> true, m -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        WebSocket webSocket = serverWebSocket.get(10, TimeUnit.SECONDS);
+        Map<String, Integer> frameIndexes = new HashMap<>();
+        for (int i = 0; i < CAPACITY + 1; i++) {
+            UUID frameId = UUID.randomUUID();
+            frameIndexes.put(frameId.toString(), i);
+            webSocket.send("{\"@type\":\"webhook\",\"id\":\"" + frameId + "\",\"data\":{\"id\":\"" +
+                    UUID.randomUUID() + "\",\"scope\":\"Custom\",\"expectedResult\":false,\"payload\":\"{}\"}}");
+        }
+
+        JsonObject pause = requireNonNull(flowControlFrames.poll(10, TimeUnit.SECONDS));
+        assertTrue(pause.get("paused").getAsBoolean());
+
+        // frame beyond capacity is rejected immediately, while accepted ones may wait for free event thread
+        Map<Integer, Boolean> acks = new HashMap<>();
+        while (!acks.containsKey(CAPACITY)) {
+            pollAck(frameIndexes, acks);
+        }
+        assertFalse(acks.get(CAPACITY));
+        assertEquals(CAPACITY, httpModule.getPendingEvents(instanceId));
+
+        release.countDown();
+        while (acks.size() < CAPACITY + 1) {
+            pollAck(frameIndexes, acks);
+        }
+        for (int i = 0; i < CAPACITY; i++) {
+            assertTrue(acks.get(i), "Expected accepted frame #" + i);
+        }
+        JsonObject resume = requireNonNull(flowControlFrames.poll(10, TimeUnit.SECONDS));
+        assertFalse(resume.get("paused").getAsBoolean());
+        // resume is signaled at low watermark, so the last event may be still pending
+        assertNull(flowControlFrames.poll(200, TimeUnit.MILLISECONDS));
+        assertEquals(0, httpModule.getPendingEvents(instanceId));
+    }
+
+    private void pollAck(Map<String, Integer> frameIndexes, Map<Integer, Boolean> acks) throws InterruptedException {
+        JsonObject ack = requireNonNull(ackFrames.poll(10, TimeUnit.SECONDS));
+        acks.put(frameIndexes.get(ack.get("correlationId").getAsString()), ack.get("accepted").getAsBoolean());
+    }
+}
@@ -0,0 +1,80 @@
+package io.electrica.sdk.java8.core;
+
+import okio.ByteString;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameCompressorTest {
+
+    private final byte[] dictionary = ("{\"@type\":\"webhook\",\"id\":\"\",\"data\":{\"name\":\"Echo webhook\"," +
+            "\"scope\":\"Connector\",\"connectorErn\":\"ern://echo:test:1_0\",\"expectedResult\":false," +
+            "\"contentType\":\"application/json\",\"payload\":\"").getBytes(StandardCharsets.UTF_8);
+
+    private byte[] frame() {
+        return ("{\"@type\":\"webhook\",\"id\":\"" + UUID.randomUUID() + "\",\"data\":{\"id\":\"" + UUID.randomUUID() +
+                "\",\"name\":\"Echo webhook\",\"scope\":\"Connector\",\"connectorErn\":\"ern://echo:test:1_0\"," +
+                "\"expectedResult\":false,\"contentType\":\"application/json\",\"payload\":\"{}\"}}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testRoundTripWithDictionary() {
+        FrameCompressor compressor = new FrameCompressor(dictionary);
+        FrameCompressor plain = new FrameCompressor(new byte[0]);
+        byte[] document = frame();
+
+        ByteString compressed = compressor.compress(document);
+        ByteString plainCompressed = plain.compress(document);
+
+        assertTrue(FrameCompressor.isCompressed(compressed));
+        assertArrayEquals(document, compressor.decompress(compressed));
+        assertArrayEquals(document, plain.decompress(plainCompressed));
+        // dictionary leaves mostly random ids in small frame
+        assertTrue(compressed.size() < plainCompressed.size() * 2 / 3,
+                compressed.size() + " vs " + plainCompressed.size());
+    }
+
+    @Test
+    void testIncompressibleDocumentNotCompressed() {
+        FrameCompressor compressor = new FrameCompressor(dictionary);
+        assertNull(compressor.compress(UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8)));
+        assertNull(compressor.compress(new byte[1]));
+    }
+
+    @Test
+    void testDecompressedSizeLimited() {
+        byte[] document = frame();
+        FrameCompressor compressor = new FrameCompressor(dictionary, Deflater.DEFAULT_COMPRESSION, document.length);
+        FrameCompressor limited = new FrameCompressor(dictionary, Deflater.DEFAULT_COMPRESSION, document.length - 1);
+        ByteString compressed = compressor.compress(document);
+
+        assertArrayEquals(document, compressor.decompress(compressed));
+        assertThrows(IllegalArgumentException.class, () -> limited.decompress(compressed));
+
+        // small frame inflates to far more than frame size
+        ByteString bomb = compressor.compress(new byte[1024 * 1024]);
+        assertTrue(bomb.size() < 2048, String.valueOf(bomb.size()));
+        assertThrows(IllegalArgumentException.class, () -> compressor.decompress(bomb));
+        // frame is still decompressed after limit exceeded, so inflaters are reset
+        assertArrayEquals(document, compressor.decompress(compressed));
+    }
+
+    @Test
+    void testMalformedFrame() {
+        FrameCompressor compressor = new FrameCompressor(dictionary);
+        ByteString compressed = compressor.compress(frame());
+
+        assertThrows(IllegalArgumentException.class, () -> compressor.decompress(ByteString.encodeUtf8("{}")));
+        assertThrows(IllegalArgumentException.class, () -> compressor.decompress(
+                compressed.substring(0, compressed.size() / 2)));
+        assertThrows(IllegalArgumentException.class, () -> compressor.decompress(
+                ByteString.of(FrameCompressor.COMPRESSED_FRAME_MARKER, (byte) 0xff, (byte) 0xff)));
+        // frame is still decompressed after failures, so inflaters are reset
+        assertNotNull(compressor.decompress(compressed));
+    }
+}
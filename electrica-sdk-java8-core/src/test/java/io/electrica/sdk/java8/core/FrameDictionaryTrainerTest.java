@@ -0,0 +1,54 @@
+package io.electrica.sdk.java8.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameDictionaryTrainerTest {
+
+    private final Random random = new Random(42);
+
+    private byte[] sample() {
+        return ("{\"@type\":\"webhook\",\"id\":\"" + random.nextLong() + "\",\"data\":{\"name\":\"Orders webhook\"," +
+                "\"connectorErn\":\"ern://shop:orders:1_0\",\"contentType\":\"application/json\",\"payload\":" +
+                "\"{\\\"orderId\\\":" + random.nextInt(100000) + ",\\\"status\\\":\\\"shipped\\\"}\"}}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testTrainedDictionaryImprovesCompression() {
+        List<byte[]> samples = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            samples.add(sample());
+        }
+
+        byte[] dictionary = FrameDictionaryTrainer.train(samples, 1024);
+
+        assertTrue(dictionary.length > 0 && dictionary.length <= 1024);
+        String text = new String(dictionary, StandardCharsets.UTF_8);
+        assertTrue(text.contains("\"connectorErn\":\"ern://shop:"), text);
+
+        FrameCompressor trained = new FrameCompressor(dictionary);
+        FrameCompressor plain = new FrameCompressor(new byte[0]);
+        byte[] frame = sample();
+        int trainedSize = trained.compress(frame).size();
+        assertTrue(trainedSize < plain.compress(frame).size() / 2, trainedSize + " of " + frame.length);
+        assertArrayEquals(frame, trained.decompress(trained.compress(frame)));
+    }
+
+    @Test
+    void testSmallSamples() {
+        byte[] sample = "{\"a\":1}".getBytes(StandardCharsets.UTF_8);
+
+        assertArrayEquals(sample, FrameDictionaryTrainer.train(Arrays.asList(sample), 1024));
+        assertEquals(3, FrameDictionaryTrainer.train(Arrays.asList(sample), 3).length);
+        assertThrows(IllegalArgumentException.class, () -> FrameDictionaryTrainer.train(Arrays.asList(sample),
+                FrameDictionaryTrainer.MAX_DICTIONARY_SIZE + 1));
+    }
+}
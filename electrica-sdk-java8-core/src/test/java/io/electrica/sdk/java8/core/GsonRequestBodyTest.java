@@ -0,0 +1,47 @@
+package io.electrica.sdk.java8.core;
+
+import com.google.gson.Gson;
+import io.electrica.sdk.java8.api.http.Request;
+import okhttp3.MediaType;
+import okio.Buffer;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GsonRequestBodyTest {
+
+    private static final MediaType APPLICATION_JSON = MediaType.parse("application/json; charset=utf-8");
+
+    private final Gson gson = new Gson();
+
+    @Test
+    void testWrittenBodyEqualsToJsonString() throws Exception {
+        Map<String, String> payload = Collections.singletonMap("text", "Юникод ☃ \"quoted\"");
+        Request request = new Request(UUID.randomUUID(), 1L, "send", null, payload);
+        GsonRequestBody body = new GsonRequestBody(gson, APPLICATION_JSON, request);
+
+        Buffer buffer = new Buffer();
+        body.writeTo(buffer);
+
+        assertEquals(APPLICATION_JSON, body.contentType());
+        assertEquals(-1, body.contentLength());
+        assertEquals(gson.toJson(request), buffer.readUtf8());
+    }
+
+    @Test
+    void testBodyCanBeWrittenTwice() throws Exception {
+        GsonRequestBody body = new GsonRequestBody(gson, APPLICATION_JSON, Collections.singletonList("item"));
+
+        Buffer first = new Buffer();
+        body.writeTo(first);
+        Buffer second = new Buffer();
+        body.writeTo(second);
+
+        assertEquals("[\"item\"]", first.readUtf8());
+        assertEquals("[\"item\"]", second.readUtf8());
+    }
+}
@@ -0,0 +1,184 @@
+package io.electrica.sdk.java8.core;
+
+import com.google.gson.Gson;
+import io.electrica.sdk.java8.api.http.Message;
+import io.electrica.sdk.java8.core.dto.MessageDto;
+import io.electrica.sdk.java8.core.message.WebhookInboundMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstanceEventDispatcherTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final InstanceEventDispatcher dispatcher = new InstanceEventDispatcher(new Gson(), executor);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testListenersShareMessage() throws Exception {
+        int listeners = 5;
+        List<Message> filtered = new CopyOnWriteArrayList<>();
+        List<Message> consumed = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(listeners);
+        for (int i = 0; i < listeners; i++) {
+            dispatcher.addMessageListener(m -> filtered.add(m), m -> {
+                consumed.add(m);
+                latch.countDown();
+            });
+        }
+
+        MessageDto dto = new MessageDto();
+        dto.setId(UUID.randomUUID());
+        WebhookInboundMessage message = new WebhookInboundMessage();
+        message.setData(dto);
+        dispatcher.submit(message, accepted -> assertTrue(accepted));
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        Message first = consumed.get(0);
+        assertEquals(dto.getId(), first.getId());
+        for (int i = 0; i < listeners; i++) {
+            assertSame(first, filtered.get(i));
+            assertSame(first, consumed.get(i));
+        }
+    }
+
+    @Test
+    void testEventsOfConnectionHandledInOrder() throws Exception {
+        int connections = 4;
+        int eventsPerConnection = 200;
+        InstanceEventDispatcher ordered = new InstanceEventDispatcher(new Gson(), executor, 0, 0, 0,
+                InstanceEventDispatcher.CONNECTION_ORDERING_KEY, 4);
+        Map<Long, List<Integer>> handled = new ConcurrentHashMap<>();
+        CountDownLatch latch = new CountDownLatch(connections * eventsPerConnection);
+        ordered.addMessageListener(m -> true, m -> {
+            handled.computeIfAbsent(m.getConnectionId(), id -> new CopyOnWriteArrayList<>())
+                    .add(Integer.parseInt(m.getPayload()));
+            latch.countDown();
+        });
+
+        for (int i = 0; i < eventsPerConnection; i++) {
+            for (long connectionId = 0; connectionId < connections; connectionId++) {
+                MessageDto dto = new MessageDto();
+                dto.setId(UUID.randomUUID());
+                dto.setConnectionId(connectionId);
+                dto.setPayload(Integer.toString(i));
+                WebhookInboundMessage message = new WebhookInboundMessage();
+                message.setData(dto);
+                assertTrue(ordered.submit(message, accepted -> assertTrue(accepted)));
+            }
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(connections, handled.size());
+        for (List<Integer> payloads : handled.values()) {
+            for (int i = 0; i < eventsPerConnection; i++) {
+                assertEquals(i, (int) payloads.get(i));
+            }
+        }
+    }
+
+    @Test
+    void testFlowControlSignalsMatchState() throws Exception {
+        ExecutorService events = Executors.newFixedThreadPool(8);
+        InstanceEventDispatcher limited = new InstanceEventDispatcher(new Gson(), events, 0, 2, 1);
+        // signaled under lock, so list keeps order, in which signals would be sent
+        List<Boolean> signals = new CopyOnWriteArrayList<>();
+        limited.setFlowControlListener(paused -> {
+            // slow signal lets concurrent state change overtake it, if they aren't serialized
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+            signals.add(paused);
+        });
+        limited.addMessageListener(m -> true, m -> {
+        });
+
+        ExecutorService submitters = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            submitters.execute(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    MessageDto dto = new MessageDto();
+                    dto.setId(UUID.randomUUID());
+                    WebhookInboundMessage message = new WebhookInboundMessage();
+                    message.setData(dto);
+                    limited.submit(message, accepted -> {
+                    });
+                }
+            });
+        }
+        submitters.shutdown();
+        assertTrue(submitters.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(limited.awaitPendingEvents(TimeUnit.SECONDS.toMillis(10)));
+        events.shutdownNow();
+
+        // waits for the last signal, that may be still in progress
+        limited.signalFlowControl(Assertions::assertFalse);
+        // pause and resume alternate and the last signal resumes idle instance
+        assertEquals(0, signals.size() % 2, "Last signal doesn't resume delivery: " + signals.size());
+        for (int i = 0; i < signals.size(); i++) {
+            assertEquals(i % 2 == 0, signals.get(i), "Signal #" + i + " is out of order");
+        }
+    }
+
+    @Test
+    void testBatchListenerConsumesBySizeAndLinger() throws Exception {
+        BlockingQueue<List<Message>> batches = new LinkedBlockingQueue<>();
+        dispatcher.addBatchMessageListener(m -> true, batches::add, 3, 100);
+
+        for (int i = 0; i < 4; i++) {
+            MessageDto dto = new MessageDto();
+            dto.setId(UUID.randomUUID());
+            WebhookInboundMessage message = new WebhookInboundMessage();
+            message.setData(dto);
+            assertTrue(dispatcher.submit(message, accepted -> assertTrue(accepted)));
+        }
+
+        // first batch is consumed by size and the rest by linger
+        assertEquals(3, batches.poll(10, TimeUnit.SECONDS).size());
+        assertEquals(1, batches.poll(10, TimeUnit.SECONDS).size());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (dispatcher.getPendingEvents() > 0) {
+            assertTrue(System.nanoTime() < deadline, "Batched events are still pending");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void testDuplicateMessageDropped() throws Exception {
+        InstanceEventDispatcher deduplicating = new InstanceEventDispatcher(new Gson(), executor, 0, 0, 0, null, 0,
+                new MessageDeduplicator(TimeUnit.MINUTES.toMillis(1), 100));
+        BlockingQueue<Message> consumed = new LinkedBlockingQueue<>();
+        deduplicating.addMessageListener(m -> true, consumed::add);
+
+        MessageDto dto = new MessageDto();
+        dto.setId(UUID.randomUUID());
+        WebhookInboundMessage message = new WebhookInboundMessage();
+        message.setData(dto);
+        BlockingQueue<Boolean> acks = new LinkedBlockingQueue<>();
+        assertTrue(deduplicating.submit(message, acks::add));
+        assertTrue(deduplicating.submit(message, acks::add));
+
+        assertTrue(acks.poll(10, TimeUnit.SECONDS));
+        assertTrue(acks.poll(10, TimeUnit.SECONDS));
+        assertEquals(dto.getId(), consumed.poll(10, TimeUnit.SECONDS).getId());
+        assertNull(consumed.poll(100, TimeUnit.MILLISECONDS));
+        assertEquals(1, deduplicating.getDeduplicator().getDuplicateCount());
+    }
+}
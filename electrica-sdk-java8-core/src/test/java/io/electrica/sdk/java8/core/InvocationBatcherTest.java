@@ -0,0 +1,124 @@
+package io.electrica.sdk.java8.core;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import io.electrica.sdk.java8.api.Callback;
+import io.electrica.sdk.java8.api.exception.IntegrationException;
+import io.electrica.sdk.java8.api.exception.TransportException;
+import io.electrica.sdk.java8.api.http.Request;
+import okhttp3.mockwebserver.MockResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvocationBatcherTest {
+
+    private static final int MAX_BATCH_SIZE = 10;
+    private static final long LINGER_MILLIS = 50;
+
+    private final Gson gson = new Gson();
+
+    private StandInServer server;
+    private SingleInstanceHttpModule httpModule;
+    private UUID instanceId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new StandInServer();
+        httpModule = new SingleInstanceHttpModule(server.getApiUrl());
+        httpModule.setInvocationBatching(MAX_BATCH_SIZE, LINGER_MILLIS, TimeUnit.MILLISECONDS);
+        instanceId = UUID.randomUUID();
+        httpModule.initialize(instanceId, "test", "key");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        httpModule.close();
+        server.close();
+    }
+
+    @Test
+    void testInvocationsBatchedPerConnection() throws Exception {
+        AtomicInteger batchCalls = new AtomicInteger();
+        server.handle(SingleInstanceHttpModule.INVOKE_BATCH_PATH, request -> {
+            batchCalls.incrementAndGet();
+            JsonArray requests = gson.fromJson(request.getBody().readUtf8(), JsonArray.class);
+            assertTrue(requests.size() <= MAX_BATCH_SIZE);
+            JsonArray results = new JsonArray();
+            for (JsonElement element : requests) {
+                JsonObject result = new JsonObject();
+                result.addProperty("success", true);
+                result.addProperty("result", element.getAsJsonObject().get("connectionId").getAsLong() + ":" +
+                        element.getAsJsonObject().get("action").getAsString());
+                results.add(result);
+            }
+            return new MockResponse().setBody(gson.toJson(results));
+        });
+
+        Map<String, String> results = new ConcurrentHashMap<>();
+        CountDownLatch latch = new CountDownLatch(30);
+        for (int i = 0; i < 25; i++) {
+            submit(1L, "action-" + i, results, latch);
+        }
+        for (int i = 0; i < 5; i++) {
+            submit(2L, "action-" + i, results, latch);
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        // 2 full batches and 1 lingering for first connection, 1 lingering for second
+        assertEquals(4, batchCalls.get());
+        for (int i = 0; i < 25; i++) {
+            assertEquals("1:action-" + i, results.get("1:action-" + i));
+        }
+        for (int i = 0; i < 5; i++) {
+            assertEquals("2:action-" + i, results.get("2:action-" + i));
+        }
+    }
+
+    @Test
+    void testBatchFailureReportedToEachCallback() throws Exception {
+        server.handle(SingleInstanceHttpModule.INVOKE_BATCH_PATH, request -> new MockResponse().setResponseCode(500));
+
+        Map<String, String> results = new ConcurrentHashMap<>();
+        CountDownLatch latch = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            submit(1L, "action-" + i, results, latch);
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(TransportException.CODE, results.get("1:action-" + i));
+        }
+    }
+
+    private void submit(Long connectionId, String action, Map<String, String> results, CountDownLatch latch)
+            throws IOException {
+        String key = connectionId + ":" + action;
+        Request request = new Request(instanceId, connectionId, action, null, null);
+        httpModule.submitJob(instanceId, request, String.class, new Callback<String>() {
+            @Override
+            public void onResponse(String result) {
+                results.put(key, result);
+                latch.countDown();
+            }
+
+            @Override
+            public void onFailure(IntegrationException exception) {
+                results.put(key, exception.getCode());
+                latch.countDown();
+            }
+        });
+    }
+}
@@ -0,0 +1,107 @@
+package io.electrica.sdk.java8.core;
+
+import io.electrica.sdk.java8.api.Callback;
+import io.electrica.sdk.java8.api.exception.IntegrationException;
+import io.electrica.sdk.java8.api.exception.TransportException;
+import io.electrica.sdk.java8.api.http.Request;
+import okhttp3.mockwebserver.MockResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvocationRetryTest {
+
+    private static final String IDEMPOTENT_ACTION = "get";
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final RetryStrategy.Budget budget = new RetryStrategy.Budget(
+            new RetryStrategy.DecorrelatedJitter(3, 10, 50, TimeUnit.MILLISECONDS), 3, 1, TimeUnit.HOURS);
+
+    private StandInServer server;
+    private SingleInstanceHttpModule httpModule;
+    private UUID instanceId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new StandInServer();
+        httpModule = new SingleInstanceHttpModule(server.getApiUrl());
+        httpModule.setInvocationRetry(budget, request -> IDEMPOTENT_ACTION.equals(request.getAction()));
+        instanceId = UUID.randomUUID();
+        httpModule.initialize(instanceId, "test", "key");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        httpModule.close();
+        server.close();
+    }
+
+    @Test
+    void testIdempotentInvocationRetriedOnServerError() throws Exception {
+        failFirstRequests(2, 503);
+
+        assertEquals("pong", submit(IDEMPOTENT_ACTION));
+        assertEquals(3, requests.get());
+        assertEquals(1, budget.getAvailable());
+    }
+
+    @Test
+    void testNotIdempotentInvocationNotRetried() throws Exception {
+        failFirstRequests(2, 503);
+
+        assertTrue(submit("post") instanceof TransportException);
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void testClientErrorNotRetried() throws Exception {
+        failFirstRequests(2, 400);
+
+        assertTrue(submit(IDEMPOTENT_ACTION) instanceof TransportException);
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void testRetriesLimitedByBudget() throws Exception {
+        failFirstRequests(Integer.MAX_VALUE, 503);
+
+        // three retries of the first invocation exhaust budget, so the second one isn't retried
+        assertTrue(submit(IDEMPOTENT_ACTION) instanceof TransportException);
+        assertEquals(4, requests.get());
+        assertTrue(submit(IDEMPOTENT_ACTION) instanceof TransportException);
+        assertEquals(5, requests.get());
+    }
+
+    private void failFirstRequests(int failures, int code) {
+        server.handle(SingleInstanceHttpModule.INVOKE_PATH, request -> requests.incrementAndGet() <= failures ?
+                new MockResponse().setResponseCode(code) :
+                new MockResponse().setBody("{\"success\":true,\"result\":\"pong\"}"));
+    }
+
+    private Object submit(String action) throws Exception {
+        BlockingQueue<Object> results = new ArrayBlockingQueue<>(1);
+        Request request = new Request(instanceId, 1L, action, null, null);
+        httpModule.submitJob(instanceId, request, String.class, new Callback<String>() {
+            @Override
+            public void onResponse(String result) {
+                results.add(result);
+            }
+
+            @Override
+            public void onFailure(IntegrationException exception) {
+                results.add(exception);
+            }
+        });
+        Object result = results.poll(10, TimeUnit.SECONDS);
+        assertNotNull(result, "Invocation isn't completed");
+        return result;
+    }
+}
@@ -0,0 +1,98 @@
+package io.electrica.sdk.java8.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyedExecutorTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testTasksOfKeyExecutedSeriallyInOrder() throws Exception {
+        int keys = 8;
+        int tasksPerKey = 1000;
+        KeyedExecutor keyedExecutor = new KeyedExecutor(executor, 4);
+        List<List<Integer>> executed = new ArrayList<>();
+        AtomicInteger[] running = new AtomicInteger[keys];
+        for (int k = 0; k < keys; k++) {
+            executed.add(new CopyOnWriteArrayList<>());
+            running[k] = new AtomicInteger();
+        }
+        AtomicInteger overlaps = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(keys * tasksPerKey);
+
+        for (int i = 0; i < tasksPerKey; i++) {
+            for (int k = 0; k < keys; k++) {
+                int key = k;
+                int sequence = i;
+                keyedExecutor.execute("key-" + key, () -> {
+                    if (running[key].incrementAndGet() != 1) {
+                        overlaps.incrementAndGet();
+                    }
+                    executed.get(key).add(sequence);
+                    running[key].decrementAndGet();
+                    latch.countDown();
+                });
+            }
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(0, overlaps.get());
+        for (List<Integer> sequences : executed) {
+            assertEquals(tasksPerKey, sequences.size());
+            for (int i = 0; i < tasksPerKey; i++) {
+                assertEquals(i, (int) sequences.get(i));
+            }
+        }
+    }
+
+    @Test
+    void testDifferentKeysExecutedInParallel() throws Exception {
+        KeyedExecutor keyedExecutor = new KeyedExecutor(executor, 16);
+        // keys of different lanes, both tasks must run at the same time to pass barrier
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        CountDownLatch latch = new CountDownLatch(2);
+        for (int key = 0; key < 2; key++) {
+            keyedExecutor.execute(key, () -> {
+                try {
+                    barrier.await(10, TimeUnit.SECONDS);
+                    latch.countDown();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testFailedTaskDoesNotBlockLane() throws Exception {
+        KeyedExecutor keyedExecutor = new KeyedExecutor(executor, 1);
+        CountDownLatch latch = new CountDownLatch(1);
+        keyedExecutor.execute(1, () -> {
+            throw new IllegalStateException("test");
+        });
+        keyedExecutor.execute(1, latch::countDown);
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testRejectedAfterShutdown() {
+        KeyedExecutor keyedExecutor = new KeyedExecutor(executor, 2);
+        executor.shutdown();
+        assertThrows(RejectedExecutionException.class, () -> keyedExecutor.execute(1, () -> {
+        }));
+    }
+}
@@ -0,0 +1,55 @@
+package io.electrica.sdk.java8.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongObjectHashMapTest {
+
+    @Test
+    void testBehavesAsHashMap() {
+        Random random = new Random(42);
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        Map<Long, String> expected = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            // narrow key range to have many collisions, removals and re-insertions
+            long key = random.nextInt(2_000) - 1_000;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                String value = "v" + i;
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (long key = -1_000; key < 1_000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+
+    @Test
+    void testCopyIsIndependent() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        map.put(Long.MIN_VALUE, "min");
+        map.put(0, "zero");
+
+        LongObjectHashMap<String> copy = map.copy();
+        copy.remove(0);
+        copy.put(Long.MAX_VALUE, "max");
+
+        assertEquals("zero", map.get(0));
+        assertNull(map.get(Long.MAX_VALUE));
+        assertEquals("min", copy.get(Long.MIN_VALUE));
+        assertEquals(2, map.size());
+        assertEquals(2, copy.size());
+    }
+
+    @Test
+    void testNullValueNotPermitted() {
+        assertThrows(NullPointerException.class, () -> new LongObjectHashMap<String>().put(1, null));
+    }
+}
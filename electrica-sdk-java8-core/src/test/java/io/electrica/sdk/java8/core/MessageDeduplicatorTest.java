@@ -0,0 +1,60 @@
+package io.electrica.sdk.java8.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageDeduplicatorTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void testDuplicateDetected() {
+        MessageDeduplicator deduplicator = new MessageDeduplicator(1000, 100, clock::get);
+        UUID id = UUID.randomUUID();
+
+        assertFalse(deduplicator.isDuplicate(id));
+        assertTrue(deduplicator.isDuplicate(id));
+        assertFalse(deduplicator.isDuplicate(UUID.randomUUID()));
+
+        assertEquals(3, deduplicator.getCheckedCount());
+        assertEquals(1, deduplicator.getDuplicateCount());
+        assertEquals(1.0 / 3, deduplicator.getHitRate(), 1e-9);
+    }
+
+    @Test
+    void testIdRememberedDuringWindow() {
+        MessageDeduplicator deduplicator = new MessageDeduplicator(1000, 100, clock::get);
+        UUID id = UUID.randomUUID();
+        assertFalse(deduplicator.isDuplicate(id));
+
+        // id moved to previous generation, but still remembered
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1500));
+        assertTrue(deduplicator.isDuplicate(id));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(2000));
+        assertFalse(deduplicator.isDuplicate(id));
+    }
+
+    @Test
+    void testMemoryBoundedByMaxEntries() {
+        MessageDeduplicator deduplicator = new MessageDeduplicator(1000, 100, clock::get);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            assertFalse(deduplicator.isDuplicate(id));
+        }
+
+        // generations are replaced by size, so only latest ids are remembered
+        assertTrue(deduplicator.getRotationCount() >= 18);
+        assertTrue(deduplicator.isDuplicate(ids.get(ids.size() - 1)));
+        assertFalse(deduplicator.isDuplicate(ids.get(0)));
+    }
+}
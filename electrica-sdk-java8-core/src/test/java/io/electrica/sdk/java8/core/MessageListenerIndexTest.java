@@ -0,0 +1,76 @@
+package io.electrica.sdk.java8.core;
+
+import io.electrica.sdk.java8.api.http.Message;
+import io.electrica.sdk.java8.api.http.ScopedMessageFilter;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageListenerIndexTest {
+
+    private static final String ERN = "ern://echo:test:1_0";
+
+    @Test
+    void testScopedListenersFoundByKey() {
+        MessageListenerIndex.Listener connector = listener(ScopedMessageFilter.connector(ERN, m -> true));
+        MessageListenerIndex.Listener connection = listener(ScopedMessageFilter.connection(42L, m -> true));
+        MessageListenerIndex.Listener custom = listener(m -> true);
+        MessageListenerIndex index = MessageListenerIndex.EMPTY.with(connector).with(connection).with(custom);
+
+        assertContainsOnly(index.lookup(Message.Scope.Connector, ERN.toUpperCase(), null), connector, custom);
+        assertContainsOnly(index.lookup(Message.Scope.Connection, ERN, 42L), connection, custom);
+        assertContainsOnly(index.lookup(Message.Scope.Connection, null, 43L), custom);
+        assertContainsOnly(index.lookup(Message.Scope.Connector, "ern://other", null), custom);
+        assertContainsOnly(index.lookup(Message.Scope.Custom, ERN, 42L), custom);
+    }
+
+    @Test
+    void testResidualFilterExcludesScope() {
+        Predicate<Message> filter = m -> true;
+        MessageListenerIndex.Listener listener = listener(ScopedMessageFilter.connection(1L, filter));
+
+        assertSame(filter, listener.getResidualFilter());
+        assertEquals(1L, (long) listener.getConnectionId());
+    }
+
+    @Test
+    void testScopeWithoutKeyNotIndexed() {
+        ScopedMessageFilter filter = ScopedMessageFilter.connection(null, m -> true);
+        MessageListenerIndex.Listener listener = listener(filter);
+        MessageListenerIndex index = MessageListenerIndex.EMPTY.with(listener);
+
+        assertSame(filter, listener.getResidualFilter());
+        assertContainsOnly(index.lookup(Message.Scope.Connection, null, 1L), listener);
+    }
+
+    @Test
+    void testRemovalKeepsPreviousIndexIntact() {
+        MessageListenerIndex.Listener first = listener(ScopedMessageFilter.connection(1L, m -> true));
+        MessageListenerIndex.Listener second = listener(ScopedMessageFilter.connection(1L, m -> true));
+        MessageListenerIndex full = MessageListenerIndex.EMPTY.with(first).with(second);
+
+        MessageListenerIndex reduced = full.without(first);
+        assertContainsOnly(reduced.lookup(Message.Scope.Connection, null, 1L), second);
+        assertContainsOnly(reduced.without(second).lookup(Message.Scope.Connection, null, 1L));
+        assertContainsOnly(full.lookup(Message.Scope.Connection, null, 1L), first, second);
+    }
+
+    private static MessageListenerIndex.Listener listener(Predicate<Message> filter) {
+        return new MessageListenerIndex.Listener(UUID.randomUUID(), filter, m -> {
+        });
+    }
+
+    private static void assertContainsOnly(
+            List<MessageListenerIndex.Listener> actual,
+            MessageListenerIndex.Listener... expected
+    ) {
+        assertEquals(expected.length, actual.size(), "Unexpected listeners: " + actual);
+        for (MessageListenerIndex.Listener listener : expected) {
+            assertTrue(actual.contains(listener));
+        }
+    }
+}
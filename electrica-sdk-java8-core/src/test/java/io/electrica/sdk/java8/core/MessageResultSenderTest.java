@@ -0,0 +1,202 @@
+package io.electrica.sdk.java8.core;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import io.electrica.sdk.java8.core.dto.MessageDto;
+import io.electrica.sdk.java8.core.dto.MessageImpl;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.MockResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageResultSenderTest {
+
+    private static final long RESPONSE_DELAY_MILLIS = 300;
+
+    private final Gson gson = new Gson();
+
+    private StandInServer server;
+    private SingleInstanceHttpModule httpModule;
+    private UUID instanceId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new StandInServer();
+        httpModule = new SingleInstanceHttpModule(server.getApiUrl());
+        httpModule.setMessageResultRetryStrategy(new RetryStrategy.Linear(3, 10, TimeUnit.MILLISECONDS));
+        instanceId = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        httpModule.close();
+        server.close();
+    }
+
+    @Test
+    void testResultsSentInBackgroundAndCoalesced() throws Exception {
+        httpModule.setMessageResultSending(100, 50, 1);
+        httpModule.initialize(instanceId, "test", "key");
+        AtomicInteger batchedResults = new AtomicInteger();
+        server.handle(SingleInstanceHttpModule.MESSAGE_RESULT_PATH, request -> new MockResponse()
+                .setResponseCode(202)
+                .setHeadersDelay(RESPONSE_DELAY_MILLIS, TimeUnit.MILLISECONDS));
+        server.handle(SingleInstanceHttpModule.MESSAGE_RESULT_BATCH_PATH, request -> {
+            JsonArray results = gson.fromJson(request.getBody().readUtf8(), JsonArray.class);
+            batchedResults.addAndGet(results.size());
+            return new MockResponse().setResponseCode(202);
+        });
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 20; i++) {
+            httpModule.sendMessageResult(instanceId, createMessage(), "result");
+        }
+        long sendMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(sendMillis < RESPONSE_DELAY_MILLIS, "Send blocked caller for " + sendMillis + "ms");
+
+        MessageResultSender sender = httpModule.getMessageResultSender(instanceId);
+        await(() -> sender.getSentCount() == 20);
+        // first result sent alone, others queued while it was in flight
+        assertEquals(19, batchedResults.get());
+        assertEquals(2, sender.getRequestCount());
+        assertEquals(0, sender.getQueueSize());
+        assertEquals(0, sender.getInFlight());
+    }
+
+    @Test
+    void testServerErrorRetried() throws Exception {
+        httpModule.initialize(instanceId, "test", "key");
+        AtomicInteger calls = new AtomicInteger();
+        server.handle(SingleInstanceHttpModule.MESSAGE_RESULT_PATH, request ->
+                new MockResponse().setResponseCode(calls.incrementAndGet() <= 2 ? 503 : 202));
+
+        httpModule.sendMessageResult(instanceId, createMessage(), "result");
+
+        MessageResultSender sender = httpModule.getMessageResultSender(instanceId);
+        await(() -> sender.getSentCount() == 1);
+        assertEquals(2, sender.getRetryCount());
+        assertEquals(3, sender.getRequestCount());
+        assertEquals(0, sender.getFailedCount());
+    }
+
+    @Test
+    void testClientErrorNotRetried() throws Exception {
+        httpModule.initialize(instanceId, "test", "key");
+        server.handle(SingleInstanceHttpModule.MESSAGE_RESULT_PATH, request ->
+                new MockResponse().setResponseCode(400));
+
+        httpModule.sendMessageResult(instanceId, createMessage(), "result");
+
+        MessageResultSender sender = httpModule.getMessageResultSender(instanceId);
+        await(() -> sender.getFailedCount() == 1);
+        assertEquals(0, sender.getRetryCount());
+        assertEquals(1, sender.getRequestCount());
+    }
+
+    @Test
+    void testFullQueueRejectsResult() throws Exception {
+        httpModule.setMessageResultSending(2, 1, 1);
+        httpModule.initialize(instanceId, "test", "key");
+        CountDownLatch release = new CountDownLatch(1);
+        server.handle(SingleInstanceHttpModule.MESSAGE_RESULT_PATH, request -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new MockResponse().setResponseCode(202);
+        });
+
+        MessageResultSender sender = httpModule.getMessageResultSender(instanceId);
+        // first is in flight, next two are queued
+        for (int i = 0; i < 3; i++) {
+            httpModule.sendMessageResult(instanceId, createMessage(), "result");
+        }
+        assertThrows(IOException.class, () -> httpModule.sendMessageResult(instanceId, createMessage(), "result"));
+        assertEquals(2, sender.getQueueSize());
+        assertEquals(1, sender.getRejectedCount());
+
+        release.countDown();
+        await(() -> sender.getSentCount() == 3);
+    }
+
+    @Test
+    void testResultOfListenerSentOnClose() throws Exception {
+        CompletableFuture<WebSocket> serverWebSocket = new CompletableFuture<>();
+        server.onWebSocket(new WebSocketListener() {
+            @Override
+            public void onOpen(WebSocket webSocket, Response response) {
+                serverWebSocket.complete(webSocket);
+            }
+
+            @Override
+            public void onClosing(WebSocket webSocket, int code, String reason) {
+                webSocket.close(code, reason);
+            }
+        });
+        BlockingQueue<String> results = new LinkedBlockingQueue<>();
+        server.handle(SingleInstanceHttpModule.MESSAGE_RESULT_PATH, request -> {
+            results.add(request.getBody().readUtf8());
+            return new MockResponse().setResponseCode(202);
+        });
+        httpModule.initialize(instanceId, "test", "key");
+        CountDownLatch received = new CountDownLatch(1);
+        httpModule.addMessageListener(instanceId, m -> true, m -> {
+            received.countDown();
+            try {
+                // result is returned while instance is being closed
+                Thread.sleep(RESPONSE_DELAY_MILLIS);
+                httpModule.sendMessageResult(instanceId, m, "late");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        serverWebSocket.get(10, TimeUnit.SECONDS).send("{\"@type\":\"webhook\",\"id\":\"" + UUID.randomUUID() +
+                "\",\"data\":{\"id\":\"" + UUID.randomUUID() + "\",\"scope\":\"Custom\",\"expectedResult\":true," +
+                "\"payload\":\"{}\"}}");
+        assertTrue(received.await(10, TimeUnit.SECONDS));
+        httpModule.close();
+
+        // close awaits listener and sends its result
+        String body = results.poll(100, TimeUnit.MILLISECONDS);
+        assertNotNull(body);
+        assertEquals("late", gson.fromJson(body, JsonObject.class).get("payload").getAsString());
+    }
+
+    private MessageImpl createMessage() {
+        MessageDto dto = new MessageDto();
+        dto.setId(UUID.randomUUID());
+        dto.setWebhookId(UUID.randomUUID());
+        dto.setWebhookServiceId(UUID.randomUUID());
+        dto.setExpectedResult(true);
+        return new MessageImpl(gson, dto);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package io.electrica.sdk.java8.core;
+
+import com.google.gson.Gson;
+import io.electrica.sdk.java8.api.Callback;
+import io.electrica.sdk.java8.api.exception.IntegrationException;
+import io.electrica.sdk.java8.api.http.Request;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import okio.GzipSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Measures bytes on wire of invocation requests with and without compression against stand-in server.
+ */
+@Slf4j
+class RequestCompressionTest {
+
+    private static final String COMPRESSED_ERN = "ern://brassring:application:1_0";
+    private static final String PLAIN_ERN = "ern://echo:test:1_0";
+    private static final long THRESHOLD_BYTES = 1024;
+
+    private StandInServer server;
+    private SingleInstanceHttpModule httpModule;
+    private UUID instanceId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new StandInServer();
+        server.handle(SingleInstanceHttpModule.CONNECTIONS_PATH, request -> {
+            String ern = request.getRequestUrl().queryParameter("ern");
+            long id = COMPRESSED_ERN.equals(ern) ? 1 : COMPRESSED_ERN.equalsIgnoreCase(ern) ? 3 : 2;
+            return new MockResponse().setBody("[{\"id\":" + id + ",\"name\":\"default\"}]");
+        });
+        server.handle(SingleInstanceHttpModule.INVOKE_PATH, request -> new MockResponse()
+                .setBody("{\"success\":true}"));
+
+        httpModule = new SingleInstanceHttpModule(server.getApiUrl());
+        httpModule.setRequestCompression(RequestCompressionInterceptor.Encoding.Gzip, THRESHOLD_BYTES, COMPRESSED_ERN);
+        instanceId = UUID.randomUUID();
+        httpModule.initialize(instanceId, "test", "key");
+
+        httpModule.getConnections(instanceId, null, COMPRESSED_ERN);
+        httpModule.getConnections(instanceId, null, PLAIN_ERN);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        httpModule.close();
+        server.close();
+    }
+
+    @Test
+    void testLargePayloadCompressed() throws Exception {
+        RecordedRequest compressed = invoke(1L, createPayload(200));
+        RecordedRequest plain = invoke(2L, createPayload(200));
+
+        assertEquals("gzip", compressed.getHeader(RequestCompressionInterceptor.CONTENT_ENCODING));
+        assertNull(plain.getHeader(RequestCompressionInterceptor.CONTENT_ENCODING));
+
+        Buffer decompressed = new Buffer();
+        decompressed.writeAll(new GzipSource(compressed.getBody()));
+        String plainJson = plain.getBody().readUtf8();
+        assertEquals(plainJson.replace("\"connectionId\":2", "\"connectionId\":1"), decompressed.readUtf8());
+
+        long savedBytes = plain.getBodySize() - compressed.getBodySize();
+        log.info("Request body on wire: {} bytes plain, {} bytes gzip, {} bytes ({}%) saved",
+                plain.getBodySize(), compressed.getBodySize(), savedBytes, savedBytes * 100 / plain.getBodySize());
+        assertTrue(compressed.getBodySize() * 5 < plain.getBodySize());
+    }
+
+    @Test
+    void testErnOptInMatchedIgnoringCase() throws Exception {
+        httpModule.getConnections(instanceId, null, COMPRESSED_ERN.toUpperCase(Locale.ROOT));
+
+        RecordedRequest request = invoke(3L, createPayload(200));
+
+        assertEquals("gzip", request.getHeader(RequestCompressionInterceptor.CONTENT_ENCODING));
+    }
+
+    @Test
+    void testSmallPayloadNotCompressed() throws Exception {
+        RecordedRequest request = invoke(1L, createPayload(1));
+
+        assertNull(request.getHeader(RequestCompressionInterceptor.CONTENT_ENCODING));
+        assertTrue(request.getBodySize() < THRESHOLD_BYTES);
+    }
+
+    @Test
+    void testCompressedBodyCanBeWrittenTwice() throws Exception {
+        String json = "{\"payload\":\"" + String.join("", Collections.nCopies(200, "abcdef")) + "\"}";
+        okhttp3.Request request = new okhttp3.Request.Builder()
+                .url(server.getApiUrl())
+                .post(RequestBody.create(MediaType.parse("application/json"), json))
+                .tag(RequestCompressionInterceptor.Encoding.class, RequestCompressionInterceptor.Encoding.Gzip)
+                .build();
+        Interceptor.Chain chain = mock(Interceptor.Chain.class);
+        when(chain.request()).thenReturn(request);
+
+        new RequestCompressionInterceptor(THRESHOLD_BYTES).intercept(chain);
+
+        ArgumentCaptor<okhttp3.Request> captor = ArgumentCaptor.forClass(okhttp3.Request.class);
+        verify(chain).proceed(captor.capture());
+        // OkHttp writes body again on retry or redirect
+        for (int i = 0; i < 2; i++) {
+            Buffer written = new Buffer();
+            captor.getValue().body().writeTo(written);
+            Buffer decompressed = new Buffer();
+            decompressed.writeAll(new GzipSource(written));
+            assertEquals(json, decompressed.readUtf8());
+        }
+    }
+
+    @Test
+    void testLargeStreamedBodyCompressedWithoutBuffering() throws Exception {
+        List<Map<String, Object>> payload = createPayload(200);
+        Gson gson = new Gson();
+        okhttp3.Request request = new okhttp3.Request.Builder()
+                .url(server.getApiUrl())
+                .post(new GsonRequestBody(gson, MediaType.parse("application/json"), payload))
+                .tag(RequestCompressionInterceptor.Encoding.class, RequestCompressionInterceptor.Encoding.Gzip)
+                .build();
+        Interceptor.Chain chain = mock(Interceptor.Chain.class);
+        when(chain.request()).thenReturn(request);
+
+        // payload is about 27 KB, so it exceeds buffer limit
+        new RequestCompressionInterceptor(THRESHOLD_BYTES, 4 * THRESHOLD_BYTES).intercept(chain);
+
+        ArgumentCaptor<okhttp3.Request> captor = ArgumentCaptor.forClass(okhttp3.Request.class);
+        verify(chain).proceed(captor.capture());
+        okhttp3.Request compressed = captor.getValue();
+        assertEquals("gzip", compressed.header(RequestCompressionInterceptor.CONTENT_ENCODING));
+        assertEquals(-1, compressed.body().contentLength());
+        for (int i = 0; i < 2; i++) {
+            Buffer written = new Buffer();
+            compressed.body().writeTo(written);
+            Buffer decompressed = new Buffer();
+            decompressed.writeAll(new GzipSource(written));
+            assertEquals(gson.toJson(payload), decompressed.readUtf8());
+        }
+    }
+
+    @Test
+    void testSmallBodyOfKnownLengthNotBuffered() throws Exception {
+        okhttp3.Request request = new okhttp3.Request.Builder()
+                .url(server.getApiUrl())
+                .post(RequestBody.create(MediaType.parse("application/json"), "{}"))
+                .tag(RequestCompressionInterceptor.Encoding.class, RequestCompressionInterceptor.Encoding.Gzip)
+                .build();
+        Interceptor.Chain chain = mock(Interceptor.Chain.class);
+        when(chain.request()).thenReturn(request);
+
+        new RequestCompressionInterceptor(THRESHOLD_BYTES).intercept(chain);
+
+        verify(chain).proceed(same(request));
+    }
+
+    private RecordedRequest invoke(Long connectionId, Object payload) throws Exception {
+        BlockingQueue<Object> results = new ArrayBlockingQueue<>(1);
+        Request request = new Request(instanceId, connectionId, "update", null, payload);
+        httpModule.submitJob(instanceId, request, Void.class, new Callback<Void>() {
+            @Override
+            public void onResponse(Void result) {
+                results.add(Boolean.TRUE);
+            }
+
+            @Override
+            public void onFailure(IntegrationException exception) {
+                results.add(exception);
+            }
+        });
+        assertEquals(Boolean.TRUE, results.poll(10, TimeUnit.SECONDS));
+
+        // skip connections and websocket requests
+        RecordedRequest recorded;
+        do {
+            recorded = server.getServer().takeRequest(10, TimeUnit.SECONDS);
+            assertNotNull(recorded);
+        } while (!SingleInstanceHttpModule.INVOKE_PATH.equals(recorded.getPath()));
+        return recorded;
+    }
+
+    private static List<Map<String, Object>> createPayload(int size) {
+        List<Map<String, Object>> payload = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("applicationId", 100_000 + i);
+            item.put("status", "Interview scheduled");
+            item.put("comment", "Candidate passed the technical screening and moves to the next round");
+            payload.add(item);
+        }
+        return payload;
+    }
+}
@@ -0,0 +1,116 @@
+package io.electrica.sdk.java8.core;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class RetryStrategyTest {
+
+    @Test
+    void testExponentialDoublesUpToMaxDelay() {
+        RetryStrategy strategy = new RetryStrategy.Exponential(100, 1, 60, TimeUnit.SECONDS);
+        assertEquals(Optional.of(1000L), strategy.getDelay(1));
+        assertEquals(Optional.of(2000L), strategy.getDelay(2));
+        assertEquals(Optional.of(32000L), strategy.getDelay(6));
+        assertEquals(Optional.of(60000L), strategy.getDelay(7));
+        // doubling would overflow
+        assertEquals(Optional.of(60000L), strategy.getDelay(100));
+        assertEquals(Optional.empty(), strategy.getDelay(101));
+    }
+
+    @Test
+    void testDecorrelatedJitterBounds() {
+        RetryStrategy strategy = new RetryStrategy.DecorrelatedJitter(1000, 100, 10_000, TimeUnit.MILLISECONDS);
+        long previous = 0;
+        long max = 0;
+        for (int i = 1; i <= 1000; i++) {
+            long delay = strategy.getDelay(i, previous).get();
+            assertTrue(delay >= 100, "Delay below initial: " + delay);
+            assertTrue(delay <= Math.max(300, previous * 3), "Delay above three times previous: " + delay);
+            assertTrue(delay <= 10_000, "Delay above maximum: " + delay);
+            max = Math.max(max, delay);
+            previous = delay;
+        }
+        assertTrue(max > 5_000, "Delay doesn't grow: " + max);
+
+        long firstMax = 0;
+        for (int i = 0; i < 1000; i++) {
+            long first = strategy.getFirstDelay();
+            assertTrue(first >= 0 && first <= 100, "First delay out of range: " + first);
+            firstMax = Math.max(firstMax, first);
+        }
+        assertTrue(firstMax > 50, "First delay isn't random: " + firstMax);
+        assertEquals(Optional.empty(), strategy.getDelay(1001, previous));
+    }
+
+    @Test
+    void testBudgetGivesUpWhenExhausted() throws Exception {
+        RetryStrategy.Budget budget = new RetryStrategy.Budget(
+                new RetryStrategy.Linear(2, 10, TimeUnit.MILLISECONDS), 3, 1, TimeUnit.SECONDS);
+        // retries, that delegate gives up, don't take tokens
+        assertEquals(Optional.empty(), budget.getDelay(3));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Optional.of(10L), budget.getDelay(1));
+        }
+        assertEquals(Optional.empty(), budget.getDelay(1));
+
+        Thread.sleep(1200);
+        assertEquals(1, budget.getAvailable());
+        assertEquals(Optional.of(10L), budget.getDelay(2));
+        assertEquals(Optional.empty(), budget.getDelay(1));
+    }
+
+    /**
+     * Instances of fleet lose connection at the same moment on API restart and reconnect until API is back, attempts
+     * follow {@link WebSocketHandler}: the first one after {@link RetryStrategy#getFirstDelay()}, then retries. Load
+     * of API is the highest number of connection attempts within 100ms.
+     */
+    @Test
+    void testJitterSpreadsReconnectLoad() {
+        int clients = 1000;
+        long outageMillis = TimeUnit.SECONDS.toMillis(30);
+        int linearPeak = simulateReconnectPeak(
+                new RetryStrategy.Linear(30, 5, TimeUnit.SECONDS), clients, outageMillis);
+        int exponentialPeak = simulateReconnectPeak(
+                new RetryStrategy.Exponential(30, 1, 60, TimeUnit.SECONDS), clients, outageMillis);
+        int jitterPeak = simulateReconnectPeak(
+                new RetryStrategy.DecorrelatedJitter(30, 1, 60, TimeUnit.SECONDS), clients, outageMillis);
+        log.info("Peak of reconnects per 100ms of {} clients: linear {}, exponential {}, decorrelated jitter {}",
+                clients, linearPeak, exponentialPeak, jitterPeak);
+
+        assertEquals(clients, linearPeak);
+        assertEquals(clients, exponentialPeak);
+        assertTrue(jitterPeak < clients / 5, "Reconnects aren't spread: " + jitterPeak);
+    }
+
+    private static int simulateReconnectPeak(RetryStrategy strategy, int clients, long outageMillis) {
+        int[] attempts = new int[(int) (outageMillis / 100) * 10];
+        for (int client = 0; client < clients; client++) {
+            long delay = strategy.getFirstDelay();
+            long time = delay;
+            attempts[(int) (time / 100)]++;
+            // attempt fails while API is down
+            for (int retry = 1; time < outageMillis; retry++) {
+                Optional<Long> next = strategy.getDelay(retry, delay);
+                if (!next.isPresent()) {
+                    break;
+                }
+                delay = next.get();
+                time += delay;
+                if (time / 100 < attempts.length) {
+                    attempts[(int) (time / 100)]++;
+                }
+            }
+        }
+        int peak = 0;
+        for (int count : attempts) {
+            peak = Math.max(peak, count);
+        }
+        return peak;
+    }
+}
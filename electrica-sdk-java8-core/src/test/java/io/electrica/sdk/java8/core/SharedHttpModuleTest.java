@@ -0,0 +1,172 @@
+package io.electrica.sdk.java8.core;
+
+import io.electrica.sdk.java8.api.Callback;
+import io.electrica.sdk.java8.api.exception.IntegrationException;
+import io.electrica.sdk.java8.api.http.Request;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SharedHttpModuleTest {
+
+    private static final int INSTANCES = 10;
+
+    private StandInServer server;
+    private SharedHttpModule httpModule;
+    private final List<UUID> instanceIds = new ArrayList<>();
+    private final BlockingQueue<WebSocket> serverWebSockets = new LinkedBlockingQueue<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new StandInServer();
+        server.onWebSocket(new WebSocketListener() {
+            @Override
+            public void onOpen(WebSocket webSocket, Response response) {
+                serverWebSockets.add(webSocket);
+            }
+
+            @Override
+            public void onClosing(WebSocket webSocket, int code, String reason) {
+                webSocket.close(code, reason);
+            }
+        });
+        // echo access key of invocation
+        server.handle(SingleInstanceHttpModule.INVOKE_PATH, request -> new MockResponse()
+                .setBody("{\"success\":true,\"result\":\"" + request.getHeader("Authorization") + "\"}"));
+
+        httpModule = new SharedHttpModule(server.getApiUrl());
+        for (int i = 0; i < INSTANCES; i++) {
+            UUID instanceId = UUID.randomUUID();
+            httpModule.initialize(instanceId, "instance-" + i, "key-" + i);
+            instanceIds.add(instanceId);
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        httpModule.close();
+        server.close();
+    }
+
+    @Test
+    void testInvocationsRoutedByInstance() throws Exception {
+        for (int i = 0; i < INSTANCES; i++) {
+            assertEquals("Bearer key-" + i, invoke(instanceIds.get(i)));
+        }
+        assertEquals(INSTANCES, httpModule.getInstanceCount());
+    }
+
+    @Test
+    void testWebSocketPerInstance() throws Exception {
+        Set<String> connectedInstances = new HashSet<>();
+        while (connectedInstances.size() < INSTANCES) {
+            RecordedRequest request = server.getServer().takeRequest(10, TimeUnit.SECONDS);
+            assertNotNull(request);
+            if (WebSocketHandler.WEBSOCKETS_PATH.equals(request.getPath())) {
+                connectedInstances.add(request.getHeader(WebSocketHandler.INSTANCE_ID_HEADER));
+            }
+        }
+        for (UUID instanceId : instanceIds) {
+            assertTrue(connectedInstances.contains(instanceId.toString()));
+        }
+    }
+
+    @Test
+    void testCloseInstanceKeepsOthersWorking() throws Exception {
+        UUID closedId = instanceIds.get(0);
+        httpModule.close(closedId);
+
+        assertEquals(INSTANCES - 1, httpModule.getInstanceCount());
+        assertThrows(IllegalStateException.class, () -> invoke(closedId));
+        assertEquals("Bearer key-1", invoke(instanceIds.get(1)));
+    }
+
+    @Test
+    void testCloseInstanceSendsResultOfPendingListener() throws Exception {
+        BlockingQueue<String> results = new LinkedBlockingQueue<>();
+        server.handle(SingleInstanceHttpModule.MESSAGE_RESULT_PATH, request -> {
+            results.add(request.getBody().readUtf8());
+            return new MockResponse().setResponseCode(202);
+        });
+        UUID closedId = instanceIds.get(0);
+        CountDownLatch received = new CountDownLatch(1);
+        httpModule.addMessageListener(closedId, m -> true, m -> {
+            received.countDown();
+            try {
+                // result is returned while instance is being closed
+                Thread.sleep(300);
+                httpModule.sendMessageResult(closedId, m, "late");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        // message is delivered to all instances, but only closed one has listener
+        for (int i = 0; i < INSTANCES; i++) {
+            serverWebSockets.take().send("{\"@type\":\"webhook\",\"id\":\"" + UUID.randomUUID() +
+                    "\",\"data\":{\"id\":\"" + UUID.randomUUID() + "\",\"scope\":\"Custom\"," +
+                    "\"expectedResult\":true,\"payload\":\"{}\"}}");
+        }
+        assertTrue(received.await(10, TimeUnit.SECONDS));
+        httpModule.close(closedId);
+
+        String body = results.poll(100, TimeUnit.MILLISECONDS);
+        assertNotNull(body);
+        assertTrue(body.contains("\"payload\":\"late\""), body);
+        assertEquals(INSTANCES - 1, httpModule.getInstanceCount());
+    }
+
+    @Test
+    void testOptionsReadOncePerInstance() throws Exception {
+        BlockingQueue<String> asyncAuthorizations = new LinkedBlockingQueue<>();
+        server.handle(SingleInstanceHttpModule.INVOKE_ASYNC_PATH, request -> {
+            asyncAuthorizations.add(request.getHeader("Authorization"));
+            return new MockResponse().setResponseCode(400);
+        });
+        httpModule.setInvocationMode(InvocationMode.Async);
+        UUID asyncId = UUID.randomUUID();
+        httpModule.initialize(asyncId, "async", "key-async");
+
+        // instances initialized before don't observe changed options
+        assertEquals("Bearer key-0", invoke(instanceIds.get(0)));
+        assertTrue(invoke(asyncId) instanceof IntegrationException);
+        assertEquals("Bearer key-async", asyncAuthorizations.poll());
+        assertTrue(asyncAuthorizations.isEmpty());
+        assertEquals(InvocationMode.Async, httpModule.getOptions().getInvocationMode());
+    }
+
+    private Object invoke(UUID instanceId) throws Exception {
+        BlockingQueue<Object> results = new ArrayBlockingQueue<>(1);
+        Request request = new Request(instanceId, 1L, "ping", null, null);
+        httpModule.submitJob(instanceId, request, String.class, new Callback<String>() {
+            @Override
+            public void onResponse(String result) {
+                results.add(result);
+            }
+
+            @Override
+            public void onFailure(IntegrationException exception) {
+                results.add(exception);
+            }
+        });
+        return results.poll(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,80 @@
+package io.electrica.sdk.java8.core;
+
+import okhttp3.Headers;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Local stand-in of Electrica.io API based on {@link MockWebServer}, routes requests by path.
+ */
+class StandInServer implements AutoCloseable {
+
+    private final MockWebServer server = new MockWebServer();
+    private final Map<String, Function<RecordedRequest, MockResponse>> handlers = new ConcurrentHashMap<>();
+    private volatile WebSocketListener webSocketListener = new WebSocketListener() {
+        @Override
+        public void onClosing(WebSocket webSocket, int code, String reason) {
+            webSocket.close(code, reason);
+        }
+    };
+    private volatile Function<RecordedRequest, Headers> upgradeHeaders = request -> Headers.of();
+
+    StandInServer() throws IOException {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getRequestUrl().encodedPath();
+                if (WebSocketHandler.WEBSOCKETS_PATH.equals(path)) {
+                    MockResponse response = new MockResponse().withWebSocketUpgrade(webSocketListener);
+                    Headers headers = upgradeHeaders.apply(request);
+                    for (int i = 0; i < headers.size(); i++) {
+                        response.addHeader(headers.name(i), headers.value(i));
+                    }
+                    return response;
+                }
+                Function<RecordedRequest, MockResponse> handler = handlers.get(path);
+                return handler == null ? new MockResponse().setResponseCode(404) : handler.apply(request);
+            }
+        });
+        server.start();
+    }
+
+    String getApiUrl() {
+        String url = server.url("/").toString();
+        return url.substring(0, url.length() - 1);
+    }
+
+    MockWebServer getServer() {
+        return server;
+    }
+
+    void handle(String path, Function<RecordedRequest, MockResponse> handler) {
+        handlers.put(path, handler);
+    }
+
+    void onWebSocket(WebSocketListener listener) {
+        webSocketListener = listener;
+    }
+
+    /**
+     * @param upgradeHeaders extra headers of upgrade response by upgrade request
+     */
+    void onWebSocket(WebSocketListener listener, Function<RecordedRequest, Headers> upgradeHeaders) {
+        this.upgradeHeaders = upgradeHeaders;
+        webSocketListener = listener;
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+}
@@ -0,0 +1,155 @@
+package io.electrica.sdk.java8.core;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import io.electrica.sdk.java8.api.http.Message;
+import io.electrica.sdk.java8.core.dto.MessageDto;
+import io.electrica.sdk.java8.core.message.MessagePackCodec;
+import io.electrica.sdk.java8.core.message.WebhookInboundMessage;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okio.ByteString;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebSocketFrameEncodingTest {
+
+    private static final byte[] DICTIONARY = ("{\"correlationId\":\"\",\"accepted\":true}" +
+            "{\"@type\":\"webhook\",\"id\":\"").getBytes(StandardCharsets.UTF_8);
+
+    private final Gson gson = new Gson();
+    private final MessagePackCodec codec = new MessagePackCodec(gson);
+    private final FrameCompressor compressor = new FrameCompressor(DICTIONARY);
+    private final CompletableFuture<WebSocket> serverWebSocket = new CompletableFuture<>();
+    private final CompletableFuture<String> offeredEncoding = new CompletableFuture<>();
+    private final CompletableFuture<String> offeredDictionary = new CompletableFuture<>();
+    private final BlockingQueue<JsonObject> textAcks = new LinkedBlockingQueue<>();
+    private final BlockingQueue<JsonObject> binaryAcks = new LinkedBlockingQueue<>();
+    private final BlockingQueue<JsonObject> compressedAcks = new LinkedBlockingQueue<>();
+
+    private StandInServer server;
+    private SingleInstanceHttpModule httpModule;
+    private UUID instanceId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new StandInServer();
+        server.onWebSocket(new WebSocketListener() {
+            @Override
+            public void onOpen(WebSocket webSocket, Response response) {
+                // stand-in exposes upgrade request headers through response
+                String header = response.request().header(WebSocketHandler.INSTANCE_FRAME_ENCODING_HEADER);
+                offeredEncoding.complete(header == null ? "" : header);
+                offeredDictionary.complete(response.request().header(
+                        WebSocketHandler.INSTANCE_FRAME_DICTIONARY_HEADER));
+                serverWebSocket.complete(webSocket);
+            }
+
+            @Override
+            public void onMessage(WebSocket webSocket, String text) {
+                textAcks.add(gson.fromJson(text, JsonObject.class));
+            }
+
+            @Override
+            public void onMessage(WebSocket webSocket, ByteString bytes) {
+                if (!FrameCompressor.isCompressed(bytes)) {
+                    binaryAcks.add(codec.decode(bytes, JsonObject.class));
+                    return;
+                }
+                byte[] document = compressor.decompress(bytes);
+                compressedAcks.add(document[0] == '{' ?
+                        gson.fromJson(new String(document, StandardCharsets.UTF_8), JsonObject.class) :
+                        codec.decode(document, JsonObject.class));
+            }
+
+            @Override
+            public void onClosing(WebSocket webSocket, int code, String reason) {
+                webSocket.close(code, reason);
+            }
+        });
+
+        httpModule = new SingleInstanceHttpModule(server.getApiUrl());
+        httpModule.setWebSocketFrameEncoding(FrameEncoding.MessagePack);
+        httpModule.setWebSocketFrameCompression(DICTIONARY);
+        instanceId = UUID.randomUUID();
+        httpModule.initialize(instanceId, "test", "key");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        httpModule.close();
+        server.close();
+    }
+
+    @Test
+    void testBinaryAndTextFramesAckedInTheirEncoding() throws Exception {
+        BlockingQueue<Message> consumed = new LinkedBlockingQueue<>();
+        httpModule.addMessageListener(instanceId, m -> true, consumed::add);
+        WebSocket webSocket = serverWebSocket.get(10, TimeUnit.SECONDS);
+        assertEquals(FrameEncoding.MessagePack.getName(), offeredEncoding.get());
+
+        UUID binaryFrameId = UUID.randomUUID();
+        UUID binaryId = UUID.randomUUID();
+        webSocket.send(codec.encode(webhookFrame(binaryFrameId, binaryId)));
+        assertEquals(binaryId, consumed.poll(10, TimeUnit.SECONDS).getId());
+        JsonObject binaryAck = binaryAcks.poll(10, TimeUnit.SECONDS);
+        assertEquals(binaryFrameId.toString(), binaryAck.get("correlationId").getAsString());
+        assertTrue(binaryAck.get("accepted").getAsBoolean());
+
+        // JSON stays fallback, even if binary encoding offered
+        UUID textFrameId = UUID.randomUUID();
+        UUID textId = UUID.randomUUID();
+        webSocket.send(gson.toJson(webhookFrame(textFrameId, textId)));
+        assertEquals(textId, consumed.poll(10, TimeUnit.SECONDS).getId());
+        JsonObject textAck = textAcks.poll(10, TimeUnit.SECONDS);
+        assertEquals(textFrameId.toString(), textAck.get("correlationId").getAsString());
+        assertTrue(binaryAcks.isEmpty());
+        assertTrue(compressedAcks.isEmpty());
+    }
+
+    @Test
+    void testCompressedFramesAckedCompressed() throws Exception {
+        BlockingQueue<Message> consumed = new LinkedBlockingQueue<>();
+        httpModule.addMessageListener(instanceId, m -> true, consumed::add);
+        WebSocket webSocket = serverWebSocket.get(10, TimeUnit.SECONDS);
+        assertEquals(compressor.getDictionaryId(), offeredDictionary.get());
+
+        for (boolean json : new boolean[]{true, false}) {
+            UUID frameId = UUID.randomUUID();
+            UUID id = UUID.randomUUID();
+            JsonObject frame = webhookFrame(frameId, id);
+            webSocket.send(compressor.compress(json ?
+                    gson.toJson(frame).getBytes(StandardCharsets.UTF_8) :
+                    codec.encode(frame).toByteArray()));
+
+            assertEquals(id, consumed.poll(10, TimeUnit.SECONDS).getId());
+            JsonObject ack = compressedAcks.poll(10, TimeUnit.SECONDS);
+            assertEquals(frameId.toString(), ack.get("correlationId").getAsString());
+        }
+        assertTrue(textAcks.isEmpty());
+        assertTrue(binaryAcks.isEmpty());
+    }
+
+    private JsonObject webhookFrame(UUID frameId, UUID id) {
+        MessageDto dto = new MessageDto();
+        dto.setId(id);
+        dto.setExpectedResult(false);
+        WebhookInboundMessage message = new WebhookInboundMessage();
+        message.setId(frameId);
+        message.setData(dto);
+        JsonObject frame = gson.toJsonTree(message).getAsJsonObject();
+        frame.addProperty("@type", WebhookInboundMessage.TYPE);
+        return frame;
+    }
+}
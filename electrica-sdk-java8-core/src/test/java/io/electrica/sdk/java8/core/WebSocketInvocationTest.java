@@ -0,0 +1,188 @@
+package io.electrica.sdk.java8.core;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import io.electrica.sdk.java8.api.Callback;
+import io.electrica.sdk.java8.api.exception.IntegrationException;
+import io.electrica.sdk.java8.api.exception.TransportException;
+import io.electrica.sdk.java8.api.http.Request;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.MockResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static java.util.Objects.requireNonNull;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebSocketInvocationTest {
+
+    private static final int MAX_IN_FLIGHT = 4;
+    private static final int JOBS = 20;
+
+    private final Gson gson = new Gson();
+    private final CompletableFuture<WebSocket> serverWebSocket = new CompletableFuture<>();
+    private final BlockingQueue<JsonObject> invocationFrames = new LinkedBlockingQueue<>();
+
+    private StandInServer server;
+    private SingleInstanceHttpModule httpModule;
+    private UUID instanceId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new StandInServer();
+        server.onWebSocket(new WebSocketListener() {
+            @Override
+            public void onOpen(WebSocket webSocket, Response response) {
+                serverWebSocket.complete(webSocket);
+            }
+
+            @Override
+            public void onMessage(WebSocket webSocket, String text) {
+                JsonObject frame = gson.fromJson(text, JsonObject.class);
+                if (frame.has("@type") && "invocation".equals(frame.get("@type").getAsString())) {
+                    invocationFrames.add(frame);
+                }
+            }
+
+            @Override
+            public void onClosing(WebSocket webSocket, int code, String reason) {
+                webSocket.close(code, reason);
+            }
+        });
+        server.handle(SingleInstanceHttpModule.INVOKE_PATH, request -> new MockResponse()
+                .setBody("{\"success\":true,\"result\":\"http\"}"));
+
+        httpModule = new SingleInstanceHttpModule(server.getApiUrl());
+        httpModule.setInvocationMode(InvocationMode.WebSocket);
+        httpModule.setWebSocketMaxInFlight(MAX_IN_FLIGHT);
+        instanceId = UUID.randomUUID();
+        httpModule.initialize(instanceId, "test", "key");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        httpModule.close();
+        server.close();
+    }
+
+    @Test
+    void testInvocationsPipelinedWithinWindow() throws Exception {
+        WebSocket webSocket = serverWebSocket.get(10, TimeUnit.SECONDS);
+        awaitClientOpen();
+
+        Map<String, Object> results = new ConcurrentHashMap<>();
+        CountDownLatch latch = new CountDownLatch(JOBS);
+        for (int i = 0; i < JOBS; i++) {
+            submit("action-" + i, results, latch);
+        }
+
+        // window is full, so no more frames sent until one completed
+        BlockingQueue<JsonObject> outstanding = new LinkedBlockingQueue<>();
+        for (int i = 0; i < MAX_IN_FLIGHT; i++) {
+            outstanding.add(requireNonNull(invocationFrames.poll(10, TimeUnit.SECONDS)));
+        }
+        assertNull(invocationFrames.poll(200, TimeUnit.MILLISECONDS));
+
+        for (int i = 0; i < JOBS; i++) {
+            JsonObject frame = outstanding.poll();
+            assertNotNull(frame);
+            String action = frame.getAsJsonObject("data").get("action").getAsString();
+            webSocket.send("{\"@type\":\"result\",\"id\":\"" + UUID.randomUUID() + "\",\"data\":{" +
+                    "\"invocationId\":\"" + frame.get("id").getAsString() + "\"," +
+                    "\"success\":true,\"result\":\"" + action + "\"}}");
+
+            // each completion frees exactly one slot
+            if (i < JOBS - MAX_IN_FLIGHT) {
+                outstanding.add(requireNonNull(invocationFrames.poll(10, TimeUnit.SECONDS)));
+            }
+            assertTrue(invocationFrames.isEmpty());
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < JOBS; i++) {
+            assertEquals("action-" + i, results.get("action-" + i));
+        }
+        assertEquals(0, server.getServer().getRequestCount() - 1, "Only WebSocket upgrade request expected");
+    }
+
+    @Test
+    void testFallbackToHttpWhenWebSocketClosed() throws Exception {
+        serverWebSocket.get(10, TimeUnit.SECONDS).close(1001, "Going away");
+        // reconnect is delayed by retry strategy, so socket stays closed for a while
+        Thread.sleep(200);
+
+        Map<String, Object> results = new ConcurrentHashMap<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        submit("action", results, latch);
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals("http", results.get("action"));
+    }
+
+    @Test
+    void testInFlightFailedAndQueuedFallBackWhenWebSocketLost() throws Exception {
+        WebSocket webSocket = serverWebSocket.get(10, TimeUnit.SECONDS);
+        awaitClientOpen();
+
+        int jobs = MAX_IN_FLIGHT + 2;
+        Map<String, Object> results = new ConcurrentHashMap<>();
+        CountDownLatch latch = new CountDownLatch(jobs);
+        for (int i = 0; i < jobs; i++) {
+            submit("action-" + i, results, latch);
+        }
+        Set<String> inFlight = new HashSet<>();
+        for (int i = 0; i < MAX_IN_FLIGHT; i++) {
+            JsonObject frame = requireNonNull(invocationFrames.poll(10, TimeUnit.SECONDS));
+            inFlight.add(frame.getAsJsonObject("data").get("action").getAsString());
+        }
+        assertNull(invocationFrames.poll(200, TimeUnit.MILLISECONDS));
+
+        // results of sent invocations are lost with connection
+        webSocket.close(1001, "Going away");
+
+        // completed long before async result timeout
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < jobs; i++) {
+            String action = "action-" + i;
+            if (inFlight.contains(action)) {
+                // action may have been executed, so it isn't resent
+                assertTrue(results.get(action) instanceof TransportException, "Unexpected result: " +
+                        results.get(action));
+            } else {
+                assertEquals("http", results.get(action));
+            }
+        }
+        assertTrue(invocationFrames.isEmpty());
+    }
+
+    private void awaitClientOpen() throws InterruptedException {
+        // server side onOpen may be called before client side one
+        Thread.sleep(100);
+    }
+
+    private void submit(String action, Map<String, Object> results, CountDownLatch latch) throws Exception {
+        Request request = new Request(instanceId, 1L, action, null, null);
+        httpModule.submitJob(instanceId, request, String.class, new Callback<String>() {
+            @Override
+            public void onResponse(String result) {
+                results.put(action, result);
+                latch.countDown();
+            }
+
+            @Override
+            public void onFailure(IntegrationException exception) {
+                results.put(action, exception);
+                latch.countDown();
+            }
+        });
+    }
+}
@@ -0,0 +1,184 @@
+package io.electrica.sdk.java8.core;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import io.electrica.sdk.java8.api.http.Message;
+import io.electrica.sdk.java8.core.dto.MessageDto;
+import io.electrica.sdk.java8.core.message.WebhookInboundMessage;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.MockResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebSocketMessageResultTest {
+
+    private static final int SHARDS = 2;
+    private static final long ACK_LINGER_MILLIS = 2_000;
+
+    private final Gson gson = new Gson();
+    private final Map<String, WebSocket> serverWebSockets = new ConcurrentHashMap<>();
+    // frames in order of receipt by shard, that sent them
+    private final Map<String, BlockingQueue<JsonObject>> frames = new ConcurrentHashMap<>();
+    private final BlockingQueue<String> httpResults = new LinkedBlockingQueue<>();
+
+    private StandInServer server;
+    private SingleInstanceHttpModule httpModule;
+    private UUID instanceId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new StandInServer();
+        server.onWebSocket(new WebSocketListener() {
+            @Override
+            public void onOpen(WebSocket webSocket, Response response) {
+                // stand-in exposes upgrade request headers through response
+                serverWebSockets.put(response.request().header(WebSocketHandler.INSTANCE_SHARD_HEADER), webSocket);
+            }
+
+            @Override
+            public void onMessage(WebSocket webSocket, String text) {
+                for (Map.Entry<String, WebSocket> entry : serverWebSockets.entrySet()) {
+                    if (entry.getValue() == webSocket) {
+                        framesOf(entry.getKey()).add(gson.fromJson(text, JsonObject.class));
+                    }
+                }
+            }
+
+            @Override
+            public void onClosing(WebSocket webSocket, int code, String reason) {
+                webSocket.close(code, reason);
+            }
+        });
+        server.handle(SingleInstanceHttpModule.MESSAGE_RESULT_PATH, request -> {
+            httpResults.add(request.getBody().readUtf8());
+            return new MockResponse().setResponseCode(202);
+        });
+
+        httpModule = new SingleInstanceHttpModule(server.getApiUrl());
+        httpModule.setMessageResultMode(MessageResultMode.WebSocket);
+        httpModule.setWebSocketShards(SHARDS);
+        // ack would linger, if result didn't push it out
+        httpModule.setAckBatching(100, ACK_LINGER_MILLIS, TimeUnit.MILLISECONDS);
+        instanceId = UUID.randomUUID();
+        httpModule.initialize(instanceId, "test", "key");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        httpModule.close();
+        server.close();
+    }
+
+    @Test
+    void testResultSentAfterAckThroughDeliveringShard() throws Exception {
+        httpModule.addMessageListener(instanceId, m -> true, m -> sendResult(m, "result"));
+        awaitShards();
+
+        UUID frameId = UUID.randomUUID();
+        UUID messageId = UUID.randomUUID();
+        long start = System.nanoTime();
+        serverWebSockets.get("1").send(webhookFrame(frameId, messageId));
+
+        JsonObject ack = framesOf("1").poll(10, TimeUnit.SECONDS);
+        assertNotNull(ack);
+        assertEquals(frameId.toString(), ack.get("correlationId").getAsString());
+        JsonObject result = framesOf("1").poll(10, TimeUnit.SECONDS);
+        assertNotNull(result);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < ACK_LINGER_MILLIS,
+                "Result waited for ack linger");
+        assertEquals("message-result", result.get("@type").getAsString());
+        JsonObject data = result.getAsJsonObject("data");
+        assertEquals(messageId.toString(), data.get("messageId").getAsString());
+        assertEquals(instanceId.toString(), data.get("sdkInstanceId").getAsString());
+        assertEquals("result", data.get("payload").getAsString());
+
+        assertNull(framesOf("0").poll(200, TimeUnit.MILLISECONDS));
+        assertTrue(httpResults.isEmpty());
+    }
+
+    @Test
+    void testFallbackToHttpWhenDeliveringShardClosed() throws Exception {
+        CountDownLatch received = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        httpModule.addMessageListener(instanceId, m -> true, m -> {
+            received.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sendResult(m, "result");
+        });
+        awaitShards();
+
+        UUID messageId = UUID.randomUUID();
+        WebSocket delivering = serverWebSockets.get("0");
+        delivering.send(webhookFrame(UUID.randomUUID(), messageId));
+        assertTrue(received.await(10, TimeUnit.SECONDS));
+        delivering.close(1001, "Going away");
+        // reconnect is delayed by retry strategy, so socket stays closed for a while
+        Thread.sleep(200);
+        release.countDown();
+
+        // other shard is open, but result isn't sent through connection, that didn't deliver message
+        String body = httpResults.poll(10, TimeUnit.SECONDS);
+        assertNotNull(body);
+        assertEquals(messageId.toString(), gson.fromJson(body, JsonObject.class).get("messageId").getAsString());
+        for (BlockingQueue<JsonObject> shardFrames : frames.values()) {
+            for (JsonObject frame : shardFrames) {
+                assertFalse(frame.has("@type") && "message-result".equals(frame.get("@type").getAsString()));
+            }
+        }
+    }
+
+    private void sendResult(Message message, String result) {
+        try {
+            httpModule.sendMessageResult(instanceId, message, result);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void awaitShards() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (serverWebSockets.size() < SHARDS) {
+            assertTrue(System.nanoTime() < deadline, "Not all shards connected");
+            Thread.sleep(10);
+        }
+        // server side onOpen may be called before client side one
+        Thread.sleep(100);
+    }
+
+    private BlockingQueue<JsonObject> framesOf(String shard) {
+        return frames.computeIfAbsent(shard, s -> new LinkedBlockingQueue<>());
+    }
+
+    private String webhookFrame(UUID frameId, UUID id) {
+        MessageDto dto = new MessageDto();
+        dto.setId(id);
+        dto.setWebhookId(UUID.randomUUID());
+        dto.setWebhookServiceId(UUID.randomUUID());
+        dto.setExpectedResult(true);
+        WebhookInboundMessage message = new WebhookInboundMessage();
+        message.setId(frameId);
+        message.setData(dto);
+        JsonObject frame = gson.toJsonTree(message).getAsJsonObject();
+        frame.addProperty("@type", WebhookInboundMessage.TYPE);
+        return gson.toJson(frame);
+    }
+}
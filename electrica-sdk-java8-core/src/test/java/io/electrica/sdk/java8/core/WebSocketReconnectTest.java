@@ -0,0 +1,120 @@
+package io.electrica.sdk.java8.core;
+
+import com.google.gson.Gson;
+import io.electrica.sdk.java8.api.impl.HashedWheelTimer;
+import okhttp3.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Server closes each connection right after it established.
+ */
+class WebSocketReconnectTest {
+
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private StandInServer server;
+    private SingleInstanceHttpModule httpModule;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new StandInServer();
+        server.onWebSocket(new WebSocketListener() {
+            @Override
+            public void onOpen(WebSocket webSocket, Response response) {
+                connections.incrementAndGet();
+                webSocket.close(4000, "test");
+            }
+
+            @Override
+            public void onClosing(WebSocket webSocket, int code, String reason) {
+                webSocket.close(code, reason);
+            }
+        });
+        httpModule = new SingleInstanceHttpModule(server.getApiUrl());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        httpModule.close();
+        server.close();
+    }
+
+    @Test
+    void testFlappingConnectionKeepsBackingOff() throws Exception {
+        httpModule.setWebSocketRetryStrategy(
+                new RetryStrategy.Exponential(3, 10, 20, TimeUnit.MINUTES.toMillis(1), TimeUnit.MILLISECONDS));
+        httpModule.initialize(UUID.randomUUID(), "test", "key");
+
+        Thread.sleep(1000);
+        // the first connection and three retries, connection isn't stable to reset retries
+        assertEquals(4, connections.get());
+    }
+
+    @Test
+    void testRetriesResetWithoutResetWindow() throws Exception {
+        httpModule.setWebSocketRetryStrategy(new RetryStrategy.Exponential(3, 10, 20, TimeUnit.MILLISECONDS));
+        httpModule.initialize(UUID.randomUUID(), "test", "key");
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (connections.get() <= 4) {
+            assertTrue(System.nanoTime() < deadline, "Connection isn't reestablished after retries reset");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void testFirstReconnectAfterDropDelayed() throws Exception {
+        BlockingQueue<Long> connectTimes = new LinkedBlockingQueue<>();
+        OkHttpClient httpClient = mock(OkHttpClient.class);
+        WebSocket webSocket = mock(WebSocket.class);
+        when(httpClient.newWebSocket(any(), any())).thenAnswer(invocation -> {
+            connectTimes.add(System.nanoTime());
+            return webSocket;
+        });
+        RetryStrategy retryStrategy = new RetryStrategy() {
+            @Override
+            public Optional<Long> getDelay(int retryNumber) {
+                return Optional.of(10L);
+            }
+
+            @Override
+            public long getFirstDelay() {
+                return 500;
+            }
+        };
+        WebSocketHandler handler = new WebSocketHandler(new Gson(), httpClient, retryStrategy,
+                HashedWheelTimer.shared(), mock(InstanceEventDispatcher.class), result -> {
+        }, 1000, server.getApiUrl(), UUID.randomUUID(), "test", "Bearer key");
+
+        // the first connection isn't delayed
+        assertNotNull(connectTimes.poll(10, TimeUnit.SECONDS));
+        WebSocketHandler.Shard shard = handler.shards[0];
+        shard.onOpen(webSocket, new Response.Builder()
+                .request(shard.request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(101)
+                .message("Switching Protocols")
+                .build());
+        // connection dropped without close handshake
+        long droppedAt = System.nanoTime();
+        shard.onFailure(webSocket, new EOFException(), null);
+
+        Long reconnectedAt = connectTimes.poll(10, TimeUnit.SECONDS);
+        assertNotNull(reconnectedAt);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(reconnectedAt - droppedAt) >= 450);
+        handler.closed = true;
+    }
+}
@@ -0,0 +1,167 @@
+package io.electrica.sdk.java8.core;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import io.electrica.sdk.java8.api.http.Message;
+import io.electrica.sdk.java8.core.dto.MessageDto;
+import io.electrica.sdk.java8.core.message.WebhookInboundMessage;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Headers;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Connection is dropped, while part of acks is still batched by client, and server redelivers unacked messages on
+ * reconnect. Resumed session redelivers only messages above watermark, that client sends back.
+ */
+@Slf4j
+class WebSocketSessionResumeTest {
+
+    private static final String TOKEN = "session-1";
+    private static final int MESSAGES = 50;
+    private static final int ACK_BATCH_SIZE = 20;
+
+    private final Gson gson = new Gson();
+    // unacked frames by sequence number
+    private final Map<Long, String> unacked = new ConcurrentSkipListMap<>();
+    private final Map<String, Long> sequences = new ConcurrentHashMap<>();
+    private final AtomicInteger acked = new AtomicInteger();
+    private final AtomicInteger redelivered = new AtomicInteger();
+    private final BlockingQueue<WebSocket> connections = new LinkedBlockingQueue<>();
+    private final CompletableFuture<String> resumeWatermark = new CompletableFuture<>();
+    private final ExecutorService eventExecutor = Executors.newSingleThreadExecutor();
+
+    private StandInServer server;
+    private SingleInstanceHttpModule httpModule;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        httpModule.close();
+        server.close();
+    }
+
+    @Test
+    void testResumedSessionRedeliversOnlyGap() throws Exception {
+        int count = simulateReconnect(true);
+        assertEquals(0, count);
+        assertEquals(Integer.toString(MESSAGES), resumeWatermark.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testUnresumedSessionRedeliversUnacked() throws Exception {
+        int count = simulateReconnect(false);
+        assertEquals(MESSAGES - MESSAGES / ACK_BATCH_SIZE * ACK_BATCH_SIZE, count);
+        assertFalse(resumeWatermark.isDone());
+    }
+
+    /**
+     * @return number of messages redelivered on reconnect
+     */
+    private int simulateReconnect(boolean resumable) throws Exception {
+        server = new StandInServer();
+        server.onWebSocket(new WebSocketListener() {
+            @Override
+            public void onOpen(WebSocket webSocket, Response response) {
+                // stand-in exposes upgrade request headers through response
+                String token = response.request().header(WebSocketHandler.INSTANCE_SESSION_HEADER);
+                long watermark = 0;
+                if (TOKEN.equals(token)) {
+                    String header = response.request().header(WebSocketHandler.INSTANCE_SESSION_WATERMARK_HEADER);
+                    resumeWatermark.complete(header);
+                    watermark = Long.parseLong(header);
+                }
+                for (Map.Entry<Long, String> entry : unacked.entrySet()) {
+                    if (entry.getKey() > watermark) {
+                        webSocket.send(entry.getValue());
+                        redelivered.incrementAndGet();
+                    }
+                }
+                connections.add(webSocket);
+            }
+
+            @Override
+            public void onMessage(WebSocket webSocket, String text) {
+                JsonObject frame = gson.fromJson(text, JsonObject.class);
+                if (frame.has("acks")) {
+                    for (JsonElement ack : frame.getAsJsonArray("acks")) {
+                        ack(ack.getAsJsonObject());
+                    }
+                } else if (frame.has("correlationId")) {
+                    ack(frame);
+                }
+            }
+
+            @Override
+            public void onClosing(WebSocket webSocket, int code, String reason) {
+                webSocket.close(code, reason);
+            }
+        }, request -> resumable ? Headers.of(WebSocketHandler.INSTANCE_SESSION_HEADER, TOKEN) : Headers.of());
+
+        httpModule = new SingleInstanceHttpModule(server.getApiUrl());
+        httpModule.setEventExecutor(eventExecutor);
+        // acks of the last partial batch are lost with connection
+        httpModule.setAckBatching(ACK_BATCH_SIZE, 1, TimeUnit.MINUTES);
+        httpModule.setWebSocketRetryStrategy(new RetryStrategy.Linear(3, 10, TimeUnit.MILLISECONDS));
+        UUID instanceId = UUID.randomUUID();
+        httpModule.initialize(instanceId, "test", "key");
+        BlockingQueue<Message> consumed = new LinkedBlockingQueue<>();
+        httpModule.addMessageListener(instanceId, m -> true, consumed::add);
+
+        WebSocket webSocket = connections.poll(10, TimeUnit.SECONDS);
+        for (long seq = 1; seq <= MESSAGES; seq++) {
+            UUID frameId = UUID.randomUUID();
+            String frame = webhookFrame(frameId, seq);
+            sequences.put(frameId.toString(), seq);
+            unacked.put(seq, frame);
+            webSocket.send(frame);
+        }
+        for (int i = 0; i < MESSAGES; i++) {
+            assertNotNull(consumed.poll(10, TimeUnit.SECONDS));
+        }
+        // the last consume task sends ack, so wait for it on single event thread
+        eventExecutor.submit(() -> {
+        }).get(10, TimeUnit.SECONDS);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (acked.get() < MESSAGES / ACK_BATCH_SIZE * ACK_BATCH_SIZE) {
+            assertTrue(System.nanoTime() < deadline, "Full ack batches aren't received");
+            Thread.sleep(10);
+        }
+
+        webSocket.close(4000, "test");
+        assertNotNull(connections.poll(10, TimeUnit.SECONDS), "Connection isn't reopened");
+        log.info("{} of {} messages redelivered on reconnect, session resumption {}", redelivered.get(), MESSAGES,
+                resumable ? "enabled" : "disabled");
+        return redelivered.get();
+    }
+
+    private void ack(JsonObject ack) {
+        Long seq = sequences.get(ack.get("correlationId").getAsString());
+        if (seq != null && ack.get("accepted").getAsBoolean() && unacked.remove(seq) != null) {
+            acked.incrementAndGet();
+        }
+    }
+
+    private String webhookFrame(UUID frameId, long seq) {
+        MessageDto dto = new MessageDto();
+        dto.setId(UUID.randomUUID());
+        dto.setExpectedResult(false);
+        WebhookInboundMessage message = new WebhookInboundMessage();
+        message.setId(frameId);
+        message.setData(dto);
+        JsonObject frame = gson.toJsonTree(message).getAsJsonObject();
+        frame.addProperty("@type", WebhookInboundMessage.TYPE);
+        frame.addProperty("seq", seq);
+        return gson.toJson(frame);
+    }
+}
@@ -0,0 +1,175 @@
+package io.electrica.sdk.java8.core;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import io.electrica.sdk.java8.api.http.Message;
+import io.electrica.sdk.java8.core.dto.MessageDto;
+import io.electrica.sdk.java8.core.message.WebhookInboundMessage;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebSocketShardsTest {
+
+    private static final int SHARDS = 3;
+    private static final int HIGH_WATERMARK = SHARDS + 1;
+
+    private final Gson gson = new Gson();
+    private final Map<String, WebSocket> serverWebSockets = new ConcurrentHashMap<>();
+    private final Set<String> shardCounts = ConcurrentHashMap.newKeySet();
+    private final BlockingQueue<UUID> acks = new LinkedBlockingQueue<>();
+    private final Map<WebSocket, BlockingQueue<Boolean>> flowControlSignals = new ConcurrentHashMap<>();
+
+    private StandInServer server;
+    private SingleInstanceHttpModule httpModule;
+    private UUID instanceId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new StandInServer();
+        server.onWebSocket(new WebSocketListener() {
+            @Override
+            public void onOpen(WebSocket webSocket, Response response) {
+                // stand-in exposes upgrade request headers through response
+                serverWebSockets.put(response.request().header(WebSocketHandler.INSTANCE_SHARD_HEADER), webSocket);
+                shardCounts.add(response.request().header(WebSocketHandler.INSTANCE_SHARD_COUNT_HEADER));
+            }
+
+            @Override
+            public void onMessage(WebSocket webSocket, String text) {
+                JsonObject frame = gson.fromJson(text, JsonObject.class);
+                if (frame.has("correlationId")) {
+                    acks.add(UUID.fromString(frame.get("correlationId").getAsString()));
+                } else if (frame.has("@type") && "flow-control".equals(frame.get("@type").getAsString())) {
+                    flowControlSignals.computeIfAbsent(webSocket, ws -> new LinkedBlockingQueue<>())
+                            .add(frame.get("paused").getAsBoolean());
+                }
+            }
+
+            @Override
+            public void onClosing(WebSocket webSocket, int code, String reason) {
+                webSocket.close(code, reason);
+            }
+        });
+
+        httpModule = new SingleInstanceHttpModule(server.getApiUrl());
+        httpModule.setWebSocketShards(SHARDS);
+        httpModule.setEventBackpressure(HIGH_WATERMARK, 0, 100);
+        httpModule.setWebSocketRetryStrategy(new RetryStrategy.Linear(3, 10, TimeUnit.MILLISECONDS));
+        instanceId = UUID.randomUUID();
+        httpModule.initialize(instanceId, "test", "key");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        httpModule.close();
+        server.close();
+    }
+
+    @Test
+    void testMessagesOfAllShardsDispatched() throws Exception {
+        BlockingQueue<Message> consumed = new LinkedBlockingQueue<>();
+        httpModule.addMessageListener(instanceId, m -> true, consumed::add);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (serverWebSockets.size() < SHARDS) {
+            assertTrue(System.nanoTime() < deadline, "Not all shards connected");
+            Thread.sleep(10);
+        }
+        assertEquals(new HashSet<>(Arrays.asList("0", "1", "2")), serverWebSockets.keySet());
+        assertEquals(Collections.singleton(Integer.toString(SHARDS)), shardCounts);
+
+        Set<UUID> sent = new HashSet<>();
+        Set<UUID> sentFrames = new HashSet<>();
+        for (WebSocket webSocket : serverWebSockets.values()) {
+            UUID id = UUID.randomUUID();
+            UUID frameId = UUID.randomUUID();
+            sent.add(id);
+            sentFrames.add(frameId);
+            webSocket.send(webhookFrame(frameId, id));
+        }
+
+        Set<UUID> received = new HashSet<>();
+        Set<UUID> acked = new HashSet<>();
+        for (int i = 0; i < SHARDS; i++) {
+            received.add(consumed.poll(10, TimeUnit.SECONDS).getId());
+            acked.add(acks.poll(10, TimeUnit.SECONDS));
+        }
+        assertEquals(sent, received);
+        assertEquals(sentFrames, acked);
+    }
+
+    @Test
+    void testShardReconnectsIndependently() throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (serverWebSockets.size() < SHARDS) {
+            assertTrue(System.nanoTime() < deadline, "Not all shards connected");
+            Thread.sleep(10);
+        }
+        WebSocket dropped = serverWebSockets.get("1");
+        WebSocket kept = serverWebSockets.get("0");
+        dropped.close(4000, "test");
+
+        while (serverWebSockets.get("1") == dropped) {
+            assertTrue(System.nanoTime() < deadline, "Shard isn't reconnected");
+            Thread.sleep(10);
+        }
+        assertSame(kept, serverWebSockets.get("0"));
+    }
+
+    @Test
+    void testFlowControlSentThroughAllShards() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        httpModule.addMessageListener(instanceId, m -> true, m -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (serverWebSockets.size() < SHARDS) {
+            assertTrue(System.nanoTime() < deadline, "Not all shards connected");
+            Thread.sleep(10);
+        }
+
+        // all messages are delivered by one shard, but others must stop delivery too
+        WebSocket delivering = serverWebSockets.get("0");
+        for (int i = 0; i < HIGH_WATERMARK; i++) {
+            delivering.send(webhookFrame(UUID.randomUUID(), UUID.randomUUID()));
+        }
+        for (WebSocket webSocket : serverWebSockets.values()) {
+            assertEquals(Boolean.TRUE, pollFlowControl(webSocket));
+        }
+
+        release.countDown();
+        for (WebSocket webSocket : serverWebSockets.values()) {
+            assertEquals(Boolean.FALSE, pollFlowControl(webSocket));
+        }
+    }
+
+    private Boolean pollFlowControl(WebSocket webSocket) throws InterruptedException {
+        return flowControlSignals.computeIfAbsent(webSocket, ws -> new LinkedBlockingQueue<>())
+                .poll(10, TimeUnit.SECONDS);
+    }
+
+    private String webhookFrame(UUID frameId, UUID id) {
+        MessageDto dto = new MessageDto();
+        dto.setId(id);
+        dto.setExpectedResult(false);
+        WebhookInboundMessage message = new WebhookInboundMessage();
+        message.setId(frameId);
+        message.setData(dto);
+        JsonObject frame = gson.toJsonTree(message).getAsJsonObject();
+        frame.addProperty("@type", WebhookInboundMessage.TYPE);
+        return gson.toJson(frame);
+    }
+}
@@ -0,0 +1,48 @@
+package io.electrica.sdk.java8.core.dto;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageImplTest {
+
+    private final Gson gson = new Gson();
+
+    @Test
+    void testPropertiesParsedOnce() {
+        MessageDto dto = new MessageDto();
+        dto.setProperties(new JsonParser().parse("{\"a\":\"1\",\"b\":\"2\"}"));
+        MessageImpl message = new MessageImpl(gson, dto);
+
+        Map<String, String> properties = message.getPropertiesMap();
+        assertEquals("1", properties.get("a"));
+        assertEquals("2", properties.get("b"));
+        assertSame(properties, message.getPropertiesMap());
+        assertThrows(UnsupportedOperationException.class, () -> properties.put("c", "3"));
+    }
+
+    @Test
+    void testEmptyProperties() {
+        MessageImpl message = new MessageImpl(gson, new MessageDto());
+
+        assertEquals(Collections.emptyMap(), message.getPropertiesMap());
+    }
+
+    @Test
+    void testPayloadParsedOnce() {
+        MessageDto dto = new MessageDto();
+        dto.setPayload("{\"value\":[1,2]}");
+        MessageImpl message = new MessageImpl(gson, dto);
+
+        JsonElement payload = message.getPayloadJson();
+        assertEquals(2, payload.getAsJsonObject().getAsJsonArray("value").size());
+        assertSame(payload, message.getPayloadJson());
+        assertTrue(new MessageImpl(gson, new MessageDto()).getPayloadJson().isJsonNull());
+    }
+}
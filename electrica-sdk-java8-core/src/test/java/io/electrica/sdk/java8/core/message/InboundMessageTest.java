@@ -0,0 +1,74 @@
+package io.electrica.sdk.java8.core.message;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import io.electrica.sdk.java8.api.http.Message;
+import io.electrica.sdk.java8.core.dto.MessageDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InboundMessageTest {
+
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapterFactory(InboundMessage.TYPE_ADAPTER_FACTORY)
+            .create();
+
+    private final UUID id = UUID.randomUUID();
+    private final UUID messageId = UUID.randomUUID();
+    private final String data = "{\"id\":\"" + messageId + "\",\"scope\":\"Connection\",\"connectionId\":7," +
+            "\"properties\":{\"a\":\"b\"},\"payload\":\"{\\\"big\\\":true}\"}";
+
+    @Test
+    void testDecodeWebhookWithLeadingDiscriminator() {
+        String json = "{\"@type\":\"webhook\",\"id\":\"" + id + "\",\"unknown\":[1,{}],\"data\":" + data + "}";
+
+        assertWebhook(gson.fromJson(json, InboundMessage.class));
+    }
+
+    @Test
+    void testDecodeWebhookWithTrailingDiscriminator() {
+        String json = "{\"data\":" + data + ",\"id\":\"" + id + "\",\"@type\":\"webhook\"}";
+
+        assertWebhook(gson.fromJson(json, InboundMessage.class));
+    }
+
+    @Test
+    void testDecodeResult() {
+        UUID invocationId = UUID.randomUUID();
+        String json = "{\"@type\":\"result\",\"id\":\"" + id + "\",\"data\":{\"invocationId\":\"" + invocationId +
+                "\",\"success\":true,\"result\":{\"value\":1}}}";
+
+        InboundMessage message = gson.fromJson(json, InboundMessage.class);
+
+        assertTrue(message instanceof ResultInboundMessage);
+        assertEquals(id, message.getId());
+        ResultMessage<?> result = ((ResultInboundMessage) message).getData();
+        assertEquals(invocationId, result.getInvocationId());
+        assertTrue(result.getSuccess());
+        assertEquals(1, ((JsonObject) result.getResult()).get("value").getAsInt());
+    }
+
+    @Test
+    void testUnsupportedOrMissingType() {
+        assertThrows(JsonParseException.class, () -> gson.fromJson("{\"@type\":\"unknown\",\"data\":{}}",
+                InboundMessage.class));
+        assertThrows(JsonParseException.class, () -> gson.fromJson("{\"id\":\"" + id + "\",\"data\":{}}",
+                InboundMessage.class));
+    }
+
+    private void assertWebhook(InboundMessage message) {
+        assertTrue(message instanceof WebhookInboundMessage);
+        assertEquals(id, message.getId());
+        MessageDto dto = ((WebhookInboundMessage) message).getData();
+        assertEquals(messageId, dto.getId());
+        assertEquals(Message.Scope.Connection, dto.getScope());
+        assertEquals(Long.valueOf(7), dto.getConnectionId());
+        assertEquals("b", dto.getProperties().getAsJsonObject().get("a").getAsString());
+        assertEquals("{\"big\":true}", dto.getPayload());
+    }
+}
@@ -0,0 +1,67 @@
+package io.electrica.sdk.java8.core.message;
+
+import com.google.gson.*;
+import io.electrica.sdk.java8.api.http.Message;
+import io.electrica.sdk.java8.core.dto.MessageDto;
+import okio.ByteString;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessagePackCodecTest {
+
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapterFactory(InboundMessage.TYPE_ADAPTER_FACTORY)
+            .create();
+    private final MessagePackCodec codec = new MessagePackCodec(gson);
+
+    private final UUID id = UUID.randomUUID();
+    private final UUID messageId = UUID.randomUUID();
+
+    @Test
+    void testDecodeWebhookWithTrailingDiscriminator() {
+        String json = "{\"data\":{\"id\":\"" + messageId + "\",\"scope\":\"Connection\",\"connectionId\":7," +
+                "\"isPublic\":null,\"expectedResult\":true,\"unknown\":[1,2.5,{\"a\":[]}]," +
+                "\"properties\":{\"a\":\"b\",\"n\":-3,\"f\":0.5,\"l\":[true,null]}," +
+                "\"payload\":\"{\\\"big\\\":true}\"}," +
+                "\"id\":\"" + id + "\",\"@type\":\"webhook\"}";
+        ByteString frame = codec.encode(gson.fromJson(json, JsonElement.class));
+
+        InboundMessage message = codec.decode(frame, InboundMessage.class);
+
+        assertTrue(message instanceof WebhookInboundMessage);
+        assertEquals(id, message.getId());
+        MessageDto dto = ((WebhookInboundMessage) message).getData();
+        assertEquals(messageId, dto.getId());
+        assertEquals(Message.Scope.Connection, dto.getScope());
+        assertEquals(Long.valueOf(7), dto.getConnectionId());
+        assertNull(dto.getIsPublic());
+        assertTrue(dto.getExpectedResult());
+        assertEquals(gson.fromJson("{\"a\":\"b\",\"n\":-3,\"f\":0.5,\"l\":[true,null]}", JsonElement.class),
+                dto.getProperties());
+        assertEquals("{\"big\":true}", dto.getPayload());
+    }
+
+    @Test
+    void testEncodeAcks() {
+        BatchAckOutboundMessage batch = new BatchAckOutboundMessage(Arrays.asList(
+                new AckOutboundMessage(UUID.randomUUID(), true),
+                new AckOutboundMessage(UUID.randomUUID(), false)
+        ));
+
+        ByteString frame = codec.encode(batch);
+
+        assertEquals(gson.toJsonTree(batch), codec.decode(frame, JsonObject.class));
+        assertTrue(frame.size() < gson.toJson(batch).length());
+    }
+
+    @Test
+    void testMalformedFrame() {
+        assertThrows(JsonParseException.class, () -> codec.decode(ByteString.of((byte) 0xc1), InboundMessage.class));
+        ByteString notObject = codec.encode(new JsonPrimitive("webhook"));
+        assertThrows(JsonParseException.class, () -> codec.decode(notObject, InboundMessage.class));
+    }
+}
@@ -0,0 +1,92 @@
+package io.electrica.sdk.java8.core.message;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultMessageDecoderTest {
+
+    private final Gson gson = new Gson();
+    private final ResultMessageDecoder decoder = new ResultMessageDecoder(gson);
+
+    @Test
+    void testDecodeGenericResult() throws Exception {
+        UUID invocationId = UUID.randomUUID();
+        String json = "{\"invocationId\":\"" + invocationId + "\",\"connectionId\":5,\"unknown\":{\"a\":[1]}," +
+                "\"result\":[{\"name\":\"a\",\"size\":1},{\"name\":\"b\",\"size\":2}],\"success\":true}";
+        Type type = new TypeToken<List<Item>>() {
+        }.getType();
+
+        ResultMessage<List<Item>> message = decoder.decode(reader(json), type);
+
+        assertEquals(invocationId, message.getInvocationId());
+        assertEquals(Long.valueOf(5), message.getConnectionId());
+        assertTrue(message.getSuccess());
+        assertEquals(Arrays.asList(new Item("a", 1), new Item("b", 2)), message.getResult());
+    }
+
+    @Test
+    void testDecodeVoidResultSkipsValue() throws Exception {
+        String json = "{\"result\":{\"ignored\":true},\"success\":true}";
+
+        ResultMessage<Void> message = decoder.decode(reader(json), Void.class);
+
+        assertNull(message.getResult());
+        assertTrue(message.getSuccess());
+    }
+
+    @Test
+    void testDecodeError() throws Exception {
+        String json = "{\"success\":false,\"result\":null," +
+                "\"error\":{\"code\":\"code\",\"message\":\"message\",\"payload\":[\"p\"]}}";
+
+        ResultMessage<String> message = decoder.decode(reader(json), String.class);
+
+        assertFalse(message.getSuccess());
+        assertNull(message.getResult());
+        assertEquals("code", message.getError().getCode());
+        assertEquals("message", message.getError().getMessage());
+        assertEquals(Arrays.asList("p"), message.getError().getPayload());
+    }
+
+    private JsonReader reader(String json) {
+        return gson.newJsonReader(new StringReader(json));
+    }
+
+    private static class Item {
+
+        private final String name;
+        private final int size;
+
+        private Item(String name, int size) {
+            this.name = name;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Item item = (Item) o;
+            return size == item.size && name.equals(item.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode() * 31 + size;
+        }
+    }
+}
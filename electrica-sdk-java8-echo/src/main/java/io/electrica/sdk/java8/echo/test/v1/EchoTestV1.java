@@ -6,6 +6,7 @@ import io.electrica.sdk.java8.api.exception.IntegrationException;
 import io.electrica.sdk.java8.echo.test.v1.model.*;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -42,6 +43,24 @@ public class EchoTestV1 implements AutoCloseable {
         );
     }
 
+    public CompletableFuture<Void> pingAsync() {
+        return pingAsync(false);
+    }
+
+    public CompletableFuture<Void> pingAsync(boolean throwException) {
+        return pingAsync(throwException, 60L, TimeUnit.SECONDS);
+    }
+
+    public CompletableFuture<Void> pingAsync(boolean throwException, long timeout, TimeUnit unit) {
+        return connection.invokeAsync(
+                EchoTestV1Action.PING,
+                new EchoTestV1PingParameters().throwException(throwException),
+                null,
+                timeout,
+                unit
+        );
+    }
+
     public void asyncPing(Callback<Void> callback) throws IOException {
         asyncPing(false, callback);
     }
@@ -81,6 +100,25 @@ public class EchoTestV1 implements AutoCloseable {
         ).getMessage();
     }
 
+    public CompletableFuture<String> echoAsync(String message) {
+        return echoAsync(message, false);
+    }
+
+    public CompletableFuture<String> echoAsync(String message, boolean throwException) {
+        return echoAsync(message, throwException, 60L, TimeUnit.SECONDS);
+    }
+
+    public CompletableFuture<String> echoAsync(String message, boolean throwException, long timeout, TimeUnit unit) {
+        return connection.invokeAsync(
+                EchoTestV1SendResult.class,
+                EchoTestV1Action.SEND,
+                new EchoTestV1SendParameters().throwException(throwException),
+                new EchoTestV1SendPayload().message(message),
+                timeout,
+                unit
+        ).thenApply(EchoTestV1SendResult::getMessage);
+    }
+
     public void asyncEcho(String message, Callback<String> resultHandler) throws IOException {
         asyncEcho(message, false, resultHandler);
     }
@@ -10,6 +10,7 @@ import io.electrica.sdk.java8.hackerrank.v3.candidates.v1.model.HackerRankV3Test
 
 import javax.annotation.concurrent.ThreadSafe;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -70,6 +71,29 @@ public class HackerRankV3Candidates implements AutoCloseable {
         );
     }
 
+    /**
+     * Invite a candidate to test and return future of the result.
+     *
+     * @param timeout The amount of time to wait on HackerRank to return the result
+     * @param unit    The unit of time to wait on HackerRank to return the result
+     * @return future of <code>HackerRankV3TestInvitationResponse</code>
+     */
+    public CompletableFuture<HackerRankV3TestInvitationResponse> inviteAsync(
+            int testID,
+            HackerRankV3TestCandidateInvite invitation,
+            long timeout,
+            TimeUnit unit
+    ) {
+        return connection.invokeAsync(
+                HackerRankV3TestInvitationResponse.class,
+                HackerRankV3CandidatesAction.INVITECANDIDATE,
+                null,
+                new HackerRankV3TestCandidatePayload().testId(testID).body(invitation),
+                timeout,
+                unit
+        );
+    }
+
     @Override
     public void close() throws Exception {
         connection.close();
@@ -7,6 +7,7 @@ import io.electrica.sdk.java8.hackerrank.v3.tests.v1.model.*;
 
 import javax.annotation.concurrent.ThreadSafe;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -65,6 +66,25 @@ public class HackerRankV3Tests implements AutoCloseable {
         );
     }
 
+    /**
+     * Fetch all tests for a connection from the HackerRank API and return future of the result.
+     *
+     * @param timeout The amount of time to wait on HackerRank to return the result
+     * @param unit    The unit of time to wait on HackerRank to return the result
+     * @return future of <code>HackerRankV3TestsIndexResponse</code>
+     */
+    public CompletableFuture<HackerRankV3TestsIndexResponse> getAllAsync(int limit, int offset, long timeout,
+                                                                         TimeUnit unit) {
+        return connection.invokeAsync(
+                HackerRankV3TestsIndexResponse.class,
+                HackerRankV3TestsAction.TESTSINDEX,
+                null,
+                new LimitOffset().limit(limit).offset(offset),
+                timeout,
+                unit
+        );
+    }
+
     /**
      * Asynchronously fetch an individual test from the HackerRank API.
      * <p>
@@ -108,6 +128,25 @@ public class HackerRankV3Tests implements AutoCloseable {
         );
     }
 
+    /**
+     * Fetch an individual test from the HackerRank API and return future of the result.
+     *
+     * @param id      The test ID
+     * @param timeout The amount of time to wait on HackerRank to return the result
+     * @param unit    The unit of time to wait on HackerRank to return the result
+     * @return future of <code>HackerRankV3TestsShowResponse</code>
+     */
+    public CompletableFuture<HackerRankV3TestsShowResponse> getOneAsync(int id, long timeout, TimeUnit unit) {
+        return connection.invokeAsync(
+                HackerRankV3TestsShowResponse.class,
+                HackerRankV3TestsAction.TESTSSHOW,
+                null,
+                new HackerRankV3TestsShowPayload().id(id),
+                timeout,
+                unit
+        );
+    }
+
     @Override
     public void close() throws Exception {
         connection.close();
@@ -8,6 +8,7 @@ import io.electrica.sdk.java8.slack.channel.v1.model.SlackChannelV1SendTextPaylo
 
 import javax.annotation.concurrent.ThreadSafe;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -51,6 +52,20 @@ public class SlackChannelV1 implements AutoCloseable {
         );
     }
 
+    public CompletableFuture<Void> sendAsync(String message) {
+        return sendAsync(message, timeout, TimeUnit.MILLISECONDS);
+    }
+
+    public CompletableFuture<Void> sendAsync(String message, long timeout, TimeUnit unit) {
+        return connection.invokeAsync(
+                SlackChannelV1Action.SENDTEXT,
+                null,
+                new SlackChannelV1SendTextPayload().message(message),
+                timeout,
+                unit
+        );
+    }
+
     public void submit(String message, Callback<Void> callback) throws IOException {
         connection.submit(
                 SlackChannelV1Action.SENDTEXT,